@@ -0,0 +1,32 @@
+package workshop.spring.apirest.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.data.r2dbc.config.EnableR2dbcAuditing;
+
+/**
+ * ⚡ GUILDA REATIVA
+ *
+ * Variante da API da Guilda em WebFlux e R2DBC, com as mesmas rotas de {@code /aventureiros}
+ * e a mesma tabela {@code aventureiro} do módulo {@code apirest}.
+ *
+ * Diferença principal: nenhuma thread fica parada esperando o banco. Poucas threads (uma por
+ * núcleo) atendem todas as requisições, e uma conexão só fica ocupada enquanto um comando
+ * está realmente em execução, não durante toda a requisição.
+ *
+ * @EnableR2dbcAuditing preenche {@code atualizado_em} a cada INSERT e UPDATE feitos pelo
+ * repositório (o equivalente ao @PreUpdate do JPA).
+ */
+@SpringBootApplication
+@EnableR2dbcAuditing
+public class ApiReativaApplication {
+
+    /**
+     * 🚀 Ponto de entrada da aplicação (servidor Netty na porta 8081)
+     *
+     * @param args Argumentos de linha de comando (opcional)
+     */
+    public static void main(String[] args) {
+        SpringApplication.run(ApiReativaApplication.class, args);
+    }
+}
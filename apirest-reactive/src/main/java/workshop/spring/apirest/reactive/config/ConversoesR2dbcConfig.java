@@ -0,0 +1,59 @@
+package workshop.spring.apirest.reactive.config;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.DialectResolver;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
+import workshop.spring.apirest.reactive.entity.ClasseRPG;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 🔄 CONVERSÕES DO R2DBC
+ *
+ * No H2, a coluna {@code classe} criada pelas migrações do módulo {@code apirest} é um
+ * {@code ENUM}, e o driver r2dbc-h2 envia todo parâmetro String como CLOB, que o H2 não
+ * converte para ENUM (nem no INSERT, nem no {@code WHERE classe = ?}). Por isso, só no H2,
+ * a classe vai como o número da sua posição no ENUM, que o H2 aceita nos dois casos.
+ *
+ * No MySQL nada muda: o driver envia o nome da constante como texto.
+ */
+@Configuration
+public class ConversoesR2dbcConfig {
+
+    /**
+     * Substitui as conversões criadas pelo Spring Boot, com as mesmas do dialeto e, no H2,
+     * a da classe.
+     *
+     * @param connectionFactory Conexões do banco, usadas para descobrir o dialeto
+     * @return As conversões usadas pelo Spring Data R2DBC
+     */
+    @Bean
+    public R2dbcCustomConversions r2dbcCustomConversions(ConnectionFactory connectionFactory) {
+        R2dbcDialect dialeto = DialectResolver.getDialect(connectionFactory);
+        List<Object> conversores = dialeto instanceof H2Dialect ? List.of(new ClasseParaPosicaoNoEnum()) : List.of();
+        return R2dbcCustomConversions.of(dialeto, conversores);
+    }
+
+    /**
+     * Converte a classe para a posição (a partir de 1) do seu nome na coluna. As migrações
+     * declaram os valores do ENUM em ordem alfabética, que não é a ordem das constantes.
+     */
+    @WritingConverter
+    static class ClasseParaPosicaoNoEnum implements Converter<ClasseRPG, Integer> {
+
+        private static final List<String> VALORES_DA_COLUNA =
+                Arrays.stream(ClasseRPG.values()).map(Enum::name).sorted().toList();
+
+        @Override
+        public Integer convert(ClasseRPG classe) {
+            return VALORES_DA_COLUNA.indexOf(classe.name()) + 1;
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package workshop.spring.apirest.reactive.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import workshop.spring.apirest.reactive.dto.ItemLote;
+import workshop.spring.apirest.reactive.dto.PosicaoRanking;
+import workshop.spring.apirest.reactive.dto.ResultadoLote;
+import workshop.spring.apirest.reactive.entity.Aventureiro;
+import workshop.spring.apirest.reactive.entity.ClasseRPG;
+import workshop.spring.apirest.reactive.service.AventureiroService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🎮 CONTROLLER REATIVO: GERENCIADOR DE AVENTUREIROS
+ *
+ * As mesmas rotas de {@code /aventureiros} do módulo {@code apirest}, com os mesmos códigos
+ * de resposta, servidas pelo WebFlux. Os métodos devolvem {@link Mono} ou {@link Flux} em vez
+ * do valor pronto: a thread do servidor monta a resposta, volta a atender outras conexões e
+ * o resultado é escrito quando o banco responder.
+ *
+ * Listagens devolvem um Flux: cada aventureiro é escrito no JSON assim que sai do banco,
+ * e a leitura do banco anda no ritmo da escrita para o cliente (backpressure). Uma listagem
+ * grande não precisa caber em memória, nem no servidor nem no driver.
+ *
+ * Rotas do módulo {@code apirest} que não existem aqui: paginação por cursor, ETags,
+ * {@code /estatisticas}, {@code /ranking/{id}} e {@code /indice/classes/*}.
+ */
+@RestController
+@RequestMapping("/aventureiros")
+public class AventureiroController {
+
+    private final AventureiroService aventureiroService;
+
+    /**
+     * Conversor JSON do Spring, usado para transformar cada item do lote em Aventureiro.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param aventureiroService O serviço reativo de aventureiros
+     * @param objectMapper O conversor JSON configurado pelo Spring Boot
+     */
+    @Autowired
+    public AventureiroController(AventureiroService aventureiroService, ObjectMapper objectMapper) {
+        this.aventureiroService = aventureiroService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 📋 LISTAR TODOS OS AVENTUREIROS
+     *
+     * Rota: GET /aventureiros/listar
+     *
+     * Com {@code Accept: application/json} a resposta é um array JSON escrito aos poucos;
+     * com {@code Accept: application/x-ndjson}, um aventureiro por linha.
+     *
+     * @return Os aventureiros em ordem de ID, com status 200 (OK)
+     */
+    @GetMapping(value = "/listar", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Aventureiro> listarAventureiros() {
+        return aventureiroService.findAll();
+    }
+
+    /**
+     * 📤 EXPORTAR TODOS OS AVENTUREIROS
+     *
+     * Rota: GET /aventureiros/exportar
+     *
+     * Um aventureiro por linha (NDJSON), escrito assim que é lido do banco.
+     *
+     * @return Os aventureiros em ordem de ID
+     */
+    @GetMapping(value = "/exportar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Aventureiro> exportarAventureiros() {
+        return aventureiroService.findAll();
+    }
+
+    /**
+     * ✨ CRIAR NOVO AVENTUREIRO
+     *
+     * Rota: POST /aventureiros/criar
+     *
+     * @param aventureiro Objeto JSON com os dados do aventureiro
+     * @return O aventureiro criado com status 201 (Created), ou 400 se os dados forem
+     *         inválidos ou o nome já estiver em uso
+     */
+    @PostMapping("/criar")
+    public Mono<ResponseEntity<Aventureiro>> criarAventureiro(@RequestBody Aventureiro aventureiro) {
+        return aventureiroService.create(aventureiro)
+                .map(novoAventureiro -> new ResponseEntity<>(novoAventureiro, HttpStatus.CREATED))
+                // Dados inválidos ou nome repetido
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST)));
+    }
+
+    /**
+     * 📦 CRIAR AVENTUREIROS EM LOTE
+     *
+     * Rota: POST /aventureiros/criar/lote
+     *
+     * Aceita um array JSON ou NDJSON, como no módulo {@code apirest}. O corpo é decodificado
+     * item a item enquanto chega; itens inválidos aparecem em {@code falhas} e os demais
+     * são salvos. Se o JSON estiver malformado, a falha é reportada e a leitura termina ali.
+     *
+     * @param corpo Os objetos JSON do corpo, na ordem em que chegam
+     * @return Resumo com quantidades recebidas, criadas e as falhas, com status 200 (OK)
+     */
+    @PostMapping(value = "/criar/lote", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<ResultadoLote>> criarAventureirosEmLote(@RequestBody Flux<JsonNode> corpo) {
+        AtomicLong lidos = new AtomicLong();
+        Flux<ItemLote> itens = corpo
+                .map(no -> converter(lidos.getAndIncrement(), no))
+                // O decodificador não sabe onde começa o próximo item: a falha encerra a leitura
+                .onErrorResume(DecodingException.class, e ->
+                        Mono.just(ItemLote.invalido(lidos.get(), "JSON malformado: " + e.getMessage())));
+        return aventureiroService.criarEmLote(itens)
+                .map(resultado -> new ResponseEntity<>(resultado, HttpStatus.OK));
+    }
+
+    /**
+     * Converte um objeto do lote em Aventureiro; um item inválido não interrompe a leitura.
+     */
+    private ItemLote converter(long indice, JsonNode no) {
+        try {
+            return ItemLote.valido(indice, objectMapper.treeToValue(no, Aventureiro.class));
+        } catch (JacksonException e) {
+            // Erros dos setters (ex: nível negativo) chegam embrulhados pelo Jackson
+            Throwable causa = e.getCause() != null ? e.getCause() : e;
+            String motivo = causa instanceof IllegalArgumentException ? causa.getMessage() : e.getOriginalMessage();
+            return ItemLote.invalido(indice, motivo);
+        }
+    }
+
+    /**
+     * Atualiza os dados de um aventureiro existente.
+     *
+     * Rota: PUT /aventureiros/atualizar
+     *
+     * @param aventureiro Dados atualizados do aventureiro (no corpo da requisição)
+     * @return O aventureiro atualizado com status 200 (OK), 400 se os dados forem inválidos,
+     *         404 se não existir ou 409 se a versão estiver desatualizada ou o nome em uso
+     */
+    @PutMapping("/atualizar")
+    public Mono<ResponseEntity<Aventureiro>> atualizarAventureiro(@RequestBody Aventureiro aventureiro) {
+        return aventureiroService.update(aventureiro)
+                .map(aventureiroAtualizado -> new ResponseEntity<>(aventureiroAtualizado, HttpStatus.OK))
+                .onErrorResume(e -> Mono.just(new ResponseEntity<>(statusDoErro(e))));
+    }
+
+    /**
+     * Mesma correspondência entre erros e status do controlador do módulo {@code apirest}.
+     */
+    private HttpStatus statusDoErro(Throwable erro) {
+        if (erro instanceof OptimisticLockingFailureException || erro instanceof DataIntegrityViolationException) {
+            // Versão desatualizada ou nome repetido gravado por outra requisição
+            return HttpStatus.CONFLICT;
+        }
+        if (erro instanceof IllegalArgumentException) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        return HttpStatus.NOT_FOUND;
+    }
+
+    /**
+     * 🗑️ REMOVER AVENTUREIRO
+     *
+     * Rota: DELETE /aventureiros/deletar/{id}
+     *
+     * @param id ID do aventureiro a ser removido
+     * @return Status 204 (No Content)
+     */
+    @DeleteMapping("/deletar/{id}")
+    public Mono<ResponseEntity<Void>> deletarAventureiro(@PathVariable Long id) {
+        return aventureiroService.delete(id)
+                .thenReturn(new ResponseEntity<>(HttpStatus.NO_CONTENT));
+    }
+
+    /**
+     * @param id ID do aventureiro
+     * @return O aventureiro com status 200 (OK), ou 404 se não existir
+     * @apiNote GET /aventureiros/buscar/id/{id}
+     */
+    @GetMapping("/buscar/id/{id}")
+    public Mono<ResponseEntity<Aventureiro>> buscarAventureiroPorId(@PathVariable Long id) {
+        return aventureiroService.findById(id)
+                .map(aventureiro -> new ResponseEntity<>(aventureiro, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * @param nome Nome exato do aventureiro
+     * @return O aventureiro com status 200 (OK), ou 404 se não existir
+     * @apiNote GET /aventureiros/buscar/nome/{nome}
+     */
+    @GetMapping("/buscar/nome/{nome}")
+    public Mono<ResponseEntity<Aventureiro>> buscarAventureiroPorNome(@PathVariable String nome) {
+        return aventureiroService.findByNome(nome)
+                .map(aventureiro -> new ResponseEntity<>(aventureiro, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(new ResponseEntity<>(HttpStatus.NOT_FOUND)));
+    }
+
+    /**
+     * @param classe Classe dos aventureiros a serem buscados
+     * @param limite Quantidade máxima de resultados (opcional, sem limite se ausente)
+     * @return Os aventureiros da classe, em ordem de ID, com status 200 (OK)
+     * @apiNote GET /aventureiros/buscar/classe/{classe}
+     */
+    @GetMapping("/buscar/classe/{classe}")
+    public Flux<Aventureiro> buscarAventureirosPorClasse(@PathVariable ClasseRPG classe,
+                                                         @RequestParam(required = false) Integer limite) {
+        return aventureiroService.findByClasse(classe, limite);
+    }
+
+    /**
+     * @param nivel Nível dos aventureiros a serem buscados
+     * @param limite Quantidade máxima de resultados (opcional, sem limite se ausente)
+     * @return Os aventureiros do nível, em ordem de ID, com status 200 (OK)
+     * @apiNote GET /aventureiros/buscar/nivel/{nivel}
+     */
+    @GetMapping("/buscar/nivel/{nivel}")
+    public Flux<Aventureiro> buscarAventureirosPorNivel(@PathVariable Integer nivel,
+                                                        @RequestParam(required = false) Integer limite) {
+        return aventureiroService.findByNivel(nivel, limite);
+    }
+
+    /**
+     * @param xp Quantidade exata de XP
+     * @param limite Quantidade máxima de resultados (opcional, sem limite se ausente)
+     * @return Os aventureiros com esse XP, em ordem de ID, com status 200 (OK)
+     * @apiNote GET /aventureiros/buscar/xp/{xp}
+     */
+    @GetMapping("/buscar/xp/{xp}")
+    public Flux<Aventureiro> buscarAventureirosPorXp(@PathVariable Integer xp,
+                                                     @RequestParam(required = false) Integer limite) {
+        return aventureiroService.findByXp(xp, limite);
+    }
+
+    /**
+     * @param min Menor nível aceito
+     * @param max Maior nível aceito
+     * @param limite Quantidade máxima de resultados (opcional, padrão {@value AventureiroService#LIMITE_PADRAO})
+     * @return Os aventureiros na faixa com status 200 (OK), ou 400 se a faixa for inválida
+     * @apiNote GET /aventureiros/buscar/nivel/entre
+     */
+    @GetMapping("/buscar/nivel/entre")
+    public Flux<Aventureiro> buscarAventureirosPorFaixaDeNivel(@RequestParam Integer min,
+                                                               @RequestParam Integer max,
+                                                               @RequestParam(required = false) Integer limite) {
+        return aventureiroService.findByNivelEntre(min, max, limite);
+    }
+
+    /**
+     * @param nivel Nível dos aventureiros
+     * @param xp XP mínimo (exclusivo)
+     * @param limite Quantidade máxima de resultados (opcional, padrão {@value AventureiroService#LIMITE_PADRAO})
+     * @return Os aventureiros encontrados com status 200 (OK), ou 400 se o limite for inválido
+     * @apiNote GET /aventureiros/buscar/nivel/{nivel}/xp/acima/{xp}
+     */
+    @GetMapping("/buscar/nivel/{nivel}/xp/acima/{xp}")
+    public Flux<Aventureiro> buscarAventureirosPorNivelEXpAcima(@PathVariable Integer nivel,
+                                                                @PathVariable Integer xp,
+                                                                @RequestParam(required = false) Integer limite) {
+        return aventureiroService.findByNivelEXpAcima(nivel, xp, limite);
+    }
+
+    /**
+     * @param classe Classe dos aventureiros
+     * @param min Menor nível aceito
+     * @param max Maior nível aceito
+     * @param limite Quantidade máxima de resultados (opcional, padrão {@value AventureiroService#LIMITE_PADRAO})
+     * @return Os aventureiros encontrados com status 200 (OK), ou 400 se a faixa for inválida
+     * @apiNote GET /aventureiros/buscar/classe/{classe}/nivel/entre
+     */
+    @GetMapping("/buscar/classe/{classe}/nivel/entre")
+    public Flux<Aventureiro> buscarAventureirosPorClasseEFaixaDeNivel(@PathVariable ClasseRPG classe,
+                                                                      @RequestParam Integer min,
+                                                                      @RequestParam Integer max,
+                                                                      @RequestParam(required = false) Integer limite) {
+        return aventureiroService.findByClasseENivelEntre(classe, min, max, limite);
+    }
+
+    /**
+     * @param classe Classe dos aventureiros
+     * @return Quantidade de aventureiros da classe com status 200 (OK)
+     * @apiNote GET /aventureiros/contar/classe/{classe}
+     */
+    @GetMapping("/contar/classe/{classe}")
+    public Mono<Long> contarAventureirosPorClasse(@PathVariable ClasseRPG classe) {
+        return aventureiroService.contarPorClasse(classe);
+    }
+
+    /**
+     * @return Quantidade de aventureiros de cada classe com status 200 (OK)
+     * @apiNote GET /aventureiros/contar/classes
+     */
+    @GetMapping("/contar/classes")
+    public Mono<Map<ClasseRPG, Long>> contarAventureirosPorClasses() {
+        return aventureiroService.contarClasses();
+    }
+
+    /**
+     * 🏆 RANKING
+     *
+     * Rota: GET /aventureiros/ranking
+     *
+     * @param top Quantidade de aventureiros (opcional, padrão {@value AventureiroService#TOP_PADRAO})
+     * @param classe Classe para um ranking só da classe (opcional)
+     * @return Os aventureiros em ordem de ranking com status 200 (OK), ou 400 se top for inválido
+     */
+    @GetMapping("/ranking")
+    public Mono<ResponseEntity<List<PosicaoRanking>>> buscarRanking(@RequestParam(required = false) Integer top,
+                                                                    @RequestParam(required = false) ClasseRPG classe) {
+        // O ranking tem no máximo LIMITE_MAXIMO posições: cabe em memória e sai de uma vez
+        return aventureiroService.buscarRanking(top, classe)
+                .collectList()
+                .map(ranking -> new ResponseEntity<>(ranking, HttpStatus.OK))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST)));
+    }
+
+    /**
+     * ⚔️ REALIZAR MISSÃO
+     *
+     * Rota: PUT /aventureiros/missao/{id}
+     *
+     * O aventureiro ganha XP aleatório (10-19); ao atingir 100 XP sobe de nível e o XP é zerado.
+     * A conta é feita pelo banco em um único UPDATE, então missões simultâneas não se perdem.
+     *
+     * @param id ID do aventureiro que irá para a missão
+     * @return O aventureiro atualizado com status 200 (OK), ou 404 se não existir
+     */
+    @PutMapping("/missao/{id}")
+    public Mono<ResponseEntity<Aventureiro>> realizarMissao(@PathVariable Long id) {
+        return aventureiroService.realizarMissao(id)
+                .map(aventureiro -> new ResponseEntity<>(aventureiro, HttpStatus.OK))
+                .onErrorResume(e -> Mono.just(new ResponseEntity<>(statusDoErro(e))));
+    }
+
+    /**
+     * Parâmetros inválidos nas buscas em lista (limite ou faixa de nível) viram 400 (Bad Request).
+     *
+     * O Flux falha antes de entregar o primeiro aventureiro, quando nada da resposta foi
+     * enviado, então ainda dá tempo de trocar o status.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> parametroInvalido(IllegalArgumentException e) {
+        return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+}
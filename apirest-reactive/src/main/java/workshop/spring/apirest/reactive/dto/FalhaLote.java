@@ -0,0 +1,10 @@
+package workshop.spring.apirest.reactive.dto;
+
+/**
+ * Um item de uma criação em lote que não foi salvo.
+ *
+ * @param indice Posição do item na entrada (começando em 0)
+ * @param motivo Mensagem explicando por que o item foi rejeitado
+ */
+public record FalhaLote(long indice, String motivo) {
+}
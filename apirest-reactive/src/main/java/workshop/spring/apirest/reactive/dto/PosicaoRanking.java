@@ -0,0 +1,16 @@
+package workshop.spring.apirest.reactive.dto;
+
+import workshop.spring.apirest.reactive.entity.ClasseRPG;
+
+/**
+ * Um aventureiro no ranking, com a sua posição (começando em 1).
+ *
+ * @param posicao Posição no ranking
+ * @param id      ID do aventureiro
+ * @param nome    Nome do aventureiro
+ * @param classe  Classe do aventureiro
+ * @param nivel   Nível do aventureiro
+ * @param xp      XP do aventureiro
+ */
+public record PosicaoRanking(long posicao, Long id, String nome, ClasseRPG classe, int nivel, int xp) {
+}
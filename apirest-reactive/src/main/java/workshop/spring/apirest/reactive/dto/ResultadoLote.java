@@ -0,0 +1,13 @@
+package workshop.spring.apirest.reactive.dto;
+
+import java.util.List;
+
+/**
+ * Resumo de uma criação de aventureiros em lote, no mesmo formato do módulo {@code apirest}.
+ *
+ * @param recebidos Quantidade de itens lidos da requisição
+ * @param criados   Quantidade de aventureiros efetivamente salvos
+ * @param falhas    Itens rejeitados, com o motivo de cada um
+ */
+public record ResultadoLote(long recebidos, long criados, List<FalhaLote> falhas) {
+}
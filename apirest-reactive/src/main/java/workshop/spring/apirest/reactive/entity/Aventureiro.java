@@ -0,0 +1,170 @@
+package workshop.spring.apirest.reactive.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+
+/**
+ * Aventureiro mapeado pelo Spring Data R2DBC para a tabela 'aventureiro', a mesma usada
+ * pelo módulo {@code apirest}. Os nomes das colunas ficam explícitos em @Column, iguais
+ * aos do esquema criado pelas migrações (o Spring Data põe nomes entre aspas, e alguns
+ * bancos, como o H2, diferenciam maiúsculas de minúsculas entre aspas).
+ *
+ * Diferente da entidade JPA, este objeto é só um conjunto de dados: não há contexto de
+ * persistência, carregamento preguiçoso nem dirty checking. Cada gravação é um comando
+ * explícito no repositório.
+ *
+ * O JSON é o mesmo do módulo {@code apirest}:
+ * <pre>
+ * { "id": 42, "nome": "Geralt", "classe": "GUERREIRO", "nivel": 12, "xp": 80, "versao": 3 }
+ * </pre>
+ */
+@Table("aventureiro")
+public class Aventureiro {
+
+    /**
+     * Identificador único. Reservado em blocos na sequência 'aventureiro_seq'
+     * pelo {@link workshop.spring.apirest.reactive.service.AlocadorIds} antes do INSERT.
+     */
+    @Id
+    @Column("id")
+    private Long id;
+
+    @Column("nome")
+    private String nome;
+
+    @Column("classe")
+    private ClasseRPG classe;
+
+    @Column("nivel")
+    private Integer nivel = 1;
+
+    @Column("xp")
+    private Integer xp = 0;
+
+    /**
+     * Versão do registro: o UPDATE feito pelo repositório inclui {@code WHERE versao = ?}
+     * e falha com OptimisticLockingFailureException se outra gravação chegou antes.
+     */
+    @Version
+    @Column("versao")
+    private Long versao;
+
+    /**
+     * Momento da última gravação, preenchido pela auditoria do Spring Data.
+     */
+    @LastModifiedDate
+    @Column("atualizado_em")
+    private Instant atualizadoEm;
+
+    /**
+     * Construtor vazio, usado pelo Jackson e pelo Spring Data.
+     */
+    public Aventureiro() {
+    }
+
+    /**
+     * Cria um novo aventureiro com nível 1 e 0 de XP.
+     *
+     * @param nome Nome do aventureiro
+     * @param classe Classe do aventureiro
+     */
+    public Aventureiro(String nome, ClasseRPG classe) {
+        this.nome = nome;
+        this.classe = classe;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    /**
+     * @param nome O nome a ser definido (não pode ser nulo)
+     * @throws IllegalArgumentException se o nome for nulo ou vazio
+     */
+    public void setNome(String nome) {
+        if (nome == null || nome.trim().isEmpty()) {
+            throw new IllegalArgumentException("O nome do aventureiro não pode ser vazio");
+        }
+        this.nome = nome.trim();
+    }
+
+    public ClasseRPG getClasse() {
+        return classe;
+    }
+
+    /**
+     * @param classe A classe a ser definida (não pode ser nula)
+     * @throws IllegalArgumentException se a classe for nula
+     */
+    public void setClasse(ClasseRPG classe) {
+        if (classe == null) {
+            throw new IllegalArgumentException("A classe do aventureiro não pode ser nula");
+        }
+        this.classe = classe;
+    }
+
+    public Integer getNivel() {
+        return nivel;
+    }
+
+    /**
+     * @param nivel O nível a ser definido (deve ser maior ou igual a 1)
+     * @throws IllegalArgumentException se o nível for menor que 1
+     */
+    public void setNivel(Integer nivel) {
+        if (nivel == null || nivel < 1) {
+            throw new IllegalArgumentException("O nível deve ser maior ou igual a 1");
+        }
+        this.nivel = nivel;
+    }
+
+    public Integer getXp() {
+        return xp;
+    }
+
+    /**
+     * @param xp A quantidade de XP a ser definida (deve ser maior ou igual a 0)
+     * @throws IllegalArgumentException se o XP for negativo
+     */
+    public void setXp(Integer xp) {
+        if (xp == null || xp < 0) {
+            throw new IllegalArgumentException("O XP não pode ser negativo");
+        }
+        this.xp = xp;
+    }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    /**
+     * @param versao A versão conhecida pelo cliente (a atualização é recusada se estiver desatualizada)
+     */
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
+    /**
+     * Fica fora do JSON, como no módulo {@code apirest}.
+     *
+     * @return O momento da última gravação, ou null se o aventureiro ainda não foi salvo
+     */
+    @JsonIgnore
+    public Instant getAtualizadoEm() {
+        return atualizadoEm;
+    }
+}
@@ -0,0 +1,29 @@
+package workshop.spring.apirest.reactive.entity;
+
+/**
+ * Classes de aventureiros, as mesmas do módulo {@code apirest}.
+ * Gravadas na coluna {@code classe} pelo nome da constante (no H2, pela posição no ENUM da
+ * coluna: ver {@link workshop.spring.apirest.reactive.config.ConversoesR2dbcConfig}).
+ */
+public enum ClasseRPG {
+    /** Mago - Especialista em magias arcanas e controle de elementos */
+    MAGO,
+
+    /** Guerreiro - Especialista em combate corpo a corpo e defesa */
+    GUERREIRO,
+
+    /** Ladino - Especialista em furtividade e ataques precisos */
+    LADINO,
+
+    /** Bruxo - Usuário de magias sombrias e pactos */
+    BRUXO,
+
+    /** Clérigo - Usuário de magias divinas e suporte */
+    CLERIGO,
+
+    /** Bardo - Usuário de magias através da música e performance */
+    BARDO,
+
+    /** Arqueiro - Especialista em combate à distância */
+    ARQUEIRO
+}
@@ -0,0 +1,155 @@
+package workshop.spring.apirest.reactive.repository;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import workshop.spring.apirest.reactive.dto.ContagemClasse;
+import workshop.spring.apirest.reactive.entity.Aventureiro;
+import workshop.spring.apirest.reactive.entity.ClasseRPG;
+
+import java.time.Instant;
+
+/**
+ * Repositório reativo da tabela 'aventureiro'.
+ *
+ * Cada método devolve um {@link Mono} (zero ou um resultado) ou um {@link Flux} (vários).
+ * Nada é executado até alguém assinar o resultado, e as linhas de um Flux chegam aos poucos,
+ * no ritmo pedido por quem consome (backpressure): o driver não lê do banco mais linhas
+ * do que a resposta HTTP consegue escrever.
+ *
+ * As consultas são SQL puro, com os mesmos filtros e ordens do repositório JPA, para
+ * aproveitar os mesmos índices.
+ */
+public interface AventureiroRepository extends R2dbcRepository<Aventureiro, Long> {
+
+    /**
+     * Todos os aventureiros, em ordem de ID.
+     *
+     * @return Os aventureiros, lidos sob demanda
+     */
+    @Query("SELECT * FROM aventureiro ORDER BY id")
+    Flux<Aventureiro> listar();
+
+    /**
+     * @param nome Nome exato do aventureiro
+     * @return O aventureiro, ou vazio se não existir
+     */
+    Mono<Aventureiro> findByNome(String nome);
+
+    /**
+     * @param classe Classe dos aventureiros
+     * @param limite Quantidade máxima de aventureiros
+     * @return Os aventureiros da classe, em ordem de ID
+     */
+    @Query("SELECT * FROM aventureiro WHERE classe = :classe ORDER BY id LIMIT :limite")
+    Flux<Aventureiro> findByClasse(@Param("classe") ClasseRPG classe, @Param("limite") long limite);
+
+    /**
+     * @param nivel Nível dos aventureiros
+     * @param limite Quantidade máxima de aventureiros
+     * @return Os aventureiros do nível, em ordem de ID
+     */
+    @Query("SELECT * FROM aventureiro WHERE nivel = :nivel ORDER BY id LIMIT :limite")
+    Flux<Aventureiro> findByNivel(@Param("nivel") Integer nivel, @Param("limite") long limite);
+
+    /**
+     * @param xp Quantidade exata de XP
+     * @param limite Quantidade máxima de aventureiros
+     * @return Os aventureiros com esse XP, em ordem de ID
+     */
+    @Query("SELECT * FROM aventureiro WHERE xp = :xp ORDER BY id LIMIT :limite")
+    Flux<Aventureiro> findByXp(@Param("xp") Integer xp, @Param("limite") long limite);
+
+    /**
+     * Aventureiros com nível dentro de uma faixa (inclusive), pelo índice (nivel, xp).
+     *
+     * @param minimo Menor nível aceito
+     * @param maximo Maior nível aceito
+     * @param limite Quantidade máxima de aventureiros
+     * @return Os aventureiros na faixa, do menor nível para o maior
+     */
+    @Query("SELECT * FROM aventureiro WHERE nivel BETWEEN :minimo AND :maximo ORDER BY nivel, xp, id LIMIT :limite")
+    Flux<Aventureiro> findByNivelEntre(@Param("minimo") Integer minimo, @Param("maximo") Integer maximo,
+                                       @Param("limite") int limite);
+
+    /**
+     * Aventureiros de um nível com XP acima de um valor, pelo índice (nivel, xp).
+     *
+     * @param nivel Nível dos aventureiros
+     * @param xp XP mínimo (exclusivo)
+     * @param limite Quantidade máxima de aventureiros
+     * @return Os aventureiros encontrados, do menor XP para o maior
+     */
+    @Query("SELECT * FROM aventureiro WHERE nivel = :nivel AND xp > :xp ORDER BY xp, id LIMIT :limite")
+    Flux<Aventureiro> findByNivelEXpAcima(@Param("nivel") Integer nivel, @Param("xp") Integer xp,
+                                          @Param("limite") int limite);
+
+    /**
+     * Aventureiros de uma classe com nível dentro de uma faixa, pelo índice (classe, nivel, xp).
+     *
+     * @param classe Classe dos aventureiros
+     * @param minimo Menor nível aceito
+     * @param maximo Maior nível aceito
+     * @param limite Quantidade máxima de aventureiros
+     * @return Os aventureiros encontrados, do menor nível para o maior
+     */
+    @Query("SELECT * FROM aventureiro WHERE classe = :classe AND nivel BETWEEN :minimo AND :maximo "
+            + "ORDER BY nivel, xp, id LIMIT :limite")
+    Flux<Aventureiro> findByClasseENivelEntre(@Param("classe") ClasseRPG classe, @Param("minimo") Integer minimo,
+                                              @Param("maximo") Integer maximo, @Param("limite") int limite);
+
+    /**
+     * @param classe Classe dos aventureiros
+     * @return Quantidade de aventureiros da classe
+     */
+    Mono<Long> countByClasse(ClasseRPG classe);
+
+    /**
+     * Conta os aventureiros de todas as classes em uma única consulta.
+     *
+     * @return Uma contagem por classe com pelo menos um aventureiro
+     */
+    @Query("SELECT classe, COUNT(*) AS quantidade FROM aventureiro GROUP BY classe")
+    Flux<ContagemClasse> contarPorClasse();
+
+    /**
+     * Primeiros do ranking: maior nível, depois maior XP (empates ficam com o menor ID).
+     *
+     * @param limite Quantidade de aventureiros
+     * @return Os aventureiros em ordem de ranking
+     */
+    @Query("SELECT * FROM aventureiro ORDER BY nivel DESC, xp DESC, id LIMIT :limite")
+    Flux<Aventureiro> findRanking(@Param("limite") int limite);
+
+    /**
+     * @param classe Classe dos aventureiros
+     * @param limite Quantidade de aventureiros
+     * @return Os aventureiros da classe em ordem de ranking
+     */
+    @Query("SELECT * FROM aventureiro WHERE classe = :classe ORDER BY nivel DESC, xp DESC, id LIMIT :limite")
+    Flux<Aventureiro> findRankingPorClasse(@Param("classe") ClasseRPG classe, @Param("limite") int limite);
+
+    /**
+     * ⚔️ Aplica o resultado de uma missão com um único UPDATE atômico, a mesma conta do
+     * módulo {@code apirest}: ao atingir 100 XP o aventureiro sobe de nível e o XP é zerado.
+     *
+     * O banco lê e altera a linha no mesmo comando, então missões simultâneas do mesmo
+     * aventureiro nunca se perdem.
+     *
+     * @param id ID do aventureiro
+     * @param xpGanho XP conquistado na missão
+     * @param agora Momento da missão, gravado como última alteração
+     * @return Quantidade de linhas alteradas (0 se o aventureiro não existir)
+     */
+    @Modifying
+    @Query("UPDATE aventureiro SET "
+            + "nivel = CASE WHEN xp + :xpGanho >= 100 THEN nivel + 1 ELSE nivel END, "
+            + "xp = CASE WHEN xp + :xpGanho >= 100 THEN 0 ELSE xp + :xpGanho END, "
+            + "versao = versao + 1, "
+            + "atualizado_em = :agora "
+            + "WHERE id = :id")
+    Mono<Integer> aplicarMissao(@Param("id") Long id, @Param("xpGanho") int xpGanho, @Param("agora") Instant agora);
+}
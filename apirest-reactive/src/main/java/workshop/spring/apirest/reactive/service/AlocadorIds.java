@@ -0,0 +1,157 @@
+package workshop.spring.apirest.reactive.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 🔢 ALOCADOR DE IDS
+ *
+ * Reserva IDs na mesma sequência usada pelo Hibernate no módulo {@code apirest}, criada pelas
+ * migrações daquele módulo: no MySQL, a tabela de uma linha {@code aventureiro_seq}; no H2
+ * (testes e perfil perf), uma sequência nativa de mesmo nome que avança de {@value #BLOCO} em
+ * {@value #BLOCO}. Assim, um banco criado por uma aplicação serve à outra sem IDs repetidos.
+ *
+ * Segue a regra do otimizador "pooled" do Hibernate: o valor lido da sequência é o fim de um
+ * bloco de {@value #BLOCO} IDs e a sequência avança {@value #BLOCO}. Uma ida ao banco atende
+ * {@value #BLOCO} INSERTs; os demais IDs saem de um contador em memória, sem bloquear.
+ *
+ * Requisições que encontram o bloco esgotado ao mesmo tempo esperam a mesma reserva, em vez
+ * de cada uma reservar o seu bloco. IDs que sobram (ao reiniciar a aplicação, por exemplo)
+ * só deixam lacunas, como já acontece quando o Hibernate reinicia com um bloco pela metade.
+ */
+@Component
+public class AlocadorIds {
+
+    /**
+     * IDs reservados por ida ao banco (o allocationSize da entidade JPA).
+     */
+    public static final int BLOCO = 50;
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transacaoPropria;
+
+    /**
+     * true no H2, onde {@code aventureiro_seq} é uma sequência nativa e não uma tabela.
+     */
+    private final boolean sequenciaNativa;
+
+    /**
+     * Bloco atual. Começa esgotado, então o primeiro pedido já reserva um bloco.
+     */
+    private final AtomicReference<Bloco> atual = new AtomicReference<>(new Bloco(1, 0));
+
+    /**
+     * Reserva de bloco em andamento, compartilhada por quem encontrou o bloco atual esgotado
+     * (null quando não há nenhuma). Protegida pelo monitor deste objeto.
+     */
+    private Reserva reservaEmAndamento;
+
+    /**
+     * @param databaseClient Cliente R2DBC usado para ler e avançar a sequência
+     * @param transactionManager Gerenciador de transações reativo
+     */
+    @Autowired
+    public AlocadorIds(DatabaseClient databaseClient, ReactiveTransactionManager transactionManager) {
+        this.databaseClient = databaseClient;
+        // Transação própria: a reserva não pode ser desfeita pelo rollback de quem a pediu
+        DefaultTransactionDefinition definicao = new DefaultTransactionDefinition();
+        definicao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transacaoPropria = TransactionalOperator.create(transactionManager, definicao);
+        this.sequenciaNativa = "H2".equalsIgnoreCase(databaseClient.getConnectionFactory().getMetadata().getName());
+    }
+
+    /**
+     * Entrega o próximo ID livre.
+     *
+     * @return O ID, na hora se houver saldo no bloco atual, ou após reservar um bloco novo
+     */
+    public Mono<Long> proximo() {
+        return Mono.defer(() -> {
+            Bloco bloco = atual.get();
+            long id = bloco.proximo().getAndIncrement();
+            if (id <= bloco.ultimo()) {
+                return Mono.just(id);
+            }
+            // Espera o bloco novo e tenta de novo: outros pedidos podem esgotá-lo antes
+            return reservaCompartilhada(bloco).then(Mono.defer(this::proximo));
+        });
+    }
+
+    /**
+     * Reserva um bloco novo para substituir o esgotado, ou entra na reserva que já está em andamento.
+     */
+    private synchronized Mono<Bloco> reservaCompartilhada(Bloco esgotado) {
+        if (atual.get() != esgotado) {
+            // Outro pedido já trocou o bloco
+            return Mono.empty();
+        }
+        if (reservaEmAndamento == null || reservaEmAndamento.substitui() != esgotado) {
+            Mono<Bloco> novo = reservarBloco()
+                    .doOnNext(atual::set)
+                    .doFinally(sinal -> liberarReserva(esgotado))
+                    .cache();
+            reservaEmAndamento = new Reserva(esgotado, novo);
+        }
+        return reservaEmAndamento.bloco();
+    }
+
+    private synchronized void liberarReserva(Bloco esgotado) {
+        if (reservaEmAndamento != null && reservaEmAndamento.substitui() == esgotado) {
+            reservaEmAndamento = null;
+        }
+    }
+
+    /**
+     * Lê o valor da sequência e a avança um bloco. Na tabela do MySQL, a linha fica bloqueada
+     * entre a leitura e o UPDATE, em uma transação; a sequência nativa faz os dois de uma vez.
+     */
+    private Mono<Bloco> reservarBloco() {
+        Mono<Long> fim = sequenciaNativa ? avancarSequenciaNativa() : avancarTabela();
+        // O valor lido é o fim do bloco; na sequência recém-criada (valor 1) o bloco tem um só ID
+        return fim.map(valor -> new Bloco(Math.max(1, valor - BLOCO + 1), valor));
+    }
+
+    private Mono<Long> avancarSequenciaNativa() {
+        return databaseClient.sql("SELECT NEXT VALUE FOR aventureiro_seq AS next_val")
+                .map(linha -> linha.get("next_val", Long.class))
+                .one();
+    }
+
+    private Mono<Long> avancarTabela() {
+        return databaseClient.sql("SELECT next_val FROM aventureiro_seq FOR UPDATE")
+                .map(linha -> linha.get("next_val", Long.class))
+                .one()
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("A tabela aventureiro_seq está vazia")))
+                .flatMap(valor -> databaseClient.sql("UPDATE aventureiro_seq SET next_val = :proximo")
+                        .bind("proximo", valor + BLOCO)
+                        .fetch()
+                        .rowsUpdated()
+                        .thenReturn(valor))
+                .as(transacaoPropria::transactional);
+    }
+
+    /**
+     * Reserva em andamento e o bloco esgotado que ela vai substituir.
+     */
+    private record Reserva(Bloco substitui, Mono<Bloco> bloco) {
+    }
+
+    /**
+     * Faixa de IDs reservada: de {@code proximo} até {@code ultimo}, inclusive.
+     */
+    private record Bloco(AtomicLong proximo, long ultimo) {
+
+        Bloco(long primeiro, long ultimo) {
+            this(new AtomicLong(primeiro), ultimo);
+        }
+    }
+}
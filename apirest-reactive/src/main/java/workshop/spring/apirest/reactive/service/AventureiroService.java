@@ -0,0 +1,464 @@
+package workshop.spring.apirest.reactive.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import workshop.spring.apirest.reactive.dto.ContagemClasse;
+import workshop.spring.apirest.reactive.dto.FalhaLote;
+import workshop.spring.apirest.reactive.dto.ItemLote;
+import workshop.spring.apirest.reactive.dto.PosicaoRanking;
+import workshop.spring.apirest.reactive.dto.ResultadoLote;
+import workshop.spring.apirest.reactive.entity.Aventureiro;
+import workshop.spring.apirest.reactive.entity.ClasseRPG;
+import workshop.spring.apirest.reactive.repository.AventureiroRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🛠️ SERVIÇO REATIVO DE AVENTUREIROS
+ *
+ * As mesmas regras do AventureiroService do módulo {@code apirest}, escritas como
+ * sequências de {@link Mono} e {@link Flux}. Os métodos só montam o plano de execução:
+ * nada vai ao banco até o WebFlux assinar o resultado para escrever a resposta.
+ *
+ * Erros seguem as mesmas convenções, mas chegam como sinal de erro do Mono:
+ * - IllegalArgumentException: dados inválidos ou nome repetido
+ * - OptimisticLockingFailureException: versão desatualizada
+ * - RuntimeException: aventureiro não encontrado
+ */
+@Service
+public class AventureiroService {
+
+    /**
+     * Quantidade padrão de resultados das buscas por faixa.
+     */
+    public static final int LIMITE_PADRAO = 50;
+
+    /**
+     * Maior quantidade de resultados que uma busca limitada pode pedir.
+     */
+    public static final int LIMITE_MAXIMO = 500;
+
+    /**
+     * Quantidade padrão de aventureiros no ranking.
+     */
+    public static final int TOP_PADRAO = 10;
+
+    private final AventureiroRepository aventureiroRepository;
+    private final R2dbcEntityTemplate entityTemplate;
+    private final AlocadorIds alocadorIds;
+    private final TransactionalOperator transacao;
+    private final int tamanhoBlocoLote;
+    private final Duration ociosidadeMaxima;
+
+    /**
+     * @param aventureiroRepository Repositório reativo da tabela 'aventureiro'
+     * @param entityTemplate Usado para os INSERTs (o ID já vem preenchido pelo alocador)
+     * @param alocadorIds Reserva IDs na sequência compartilhada com o módulo {@code apirest}
+     * @param transactionManager Gerenciador de transações reativo, usado nos blocos do lote
+     * @param tamanhoBlocoLote Propriedade {@code guilda.lote.tamanho-bloco} (padrão 1000)
+     * @param ociosidadeMaximaMs Propriedade {@code guilda.streaming.ociosidade-maxima-ms} (padrão 10000)
+     */
+    @Autowired
+    public AventureiroService(AventureiroRepository aventureiroRepository,
+                              R2dbcEntityTemplate entityTemplate,
+                              AlocadorIds alocadorIds,
+                              ReactiveTransactionManager transactionManager,
+                              @Value("${guilda.lote.tamanho-bloco:1000}") int tamanhoBlocoLote,
+                              @Value("${guilda.streaming.ociosidade-maxima-ms:10000}") long ociosidadeMaximaMs) {
+        this.aventureiroRepository = aventureiroRepository;
+        this.entityTemplate = entityTemplate;
+        this.alocadorIds = alocadorIds;
+        this.transacao = TransactionalOperator.create(transactionManager);
+        this.tamanhoBlocoLote = tamanhoBlocoLote;
+        this.ociosidadeMaxima = Duration.ofMillis(ociosidadeMaximaMs);
+    }
+
+    /**
+     * Cria um novo aventureiro.
+     *
+     * @param aventureiro O aventureiro a ser criado
+     * @return O aventureiro salvo, com ID e versão
+     */
+    public Mono<Aventureiro> create(Aventureiro aventureiro) {
+        String motivo = validarNovo(aventureiro);
+        if (motivo != null) {
+            return Mono.error(new IllegalArgumentException(motivo));
+        }
+        return inserir(aventureiro)
+                .onErrorMap(DataIntegrityViolationException.class, e ->
+                        // O índice único de nome recusou o INSERT
+                        new IllegalArgumentException("Já existe um aventureiro com o nome: " + aventureiro.getNome()));
+    }
+
+    /**
+     * 📦 CRIAÇÃO EM LOTE
+     *
+     * Os itens chegam aos poucos do corpo da requisição e são gravados em blocos de
+     * {@code guilda.lote.tamanho-bloco}, cada bloco em uma transação. Um bloco só é lido
+     * depois que o anterior foi gravado (concatMap), então a leitura do corpo acompanha
+     * o ritmo do banco. Se o banco rejeitar um bloco, ele é refeito item a item.
+     *
+     * @param itens Itens a serem criados, na ordem da entrada
+     * @return Quantidade de itens recebidos, criados e a lista de falhas
+     */
+    public Mono<ResultadoLote> criarEmLote(Flux<ItemLote> itens) {
+        return Mono.defer(() -> {
+            AtomicLong recebidos = new AtomicLong();
+            // Os sinais de um Flux nunca são simultâneos: a lista é usada por um passo de cada vez
+            List<FalhaLote> falhas = new ArrayList<>();
+            return itens
+                    .doOnNext(item -> recebidos.incrementAndGet())
+                    .filter(item -> {
+                        String motivo = item.erro() != null ? item.erro() : validarNovo(item.aventureiro());
+                        if (motivo != null) {
+                            falhas.add(new FalhaLote(item.indice(), motivo));
+                        }
+                        return motivo == null;
+                    })
+                    .buffer(tamanhoBlocoLote)
+                    .concatMap(bloco -> salvarBloco(bloco, falhas))
+                    .reduce(0L, Long::sum)
+                    .map(criados -> new ResultadoLote(recebidos.get(), criados, falhas));
+        });
+    }
+
+    /**
+     * Salva um bloco em uma única transação; se ela falhar, tenta item a item.
+     */
+    private Mono<Long> salvarBloco(List<ItemLote> bloco, List<FalhaLote> falhas) {
+        return Flux.fromIterable(bloco)
+                .concatMap(item -> inserir(item.aventureiro()))
+                .as(transacao::transactional)
+                .count()
+                .onErrorResume(erroBloco -> Flux.fromIterable(bloco)
+                        .concatMap(item -> inserir(item.aventureiro())
+                                .as(transacao::transactional)
+                                .thenReturn(1L)
+                                .onErrorResume(erro -> {
+                                    falhas.add(new FalhaLote(item.indice(),
+                                            NestedExceptionUtils.getMostSpecificCause(erro).getMessage()));
+                                    return Mono.just(0L);
+                                }))
+                        .reduce(0L, Long::sum));
+    }
+
+    /**
+     * Reserva um ID e grava o aventureiro com um INSERT.
+     * A versão volta a nula para o caso de o mesmo objeto ser regravado após um rollback.
+     */
+    private Mono<Aventureiro> inserir(Aventureiro aventureiro) {
+        Mono<Long> id = aventureiro.getId() != null ? Mono.just(aventureiro.getId()) : alocadorIds.proximo();
+        return id.flatMap(novoId -> {
+            aventureiro.setId(novoId);
+            aventureiro.setVersao(null);
+            return entityTemplate.insert(aventureiro);
+        });
+    }
+
+    /**
+     * Verifica se um aventureiro pode ser criado.
+     *
+     * @return O motivo da rejeição, ou null se o aventureiro for válido
+     */
+    private String validarNovo(Aventureiro aventureiro) {
+        if (aventureiro == null) {
+            return "O aventureiro não pode ser nulo";
+        }
+        if (aventureiro.getId() != null) {
+            return "Um novo aventureiro não pode ter um ID definido";
+        }
+        if (aventureiro.getNome() == null || aventureiro.getNome().trim().isEmpty()) {
+            return "O nome do aventureiro não pode ser vazio";
+        }
+        if (aventureiro.getClasse() == null) {
+            return "A classe do aventureiro não pode ser nula";
+        }
+        return null;
+    }
+
+    /**
+     * Atualiza um aventureiro existente.
+     *
+     * O UPDATE gerado pelo repositório inclui {@code WHERE versao = ?}: se outra gravação
+     * chegou antes, o Mono termina com OptimisticLockingFailureException.
+     *
+     * @param aventureiro O aventureiro com as atualizações
+     * @return O aventureiro atualizado
+     */
+    @Transactional
+    public Mono<Aventureiro> update(Aventureiro aventureiro) {
+        if (aventureiro == null) {
+            return Mono.error(new IllegalArgumentException("O aventureiro não pode ser nulo"));
+        }
+        if (aventureiro.getId() == null) {
+            return Mono.error(new IllegalArgumentException("ID do aventureiro é obrigatório para atualização"));
+        }
+        return aventureiroRepository.findById(aventureiro.getId())
+                .switchIfEmpty(Mono.error(() ->
+                        new RuntimeException("Aventureiro não encontrado com o ID: " + aventureiro.getId())))
+                .flatMap(atual -> {
+                    // Verifica se o cliente está atualizando a versão mais recente
+                    if (aventureiro.getVersao() != null && !aventureiro.getVersao().equals(atual.getVersao())) {
+                        return Mono.error(new OptimisticLockingFailureException(
+                                "Versão desatualizada do aventureiro " + aventureiro.getId()));
+                    }
+                    return verificarNomeLivre(aventureiro.getNome(), atual).then(Mono.defer(() -> {
+                        atual.setNome(aventureiro.getNome());
+                        atual.setClasse(aventureiro.getClasse());
+                        atual.setNivel(aventureiro.getNivel());
+                        atual.setXp(aventureiro.getXp());
+                        return aventureiroRepository.save(atual);
+                    }));
+                });
+    }
+
+    /**
+     * O nome é único: recusa a troca para o nome de outro aventureiro.
+     */
+    private Mono<Void> verificarNomeLivre(String nome, Aventureiro atual) {
+        if (nome == null || nome.equals(atual.getNome())) {
+            return Mono.empty();
+        }
+        return aventureiroRepository.findByNome(nome)
+                .filter(mesmoNome -> !mesmoNome.getId().equals(atual.getId()))
+                .flatMap(mesmoNome -> Mono.error(new IllegalArgumentException("Já existe um aventureiro com o nome: " + nome)));
+    }
+
+    /**
+     * Remove um aventureiro pelo seu ID.
+     *
+     * @param id ID do aventureiro a ser removido
+     * @return Conclusão da remoção
+     */
+    public Mono<Void> delete(Long id) {
+        if (id == null) {
+            return Mono.error(new IllegalArgumentException("ID não pode ser nulo"));
+        }
+        return aventureiroRepository.deleteById(id);
+    }
+
+    /**
+     * Todos os aventureiros, lidos do banco conforme a resposta é escrita.
+     *
+     * @return Os aventureiros em ordem de ID
+     */
+    public Flux<Aventureiro> findAll() {
+        return comLimiteDeOciosidade(aventureiroRepository.listar());
+    }
+
+    /**
+     * @param id ID do aventureiro
+     * @return O aventureiro, ou vazio se não existir
+     */
+    public Mono<Aventureiro> findById(Long id) {
+        if (id == null) {
+            return Mono.error(new IllegalArgumentException("ID não pode ser nulo"));
+        }
+        return aventureiroRepository.findById(id);
+    }
+
+    /**
+     * @param nome Nome exato do aventureiro
+     * @return O aventureiro, ou vazio se não existir
+     */
+    public Mono<Aventureiro> findByNome(String nome) {
+        if (nome == null || nome.trim().isEmpty()) {
+            return Mono.error(new IllegalArgumentException("O nome não pode ser vazio"));
+        }
+        return aventureiroRepository.findByNome(nome);
+    }
+
+    /**
+     * @param classe Classe dos aventureiros
+     * @param limite Quantidade máxima (null: todos)
+     * @return Os aventureiros da classe
+     */
+    public Flux<Aventureiro> findByClasse(ClasseRPG classe, Integer limite) {
+        return Mono.fromCallable(() -> limiteOpcional(limite))
+                .flatMapMany(quantidade -> comLimiteDeOciosidade(aventureiroRepository.findByClasse(classe, quantidade)));
+    }
+
+    /**
+     * @param nivel Nível dos aventureiros
+     * @param limite Quantidade máxima (null: todos)
+     * @return Os aventureiros do nível
+     */
+    public Flux<Aventureiro> findByNivel(Integer nivel, Integer limite) {
+        return Mono.fromCallable(() -> limiteOpcional(limite))
+                .flatMapMany(quantidade -> comLimiteDeOciosidade(aventureiroRepository.findByNivel(nivel, quantidade)));
+    }
+
+    /**
+     * @param xp Quantidade exata de XP
+     * @param limite Quantidade máxima (null: todos)
+     * @return Os aventureiros com esse XP
+     */
+    public Flux<Aventureiro> findByXp(Integer xp, Integer limite) {
+        return Mono.fromCallable(() -> limiteOpcional(limite))
+                .flatMapMany(quantidade -> comLimiteDeOciosidade(aventureiroRepository.findByXp(xp, quantidade)));
+    }
+
+    /**
+     * @param minimo Menor nível aceito
+     * @param maximo Maior nível aceito
+     * @param limite Quantidade máxima (padrão {@value #LIMITE_PADRAO}, máximo {@value #LIMITE_MAXIMO})
+     * @return Os aventureiros na faixa
+     */
+    public Flux<Aventureiro> findByNivelEntre(Integer minimo, Integer maximo, Integer limite) {
+        return Mono.fromCallable(() -> {
+                    validarFaixa(minimo, maximo);
+                    return resolverLimite(limite);
+                })
+                .flatMapMany(quantidade -> comLimiteDeOciosidade(aventureiroRepository.findByNivelEntre(minimo, maximo, quantidade)));
+    }
+
+    /**
+     * @param nivel Nível dos aventureiros
+     * @param xp XP mínimo (exclusivo)
+     * @param limite Quantidade máxima (padrão {@value #LIMITE_PADRAO}, máximo {@value #LIMITE_MAXIMO})
+     * @return Os aventureiros encontrados
+     */
+    public Flux<Aventureiro> findByNivelEXpAcima(Integer nivel, Integer xp, Integer limite) {
+        return Mono.fromCallable(() -> resolverLimite(limite))
+                .flatMapMany(quantidade -> comLimiteDeOciosidade(aventureiroRepository.findByNivelEXpAcima(nivel, xp, quantidade)));
+    }
+
+    /**
+     * @param classe Classe dos aventureiros
+     * @param minimo Menor nível aceito
+     * @param maximo Maior nível aceito
+     * @param limite Quantidade máxima (padrão {@value #LIMITE_PADRAO}, máximo {@value #LIMITE_MAXIMO})
+     * @return Os aventureiros encontrados
+     */
+    public Flux<Aventureiro> findByClasseENivelEntre(ClasseRPG classe, Integer minimo, Integer maximo, Integer limite) {
+        return Mono.fromCallable(() -> {
+                    validarFaixa(minimo, maximo);
+                    return resolverLimite(limite);
+                })
+                .flatMapMany(quantidade -> comLimiteDeOciosidade(aventureiroRepository.findByClasseENivelEntre(classe, minimo, maximo, quantidade)));
+    }
+
+    /**
+     * @param classe Classe dos aventureiros
+     * @return Quantidade de aventureiros da classe
+     */
+    public Mono<Long> contarPorClasse(ClasseRPG classe) {
+        return aventureiroRepository.countByClasse(classe);
+    }
+
+    /**
+     * Conta os aventureiros de cada classe com um único GROUP BY.
+     *
+     * @return Quantidade por classe (classes sem aventureiros aparecem com 0)
+     */
+    public Mono<Map<ClasseRPG, Long>> contarClasses() {
+        return aventureiroRepository.contarPorClasse()
+                .collect(() -> {
+                    Map<ClasseRPG, Long> contagem = new EnumMap<>(ClasseRPG.class);
+                    for (ClasseRPG classe : ClasseRPG.values()) {
+                        contagem.put(classe, 0L);
+                    }
+                    return contagem;
+                }, (contagem, linha) -> contagem.put(linha.classe(), linha.quantidade()));
+    }
+
+    /**
+     * 🏆 Primeiros do ranking (maior nível, depois maior XP).
+     *
+     * @param top Quantidade de aventureiros (padrão {@value #TOP_PADRAO}, máximo {@value #LIMITE_MAXIMO})
+     * @param classe Classe para um ranking só da classe, ou null para o ranking geral
+     * @return Os aventureiros em ordem, com a posição de cada um
+     */
+    public Flux<PosicaoRanking> buscarRanking(Integer top, ClasseRPG classe) {
+        int quantidade = top == null ? TOP_PADRAO : top;
+        if (quantidade < 1) {
+            return Flux.error(new IllegalArgumentException("O top deve ser maior ou igual a 1"));
+        }
+        int limitado = Math.min(quantidade, LIMITE_MAXIMO);
+        Flux<Aventureiro> aventureiros = classe == null
+                ? aventureiroRepository.findRanking(limitado)
+                : aventureiroRepository.findRankingPorClasse(classe, limitado);
+        return aventureiros.index((indice, aventureiro) -> new PosicaoRanking(indice + 1, aventureiro.getId(),
+                aventureiro.getNome(), aventureiro.getClasse(), aventureiro.getNivel(), aventureiro.getXp()));
+    }
+
+    /**
+     * ⚔️ REALIZAR MISSÃO
+     *
+     * 1. Sorteia o XP da missão (10-19)
+     * 2. Aplica XP e subida de nível com um único UPDATE atômico no banco
+     * 3. Lê o estado atualizado na mesma transação (a linha continua bloqueada até o commit)
+     *
+     * Nenhuma thread espera o banco entre os passos: cada um começa quando o anterior responde.
+     *
+     * @param id ID do aventureiro
+     * @return O aventureiro após a missão
+     */
+    @Transactional
+    public Mono<Aventureiro> realizarMissao(Long id) {
+        if (id == null) {
+            return Mono.error(new IllegalArgumentException("ID não pode ser nulo"));
+        }
+        int xpGanho = ThreadLocalRandom.current().nextInt(10, 20);
+        return aventureiroRepository.aplicarMissao(id, xpGanho, Instant.now())
+                .flatMap(linhas -> linhas == 0
+                        ? Mono.error(new RuntimeException("❌ Aventureiro não encontrado com ID: " + id))
+                        : aventureiroRepository.findById(id));
+    }
+
+    /**
+     * 🧯 Cancela a leitura que passar {@code guilda.streaming.ociosidade-maxima-ms} sem entregar
+     * nenhum aventureiro, devolvendo a conexão ao pool.
+     *
+     * Com backpressure, o banco só entrega linhas quando a resposta pede mais. Se o cliente
+     * desconecta no meio de uma resposta longa, o servidor pode deixar de pedir sem cancelar a
+     * leitura, e a conexão ficaria presa para sempre. Nos testes de carga, clientes que
+     * desistiam por tempo esgotavam o pool desse jeito.
+     */
+    private <T> Flux<T> comLimiteDeOciosidade(Flux<T> leitura) {
+        return leitura.timeout(ociosidadeMaxima);
+    }
+
+    /**
+     * Limite das buscas que, sem o parâmetro, devolvem todos os resultados.
+     */
+    private long limiteOpcional(Integer limite) {
+        return limite == null ? Long.MAX_VALUE : resolverLimite(limite);
+    }
+
+    /**
+     * Aplica o limite padrão e o limite máximo ao tamanho pedido pelo cliente.
+     *
+     * @throws IllegalArgumentException se o limite for menor que 1
+     */
+    private int resolverLimite(Integer limite) {
+        int tamanho = limite == null ? LIMITE_PADRAO : limite;
+        if (tamanho < 1) {
+            throw new IllegalArgumentException("O limite deve ser maior ou igual a 1");
+        }
+        return Math.min(tamanho, LIMITE_MAXIMO);
+    }
+
+    private void validarFaixa(Integer minimo, Integer maximo) {
+        if (minimo == null || maximo == null || minimo < 1 || minimo > maximo) {
+            throw new IllegalArgumentException("Faixa de nível inválida: " + minimo + " a " + maximo);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package workshop.spring.apirest.reactive.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webtestclient.autoconfigure.AutoConfigureWebTestClient;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import workshop.spring.apirest.reactive.dto.ResultadoLote;
+import workshop.spring.apirest.reactive.entity.Aventureiro;
+import workshop.spring.apirest.reactive.entity.ClasseRPG;
+import workshop.spring.apirest.reactive.repository.AventureiroRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+class AventureiroControllerTests {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Autowired
+	private AventureiroRepository aventureiroRepository;
+
+	@BeforeEach
+	void limparGuilda() {
+		aventureiroRepository.deleteAll().block();
+	}
+
+	@Test
+	void criaEListaEmOrdemDeId() {
+		Aventureiro geralt = criar("Geralt", ClasseRPG.GUERREIRO);
+		Aventureiro jaskier = criar("Jaskier", ClasseRPG.BARDO);
+		assertThat(jaskier.getId()).isGreaterThan(geralt.getId());
+		assertThat(geralt.getVersao()).isZero();
+
+		webTestClient.get().uri("/aventureiros/listar").exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.length()").isEqualTo(2)
+				.jsonPath("$[0].nome").isEqualTo("Geralt")
+				.jsonPath("$[1].classe").isEqualTo("BARDO");
+
+		List<Aventureiro> linhas = webTestClient.get().uri("/aventureiros/exportar")
+				.accept(MediaType.APPLICATION_NDJSON).exchange()
+				.expectStatus().isOk()
+				.returnResult(Aventureiro.class).getResponseBody().collectList().block();
+		assertThat(linhas).extracting(Aventureiro::getNome).containsExactly("Geralt", "Jaskier");
+
+		webTestClient.post().uri("/aventureiros/criar")
+				.bodyValue(new Aventureiro("Geralt", ClasseRPG.MAGO)).exchange()
+				.expectStatus().isBadRequest();
+		webTestClient.get().uri("/aventureiros/buscar/nivel/entre?min=5&max=1").exchange()
+				.expectStatus().isBadRequest();
+	}
+
+	@Test
+	void missoesSimultaneasNaoPerdemXp() {
+		Long id = criar("Geralt", ClasseRPG.GUERREIRO).getId();
+		int missoes = 40;
+
+		List<Aventureiro> resultados = Flux.range(0, missoes)
+				.flatMap(i -> webTestClient.put().uri("/aventureiros/missao/" + id).exchange()
+						.returnResult(Aventureiro.class).getResponseBody(), missoes)
+				.collectList().block();
+
+		assertThat(resultados).hasSize(missoes);
+		Aventureiro depois = aventureiroRepository.findById(id).block();
+		// Cada missão rende de 10 a 19 de XP, e cada nível consome 100
+		int xpTotal = (depois.getNivel() - 1) * 100 + depois.getXp();
+		assertThat(depois.getVersao()).isEqualTo(missoes);
+		assertThat(depois.getNivel()).isGreaterThan(1);
+		assertThat(xpTotal).isLessThanOrEqualTo(missoes * 19);
+
+		webTestClient.put().uri("/aventureiros/missao/999999").exchange()
+				.expectStatus().isNotFound();
+	}
+
+	@Test
+	void atualizarComVersaoAntigaDaConflito() {
+		Aventureiro geralt = criar("Geralt", ClasseRPG.GUERREIRO);
+		webTestClient.put().uri("/aventureiros/missao/" + geralt.getId()).exchange()
+				.expectStatus().isOk();
+
+		geralt.setNome("Geralt de Rivia");
+		webTestClient.put().uri("/aventureiros/atualizar").bodyValue(geralt).exchange()
+				.expectStatus().isEqualTo(409);
+
+		geralt.setVersao(1L);
+		webTestClient.put().uri("/aventureiros/atualizar").bodyValue(geralt).exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.nome").isEqualTo("Geralt de Rivia")
+				.jsonPath("$.versao").isEqualTo(2);
+	}
+
+	@Test
+	void loteNdjsonReportaItensInvalidos() {
+		String corpo = """
+				{"nome": "Geralt", "classe": "GUERREIRO"}
+				{"nome": "Yennefer", "classe": "FEITICEIRA"}
+				{"nome": "Ciri", "classe": "LADINO"}
+				{"nome": "Geralt", "classe": "MAGO"}
+				""";
+
+		ResultadoLote resultado = webTestClient.post().uri("/aventureiros/criar/lote")
+				.contentType(MediaType.APPLICATION_NDJSON).bodyValue(corpo).exchange()
+				.expectStatus().isOk()
+				.expectBody(ResultadoLote.class).returnResult().getResponseBody();
+
+		assertThat(resultado.recebidos()).isEqualTo(4);
+		assertThat(resultado.criados()).isEqualTo(2);
+		assertThat(resultado.falhas()).extracting("indice").containsExactly(1L, 3L);
+		assertThat(aventureiroRepository.count().block()).isEqualTo(2);
+	}
+
+	private Aventureiro criar(String nome, ClasseRPG classe) {
+		return webTestClient.post().uri("/aventureiros/criar")
+				.bodyValue(new Aventureiro(nome, classe)).exchange()
+				.expectStatus().isCreated()
+				.expectBody(Aventureiro.class).returnResult().getResponseBody();
+	}
+}
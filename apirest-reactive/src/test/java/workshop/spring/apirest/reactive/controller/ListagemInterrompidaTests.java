@@ -0,0 +1,60 @@
+package workshop.spring.apirest.reactive.controller;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import reactor.core.publisher.Flux;
+import workshop.spring.apirest.reactive.dto.ItemLote;
+import workshop.spring.apirest.reactive.entity.Aventureiro;
+import workshop.spring.apirest.reactive.entity.ClasseRPG;
+import workshop.spring.apirest.reactive.service.AventureiroService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "guilda.streaming.ociosidade-maxima-ms=500")
+class ListagemInterrompidaTests {
+
+	@Autowired
+	private AventureiroService aventureiroService;
+
+	@Autowired
+	private ConnectionFactory connectionFactory;
+
+	@LocalServerPort
+	private int porta;
+
+	@Test
+	void clientesQueDesistemNoMeioDaListagemNaoPrendemConexoes() {
+		aventureiroService.criarEmLote(Flux.range(0, 3000)
+				.map(i -> ItemLote.valido(i, new Aventureiro("Recruta " + i, ClasseRPG.values()[i % 7])))).block();
+
+		HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		for (int rodada = 1; rodada <= 5; rodada++) {
+			List<CompletableFuture<?>> requisicoes = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				HttpRequest exportar = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/aventureiros/exportar"))
+						.timeout(Duration.ofMillis(100L * rodada)).build();
+				requisicoes.add(cliente.sendAsync(exportar, HttpResponse.BodyHandlers.discarding()).exceptionally(e -> null));
+			}
+			CompletableFuture.allOf(requisicoes.toArray(CompletableFuture[]::new)).join();
+		}
+
+		ConnectionPool pool = (ConnectionPool) connectionFactory;
+		await().atMost(10, TimeUnit.SECONDS)
+				.until(() -> pool.getMetrics().orElseThrow().acquiredSize() == 0);
+	}
+}
@@ -0,0 +1,120 @@
+package workshop.spring.apirest.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 🚦 CONEXÕES LIMITADAS
+ *
+ * DataSource que deixa no máximo {@code permissoes} conexões emprestadas ao mesmo tempo.
+ * Quem chega depois espera em um {@link Semaphore} justo (ordem de chegada) antes mesmo
+ * de pedir a conexão ao pool.
+ *
+ * Com threads virtuais, milhares de requisições podem chegar ao banco juntas. Sem o
+ * limite, todas disputariam o pool do Hikari ao mesmo tempo; com ele, só quem tem uma
+ * vaga vai ao pool e o resto fica estacionado no semáforo, o que para uma thread virtual
+ * custa quase nada (ela libera a thread de plataforma enquanto espera).
+ *
+ * A vaga é devolvida quando a conexão é fechada (devolvida ao pool). Se a espera passar
+ * do tempo máximo, é lançada {@link SQLTransientConnectionException}, a mesma exceção
+ * que o Hikari lança quando o pool se esgota.
+ */
+public class ConexoesLimitadas extends DelegatingDataSource {
+
+    private final Semaphore vagas;
+    private final long esperaMaximaMs;
+
+    /**
+     * @param alvo DataSource real (o pool do Hikari)
+     * @param permissoes Quantidade máxima de conexões emprestadas ao mesmo tempo
+     * @param esperaMaximaMs Tempo máximo de espera por uma vaga, em milissegundos
+     */
+    public ConexoesLimitadas(DataSource alvo, int permissoes, long esperaMaximaMs) {
+        super(alvo);
+        this.vagas = new Semaphore(permissoes, true);
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    /**
+     * Quantidade de threads esperando por uma vaga (aproximada).
+     *
+     * @return Tamanho da fila de espera
+     */
+    public int getEsperando() {
+        return vagas.getQueueLength();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        reservar();
+        try {
+            return liberarAoFechar(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            vagas.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        reservar();
+        try {
+            return liberarAoFechar(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            vagas.release();
+            throw e;
+        }
+    }
+
+    private void reservar() throws SQLException {
+        try {
+            if (!vagas.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Nenhuma conexão liberada em " + esperaMaximaMs + " ms (" + getEsperando() + " na fila)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrompido esperando uma conexão", e);
+        }
+    }
+
+    /**
+     * Envolve a conexão para devolver a vaga no primeiro {@code close()}.
+     */
+    private Connection liberarAoFechar(Connection conexao) {
+        AtomicBoolean liberada = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, argumentos) -> switch (metodo.getName()) {
+                    case "equals" -> proxy == argumentos[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "close" -> {
+                        try {
+                            yield invocar(conexao, metodo, argumentos);
+                        } finally {
+                            if (liberada.compareAndSet(false, true)) {
+                                vagas.release();
+                            }
+                        }
+                    }
+                    default -> invocar(conexao, metodo, argumentos);
+                });
+    }
+
+    private static Object invocar(Connection conexao, Method metodo, Object[] argumentos) throws Throwable {
+        try {
+            return metodo.invoke(conexao, argumentos);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
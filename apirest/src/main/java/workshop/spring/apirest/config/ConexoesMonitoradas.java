@@ -0,0 +1,190 @@
+package workshop.spring.apirest.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 🔎 CONEXÕES MONITORADAS
+ *
+ * DataSource que mede cada comando enviado ao banco e entrega o tempo ao {@link MonitorSql}.
+ *
+ * As conexões devolvidas são envolvidas por um proxy, e os {@link Statement},
+ * {@link PreparedStatement} e {@link CallableStatement} criados por elas também: o proxy guarda
+ * o SQL e os parâmetros ({@code setString}, {@code setLong}, ...) e cronometra os métodos
+ * {@code execute*}. Em lotes JDBC ({@code addBatch} + {@code executeBatch}), o lote inteiro conta
+ * como uma execução, com os parâmetros do último item.
+ *
+ * Fica abaixo do Hibernate e do JdbcTemplate, então vê tanto as consultas do JPA quanto os
+ * UPDATEs diretos das missões e alterações parciais.
+ */
+public class ConexoesMonitoradas extends DelegatingDataSource {
+
+    private static final Set<String> EXECUCOES = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final MonitorSql monitor;
+
+    /**
+     * @param alvo DataSource real
+     * @param monitor Quem recebe o tempo de cada comando
+     */
+    public ConexoesMonitoradas(DataSource alvo, MonitorSql monitor) {
+        super(alvo);
+        this.monitor = monitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return monitorar(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return monitorar(super.getConnection(username, password));
+    }
+
+    /**
+     * Envolve a conexão para que os comandos criados por ela sejam medidos.
+     */
+    private Connection monitorar(Connection conexao) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, argumentos) -> switch (metodo.getName()) {
+                    case "equals" -> proxy == argumentos[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "createStatement" -> monitorar((Statement) invocar(conexao, metodo, argumentos),
+                            Statement.class, null);
+                    case "prepareStatement" -> monitorar((Statement) invocar(conexao, metodo, argumentos),
+                            PreparedStatement.class, (String) argumentos[0]);
+                    case "prepareCall" -> monitorar((Statement) invocar(conexao, metodo, argumentos),
+                            CallableStatement.class, (String) argumentos[0]);
+                    default -> invocar(conexao, metodo, argumentos);
+                });
+    }
+
+    /**
+     * Envolve o comando: guarda SQL e parâmetros e cronometra as execuções.
+     *
+     * @param sql SQL preparado, ou null em um {@link Statement} simples (o SQL vem em cada execução)
+     */
+    private Statement monitorar(Statement comando, Class<? extends Statement> tipo, String sql) {
+        Execucao execucao = new Execucao(sql);
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{tipo},
+                (proxy, metodo, argumentos) -> {
+                    String nome = metodo.getName();
+                    if (nome.equals("equals")) {
+                        return proxy == argumentos[0];
+                    }
+                    if (nome.equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    if (EXECUCOES.contains(nome)) {
+                        return executar(comando, metodo, argumentos, execucao);
+                    }
+                    execucao.observar(nome, argumentos);
+                    return invocar(comando, metodo, argumentos);
+                });
+    }
+
+    private Object executar(Statement comando, Method metodo, Object[] argumentos, Execucao execucao) throws Throwable {
+        String sql = argumentos != null && argumentos.length > 0 && argumentos[0] instanceof String texto
+                ? texto : execucao.sql();
+        long inicio = System.nanoTime();
+        try {
+            return invocar(comando, metodo, argumentos);
+        } finally {
+            long duracao = System.nanoTime() - inicio;
+            if (sql != null) {
+                monitor.registrar(sql, duracao, execucao.lote(), execucao::parametros);
+            }
+            execucao.concluir(metodo.getName());
+        }
+    }
+
+    private static Object invocar(Object alvo, Method metodo, Object[] argumentos) throws Throwable {
+        try {
+            return metodo.invoke(alvo, argumentos);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * SQL, parâmetros e tamanho do lote de um comando. Um comando JDBC é usado por uma thread de cada vez.
+     */
+    private static final class Execucao {
+
+        private String sql;
+        private List<Object> parametros = new ArrayList<>();
+        private int lote;
+
+        Execucao(String sql) {
+            this.sql = sql;
+        }
+
+        String sql() {
+            return sql;
+        }
+
+        int lote() {
+            return Math.max(lote, 1);
+        }
+
+        List<Object> parametros() {
+            return Collections.unmodifiableList(parametros);
+        }
+
+        /**
+         * Acompanha os métodos que não executam: parâmetros, itens de lote e limpezas.
+         */
+        void observar(String nome, Object[] argumentos) {
+            if (nome.startsWith("set") && argumentos != null && argumentos.length >= 2
+                    && argumentos[0] instanceof Integer posicao && posicao >= 1) {
+                while (parametros.size() < posicao) {
+                    parametros.add(null);
+                }
+                parametros.set(posicao - 1, nome.equals("setNull") ? null : descrever(argumentos[1]));
+            } else if (nome.equals("clearParameters")) {
+                parametros = new ArrayList<>();
+            } else if (nome.equals("addBatch")) {
+                lote++;
+                if (argumentos != null && argumentos.length == 1 && argumentos[0] instanceof String texto) {
+                    sql = texto;
+                }
+            } else if (nome.equals("clearBatch")) {
+                lote = 0;
+            }
+        }
+
+        void concluir(String nome) {
+            if (nome.equals("executeBatch") || nome.equals("executeLargeBatch")) {
+                lote = 0;
+            }
+        }
+
+        /**
+         * Valores grandes (streams, blobs) aparecem no log só pelo tipo.
+         */
+        private static Object descrever(Object valor) {
+            if (valor == null || valor instanceof CharSequence || valor instanceof Number || valor instanceof Boolean
+                    || valor instanceof Enum<?> || valor instanceof Temporal || valor instanceof Date) {
+                return valor;
+            }
+            return "<" + valor.getClass().getSimpleName() + ">";
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package workshop.spring.apirest.config;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Endpoint do Actuator com os comandos SQL mais lentos medidos pelo {@link MonitorSql}.
+ *
+ * - {@code GET /actuator/consultas}: os 10 de maior tempo médio
+ * - {@code GET /actuator/consultas?limite=5&ordem=total}: ordem {@code media}, {@code max} ou {@code total}
+ * - {@code DELETE /actuator/consultas}: zera as estatísticas (antes de uma rodada de carga, por exemplo)
+ *
+ * Precisa estar em {@code management.endpoints.web.exposure.include}. Com o monitor desligado,
+ * a lista vem vazia.
+ */
+@Component
+@Endpoint(id = "consultas")
+public class ConsultasEndpoint {
+
+    private final MonitorSql monitor;
+
+    @Autowired
+    public ConsultasEndpoint(MonitorSql monitor) {
+        this.monitor = monitor;
+    }
+
+    /**
+     * @param limite Quantidade de comandos (padrão 10)
+     * @param ordem Critério de ordenação (padrão {@code media})
+     * @return Os comandos mais lentos
+     * @throws InvalidEndpointRequestException (400) se o limite ou a ordem forem inválidos
+     */
+    @ReadOperation
+    public List<MonitorSql.Estatistica> maisLentas(@Nullable Integer limite, @Nullable String ordem) {
+        try {
+            return monitor.maisLentas(limite == null ? 10 : limite, ordem == null ? "media" : ordem);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+
+    @DeleteOperation
+    public void limpar() {
+        monitor.limpar();
+    }
+}
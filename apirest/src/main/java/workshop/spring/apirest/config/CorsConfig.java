@@ -23,7 +23,7 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedOrigins("*")  // Permite requisições de qualquer origem (não recomendado para produção)
                 // Em produção, substitua "*" pelos domínios permitidos, por exemplo:
                 // .allowedOrigins("https://meusite.com", "https://app.meusite.com")
-                .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS", "HEAD", "TRACE", "CONNECT")  // Métodos HTTP permitidos
+                .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "HEAD", "TRACE", "CONNECT")  // Métodos HTTP permitidos
                 .allowedHeaders("*")  // Permite todos os cabeçalhos
                 .maxAge(3600);  // Tempo em segundos que o navegador pode armazenar em cache a resposta de preflight (OPTIONS)
     }
@@ -0,0 +1,142 @@
+package workshop.spring.apirest.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * 🔁 LEITURA DAS PRÓPRIAS ESCRITAS
+ *
+ * As réplicas chegam atrasadas: logo depois de criar um herói, uma leitura na réplica
+ * pode ainda não encontrá-lo. Este filtro marca quem escreveu para que as próximas
+ * leituras dessa pessoa sigam para o banco principal.
+ *
+ * Duas marcas, usadas pelo {@link RoteadorLeituraEscrita}:
+ * - Por requisição: depois do commit de uma escrita, as leituras da mesma requisição vão
+ *   para o primário
+ * - Por sessão: o cliente manda um identificador no cabeçalho
+ *   {@code guilda.banco.replicas.leitura-propria.cabecalho} (padrão {@code X-Guilda-Sessao});
+ *   por {@code guilda.banco.replicas.leitura-propria.janela-ms} após a última escrita
+ *   (padrão 2000; 0 desliga), as leituras com o mesmo identificador também vão para o primário
+ *
+ * A janela deve cobrir o atraso de replicação esperado. Sem o cabeçalho, só vale a marca
+ * por requisição.
+ *
+ * Leituras internas que alimentam estruturas em memória (listagem pré-serializada, ranking,
+ * índice, contadores) não podem partir de uma réplica atrasada: elas rodam dentro de
+ * {@link #noPrimario(Supplier)}, fora de qualquer requisição.
+ */
+@Component
+public class LeituraDasPropriasEscritas extends OncePerRequestFilter {
+
+    private static final ThreadLocal<Contexto> ATUAL = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PRIMARIO_FORCADO = new ThreadLocal<>();
+
+    private final boolean ativo;
+    private final String cabecalho;
+    private final Cache<String, Boolean> sessoesComEscrita;
+
+    /**
+     * @param ativo Propriedade {@code guilda.banco.replicas.enabled} (padrão false)
+     * @param cabecalho Propriedade {@code guilda.banco.replicas.leitura-propria.cabecalho}
+     * @param janelaMs Propriedade {@code guilda.banco.replicas.leitura-propria.janela-ms} (padrão 2000)
+     */
+    @Autowired
+    public LeituraDasPropriasEscritas(@Value("${guilda.banco.replicas.enabled:false}") boolean ativo,
+                                      @Value("${guilda.banco.replicas.leitura-propria.cabecalho:X-Guilda-Sessao}") String cabecalho,
+                                      @Value("${guilda.banco.replicas.leitura-propria.janela-ms:2000}") long janelaMs) {
+        this.ativo = ativo;
+        this.cabecalho = cabecalho;
+        this.sessoesComEscrita = janelaMs <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(Duration.ofMillis(janelaMs))
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !ativo;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ATUAL.set(new Contexto(request.getHeader(cabecalho)));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ATUAL.remove();
+        }
+    }
+
+    /**
+     * Marca a requisição atual (e a sua sessão, se houver) como tendo escrito no banco.
+     * Chamado depois do commit; fora de uma requisição não faz nada.
+     */
+    void registrarEscrita() {
+        Contexto contexto = ATUAL.get();
+        if (contexto == null) {
+            return;
+        }
+        contexto.escreveu = true;
+        if (contexto.sessao != null && sessoesComEscrita != null) {
+            sessoesComEscrita.put(contexto.sessao, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Executa a leitura informada no banco primário, com ou sem réplicas saudáveis.
+     * A transação deve começar dentro da leitura, pois o destino é escolhido ao abrir a conexão.
+     *
+     * @param leitura Leitura que precisa do estado mais recente do banco
+     * @return O resultado da leitura
+     */
+    public <T> T noPrimario(Supplier<T> leitura) {
+        Boolean anterior = PRIMARIO_FORCADO.get();
+        PRIMARIO_FORCADO.set(Boolean.TRUE);
+        try {
+            return leitura.get();
+        } finally {
+            if (anterior == null) {
+                PRIMARIO_FORCADO.remove();
+            }
+        }
+    }
+
+    /**
+     * @return true se a leitura atual roda em {@link #noPrimario(Supplier)}, ou se a requisição
+     *         atual, ou a sua sessão dentro da janela, escreveu no banco
+     */
+    public boolean exigePrimario() {
+        if (PRIMARIO_FORCADO.get() != null) {
+            return true;
+        }
+        Contexto contexto = ATUAL.get();
+        if (contexto == null) {
+            return false;
+        }
+        return contexto.escreveu || (contexto.sessao != null && sessoesComEscrita != null
+                && sessoesComEscrita.getIfPresent(contexto.sessao) != null);
+    }
+
+    private static final class Contexto {
+
+        private final String sessao;
+        private boolean escreveu;
+
+        private Contexto(String sessao) {
+            this.sessao = sessao == null || sessao.isBlank() ? null : sessao;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package workshop.spring.apirest.config;
+
+/**
+ * Limite de requisições simultâneas que se ajusta pela latência observada (AIMD: aumento
+ * aditivo, redução multiplicativa), usado pelo {@link LimiteAdaptativo}.
+ *
+ * - Resposta dentro da latência alvo, com o limite em uso: o limite cresce devagar, cerca de
+ *   uma vaga a cada "limite" respostas
+ * - Resposta acima da latência alvo (ou erro 5xx): o limite é multiplicado pelo fator de redução,
+ *   no máximo uma vez a cada intervalo da latência alvo, para que uma rajada de respostas lentas
+ *   que já estavam em andamento não derrube o limite até o mínimo de uma vez
+ *
+ * Quando o banco fica lento, a latência sobe, o limite cai e o excesso é recusado na entrada em vez
+ * de esperar em fila por threads e conexões. Quando o banco se recupera, o limite volta a subir.
+ */
+final class LimitadorAimd {
+
+    private final int minimo;
+    private final int maximo;
+    private final long alvoNs;
+    private final double fatorReducao;
+
+    // Campos abaixo protegidos pelo monitor deste objeto
+    private double limite;
+    private int emUso;
+    private long proximaReducaoNs;
+
+    /**
+     * @param inicial Limite na partida
+     * @param minimo Menor limite possível (ao menos 1)
+     * @param maximo Maior limite possível
+     * @param alvoMs Latência a partir da qual o limite é reduzido, em milissegundos
+     * @param fatorReducao Fator aplicado ao limite a cada redução (entre 0 e 1)
+     * @throws IllegalArgumentException se os valores forem incoerentes
+     */
+    LimitadorAimd(int inicial, int minimo, int maximo, long alvoMs, double fatorReducao) {
+        if (minimo < 1 || maximo < minimo || inicial < minimo || inicial > maximo) {
+            throw new IllegalArgumentException("Limites devem respeitar 1 <= minimo <= inicial <= maximo");
+        }
+        if (alvoMs < 1) {
+            throw new IllegalArgumentException("A latência alvo deve ser positiva");
+        }
+        if (fatorReducao <= 0 || fatorReducao >= 1) {
+            throw new IllegalArgumentException("O fator de redução deve ficar entre 0 e 1");
+        }
+        this.limite = inicial;
+        this.minimo = minimo;
+        this.maximo = maximo;
+        this.alvoNs = alvoMs * 1_000_000;
+        this.fatorReducao = fatorReducao;
+        this.proximaReducaoNs = System.nanoTime();
+    }
+
+    /**
+     * Reserva uma vaga, se houver.
+     *
+     * @return true se a requisição pode seguir (chame {@link #sair} ao final)
+     */
+    synchronized boolean tentarEntrar() {
+        if (emUso >= (int) limite) {
+            return false;
+        }
+        emUso++;
+        return true;
+    }
+
+    /**
+     * Devolve a vaga e ajusta o limite pela latência da requisição.
+     *
+     * @param latenciaNs Tempo da requisição, em nanossegundos (negativo: só devolve a vaga)
+     * @param falhou true se a requisição terminou com erro do servidor
+     * @return true se a requisição indicou sobrecarga (lenta ou com erro)
+     */
+    synchronized boolean sair(long latenciaNs, boolean falhou) {
+        int ocupadas = emUso;
+        emUso--;
+        if (latenciaNs < 0) {
+            return false;
+        }
+        if (falhou || latenciaNs > alvoNs) {
+            reduzir();
+            return true;
+        }
+        if (ocupadas * 2 >= limite) {
+            // Só cresce quando o limite está sendo usado: com pouca carga não há o que aprender
+            limite = Math.min(maximo, limite + 1 / limite);
+        }
+        return false;
+    }
+
+    /**
+     * Reduz o limite (no máximo uma vez por intervalo da latência alvo).
+     */
+    synchronized void reduzir() {
+        long agora = System.nanoTime();
+        if (agora - proximaReducaoNs < 0) {
+            return;
+        }
+        limite = Math.max(minimo, limite * fatorReducao);
+        proximaReducaoNs = agora + alvoNs;
+    }
+
+    /**
+     * @return Quantidade de requisições aceitas ao mesmo tempo neste momento
+     */
+    synchronized int limite() {
+        return (int) limite;
+    }
+
+    /**
+     * @return Quantidade de requisições em andamento
+     */
+    synchronized int emUso() {
+        return emUso;
+    }
+}
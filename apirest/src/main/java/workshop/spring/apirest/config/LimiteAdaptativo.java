@@ -0,0 +1,227 @@
+package workshop.spring.apirest.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 🚧 LIMITE ADAPTATIVO DE CONCORRÊNCIA
+ *
+ * Filtro na frente das rotas {@code /aventureiros/**} que recusa na hora (503 com
+ * {@code Retry-After}) o que passar do limite de requisições simultâneas, em vez de deixar
+ * threads e conexões se acumularem quando o MySQL fica lento.
+ *
+ * Características:
+ * - Ligado com {@code guilda.limite-adaptativo.enabled=true}
+ * - Dois limites independentes ({@link LimitadorAimd}), ajustados pela latência observada:
+ *   leituras (GET e HEAD) e escritas (criar, atualizar, missão, deletar, ...)
+ * - Prioridade para as leituras: uma leitura lenta também reduz o limite das escritas, mas uma
+ *   escrita lenta não reduz o das leituras. Com o banco sobrecarregado, as escritas são cortadas
+ *   primeiro e a consulta aos heróis continua respondendo
+ * - Métricas: {@code guilda.limite.concorrencia} (limite atual), {@code guilda.limite.ocupacao}
+ *   (requisições em andamento) e {@code guilda.limite.rejeicoes}, todas com a tag {@code tipo}
+ *   ({@code leitura} ou {@code escrita})
+ *
+ * Propriedades de cada tipo, em {@code guilda.limite-adaptativo.leitura.*} e
+ * {@code guilda.limite-adaptativo.escrita.*}: {@code inicial}, {@code minimo}, {@code maximo} e
+ * {@code latencia-alvo-ms}. Comuns: {@code fator-reducao} (padrão 0.75) e
+ * {@code retry-after-segundos} (padrão 1).
+ *
+ * A latência alvo vale para requisições de tamanho fixo. As rotas em massa ({@link #emMassa}: a
+ * lista completa, a exportação, a criação e a alteração em lote e a reconstrução do índice)
+ * ocupam uma vaga, mas não ajustam o limite: o tempo delas cresce com a guilda ou com o lote,
+ * então uma delas lenta não indica banco sobrecarregado. O mesmo vale para as respostas
+ * assíncronas, que também dependem da velocidade do cliente e só devolvem a vaga ao terminar.
+ */
+@Component
+public class LimiteAdaptativo extends OncePerRequestFilter implements MeterBinder {
+
+    private static final String PREFIXO = "/aventureiros";
+
+    /**
+     * Rotas (depois do prefixo) cujo tempo depende da quantidade de dados. A {@code /listar}
+     * só entra aqui sem os parâmetros de paginação.
+     */
+    private static final Set<String> ROTAS_EM_MASSA = Set.of("/exportar", "/criar/lote", "/lote",
+            "/indice/classes/reconstruir");
+    private static final List<String> PARAMETROS_PAGINACAO = List.of("limite", "cursor", "ordenarPor", "direcao");
+
+    private final boolean ativo;
+    private final LimitadorAimd leitura;
+    private final LimitadorAimd escrita;
+    private final String retryAfter;
+    private final LongAdder leiturasRecusadas = new LongAdder();
+    private final LongAdder escritasRecusadas = new LongAdder();
+
+    /**
+     * @param ativo Propriedade {@code guilda.limite-adaptativo.enabled} (padrão false)
+     * @param leituraInicial Propriedade {@code guilda.limite-adaptativo.leitura.inicial} (padrão 50)
+     * @param leituraMinimo Propriedade {@code guilda.limite-adaptativo.leitura.minimo} (padrão 10)
+     * @param leituraMaximo Propriedade {@code guilda.limite-adaptativo.leitura.maximo} (padrão 200)
+     * @param leituraAlvoMs Propriedade {@code guilda.limite-adaptativo.leitura.latencia-alvo-ms} (padrão 100)
+     * @param escritaInicial Propriedade {@code guilda.limite-adaptativo.escrita.inicial} (padrão 20)
+     * @param escritaMinimo Propriedade {@code guilda.limite-adaptativo.escrita.minimo} (padrão 1)
+     * @param escritaMaximo Propriedade {@code guilda.limite-adaptativo.escrita.maximo} (padrão 100)
+     * @param escritaAlvoMs Propriedade {@code guilda.limite-adaptativo.escrita.latencia-alvo-ms} (padrão 200)
+     * @param fatorReducao Propriedade {@code guilda.limite-adaptativo.fator-reducao} (padrão 0.75)
+     * @param retryAfterSegundos Propriedade {@code guilda.limite-adaptativo.retry-after-segundos} (padrão 1)
+     */
+    @Autowired
+    public LimiteAdaptativo(@Value("${guilda.limite-adaptativo.enabled:false}") boolean ativo,
+                            @Value("${guilda.limite-adaptativo.leitura.inicial:50}") int leituraInicial,
+                            @Value("${guilda.limite-adaptativo.leitura.minimo:10}") int leituraMinimo,
+                            @Value("${guilda.limite-adaptativo.leitura.maximo:200}") int leituraMaximo,
+                            @Value("${guilda.limite-adaptativo.leitura.latencia-alvo-ms:100}") long leituraAlvoMs,
+                            @Value("${guilda.limite-adaptativo.escrita.inicial:20}") int escritaInicial,
+                            @Value("${guilda.limite-adaptativo.escrita.minimo:1}") int escritaMinimo,
+                            @Value("${guilda.limite-adaptativo.escrita.maximo:100}") int escritaMaximo,
+                            @Value("${guilda.limite-adaptativo.escrita.latencia-alvo-ms:200}") long escritaAlvoMs,
+                            @Value("${guilda.limite-adaptativo.fator-reducao:0.75}") double fatorReducao,
+                            @Value("${guilda.limite-adaptativo.retry-after-segundos:1}") int retryAfterSegundos) {
+        if (retryAfterSegundos < 0) {
+            throw new IllegalArgumentException("guilda.limite-adaptativo.retry-after-segundos não pode ser negativo");
+        }
+        this.ativo = ativo;
+        this.leitura = new LimitadorAimd(leituraInicial, leituraMinimo, leituraMaximo, leituraAlvoMs, fatorReducao);
+        this.escrita = new LimitadorAimd(escritaInicial, escritaMinimo, escritaMaximo, escritaAlvoMs, fatorReducao);
+        this.retryAfter = Integer.toString(retryAfterSegundos);
+    }
+
+    /**
+     * @return Limite atual das leituras
+     */
+    public int getLimiteLeitura() {
+        return leitura.limite();
+    }
+
+    /**
+     * @return Limite atual das escritas
+     */
+    public int getLimiteEscrita() {
+        return escrita.limite();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !ativo || !request.getRequestURI().startsWith(request.getContextPath() + PREFIXO);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean ehLeitura = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+        LimitadorAimd limitador = ehLeitura ? leitura : escrita;
+        if (!limitador.tentarEntrar()) {
+            (ehLeitura ? leiturasRecusadas : escritasRecusadas).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+            return;
+        }
+
+        boolean ajustaLimite = !emMassa(request);
+        long inicio = System.nanoTime();
+        boolean falhou = true;
+        try {
+            chain.doFilter(request, response);
+            falhou = response.getStatus() >= 500;
+        } finally {
+            if (request.isAsyncStarted()) {
+                liberarAoTerminar(request, limitador);
+            } else if (!ajustaLimite) {
+                limitador.sair(-1, false);
+            } else {
+                boolean sobrecarga = limitador.sair(System.nanoTime() - inicio, falhou);
+                if (sobrecarga && ehLeitura) {
+                    // Leituras têm prioridade: se elas sofrem, as escritas cedem espaço
+                    escrita.reduzir();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true se a requisição vai a uma rota em massa, que não ajusta o limite
+     */
+    private static boolean emMassa(HttpServletRequest request) {
+        String rota = request.getRequestURI().substring(request.getContextPath().length() + PREFIXO.length());
+        if (rota.equals("/listar")) {
+            return PARAMETROS_PAGINACAO.stream().noneMatch(parametro -> request.getParameter(parametro) != null);
+        }
+        return ROTAS_EM_MASSA.contains(rota);
+    }
+
+    /**
+     * Resposta assíncrona: a vaga só é devolvida quando ela terminar, sem ajustar o limite.
+     */
+    private static void liberarAoTerminar(HttpServletRequest request, LimitadorAimd limitador) {
+        AtomicBoolean liberada = new AtomicBoolean();
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent evento) {
+                liberar();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent evento) {
+                liberar();
+            }
+
+            @Override
+            public void onError(AsyncEvent evento) {
+                liberar();
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent evento) {
+                // Novo ciclo assíncrono na mesma requisição: continua registrado
+                evento.getAsyncContext().addListener(this);
+            }
+
+            private void liberar() {
+                if (liberada.compareAndSet(false, true)) {
+                    limitador.sair(-1, false);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registrar(registry, "leitura", leitura, leiturasRecusadas);
+        registrar(registry, "escrita", escrita, escritasRecusadas);
+    }
+
+    private static void registrar(MeterRegistry registry, String tipo, LimitadorAimd limitador, LongAdder recusadas) {
+        Gauge.builder("guilda.limite.concorrencia", limitador, LimitadorAimd::limite)
+                .description("Requisições simultâneas aceitas pelo limite adaptativo")
+                .tag("tipo", tipo)
+                .register(registry);
+        Gauge.builder("guilda.limite.ocupacao", limitador, LimitadorAimd::emUso)
+                .description("Requisições em andamento dentro do limite adaptativo")
+                .tag("tipo", tipo)
+                .register(registry);
+        FunctionCounter.builder("guilda.limite.rejeicoes", recusadas, LongAdder::sum)
+                .description("Requisições recusadas com 503 pelo limite adaptativo")
+                .tag("tipo", tipo)
+                .register(registry);
+    }
+}
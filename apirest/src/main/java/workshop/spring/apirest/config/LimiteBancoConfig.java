@@ -0,0 +1,75 @@
+package workshop.spring.apirest.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Configuração do limite de acesso simultâneo ao banco ({@link ConexoesLimitadas}).
+ *
+ * Pensado para o modo de threads virtuais ({@code spring.threads.virtual.enabled=true},
+ * que exige Java 21 ou superior): o limite é ligado automaticamente junto com ele, ou
+ * de forma explícita com {@code guilda.banco.limite-concorrencia.enabled}.
+ *
+ * Por padrão, o número de vagas é o tamanho máximo do pool do Hikari e a espera máxima
+ * é o {@code connectionTimeout} do pool; ambos podem ser trocados com
+ * {@code guilda.banco.limite-concorrencia.permissoes} e
+ * {@code guilda.banco.limite-concorrencia.espera-maxima-ms}.
+ */
+@Configuration
+public class LimiteBancoConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(LimiteBancoConfig.class);
+
+    /**
+     * Envolve o pool do Hikari com o limite, quando ligado. É o primeiro da cadeia
+     * ({@link TrocaDataSource#LIMITE}), então limita só as conexões do primário.
+     *
+     * @param environment Propriedades da aplicação
+     * @return O processador que troca o DataSource
+     */
+    @Bean
+    static TrocaDataSource limiteConcorrenciaBanco(Environment environment) {
+        return new TrocaDataSource(TrocaDataSource.LIMITE) {
+            @Override
+            protected DataSource envolver(DataSource dataSource) {
+                if (!ligado(environment)) {
+                    return dataSource;
+                }
+                HikariDataSource pool = pool(dataSource);
+                if (pool == null) {
+                    return dataSource;
+                }
+                int permissoes = environment.getProperty("guilda.banco.limite-concorrencia.permissoes",
+                        Integer.class, pool.getMaximumPoolSize());
+                long esperaMaximaMs = environment.getProperty("guilda.banco.limite-concorrencia.espera-maxima-ms",
+                        Long.class, pool.getConnectionTimeout());
+                log.info("Acesso ao banco limitado a {} conexão(ões) simultânea(s), espera máxima de {} ms",
+                        permissoes, esperaMaximaMs);
+                return new ConexoesLimitadas(dataSource, permissoes, esperaMaximaMs);
+            }
+        };
+    }
+
+    /**
+     * Encontra o pool do Hikari, mesmo que outro DataSource já o tenha envolvido.
+     */
+    private static HikariDataSource pool(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private static boolean ligado(Environment environment) {
+        boolean threadsVirtuais = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        return environment.getProperty("guilda.banco.limite-concorrencia.enabled", Boolean.class, threadsVirtuais);
+    }
+}
@@ -0,0 +1,105 @@
+package workshop.spring.apirest.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.BaseStream;
+
+/**
+ * Métrica de linhas devolvidas (ou alteradas) por método de repositório,
+ * {@code guilda.repositorio.linhas}, com as tags {@code repository} e {@code method}.
+ *
+ * O tempo de cada método já é medido pelo Spring Boot em {@code spring.data.repository.invocations},
+ * com as mesmas tags; juntas, as duas métricas mostram se uma consulta ficou lenta porque
+ * passou a devolver mais linhas.
+ *
+ * Como cada resultado é contado:
+ * - listas e páginas: a quantidade de elementos
+ * - {@link Optional} e entidades: 0 ou 1
+ * - métodos {@link Modifying}: o número de linhas alteradas
+ * - outros valores (contagens, {@code exists}): 1
+ * - {@code Stream} e {@code void} não são contados
+ */
+@Configuration
+public class MetricasRepositorioConfig {
+
+    /**
+     * Adiciona a contagem de linhas a todos os repositórios do Spring Data.
+     * Estático porque as fábricas de repositório são criadas cedo e já precisam passar por ele.
+     *
+     * @param meterRegistry Registro de métricas, obtido só na primeira chamada
+     * @return O processador que altera as fábricas de repositório
+     */
+    @Bean
+    public static BeanPostProcessor metricasRepositorio(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> fabrica) {
+                    fabrica.addRepositoryFactoryCustomizer(repositorio -> repositorio.addRepositoryProxyPostProcessor(
+                            (proxy, informacao) -> proxy.addAdvice(contador(meterRegistry,
+                                    informacao.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static MethodInterceptor contador(ObjectProvider<MeterRegistry> meterRegistry, String repositorio) {
+        // Um DistributionSummary por método, criado na primeira chamada
+        Map<Method, DistributionSummary> linhas = new ConcurrentHashMap<>();
+        return invocacao -> {
+            Object resultado = invocacao.proceed();
+            Method metodo = invocacao.getMethod();
+            long quantidade = contar(metodo, resultado);
+            if (quantidade >= 0) {
+                linhas.computeIfAbsent(metodo, m -> DistributionSummary.builder("guilda.repositorio.linhas")
+                                .description("Linhas devolvidas ou alteradas por método de repositório")
+                                .baseUnit("rows")
+                                .tag("repository", repositorio)
+                                .tag("method", m.getName())
+                                .register(meterRegistry.getObject()))
+                        .record(quantidade);
+            }
+            return resultado;
+        };
+    }
+
+    /**
+     * @return A quantidade de linhas, ou -1 quando o resultado não deve ser contado
+     */
+    private static long contar(Method metodo, Object resultado) {
+        if (metodo.getReturnType() == void.class || resultado instanceof BaseStream<?, ?>) {
+            return -1;
+        }
+        if (resultado == null) {
+            return 0;
+        }
+        if (resultado instanceof Collection<?> colecao) {
+            return colecao.size();
+        }
+        if (resultado instanceof Slice<?> pagina) {
+            return pagina.getNumberOfElements();
+        }
+        if (resultado instanceof Optional<?> opcional) {
+            return opcional.isPresent() ? 1 : 0;
+        }
+        if (resultado instanceof Number numero && metodo.isAnnotationPresent(Modifying.class)) {
+            return numero.longValue();
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,286 @@
+package workshop.spring.apirest.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * 🔎 MONITOR DE SQL
+ *
+ * Recebe de {@link ConexoesMonitoradas} o tempo de cada comando enviado ao banco e substitui o
+ * antigo {@code spring.jpa.show-sql}, que escrevia todo SQL no console, na thread da requisição.
+ *
+ * Características:
+ * - Ligado por padrão; desligado com {@code guilda.sql.monitor.enabled=false}
+ * - Estatísticas por comando normalizado (literais e listas de IN viram {@code ?}): execuções,
+ *   tempo total, médio e máximo, e o método de repositório que o disparou
+ * - Comandos acima de {@code guilda.sql.monitor.lenta-ms} vão para o log (WARN, logger
+ *   {@code guilda.sql}) com os parâmetros e o método de repositório de origem
+ * - Uma fração {@code guilda.sql.monitor.amostragem} (0 a 1) dos demais vai para o log em INFO
+ * - Os mais lentos ficam em {@code /actuator/consultas} ({@link ConsultasEndpoint})
+ * - Métrica {@code guilda.sql.lentas}: total de comandos acima do limite
+ *
+ * No máximo {@code guilda.sql.monitor.max-consultas} comandos diferentes são acompanhados;
+ * os que aparecerem depois somam em uma única linha, {@value #OUTRAS}.
+ *
+ * O tempo medido é o da execução do comando: a leitura das linhas de um {@code ResultSet}
+ * depois que ele volta (como nas exportações em Stream) não entra na conta.
+ */
+@Component
+public class MonitorSql implements MeterBinder {
+
+    /**
+     * Linha que acumula os comandos que passaram do limite de comandos acompanhados.
+     */
+    static final String OUTRAS = "(outras consultas)";
+
+    private static final Logger log = LoggerFactory.getLogger("guilda.sql");
+
+    private static final Pattern TEXTO = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERO = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern LISTA = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+
+    private static final int TAMANHO_MAXIMO_PARAMETRO = 100;
+
+    /**
+     * Método de repositório em execução na thread atual (ver {@link #entrar(String)}).
+     */
+    private static final ThreadLocal<String> ORIGEM = new ThreadLocal<>();
+
+    private final boolean ativo;
+    private final long lentaNs;
+    private final double amostragem;
+    private final int maxConsultas;
+    private final Map<String, Acumulado> consultas = new ConcurrentHashMap<>();
+    private final Cache<String, String> normalizados;
+    private final LongAdder lentas = new LongAdder();
+
+    /**
+     * @param ativo Propriedade {@code guilda.sql.monitor.enabled} (padrão true)
+     * @param lentaMs Propriedade {@code guilda.sql.monitor.lenta-ms} (padrão 200)
+     * @param amostragem Propriedade {@code guilda.sql.monitor.amostragem} (padrão 0.01, 1%)
+     * @param maxConsultas Propriedade {@code guilda.sql.monitor.max-consultas} (padrão 500)
+     */
+    @Autowired
+    public MonitorSql(@Value("${guilda.sql.monitor.enabled:true}") boolean ativo,
+                      @Value("${guilda.sql.monitor.lenta-ms:200}") long lentaMs,
+                      @Value("${guilda.sql.monitor.amostragem:0.01}") double amostragem,
+                      @Value("${guilda.sql.monitor.max-consultas:500}") int maxConsultas) {
+        if (lentaMs < 0) {
+            throw new IllegalArgumentException("guilda.sql.monitor.lenta-ms não pode ser negativo");
+        }
+        if (amostragem < 0 || amostragem > 1) {
+            throw new IllegalArgumentException("guilda.sql.monitor.amostragem deve ficar entre 0 e 1");
+        }
+        if (maxConsultas < 1) {
+            throw new IllegalArgumentException("guilda.sql.monitor.max-consultas deve ser positivo");
+        }
+        this.ativo = ativo;
+        this.lentaNs = TimeUnit.MILLISECONDS.toNanos(lentaMs);
+        this.amostragem = amostragem;
+        this.maxConsultas = maxConsultas;
+        // O mesmo SQL chega milhares de vezes: normaliza uma vez só
+        this.normalizados = Caffeine.newBuilder().maximumSize(maxConsultas * 4L).build();
+    }
+
+    /**
+     * @return true se os comandos devem ser medidos ({@code guilda.sql.monitor.enabled})
+     */
+    public boolean isAtivo() {
+        return ativo;
+    }
+
+    /**
+     * Marca o método de repositório que a thread atual começou a executar.
+     *
+     * @param origem Nome do método, como {@code AventureiroRepository.findByNome}
+     * @return A origem anterior, a ser devolvida a {@link #sair(String)} (repositórios podem se chamar)
+     */
+    public static String entrar(String origem) {
+        String anterior = ORIGEM.get();
+        ORIGEM.set(origem);
+        return anterior;
+    }
+
+    /**
+     * Desfaz o {@link #entrar(String)} correspondente.
+     *
+     * @param anterior Valor devolvido por {@link #entrar(String)}
+     */
+    public static void sair(String anterior) {
+        if (anterior == null) {
+            ORIGEM.remove();
+        } else {
+            ORIGEM.set(anterior);
+        }
+    }
+
+    /**
+     * Registra um comando executado.
+     *
+     * @param sql SQL como foi enviado ao driver
+     * @param duracaoNs Tempo de execução, em nanossegundos
+     * @param lote Quantidade de comandos do lote JDBC (1 fora de lotes)
+     * @param parametros Parâmetros do comando, calculados só se ele for para o log
+     */
+    void registrar(String sql, long duracaoNs, int lote, Supplier<List<Object>> parametros) {
+        String normalizado = normalizados.get(sql, MonitorSql::normalizar);
+        String origem = ORIGEM.get();
+        Acumulado acumulado = consultas.get(normalizado);
+        if (acumulado == null) {
+            acumulado = consultas.size() < maxConsultas
+                    ? consultas.computeIfAbsent(normalizado, chave -> new Acumulado())
+                    : consultas.computeIfAbsent(OUTRAS, chave -> new Acumulado());
+        }
+        boolean lenta = duracaoNs >= lentaNs;
+        acumulado.registrar(duracaoNs, lenta, origem);
+
+        if (lenta) {
+            lentas.increment();
+            if (log.isWarnEnabled()) {
+                log.warn("SQL lento: {} ms | origem {} | {}{} | parâmetros {}", formatarMs(duracaoNs),
+                        origem == null ? "-" : origem, sql, lote > 1 ? " (lote de " + lote + ")" : "",
+                        formatar(parametros.get()));
+            }
+        } else if (amostragem > 0 && log.isInfoEnabled() && ThreadLocalRandom.current().nextDouble() < amostragem) {
+            log.info("SQL (amostra): {} ms | origem {} | {}{} | parâmetros {}", formatarMs(duracaoNs),
+                    origem == null ? "-" : origem, sql, lote > 1 ? " (lote de " + lote + ")" : "",
+                    formatar(parametros.get()));
+        }
+    }
+
+    /**
+     * Comandos mais lentos desde a partida (ou desde o último {@link #limpar()}).
+     *
+     * @param limite Quantidade máxima de comandos
+     * @param ordem Critério: {@code media} (tempo médio), {@code max} (pior execução) ou {@code total}
+     *              (tempo somado de todas as execuções)
+     * @return Estatísticas dos comandos, do mais lento ao mais rápido
+     * @throws IllegalArgumentException se o limite não for positivo ou a ordem for desconhecida
+     */
+    public List<Estatistica> maisLentas(int limite, String ordem) {
+        if (limite < 1) {
+            throw new IllegalArgumentException("O limite deve ser positivo");
+        }
+        Comparator<Estatistica> criterio = switch (ordem.trim().toLowerCase(Locale.ROOT)) {
+            case "media" -> Comparator.comparingDouble(Estatistica::mediaMs);
+            case "max" -> Comparator.comparingDouble(Estatistica::maxMs);
+            case "total" -> Comparator.comparingDouble(Estatistica::totalMs);
+            default -> throw new IllegalArgumentException("Ordem desconhecida: " + ordem + " (use media, max ou total)");
+        };
+        return consultas.entrySet().stream()
+                .map(entrada -> entrada.getValue().estatistica(entrada.getKey()))
+                .sorted(criterio.reversed())
+                .limit(limite)
+                .toList();
+    }
+
+    /**
+     * Zera as estatísticas, por exemplo antes de uma rodada de carga.
+     */
+    public void limpar() {
+        consultas.clear();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("guilda.sql.lentas", lentas, LongAdder::sum)
+                .description("Comandos SQL acima de guilda.sql.monitor.lenta-ms")
+                .register(registry);
+    }
+
+    /**
+     * Troca literais por {@code ?}, junta listas de {@code IN} e espaços repetidos, para que
+     * comandos iguais a menos dos valores caiam na mesma linha das estatísticas.
+     */
+    static String normalizar(String sql) {
+        String normalizado = TEXTO.matcher(sql).replaceAll("?");
+        normalizado = NUMERO.matcher(normalizado).replaceAll("?");
+        normalizado = LISTA.matcher(normalizado).replaceAll("(?...)");
+        return ESPACOS.matcher(normalizado).replaceAll(" ").trim();
+    }
+
+    private static String formatar(List<Object> parametros) {
+        StringBuilder texto = new StringBuilder("[");
+        for (int i = 0; i < parametros.size(); i++) {
+            if (i > 0) {
+                texto.append(", ");
+            }
+            Object valor = parametros.get(i);
+            String formatado = valor instanceof CharSequence ? "'" + valor + "'" : String.valueOf(valor);
+            texto.append(i + 1).append('=').append(formatado.length() > TAMANHO_MAXIMO_PARAMETRO
+                    ? formatado.substring(0, TAMANHO_MAXIMO_PARAMETRO) + "..." : formatado);
+        }
+        return texto.append(']').toString();
+    }
+
+    private static String formatarMs(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1e6);
+    }
+
+    /**
+     * Estatísticas de um comando normalizado, devolvidas pelo endpoint.
+     *
+     * @param sql Comando normalizado
+     * @param execucoes Quantidade de execuções
+     * @param totalMs Tempo somado das execuções
+     * @param mediaMs Tempo médio por execução
+     * @param maxMs Pior execução
+     * @param lentas Execuções acima de {@code guilda.sql.monitor.lenta-ms}
+     * @param origem Último método de repositório que executou o comando (null fora de repositórios)
+     */
+    public record Estatistica(String sql, long execucoes, double totalMs, double mediaMs, double maxMs,
+                              long lentas, String origem) {
+    }
+
+    /**
+     * Contadores de um comando, atualizados por várias threads ao mesmo tempo.
+     */
+    private static final class Acumulado {
+
+        private final LongAdder execucoes = new LongAdder();
+        private final LongAdder totalNs = new LongAdder();
+        private final AtomicLong maxNs = new AtomicLong();
+        private final LongAdder lentas = new LongAdder();
+        private volatile String origem;
+
+        void registrar(long duracaoNs, boolean lenta, String origem) {
+            execucoes.increment();
+            totalNs.add(duracaoNs);
+            maxNs.accumulateAndGet(duracaoNs, Math::max);
+            if (lenta) {
+                lentas.increment();
+            }
+            if (origem != null) {
+                this.origem = origem;
+            }
+        }
+
+        Estatistica estatistica(String sql) {
+            long quantidade = execucoes.sum();
+            long total = totalNs.sum();
+            return new Estatistica(sql, quantidade, total / 1e6, quantidade == 0 ? 0 : total / 1e6 / quantidade,
+                    maxNs.get() / 1e6, lentas.sum(), origem);
+        }
+    }
+}
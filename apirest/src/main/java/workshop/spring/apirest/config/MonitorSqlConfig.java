@@ -0,0 +1,81 @@
+package workshop.spring.apirest.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuração do {@link MonitorSql}, ligado por padrão ({@code guilda.sql.monitor.enabled=false} desliga).
+ *
+ * Dois processadores:
+ * - o DataSource é envolvido por {@link ConexoesMonitoradas}, que mede cada comando
+ * - os repositórios do Spring Data marcam, durante cada chamada, o método em execução
+ *   ({@code AventureiroRepository.findByNome}), que aparece como origem no log e no endpoint
+ */
+@Configuration
+public class MonitorSqlConfig {
+
+    /**
+     * Envolve o DataSource com a medição dos comandos, quando ligada. É o último da cadeia
+     * ({@link TrocaDataSource#MONITOR}): fica por fora do roteador e mede também as leituras
+     * feitas nas réplicas.
+     *
+     * @param environment Propriedades da aplicação
+     * @param monitor Monitor que recebe os tempos, obtido só quando o DataSource é criado
+     * @return O processador que troca o DataSource
+     */
+    @Bean
+    static TrocaDataSource medicaoComandosSql(Environment environment, ObjectProvider<MonitorSql> monitor) {
+        return new TrocaDataSource(TrocaDataSource.MONITOR) {
+            @Override
+            protected DataSource envolver(DataSource dataSource) {
+                if (!ligado(environment)) {
+                    return dataSource;
+                }
+                return new ConexoesMonitoradas(dataSource, monitor.getObject());
+            }
+        };
+    }
+
+    /**
+     * Marca o método de repositório em execução, para o log dos comandos lentos.
+     *
+     * @param environment Propriedades da aplicação
+     * @return O processador que altera as fábricas de repositório
+     */
+    @Bean
+    public static BeanPostProcessor origemComandosSql(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> fabrica && ligado(environment)) {
+                    fabrica.addRepositoryFactoryCustomizer(repositorio -> repositorio.addRepositoryProxyPostProcessor(
+                            (proxy, informacao) -> proxy.addAdvice(origem(
+                                    informacao.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static MethodInterceptor origem(String repositorio) {
+        return invocacao -> {
+            String anterior = MonitorSql.entrar(repositorio + "." + invocacao.getMethod().getName());
+            try {
+                return invocacao.proceed();
+            } finally {
+                MonitorSql.sair(anterior);
+            }
+        };
+    }
+
+    private static boolean ligado(Environment environment) {
+        return environment.getProperty("guilda.sql.monitor.enabled", Boolean.class, true);
+    }
+}
@@ -0,0 +1,55 @@
+package workshop.spring.apirest.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuração do roteamento entre o banco principal e as réplicas de leitura
+ * ({@link RoteadorLeituraEscrita}).
+ *
+ * Ligado com {@code guilda.banco.replicas.enabled=true} e ao menos uma URL em
+ * {@code guilda.banco.replicas.urls}; desligado, o DataSource do Spring Boot fica como está.
+ */
+@Configuration
+public class ReplicasBancoConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicasBancoConfig.class);
+
+    /**
+     * Envolve o DataSource principal com o roteador, quando ligado. Fica depois do limite e antes
+     * do monitor ({@link TrocaDataSource#ROTEAMENTO}).
+     *
+     * @param environment Propriedades da aplicação
+     * @param replicas Pools das réplicas, obtidos só quando o DataSource é criado
+     * @param leituraPropria Marcas de leitura das próprias escritas
+     * @return O processador que troca o DataSource
+     */
+    @Bean
+    static TrocaDataSource roteamentoReplicas(Environment environment,
+                                              ObjectProvider<ReplicasLeitura> replicas,
+                                              ObjectProvider<LeituraDasPropriasEscritas> leituraPropria) {
+        return new TrocaDataSource(TrocaDataSource.ROTEAMENTO) {
+            @Override
+            protected DataSource envolver(DataSource dataSource) {
+                if (!environment.getProperty("guilda.banco.replicas.enabled", Boolean.class, false)) {
+                    return dataSource;
+                }
+                ReplicasLeitura pools = replicas.getObject();
+                if (!pools.isAtivo()) {
+                    log.warn("guilda.banco.replicas.enabled ligado sem guilda.banco.replicas.urls; "
+                            + "todas as consultas seguem para o banco principal");
+                    return dataSource;
+                }
+                return new LazyConnectionDataSourceProxy(
+                        new RoteadorLeituraEscrita(dataSource, pools, leituraPropria.getObject()));
+            }
+        };
+    }
+}
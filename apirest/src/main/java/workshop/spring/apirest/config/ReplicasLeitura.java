@@ -0,0 +1,230 @@
+package workshop.spring.apirest.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 📚 RÉPLICAS DE LEITURA
+ *
+ * Pools de conexão (Hikari) para as réplicas do banco, usadas pelo {@link RoteadorLeituraEscrita}
+ * nas transações somente leitura.
+ *
+ * Características:
+ * - Ligado com {@code guilda.banco.replicas.enabled=true} e a lista de URLs em
+ *   {@code guilda.banco.replicas.urls} (separadas por vírgula)
+ * - Rodízio (round-robin) entre as réplicas saudáveis
+ * - Verificação de saúde a cada {@code guilda.banco.replicas.verificacao-ms}: a réplica que não
+ *   responde sai do rodízio e volta sozinha quando a verificação passa de novo
+ * - A réplica que falha ao entregar uma conexão durante uma requisição sai do rodízio na hora
+ * - Métricas: {@code guilda.banco.replicas.saudaveis}, {@code guilda.banco.roteamento} (com a tag
+ *   {@code destino}) e as do Hikari de cada réplica ({@code pool=guilda-replica-1}, ...)
+ *
+ * Usuário e senha são os do banco principal, a menos que
+ * {@code guilda.banco.replicas.usuario} e {@code guilda.banco.replicas.senha} digam outra coisa.
+ */
+@Component
+public class ReplicasLeitura implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicasLeitura.class);
+
+    private final boolean ativo;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger rodizio = new AtomicInteger();
+    private final AtomicLong leiturasNaReplica = new AtomicLong();
+    private final AtomicLong leiturasNoPrimario = new AtomicLong();
+    private final ScheduledExecutorService verificador;
+
+    /**
+     * @param ativo Propriedade {@code guilda.banco.replicas.enabled} (padrão false)
+     * @param urls Propriedade {@code guilda.banco.replicas.urls} (padrão nenhuma)
+     * @param usuario Propriedade {@code guilda.banco.replicas.usuario} (padrão o do banco principal)
+     * @param senha Propriedade {@code guilda.banco.replicas.senha} (padrão a do banco principal)
+     * @param tamanhoPool Propriedade {@code guilda.banco.replicas.tamanho-pool} (padrão 10)
+     * @param esperaConexaoMs Propriedade {@code guilda.banco.replicas.espera-conexao-ms} (padrão 500),
+     *                        tempo máximo esperando uma conexão antes de desistir da réplica
+     * @param verificacaoMs Propriedade {@code guilda.banco.replicas.verificacao-ms} (padrão 1000)
+     */
+    @Autowired
+    public ReplicasLeitura(@Value("${guilda.banco.replicas.enabled:false}") boolean ativo,
+                           @Value("${guilda.banco.replicas.urls:}") List<String> urls,
+                           @Value("${guilda.banco.replicas.usuario:${spring.datasource.username:}}") String usuario,
+                           @Value("${guilda.banco.replicas.senha:${spring.datasource.password:}}") String senha,
+                           @Value("${guilda.banco.replicas.tamanho-pool:10}") int tamanhoPool,
+                           @Value("${guilda.banco.replicas.espera-conexao-ms:500}") long esperaConexaoMs,
+                           @Value("${guilda.banco.replicas.verificacao-ms:1000}") long verificacaoMs) {
+        this.ativo = ativo && !urls.isEmpty();
+        if (!this.ativo) {
+            this.verificador = null;
+            return;
+        }
+        for (String url : urls) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("guilda-replica-" + (replicas.size() + 1));
+            config.setJdbcUrl(url.trim());
+            config.setUsername(usuario);
+            config.setPassword(senha);
+            config.setMaximumPoolSize(tamanhoPool);
+            config.setConnectionTimeout(Math.max(250, esperaConexaoMs));
+            config.setReadOnly(true);
+            // Não falha na subida: uma réplica fora do ar só fica fora do rodízio
+            config.setInitializationFailTimeout(-1);
+            replicas.add(new Replica(config.getPoolName(), new HikariDataSource(config)));
+        }
+        verificarSaude();
+        this.verificador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "verificador-replicas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        verificador.scheduleWithFixedDelay(this::verificarSaude, verificacaoMs, verificacaoMs, TimeUnit.MILLISECONDS);
+        log.info("Leituras distribuídas entre {} réplica(s); {} saudável(is)", replicas.size(), saudaveis());
+    }
+
+    /**
+     * @return true se houver réplicas configuradas e o roteamento estiver ligado
+     */
+    public boolean isAtivo() {
+        return ativo;
+    }
+
+    /**
+     * Abre uma conexão na próxima réplica saudável do rodízio.
+     * A réplica que falha sai do rodízio e a seguinte é tentada.
+     *
+     * @return A conexão, ou null se nenhuma réplica estiver disponível
+     */
+    Connection conexao() {
+        for (int tentativa = 0; tentativa < replicas.size(); tentativa++) {
+            Replica replica = proxima();
+            if (replica == null) {
+                break;
+            }
+            try {
+                Connection conexao = replica.pool.getConnection();
+                leiturasNaReplica.incrementAndGet();
+                return conexao;
+            } catch (SQLException e) {
+                ejetar(replica, e);
+            }
+        }
+        leiturasNoPrimario.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Conta uma leitura que foi mandada ao primário de propósito (leitura das próprias escritas).
+     */
+    void registrarLeituraNoPrimario() {
+        leiturasNoPrimario.incrementAndGet();
+    }
+
+    /**
+     * @return Quantas réplicas estão no rodízio agora
+     */
+    public int saudaveis() {
+        return (int) replicas.stream().filter(replica -> replica.saudavel).count();
+    }
+
+    private Replica proxima() {
+        int inicio = Math.floorMod(rodizio.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((inicio + i) % replicas.size());
+            if (replica.saudavel) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private void verificarSaude() {
+        for (Replica replica : replicas) {
+            try (Connection conexao = replica.pool.getConnection()) {
+                if (!conexao.isValid(1)) {
+                    // Sem isso o Hikari devolveria a mesma conexão morta na próxima verificação
+                    replica.pool.evictConnection(conexao);
+                    throw new SQLException("conexão inválida");
+                }
+                if (!replica.saudavel) {
+                    replica.saudavel = true;
+                    log.info("Réplica {} de volta ao rodízio", replica.nome);
+                }
+            } catch (SQLException e) {
+                ejetar(replica, e);
+            }
+        }
+    }
+
+    private void ejetar(Replica replica, SQLException e) {
+        if (replica.saudavel) {
+            replica.saudavel = false;
+            log.warn("Réplica {} fora do rodízio: {}", replica.nome, e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!ativo) {
+            return;
+        }
+        Gauge.builder("guilda.banco.replicas.saudaveis", this, ReplicasLeitura::saudaveis)
+                .description("Réplicas de leitura no rodízio")
+                .register(registry);
+        FunctionCounter.builder("guilda.banco.roteamento", leiturasNaReplica, AtomicLong::get)
+                .description("Transações somente leitura por destino")
+                .tag("destino", "replica")
+                .register(registry);
+        FunctionCounter.builder("guilda.banco.roteamento", leiturasNoPrimario, AtomicLong::get)
+                .description("Transações somente leitura por destino")
+                .tag("destino", "primario")
+                .register(registry);
+        MicrometerMetricsTrackerFactory metricas = new MicrometerMetricsTrackerFactory(registry);
+        replicas.forEach(replica -> replica.pool.setMetricsTrackerFactory(metricas));
+    }
+
+    /**
+     * Para a verificação de saúde e fecha os pools das réplicas.
+     */
+    @PreDestroy
+    public void fechar() {
+        if (verificador != null) {
+            verificador.shutdownNow();
+        }
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    /**
+     * Uma réplica e o seu pool. Começa fora do rodízio até passar na primeira verificação.
+     */
+    private static final class Replica {
+
+        private final String nome;
+        private final HikariDataSource pool;
+        private volatile boolean saudavel;
+
+        private Replica(String nome, HikariDataSource pool) {
+            this.nome = nome;
+            this.pool = pool;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package workshop.spring.apirest.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * DataSource que escolhe, a cada conexão, entre o banco principal e as {@link ReplicasLeitura}.
+ *
+ * Regras:
+ * - Transação somente leitura ({@code @Transactional(readOnly = true)}, e as consultas do
+ *   Spring Data fora de uma transação) vai para uma réplica saudável
+ * - Qualquer outra transação, como {@code update} e {@code realizarMissao}, vai para o primário
+ * - Sem réplicas saudáveis, ou quando a {@link LeituraDasPropriasEscritas} pede, a leitura
+ *   também vai para o primário
+ *
+ * Precisa ficar atrás de um {@link LazyConnectionDataSourceProxy}: o gerenciador de transações
+ * pede a conexão antes de anunciar que a transação é somente leitura, e o proxy só abre a
+ * conexão de verdade no primeiro comando SQL, quando a decisão já pode ser tomada.
+ */
+class RoteadorLeituraEscrita extends AbstractDataSource {
+
+    private final DataSource primario;
+    private final ReplicasLeitura replicas;
+    private final LeituraDasPropriasEscritas leituraPropria;
+
+    RoteadorLeituraEscrita(DataSource primario, ReplicasLeitura replicas, LeituraDasPropriasEscritas leituraPropria) {
+        this.primario = primario;
+        this.replicas = replicas;
+        this.leituraPropria = leituraPropria;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            marcarEscritaAposCommit();
+            return primario.getConnection();
+        }
+        if (leituraPropria.exigePrimario()) {
+            replicas.registrarLeituraNoPrimario();
+            return primario.getConnection();
+        }
+        Connection conexao = replicas.conexao();
+        return conexao != null ? conexao : primario.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primario.getConnection(username, password);
+    }
+
+    private void marcarEscritaAposCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    leituraPropria.registrarEscrita();
+                }
+            });
+        }
+    }
+
+    /**
+     * Repassa ao primário, para que o pool do Hikari continue sendo encontrado
+     * (métricas e {@link LimiteBancoConfig}).
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(this) ? (T) this : primario.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primario.isWrapperFor(iface);
+    }
+}
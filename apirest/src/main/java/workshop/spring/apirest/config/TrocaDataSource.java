@@ -0,0 +1,52 @@
+package workshop.spring.apirest.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Processador que troca o DataSource do Spring Boot por um que o envolve.
+ *
+ * Cada configuração que mexe no DataSource devolve um destes, e a ordem é fixa: cada
+ * processador envolve o resultado do anterior, então o de menor ordem fica mais perto do pool.
+ * 1. {@link #LIMITE}: {@link ConexoesLimitadas}, ao redor do pool do Hikari do primário
+ * 2. {@link #ROTEAMENTO}: {@link RoteadorLeituraEscrita}, que escolhe entre o primário
+ *    (já limitado) e as réplicas
+ * 3. {@link #MONITOR}: {@link ConexoesMonitoradas}, por fora de tudo, para medir os comandos
+ *    de qualquer destino, réplicas incluídas
+ *
+ * Os métodos {@code @Bean} que criam estes processadores são estáticos e declaram este tipo
+ * de retorno: o Spring precisa criá-los antes dos demais beans e conhecer a ordem antes disso.
+ */
+abstract class TrocaDataSource implements BeanPostProcessor, Ordered {
+
+    static final int LIMITE = Ordered.LOWEST_PRECEDENCE - 30;
+    static final int ROTEAMENTO = Ordered.LOWEST_PRECEDENCE - 20;
+    static final int MONITOR = Ordered.LOWEST_PRECEDENCE - 10;
+
+    private final int ordem;
+
+    /**
+     * @param ordem Posição na cadeia ({@link #LIMITE}, {@link #ROTEAMENTO} ou {@link #MONITOR})
+     */
+    TrocaDataSource(int ordem) {
+        this.ordem = ordem;
+    }
+
+    /**
+     * @param dataSource O DataSource atual (o pool, ou o que os processadores anteriores devolveram)
+     * @return O DataSource que o substitui, ou o mesmo quando o recurso está desligado
+     */
+    protected abstract DataSource envolver(DataSource dataSource);
+
+    @Override
+    public final Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof DataSource dataSource ? envolver(dataSource) : bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return ordem;
+    }
+}
@@ -1,14 +1,40 @@
 package workshop.spring.apirest.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import workshop.spring.apirest.dto.AlteracaoAventureiro;
+import workshop.spring.apirest.dto.ColocacaoAventureiro;
+import workshop.spring.apirest.dto.EstatisticasGuilda;
+import workshop.spring.apirest.dto.FichaAventureiro;
+import workshop.spring.apirest.dto.Pagina;
+import workshop.spring.apirest.dto.PosicaoRanking;
+import workshop.spring.apirest.dto.RelatorioIndiceClasses;
+import workshop.spring.apirest.dto.VersaoGuilda;
 import workshop.spring.apirest.entity.Aventureiro;
 import workshop.spring.apirest.entity.ClasseRPG;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectMapper;
+import workshop.spring.apirest.dto.ResultadoAlteracoes;
+import workshop.spring.apirest.dto.ResultadoLote;
 import workshop.spring.apirest.service.AventureiroService;
+import workshop.spring.apirest.service.ListagemPreSerializada;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -34,10 +60,16 @@ public class AventureiroController {
      */
     private final AventureiroService aventureiroService;
 
+    /**
+     * Conversor JSON do Spring, usado para escrever a exportação linha a linha.
+     */
+    private final ObjectMapper objectMapper;
+
     /**
      * Construtor que recebe a dependência do serviço.
      * 
      * @param aventureiroService O serviço que será injetado automaticamente pelo Spring
+     * @param objectMapper O conversor JSON configurado pelo Spring Boot
      * 
      * Como usar:
      * 1. O Spring detecta automaticamente esta classe como um controlador
@@ -45,8 +77,9 @@ public class AventureiroController {
      * 3. Injeta a instância no construtor
      */
     @Autowired
-    public AventureiroController(AventureiroService aventureiroService) {
+    public AventureiroController(AventureiroService aventureiroService, ObjectMapper objectMapper) {
         this.aventureiroService = aventureiroService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -56,21 +89,216 @@ public class AventureiroController {
      * 
      * Retorna uma lista com todos os aventureiros cadastrados na guilda.
      * 
+     * Se qualquer parâmetro de paginação for informado, a resposta passa a ser uma
+     * página ({@link Pagina}) com no máximo {@value AventureiroService#LIMITE_MAXIMO} itens
+     * e um cursor {@code proximo} para continuar a leitura.
+     * 
      * Exemplo de uso:
      * ```
      * GET http://localhost:8080/aventureiros/listar
+     * GET http://localhost:8080/aventureiros/listar?limite=100&ordenarPor=nivel&direcao=desc
+     * GET http://localhost:8080/aventureiros/listar?cursor=TklWRUx8REVTQ3wzfDQy
      * ```
      * 
-     * @return Lista de aventureiros com status 200 (OK)
-     * @apiNote Não requer parâmetros
+     * 🏷️ A lista completa traz um ETag calculado só com agregações ({@link VersaoGuilda}).
+     * Reenviado em {@code If-None-Match}, ele permite responder 304 (Not Modified) sem ler
+     * nenhuma linha nem serializar a lista:
+     * ```
+     * curl -i -H 'If-None-Match: "g-12-57"' http://localhost:8080/aventureiros/listar
+     * ```
+     * 
+     * 📸 Com {@code guilda.listagem.snapshot.enabled=true}, a lista completa sai de uma cópia já
+     * serializada em memória (JSON puro ou gzip, conforme o {@code Accept-Encoding}), sem consulta
+     * nem serialização por requisição. O cabeçalho {@code Age} informa a idade da cópia em segundos
+     * e {@code X-Snapshot-Age-Ms}, em milissegundos. O ETag da resposta em gzip termina em {@code -gz}.
+     * 
+     * @param limite Tamanho da página (opcional)
+     * @param cursor Cursor da página anterior (opcional)
+     * @param ordenarPor Campo de ordenação: id, nivel ou xp (opcional)
+     * @param direcao Direção da ordenação: asc ou desc (opcional)
+     * @param requisicao Requisição atual, usada para conferir o If-None-Match
+     * @return Lista (ou página) de aventureiros com status 200 (OK), 304 se a lista não mudou
+     *         ou 400 se a paginação for inválida
      */
     @GetMapping("/listar")
-    public ResponseEntity<List<Aventureiro>> listarAventureiros() {
-        // 1. Busca todos os aventureiros no banco de dados
-        List<Aventureiro> aventureiros = aventureiroService.findAll();
+    public ResponseEntity<?> listarAventureiros(@RequestParam(required = false) Integer limite,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) String ordenarPor,
+                                                @RequestParam(required = false) String direcao,
+                                                WebRequest requisicao) {
+        if (paginado(limite, cursor, ordenarPor, direcao)) {
+            return paginar(null, null, null, limite, cursor, ordenarPor, direcao);
+        }
+
+        // Modo pré-serializado: os bytes prontos vão direto para a resposta
+        Optional<ListagemPreSerializada.Instantaneo> instantaneo = aventureiroService.findAllPreSerializado();
+        if (instantaneo.isPresent()) {
+            return responderPreSerializado(instantaneo.get(), requisicao);
+        }
+
+        // 1. Calcula a marca de mudança da guilda; se o cliente já a conhece, responde 304
+        String etag = aventureiroService.versaoGuilda().etag();
+        if (requisicao.checkNotModified(etag)) {
+            return null;
+        }
+
+        // 2. Busca as fichas de todos os aventureiros no banco de dados
+        List<FichaAventureiro> aventureiros = aventureiroService.findAll();
         
-        // 2. Retorna a lista com status HTTP 200 (OK)
-        return new ResponseEntity<>(aventureiros, HttpStatus.OK);
+        // 3. Retorna a lista com status HTTP 200 (OK) e o ETag
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(aventureiros);
+    }
+
+    /**
+     * Responde a listagem com a cópia pré-serializada, comprimida se o cliente aceitar gzip.
+     * O corpo é um {@code byte[]}, escrito como está, sem passar pelo Jackson.
+     *
+     * Os dois corpos são representações diferentes, então têm ETags fortes diferentes: o do
+     * gzip leva o sufixo {@code -gz}. Qualquer um dos dois no {@code If-None-Match} responde 304,
+     * pois ambos valem para a mesma versão da lista.
+     */
+    private ResponseEntity<byte[]> responderPreSerializado(ListagemPreSerializada.Instantaneo instantaneo,
+                                                           WebRequest requisicao) {
+        String etagGzip = etagGzip(instantaneo.etag());
+        boolean gzip = aceitaGzip(requisicao.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? etagGzip : instantaneo.etag();
+        if (conhecida(requisicao.getHeader(HttpHeaders.IF_NONE_MATCH), instantaneo.etag(), etagGzip)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        long idadeMs = instantaneo.idade().toMillis();
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.AGE, String.valueOf(idadeMs / 1000))
+                .header("X-Snapshot-Age-Ms", String.valueOf(idadeMs));
+
+        if (gzip) {
+            return resposta.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(instantaneo.gzip());
+        }
+        return resposta.body(instantaneo.json());
+    }
+
+    /**
+     * @param etag ETag da lista, entre aspas
+     * @return O ETag do corpo comprimido: o mesmo, com o sufixo {@code -gz} dentro das aspas
+     */
+    private static String etagGzip(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+
+    /**
+     * Confere o {@code Accept-Encoding} respeitando os pesos: {@code gzip;q=0} recusa o gzip, e
+     * {@code *} vale para ele quando o gzip não aparece pelo nome.
+     *
+     * @param aceita Cabeçalho {@code Accept-Encoding} (pode ser null)
+     * @return true se o cliente aceitar gzip com peso maior que zero
+     */
+    private static boolean aceitaGzip(String aceita) {
+        if (aceita == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double qualquer = null;
+        for (String item : aceita.split(",")) {
+            String[] partes = item.split(";");
+            String codificacao = partes[0].trim().toLowerCase();
+            double peso = 1;
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim().toLowerCase();
+                if (parametro.startsWith("q=")) {
+                    try {
+                        peso = Double.parseDouble(parametro.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        // Peso ilegível: a codificação é tratada como recusada
+                        peso = 0;
+                    }
+                }
+            }
+            if (codificacao.equals("gzip") || codificacao.equals("x-gzip")) {
+                gzip = peso;
+            } else if (codificacao.equals("*")) {
+                qualquer = peso;
+            }
+        }
+        Double peso = gzip != null ? gzip : qualquer;
+        return peso != null && peso > 0;
+    }
+
+    /**
+     * @param seNenhum Cabeçalho {@code If-None-Match} (pode ser null)
+     * @param etags ETags que representam a versão atual
+     * @return true se o cliente já tiver uma delas (comparação fraca, como manda o If-None-Match)
+     */
+    private static boolean conhecida(String seNenhum, String... etags) {
+        if (seNenhum == null) {
+            return false;
+        }
+        for (String item : seNenhum.split(",")) {
+            String etag = item.trim();
+            if (etag.equals("*")) {
+                return true;
+            }
+            if (etag.startsWith("W/")) {
+                etag = etag.substring(2);
+            }
+            for (String atual : etags) {
+                if (etag.equals(atual)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 📤 EXPORTAR TODOS OS AVENTUREIROS (NDJSON)
+     * 
+     * Rota: GET /aventureiros/exportar
+     * 
+     * Envia todos os aventureiros no formato NDJSON (um objeto JSON por linha),
+     * escrevendo cada linha diretamente na resposta assim que ela é lida do banco.
+     * Indicado para cargas de ETL: a memória usada não cresce com o tamanho da tabela
+     * e o primeiro byte chega antes de a última linha ser lida.
+     * 
+     * Exemplo de uso:
+     * ```
+     * curl http://localhost:8080/aventureiros/exportar > guilda.ndjson
+     * ```
+     * 
+     * Exemplo de resposta:
+     * ```
+     * {"id":1,"nome":"Geralt","classe":"GUERREIRO","nivel":1,"xp":15}
+     * {"id":2,"nome":"Yennefer","classe":"MAGO","nivel":3,"xp":40}
+     * ```
+     * 
+     * @param response Resposta HTTP onde as linhas são escritas
+     * @throws IOException se a conexão com o cliente for interrompida
+     */
+    @GetMapping(value = "/exportar", produces = "application/x-ndjson")
+    public void exportarAventureiros(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        OutputStream saida = response.getOutputStream();
+
+        try {
+            aventureiroService.exportarTodos(aventureiro -> {
+                try {
+                    saida.write(objectMapper.writeValueAsBytes(aventureiro));
+                    saida.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        saida.flush();
     }
 
     /**
@@ -90,33 +318,166 @@ public class AventureiroController {
      * ```
      * 
      * @param aventureiro Objeto JSON com os dados do aventureiro
-     * @return O aventureiro criado com status 201 (Created)
-     * @throws IllegalArgumentException Se os dados forem inválidos
+     * @return O aventureiro criado com status 201 (Created), ou 400 se os dados forem
+     *         inválidos ou o nome já estiver em uso
      * 
      * Classes disponíveis: GUERREIRO, MAGO, ARQUEIRO, LADINO, BRUXO, CLERIGO, BARDO
      */
     @PostMapping("/criar")
     public ResponseEntity<Aventureiro> criarAventureiro(@RequestBody Aventureiro aventureiro) {
-        // 1. Valida e salva o novo aventureiro
-        Aventureiro novoAventureiro = aventureiroService.create(aventureiro);
-        
-        // 2. Retorna o aventureiro criado com status 201 (Created)
-        return new ResponseEntity<>(novoAventureiro, HttpStatus.CREATED);
+        try {
+            // 1. Valida e salva o novo aventureiro
+            Aventureiro novoAventureiro = aventureiroService.create(aventureiro);
+
+            // 2. Retorna o aventureiro criado com status 201 (Created)
+            return new ResponseEntity<>(novoAventureiro, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            // Dados inválidos ou nome repetido
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * 📦 CRIAR AVENTUREIROS EM LOTE
+     * 
+     * Rota: POST /aventureiros/criar/lote
+     * 
+     * Cria vários aventureiros em uma única requisição. O corpo pode ser um array JSON
+     * ({@code Content-Type: application/json}) ou NDJSON, um aventureiro por linha
+     * ({@code Content-Type: application/x-ndjson}). A entrada é lida aos poucos,
+     * então importações grandes não precisam caber em memória.
+     * 
+     * Itens inválidos não interrompem o lote: eles aparecem em {@code falhas},
+     * com a posição e o motivo, e os demais são salvos normalmente.
+     * 
+     * Exemplo de requisição:
+     * ```json
+     * POST http://localhost:8080/aventureiros/criar/lote
+     * [
+     *     { "nome": "Geralt", "classe": "GUERREIRO" },
+     *     { "nome": "Yennefer", "classe": "MAGO" }
+     * ]
+     * ```
+     * 
+     * @param corpo Corpo da requisição
+     * @return Resumo com quantidades recebidas, criadas e as falhas, com status 200 (OK)
+     * @throws IOException se a leitura do corpo falhar
+     */
+    @PostMapping(value = "/criar/lote", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ResponseEntity<ResultadoLote> criarAventureirosEmLote(InputStream corpo) throws IOException {
+        try (MappingIterator<JsonNode> nos = objectMapper.readerFor(JsonNode.class).readValues(corpo)) {
+            ResultadoLote resultado = aventureiroService.criarEmLote(new LeitorLoteJson(nos, objectMapper));
+            return new ResponseEntity<>(resultado, HttpStatus.OK);
+        }
     }
 
     /**
      * Atualiza os dados de um aventureiro existente.
      * 
+     * Se o corpo trouxer a {@code versao} recebida na última leitura e outra pessoa tiver
+     * alterado o aventureiro desde então, a resposta é 409 (Conflict) e nada é gravado.
+     * 
+     * 🏷️ O mesmo controle pode vir pelo cabeçalho {@code If-Match}, com o ETag de
+     * {@code GET /aventureiros/buscar/id/{id}}: se a ficha mudou, a resposta é
+     * 412 (Precondition Failed). A resposta de sucesso traz o novo ETag.
+     * 
      * @param aventureiro Dados atualizados do aventureiro (no corpo da requisição)
-     * @return O aventureiro atualizado e status HTTP 200 (OK)
+     * @param ifMatch ETags aceitos (opcional)
+     * @return O aventureiro atualizado e status HTTP 200 (OK), 400 se os dados forem inválidos,
+     *         404 se não for encontrado, 409 se a versão estiver desatualizada ou o nome
+     *         tiver acabado de ser usado por outro aventureiro, ou 412 se o If-Match não conferir
      * @apiNote PUT /aventureiros/atualizar
-     * @throws IllegalArgumentException se o ID for nulo ou os dados forem inválidos
-     * @throws RuntimeException se o aventureiro não for encontrado
      */
     @PutMapping("/atualizar")
-    public ResponseEntity<Aventureiro> atualizarAventureiro(@RequestBody Aventureiro aventureiro) {
-        Aventureiro aventureiroAtualizado = aventureiroService.update(aventureiro);
-        return new ResponseEntity<>(aventureiroAtualizado, HttpStatus.OK);
+    public ResponseEntity<Aventureiro> atualizarAventureiro(@RequestBody Aventureiro aventureiro,
+                                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) List<String> ifMatch) {
+        try {
+            Aventureiro aventureiroAtualizado = aventureiroService.update(aventureiro, ifMatch);
+            return ResponseEntity.ok().eTag(FichaAventureiro.de(aventureiroAtualizado).etag()).body(aventureiroAtualizado);
+        } catch (OptimisticLockingFailureException e) {
+            // Outra requisição alterou o aventureiro primeiro
+            return new ResponseEntity<>(ifMatch != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT);
+        } catch (DataIntegrityViolationException e) {
+            // Outra requisição gravou o mesmo nome antes do commit
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            // Dados inválidos
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            // Aventureiro não encontrado
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * ✏️ ALTERAR CAMPOS DE UM AVENTUREIRO
+     * 
+     * Rota: PATCH /aventureiros/{id}
+     * 
+     * Grava só os campos enviados, com um único UPDATE, sem ler o aventureiro antes.
+     * Campos ausentes ficam como estão. Com {@code versao} no corpo, a alteração só é
+     * aplicada se o aventureiro ainda estiver nessa versão.
+     * 
+     * Exemplo de requisição:
+     * ```json
+     * PATCH http://localhost:8080/aventureiros/1
+     * { "classe": "MAGO", "versao": 3 }
+     * ```
+     * 
+     * @param id ID do aventureiro
+     * @param alteracao Campos a alterar
+     * @return O aventureiro alterado e status HTTP 200 (OK), 400 se os dados forem inválidos,
+     *         404 se não for encontrado, 409 se a versão estiver desatualizada ou o nome
+     *         pertencer a outro aventureiro
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Aventureiro> alterarAventureiro(@PathVariable Long id,
+                                                          @RequestBody AlteracaoAventureiro alteracao) {
+        try {
+            Aventureiro alterado = aventureiroService.alterar(alteracao.comId(id));
+            return ResponseEntity.ok().eTag(FichaAventureiro.de(alterado).etag()).body(alterado);
+        } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+            // Versão desatualizada ou nome já usado por outro aventureiro
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            // Dados inválidos
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            // Aventureiro não encontrado
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * ✏️ ALTERAR AVENTUREIROS EM LOTE
+     * 
+     * Rota: PATCH /aventureiros/lote
+     * 
+     * Como o PATCH individual, mas para vários aventureiros: cada item traz o {@code id} e os
+     * campos a alterar. Alterações com os mesmos campos vão juntas ao banco em um lote JDBC.
+     * Itens inválidos, inexistentes ou com versão desatualizada aparecem em {@code falhas}
+     * sem impedir os demais.
+     * 
+     * Exemplo de requisição:
+     * ```json
+     * PATCH http://localhost:8080/aventureiros/lote
+     * [
+     *     { "id": 1, "nivel": 5 },
+     *     { "id": 2, "nivel": 7, "xp": 0 }
+     * ]
+     * ```
+     * 
+     * @param alteracoes Alterações, cada uma com o ID do aventureiro
+     * @return Resumo com quantidades recebidas, alteradas e as falhas, com status 200 (OK),
+     *         ou 409 se algum nome pertencer a outro aventureiro (nada é gravado)
+     */
+    @PatchMapping("/lote")
+    public ResponseEntity<ResultadoAlteracoes> alterarAventureirosEmLote(@RequestBody List<AlteracaoAventureiro> alteracoes) {
+        try {
+            return new ResponseEntity<>(aventureiroService.alterarEmLote(alteracoes), HttpStatus.OK);
+        } catch (DataIntegrityViolationException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
     }
 
     /**
@@ -145,16 +506,27 @@ public class AventureiroController {
      * GET http://localhost:8080/aventureiros/buscar/1
      * ```
      * 
+     * 🏷️ A resposta traz um ETag forte ({@link FichaAventureiro#etag()}). Reenviado em
+     * {@code If-None-Match}, ele rende 304 (Not Modified) sem serializar a ficha; em
+     * {@code If-Match}, protege o {@code PUT /aventureiros/atualizar}.
+     * 
      * @param id ID do aventureiro (não pode ser nulo)
-     * @return O aventureiro encontrado (status 200) ou 404 se não encontrado
+     * @param requisicao Requisição atual, usada para conferir o If-None-Match
+     * @return O aventureiro encontrado (status 200), 304 se não mudou ou 404 se não encontrado
      * 
      * Dica: Use o ID retornado ao criar um aventureiro
      */
     @GetMapping("/buscar/id/{id}")
-    public ResponseEntity<Aventureiro> buscarAventureiroPorId(@PathVariable Long id) {
-        return aventureiroService.findById(id)
-                .map(aventureiro -> new ResponseEntity<>(aventureiro, HttpStatus.OK))
-                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    public ResponseEntity<FichaAventureiro> buscarAventureiroPorId(@PathVariable Long id, WebRequest requisicao) {
+        Optional<FichaAventureiro> ficha = aventureiroService.findById(id).map(FichaAventureiro::de);
+        if (ficha.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        String etag = ficha.get().etag();
+        if (requisicao.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(ficha.get());
     }
 
     /**
@@ -166,10 +538,10 @@ public class AventureiroController {
      * @throws IllegalArgumentException se o nome for nulo ou vazio
      */
     @GetMapping("/buscar/nome/{nome}")
-    public ResponseEntity<Aventureiro> buscarAventureiroPorNome(@PathVariable String nome) {
+    public ResponseEntity<FichaAventureiro> buscarAventureiroPorNome(@PathVariable String nome) {
         try {
             Aventureiro aventureiro = aventureiroService.findByNome(nome);
-            return new ResponseEntity<>(aventureiro, HttpStatus.OK);
+            return new ResponseEntity<>(aventureiro == null ? null : FichaAventureiro.de(aventureiro), HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -178,15 +550,24 @@ public class AventureiroController {
     /**
      * Busca aventureiros por classe.
      * 
+     * Aceita os mesmos parâmetros de paginação de {@code /listar}.
+     * 
      * @param classe Classe dos aventureiros a serem buscados
-     * @return Lista de aventureiros da classe especificada e status HTTP 200 (OK)
+     * @return Lista (ou página) de aventureiros da classe especificada e status HTTP 200 (OK)
      * @apiNote GET /aventureiros/buscar/classe/{classe}
      * @throws IllegalArgumentException se a classe for inválida
      */
     @GetMapping("/buscar/classe/{classe}")
-    public ResponseEntity<List<Aventureiro>> buscarAventureirosPorClasse(@PathVariable ClasseRPG classe) {
+    public ResponseEntity<?> buscarAventureirosPorClasse(@PathVariable ClasseRPG classe,
+                                                         @RequestParam(required = false) Integer limite,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) String ordenarPor,
+                                                         @RequestParam(required = false) String direcao) {
+        if (paginado(limite, cursor, ordenarPor, direcao)) {
+            return paginar(classe, null, null, limite, cursor, ordenarPor, direcao);
+        }
         try {
-            List<Aventureiro> aventureiros = aventureiroService.findByClasse(classe);
+            List<FichaAventureiro> aventureiros = aventureiroService.findByClasse(classe);
             return new ResponseEntity<>(aventureiros, HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
@@ -196,15 +577,24 @@ public class AventureiroController {
     /**
      * Busca aventureiros por nível.
      * 
+     * Aceita os mesmos parâmetros de paginação de {@code /listar}.
+     * 
      * @param nivel Nível dos aventureiros a serem buscados
-     * @return Lista de aventureiros do nível especificado e status HTTP 200 (OK)
+     * @return Lista (ou página) de aventureiros do nível especificado e status HTTP 200 (OK)
      * @apiNote GET /aventureiros/buscar/nivel/{nivel}
      * @throws IllegalArgumentException se o nível for inválido
      */
     @GetMapping("/buscar/nivel/{nivel}")
-    public ResponseEntity<List<Aventureiro>> buscarAventureiroPorNivel(@PathVariable Integer nivel) {
+    public ResponseEntity<?> buscarAventureiroPorNivel(@PathVariable Integer nivel,
+                                                       @RequestParam(required = false) Integer limite,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) String ordenarPor,
+                                                       @RequestParam(required = false) String direcao) {
+        if (paginado(limite, cursor, ordenarPor, direcao)) {
+            return paginar(null, nivel, null, limite, cursor, ordenarPor, direcao);
+        }
         try {
-            List<Aventureiro> aventureiros = aventureiroService.findByNivel(nivel);
+            List<FichaAventureiro> aventureiros = aventureiroService.findByNivel(nivel);
             return new ResponseEntity<>(aventureiros, HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
@@ -214,28 +604,237 @@ public class AventureiroController {
     /**
      * Busca aventureiros por quantidade de XP.
      * 
+     * Aceita os mesmos parâmetros de paginação de {@code /listar}.
+     * 
      * @param xp Quantidade exata de XP para busca
-     * @return Lista de aventureiros com a quantidade de XP especificada e status HTTP 200 (OK)
+     * @return Lista (ou página) de aventureiros com a quantidade de XP especificada e status HTTP 200 (OK)
      * @apiNote GET /aventureiros/buscar/xp/{xp}
      * @throws IllegalArgumentException se o XP for inválido
      */
     @GetMapping("/buscar/xp/{xp}")
-    public ResponseEntity<List<Aventureiro>> buscarAventureiroPorXp(@PathVariable Integer xp) {
+    public ResponseEntity<?> buscarAventureiroPorXp(@PathVariable Integer xp,
+                                                    @RequestParam(required = false) Integer limite,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) String ordenarPor,
+                                                    @RequestParam(required = false) String direcao) {
+        if (paginado(limite, cursor, ordenarPor, direcao)) {
+            return paginar(null, null, xp, limite, cursor, ordenarPor, direcao);
+        }
         try {
-            List<Aventureiro> aventureiros = aventureiroService.findByXp(xp);
+            List<FichaAventureiro> aventureiros = aventureiroService.findByXp(xp);
             return new ResponseEntity<>(aventureiros, HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
     }
 
+    /**
+     * Busca aventureiros com nível dentro de uma faixa (inclusive), ordenados por nível e XP.
+     * 
+     * Exemplo de uso:
+     * ```
+     * GET http://localhost:8080/aventureiros/buscar/nivel/entre?min=5&max=10&limite=100
+     * ```
+     * 
+     * @param min Menor nível aceito
+     * @param max Maior nível aceito
+     * @param limite Quantidade máxima de resultados (opcional, padrão {@value AventureiroService#LIMITE_PADRAO})
+     * @return Lista de aventureiros na faixa e status HTTP 200 (OK), ou 400 se a faixa for inválida
+     * @apiNote GET /aventureiros/buscar/nivel/entre
+     */
+    @GetMapping("/buscar/nivel/entre")
+    public ResponseEntity<List<FichaAventureiro>> buscarAventureirosPorFaixaDeNivel(@RequestParam Integer min,
+                                                                                    @RequestParam Integer max,
+                                                                                    @RequestParam(required = false) Integer limite) {
+        try {
+            List<FichaAventureiro> aventureiros = aventureiroService.findByNivelEntre(min, max, limite);
+            return new ResponseEntity<>(aventureiros, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Busca aventureiros de um nível com XP acima de um valor, ordenados por XP.
+     * 
+     * Exemplo de uso (nível 3 e quase subindo):
+     * ```
+     * GET http://localhost:8080/aventureiros/buscar/nivel/3/xp/acima/80
+     * ```
+     * 
+     * @param nivel Nível dos aventureiros
+     * @param xp XP mínimo (exclusivo)
+     * @param limite Quantidade máxima de resultados (opcional, padrão {@value AventureiroService#LIMITE_PADRAO})
+     * @return Lista de aventureiros encontrados e status HTTP 200 (OK), ou 400 se os parâmetros forem inválidos
+     * @apiNote GET /aventureiros/buscar/nivel/{nivel}/xp/acima/{xp}
+     */
+    @GetMapping("/buscar/nivel/{nivel}/xp/acima/{xp}")
+    public ResponseEntity<List<FichaAventureiro>> buscarAventureirosPorNivelEXpAcima(@PathVariable Integer nivel,
+                                                                                     @PathVariable Integer xp,
+                                                                                     @RequestParam(required = false) Integer limite) {
+        try {
+            List<FichaAventureiro> aventureiros = aventureiroService.findByNivelEXpAcima(nivel, xp, limite);
+            return new ResponseEntity<>(aventureiros, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Busca aventureiros de uma classe com nível dentro de uma faixa (inclusive).
+     * 
+     * Exemplo de uso:
+     * ```
+     * GET http://localhost:8080/aventureiros/buscar/classe/MAGO/nivel/entre?min=1&max=3
+     * ```
+     * 
+     * @param classe Classe dos aventureiros
+     * @param min Menor nível aceito
+     * @param max Maior nível aceito
+     * @param limite Quantidade máxima de resultados (opcional, padrão {@value AventureiroService#LIMITE_PADRAO})
+     * @return Lista de aventureiros encontrados e status HTTP 200 (OK), ou 400 se os parâmetros forem inválidos
+     * @apiNote GET /aventureiros/buscar/classe/{classe}/nivel/entre
+     */
+    @GetMapping("/buscar/classe/{classe}/nivel/entre")
+    public ResponseEntity<List<FichaAventureiro>> buscarAventureirosPorClasseEFaixaDeNivel(@PathVariable ClasseRPG classe,
+                                                                                           @RequestParam Integer min,
+                                                                                           @RequestParam Integer max,
+                                                                                           @RequestParam(required = false) Integer limite) {
+        try {
+            List<FichaAventureiro> aventureiros = aventureiroService.findByClasseENivelEntre(classe, min, max, limite);
+            return new ResponseEntity<>(aventureiros, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Conta os aventureiros de uma classe.
+     * 
+     * @param classe Classe dos aventureiros a serem contados
+     * @return Quantidade de aventureiros da classe e status HTTP 200 (OK)
+     * @apiNote GET /aventureiros/contar/classe/{classe}
+     */
+    @GetMapping("/contar/classe/{classe}")
+    public ResponseEntity<Long> contarAventureirosPorClasse(@PathVariable ClasseRPG classe) {
+        return new ResponseEntity<>(aventureiroService.contarPorClasse(classe), HttpStatus.OK);
+    }
+
+    /**
+     * Conta os aventureiros de cada classe.
+     * 
+     * Exemplo de resposta:
+     * ```json
+     * { "GUERREIRO": 12, "MAGO": 7, "ARQUEIRO": 0, ... }
+     * ```
+     * 
+     * @return Quantidade de aventureiros por classe e status HTTP 200 (OK)
+     * @apiNote GET /aventureiros/contar/classes
+     */
+    @GetMapping("/contar/classes")
+    public ResponseEntity<Map<ClasseRPG, Long>> contarAventureirosPorClasses() {
+        return new ResponseEntity<>(aventureiroService.contarClasses(), HttpStatus.OK);
+    }
+
+    /**
+     * 📊 ESTATÍSTICAS DA GUILDA
+     * 
+     * Rota: GET /aventureiros/estatisticas
+     * 
+     * Retorna a quantidade de aventureiros por classe, o histograma de níveis, a média e o
+     * máximo de nível e o XP total, já calculados no servidor: o painel não precisa mais
+     * baixar a lista inteira para montar os gráficos.
+     * 
+     * @return As estatísticas da guilda e status HTTP 200 (OK)
+     */
+    @GetMapping("/estatisticas")
+    public ResponseEntity<EstatisticasGuilda> buscarEstatisticas() {
+        return new ResponseEntity<>(aventureiroService.estatisticas(), HttpStatus.OK);
+    }
+
+    /**
+     * 🏆 RANKING
+     * 
+     * Rota: GET /aventureiros/ranking
+     * 
+     * Retorna os melhores aventureiros: maior nível primeiro e, no mesmo nível, maior XP.
+     * 
+     * Exemplo de uso:
+     * ```
+     * GET http://localhost:8080/aventureiros/ranking?top=5
+     * GET http://localhost:8080/aventureiros/ranking?top=5&classe=MAGO
+     * ```
+     * 
+     * @param top Quantidade de aventureiros (opcional, padrão {@value AventureiroService#TOP_PADRAO})
+     * @param classe Classe para um ranking só da classe (opcional)
+     * @return Os aventureiros em ordem de ranking e status HTTP 200 (OK), ou 400 se top for inválido
+     */
+    @GetMapping("/ranking")
+    public ResponseEntity<List<PosicaoRanking>> buscarRanking(@RequestParam(required = false) Integer top,
+                                                              @RequestParam(required = false) ClasseRPG classe) {
+        try {
+            return new ResponseEntity<>(aventureiroService.buscarRanking(top, classe), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Retorna a posição de um aventureiro no ranking geral e no ranking da sua classe.
+     * 
+     * @param id ID do aventureiro
+     * @return A colocação do aventureiro (200) ou 404 se não encontrado
+     * @apiNote GET /aventureiros/ranking/{id}
+     */
+    @GetMapping("/ranking/{id}")
+    public ResponseEntity<ColocacaoAventureiro> buscarColocacao(@PathVariable Long id) {
+        return aventureiroService.buscarColocacao(id)
+                .map(colocacao -> new ResponseEntity<>(colocacao, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * 🔍 VERIFICAR O ÍNDICE POR CLASSE
+     * 
+     * Compara o índice em memória por classe com o banco e informa as diferenças.
+     * 
+     * @return O relatório da verificação (200), ou 409 se o índice estiver desligado ou carregando
+     * @apiNote GET /aventureiros/indice/classes/verificar
+     */
+    @GetMapping("/indice/classes/verificar")
+    public ResponseEntity<RelatorioIndiceClasses> verificarIndiceClasses() {
+        try {
+            return new ResponseEntity<>(aventureiroService.verificarIndiceClasses(), HttpStatus.OK);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+    }
+
+    /**
+     * 🔄 RECONSTRUIR O ÍNDICE POR CLASSE
+     * 
+     * Recarrega o índice em memória por classe a partir do banco. As buscas continuam
+     * sendo respondidas pelo índice anterior até o novo ficar pronto.
+     * 
+     * @return O relatório do índice recarregado (200), ou 409 se o índice estiver desligado
+     * @apiNote POST /aventureiros/indice/classes/reconstruir
+     */
+    @PostMapping("/indice/classes/reconstruir")
+    public ResponseEntity<RelatorioIndiceClasses> reconstruirIndiceClasses() {
+        try {
+            return new ResponseEntity<>(aventureiroService.reconstruirIndiceClasses(), HttpStatus.OK);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+    }
+
     /**
      * 🎯 REALIZAR MISSÃO
      * 
      * Rota: PUT /aventureiros/missao/{id}
      * 
      * Envia um aventureiro em uma missão perigosa! A cada missão:
-     * - O aventureiro ganha XP aleatório (10-20)
+     * - O aventureiro ganha XP aleatório (10-19)
      - Ao atingir 100 XP, sobe de nível e o XP é zerado
      - O nível é incrementado em 1
      
@@ -273,4 +872,25 @@ public class AventureiroController {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     }
+
+    /**
+     * Indica se a requisição pediu paginação (qualquer parâmetro de paginação informado).
+     */
+    private boolean paginado(Integer limite, String cursor, String ordenarPor, String direcao) {
+        return limite != null || cursor != null || ordenarPor != null || direcao != null;
+    }
+
+    /**
+     * Executa uma busca paginada e converte erros de parâmetros em 400 (Bad Request).
+     */
+    private ResponseEntity<?> paginar(ClasseRPG classe, Integer nivel, Integer xp,
+                                      Integer limite, String cursor, String ordenarPor, String direcao) {
+        try {
+            Pagina<FichaAventureiro> pagina = aventureiroService.buscarPagina(
+                    classe, nivel, xp, ordenarPor, direcao, cursor, limite);
+            return new ResponseEntity<>(pagina, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
 }
@@ -0,0 +1,75 @@
+package workshop.spring.apirest.controller;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectMapper;
+import workshop.spring.apirest.dto.ItemLote;
+import workshop.spring.apirest.entity.Aventureiro;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lê os itens de uma criação em lote diretamente do corpo da requisição.
+ *
+ * Aceita tanto um array JSON ({@code [ {...}, {...} ]}) quanto NDJSON (um objeto por linha).
+ * Cada item é convertido para Aventureiro individualmente: um item inválido vira um
+ * {@link ItemLote#invalido} e a leitura continua no item seguinte. Se o próprio JSON
+ * estiver malformado, a falha é reportada e a leitura é encerrada, pois não é
+ * possível saber onde o próximo item começa.
+ */
+class LeitorLoteJson implements Iterator<ItemLote> {
+
+    private final MappingIterator<JsonNode> nos;
+    private final ObjectMapper objectMapper;
+    private long indice;
+    private boolean encerrado;
+
+    /**
+     * @param nos          Iterador do Jackson sobre os objetos da entrada
+     * @param objectMapper Conversor usado para transformar cada objeto em Aventureiro
+     */
+    LeitorLoteJson(MappingIterator<JsonNode> nos, ObjectMapper objectMapper) {
+        this.nos = nos;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (encerrado) {
+            return false;
+        }
+        try {
+            return nos.hasNextValue();
+        } catch (JacksonException e) {
+            // JSON malformado: hasNext() ainda retorna true para reportar a falha em next()
+            return true;
+        }
+    }
+
+    @Override
+    public ItemLote next() {
+        if (encerrado) {
+            throw new NoSuchElementException();
+        }
+        long posicao = indice++;
+
+        JsonNode no;
+        try {
+            no = nos.nextValue();
+        } catch (JacksonException e) {
+            encerrado = true;
+            return ItemLote.invalido(posicao, "JSON malformado: " + e.getOriginalMessage());
+        }
+
+        try {
+            return ItemLote.valido(posicao, objectMapper.treeToValue(no, Aventureiro.class));
+        } catch (JacksonException e) {
+            // Erros dos setters (ex: nível negativo) chegam embrulhados pelo Jackson
+            Throwable causa = e.getCause() != null ? e.getCause() : e;
+            String motivo = causa instanceof IllegalArgumentException ? causa.getMessage() : e.getOriginalMessage();
+            return ItemLote.invalido(posicao, motivo);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package workshop.spring.apirest.dto;
+
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+
+/**
+ * Alteração parcial de um aventureiro (PATCH): só os campos presentes são gravados.
+ *
+ * Campos ausentes (ou nulos) ficam como estão no banco. Se {@code versao} vier preenchida,
+ * a alteração só é aplicada se o aventureiro ainda estiver nessa versão.
+ *
+ * Exemplo de corpo:
+ * <pre>
+ * { "classe": "MAGO", "nivel": 5, "versao": 3 }
+ * </pre>
+ *
+ * @param id     ID do aventureiro (no PATCH individual vem do caminho)
+ * @param nome   Novo nome, ou null para manter
+ * @param classe Nova classe, ou null para manter
+ * @param nivel  Novo nível, ou null para manter
+ * @param xp     Novo XP, ou null para manter
+ * @param versao Versão conhecida pelo cliente, ou null para não verificar
+ */
+public record AlteracaoAventureiro(Long id, String nome, ClasseRPG classe, Integer nivel, Integer xp, Long versao) {
+
+    /**
+     * @param id ID do aventureiro a alterar
+     * @return Uma cópia desta alteração apontando para o ID informado
+     */
+    public AlteracaoAventureiro comId(Long id) {
+        return new AlteracaoAventureiro(id, nome, classe, nivel, xp, versao);
+    }
+
+    /**
+     * Aplica as mesmas regras dos setters de {@link Aventureiro} aos campos presentes.
+     *
+     * @return Uma cópia com o nome sem espaços nas pontas
+     * @throws IllegalArgumentException se faltar o ID, nenhum campo for informado ou algum for inválido
+     */
+    public AlteracaoAventureiro validada() {
+        if (id == null) {
+            throw new IllegalArgumentException("ID do aventureiro é obrigatório para atualização");
+        }
+        if (nome == null && classe == null && nivel == null && xp == null) {
+            throw new IllegalArgumentException("Informe ao menos um campo para alterar: nome, classe, nivel ou xp");
+        }
+        if (nivel != null) {
+            Aventureiro.validarNivel(nivel);
+        }
+        if (xp != null) {
+            Aventureiro.validarXp(xp);
+        }
+        return new AlteracaoAventureiro(id, nome == null ? null : Aventureiro.validarNome(nome), classe, nivel, xp, versao);
+    }
+}
@@ -0,0 +1,24 @@
+package workshop.spring.apirest.dto;
+
+import workshop.spring.apirest.entity.ClasseRPG;
+
+/**
+ * Colocação de um aventureiro no ranking geral e no ranking da sua classe.
+ *
+ * Exemplo de resposta:
+ * <pre>
+ * { "id": 42, "nome": "Geralt", "classe": "GUERREIRO", "nivel": 12, "xp": 80,
+ *   "posicaoGeral": 3, "posicaoNaClasse": 1 }
+ * </pre>
+ *
+ * @param id              ID do aventureiro
+ * @param nome            Nome do aventureiro
+ * @param classe          Classe do aventureiro
+ * @param nivel           Nível do aventureiro
+ * @param xp              XP do aventureiro
+ * @param posicaoGeral    Posição entre todos os aventureiros (1 é o primeiro)
+ * @param posicaoNaClasse Posição entre os aventureiros da mesma classe
+ */
+public record ColocacaoAventureiro(Long id, String nome, ClasseRPG classe, int nivel, int xp,
+                                   long posicaoGeral, long posicaoNaClasse) {
+}
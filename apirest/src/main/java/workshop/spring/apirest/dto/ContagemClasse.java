@@ -0,0 +1,12 @@
+package workshop.spring.apirest.dto;
+
+import workshop.spring.apirest.entity.ClasseRPG;
+
+/**
+ * Quantidade de aventureiros de uma classe (projeção do GROUP BY por classe).
+ *
+ * @param classe     Classe dos aventureiros
+ * @param quantidade Quantidade de aventureiros da classe
+ */
+public record ContagemClasse(ClasseRPG classe, Long quantidade) {
+}
@@ -0,0 +1,10 @@
+package workshop.spring.apirest.dto;
+
+/**
+ * Quantidade de aventureiros de um nível (projeção do GROUP BY por nível).
+ *
+ * @param nivel      Nível dos aventureiros
+ * @param quantidade Quantidade de aventureiros no nível
+ */
+public record ContagemNivel(Integer nivel, Long quantidade) {
+}
@@ -0,0 +1,31 @@
+package workshop.spring.apirest.dto;
+
+import workshop.spring.apirest.entity.ClasseRPG;
+
+import java.util.Map;
+
+/**
+ * Estatísticas da guilda exibidas no painel.
+ *
+ * Exemplo de resposta:
+ * <pre>
+ * {
+ *     "total": 3,
+ *     "porClasse": { "GUERREIRO": 1, "MAGO": 2, "ARQUEIRO": 0, ... },
+ *     "histogramaNiveis": { "1": 2, "4": 1 },
+ *     "mediaNivel": 2.0,
+ *     "nivelMaximo": 4,
+ *     "xpTotal": 135
+ * }
+ * </pre>
+ *
+ * @param total            Quantidade de aventureiros
+ * @param porClasse        Quantidade de aventureiros por classe (todas as classes, mesmo as vazias)
+ * @param histogramaNiveis Quantidade de aventureiros por nível, em ordem de nível (só níveis ocupados)
+ * @param mediaNivel       Média dos níveis (0 sem aventureiros)
+ * @param nivelMaximo      Maior nível (0 sem aventureiros)
+ * @param xpTotal          Soma do XP de todos os aventureiros
+ */
+public record EstatisticasGuilda(long total, Map<ClasseRPG, Long> porClasse, Map<Integer, Long> histogramaNiveis,
+                                 double mediaNivel, int nivelMaximo, long xpTotal) {
+}
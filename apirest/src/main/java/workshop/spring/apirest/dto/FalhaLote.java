@@ -0,0 +1,10 @@
+package workshop.spring.apirest.dto;
+
+/**
+ * Um item de uma operação em lote (criação ou alteração) que não foi gravado.
+ *
+ * @param indice Posição do item na entrada (começando em 0)
+ * @param motivo Mensagem explicando por que o item foi rejeitado
+ */
+public record FalhaLote(long indice, String motivo) {
+}
@@ -0,0 +1,58 @@
+package workshop.spring.apirest.dto;
+
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+
+/**
+ * Ficha de um aventureiro usada nas leituras: só os dados, sem entidade JPA.
+ *
+ * As listagens montam a ficha direto no SELECT (expressão {@code new} do JPQL), então o
+ * Hibernate não cria entidades, não guarda snapshots para dirty checking e não ocupa o
+ * contexto de persistência. O JSON é o mesmo da entidade:
+ * <pre>
+ * { "id": 42, "nome": "Geralt", "classe": "GUERREIRO", "nivel": 12, "xp": 80, "versao": 3 }
+ * </pre>
+ *
+ * @param id     ID do aventureiro
+ * @param nome   Nome do aventureiro
+ * @param classe Classe do aventureiro
+ * @param nivel  Nível do aventureiro
+ * @param xp     XP do aventureiro
+ * @param versao Versão usada no controle de concorrência otimista
+ */
+public record FichaAventureiro(Long id, String nome, ClasseRPG classe, Integer nivel, Integer xp, Long versao) {
+
+    /**
+     * Monta a ficha a partir de uma entidade já carregada (por exemplo, vinda do cache).
+     *
+     * @param aventureiro Aventureiro de origem
+     * @return A ficha com os mesmos valores
+     */
+    public static FichaAventureiro de(Aventureiro aventureiro) {
+        return new FichaAventureiro(aventureiro.getId(), aventureiro.getNome(), aventureiro.getClasse(),
+                aventureiro.getNivel(), aventureiro.getXp(), aventureiro.getVersao());
+    }
+
+    /**
+     * Retorna uma cópia da ficha com outro nível e XP.
+     *
+     * @param novoNivel Nível da cópia
+     * @param novoXp XP da cópia
+     * @return A nova ficha
+     */
+    public FichaAventureiro comProgresso(int novoNivel, int novoXp) {
+        return new FichaAventureiro(id, nome, classe, novoNivel, novoXp, versao);
+    }
+
+    /**
+     * ETag forte desta ficha, como {@code "42-3-12-80"} (ID, versão, nível e XP).
+     *
+     * Nome e classe só mudam com uma nova versão; nível e XP entram porque, no modo
+     * write-behind, o XP pendente muda a ficha antes de a versão ser incrementada no banco.
+     *
+     * @return O ETag, já entre aspas
+     */
+    public String etag() {
+        return "\"" + id + "-" + versao + "-" + nivel + "-" + xp + "\"";
+    }
+}
@@ -0,0 +1,39 @@
+package workshop.spring.apirest.dto;
+
+import workshop.spring.apirest.entity.Aventureiro;
+
+/**
+ * Um item recebido em uma criação em lote, já convertido (ou não) para Aventureiro.
+ *
+ * Itens que não puderam ser lidos (JSON inválido, classe inexistente, etc.) chegam
+ * com {@code aventureiro} nulo e o motivo em {@code erro}, para que a falha seja
+ * reportada sem interromper o restante do lote.
+ *
+ * @param indice      Posição do item na entrada (começando em 0)
+ * @param aventureiro Aventureiro lido, ou null se a leitura falhou
+ * @param erro        Motivo da falha de leitura, ou null se o item foi lido
+ */
+public record ItemLote(long indice, Aventureiro aventureiro, String erro) {
+
+    /**
+     * Cria um item lido com sucesso.
+     *
+     * @param indice      Posição do item na entrada
+     * @param aventureiro Aventureiro lido
+     * @return O item
+     */
+    public static ItemLote valido(long indice, Aventureiro aventureiro) {
+        return new ItemLote(indice, aventureiro, null);
+    }
+
+    /**
+     * Cria um item que não pôde ser lido.
+     *
+     * @param indice Posição do item na entrada
+     * @param erro   Motivo da falha
+     * @return O item
+     */
+    public static ItemLote invalido(long indice, String erro) {
+        return new ItemLote(indice, null, erro);
+    }
+}
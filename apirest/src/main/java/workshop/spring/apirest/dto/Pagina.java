@@ -0,0 +1,23 @@
+package workshop.spring.apirest.dto;
+
+import java.util.List;
+
+/**
+ * Uma página de resultados de uma listagem paginada por cursor.
+ *
+ * Exemplo de resposta:
+ * <pre>
+ * {
+ *     "itens": [ { "id": 1, "nome": "Geralt", ... } ],
+ *     "proximo": "TklWRUx8QVNDfDN8NDI",
+ *     "limite": 50
+ * }
+ * </pre>
+ *
+ * @param itens   Itens da página atual, na ordem solicitada
+ * @param proximo Cursor opaco para buscar a próxima página (null quando não há mais itens)
+ * @param limite  Tamanho máximo de página efetivamente aplicado
+ * @param <T>     Tipo dos itens da página
+ */
+public record Pagina<T>(List<T> itens, String proximo, int limite) {
+}
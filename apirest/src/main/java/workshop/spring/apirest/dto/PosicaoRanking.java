@@ -0,0 +1,21 @@
+package workshop.spring.apirest.dto;
+
+import workshop.spring.apirest.entity.ClasseRPG;
+
+/**
+ * Uma linha do ranking de aventureiros (ordenado por nível e XP, do maior para o menor).
+ *
+ * Exemplo de resposta:
+ * <pre>
+ * { "posicao": 1, "id": 42, "nome": "Geralt", "classe": "GUERREIRO", "nivel": 12, "xp": 80 }
+ * </pre>
+ *
+ * @param posicao Posição no ranking consultado (1 é o primeiro)
+ * @param id      ID do aventureiro
+ * @param nome    Nome do aventureiro
+ * @param classe  Classe do aventureiro
+ * @param nivel   Nível do aventureiro
+ * @param xp      XP do aventureiro
+ */
+public record PosicaoRanking(long posicao, Long id, String nome, ClasseRPG classe, int nivel, int xp) {
+}
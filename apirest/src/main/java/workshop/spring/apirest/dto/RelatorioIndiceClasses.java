@@ -0,0 +1,42 @@
+package workshop.spring.apirest.dto;
+
+/**
+ * Resultado da verificação (ou da reconstrução) do índice em memória por classe.
+ *
+ * Exemplo de resposta:
+ * <pre>
+ * {
+ *     "noBanco": 1200,
+ *     "naMemoria": 1200,
+ *     "ausentes": 0,
+ *     "divergentes": 0,
+ *     "sobrando": 0,
+ *     "consistente": true
+ * }
+ * </pre>
+ *
+ * @param noBanco     Quantidade de aventureiros lidos do banco
+ * @param naMemoria   Quantidade de aventureiros guardados no índice
+ * @param ausentes    Aventureiros do banco que não estão no índice (ou estão na classe errada)
+ * @param divergentes Aventureiros presentes nos dois, mas com nome, nível, XP ou versão diferentes
+ * @param sobrando    Aventureiros do índice que não existem mais no banco
+ * @param consistente true quando não há nenhuma diferença
+ */
+public record RelatorioIndiceClasses(long noBanco, long naMemoria, long ausentes, long divergentes,
+                                     long sobrando, boolean consistente) {
+
+    /**
+     * Monta o relatório, calculando as sobras e se o índice está consistente.
+     *
+     * @param noBanco     Quantidade de aventureiros lidos do banco
+     * @param naMemoria   Quantidade de aventureiros guardados no índice
+     * @param ausentes    Aventureiros do banco que não estão no índice
+     * @param divergentes Aventureiros com dados diferentes
+     * @return O relatório
+     */
+    public static RelatorioIndiceClasses de(long noBanco, long naMemoria, long ausentes, long divergentes) {
+        long sobrando = naMemoria - (noBanco - ausentes);
+        return new RelatorioIndiceClasses(noBanco, naMemoria, ausentes, divergentes, sobrando,
+                ausentes == 0 && divergentes == 0 && sobrando == 0);
+    }
+}
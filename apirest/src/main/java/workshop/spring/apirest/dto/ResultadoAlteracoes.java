@@ -0,0 +1,22 @@
+package workshop.spring.apirest.dto;
+
+import java.util.List;
+
+/**
+ * Resumo de uma alteração parcial em lote ({@code PATCH /aventureiros/lote}).
+ *
+ * Exemplo de resposta:
+ * <pre>
+ * {
+ *     "recebidos": 3,
+ *     "alterados": 2,
+ *     "falhas": [ { "indice": 2, "motivo": "Aventureiro não encontrado ou com versão desatualizada: 99" } ]
+ * }
+ * </pre>
+ *
+ * @param recebidos Quantidade de alterações recebidas
+ * @param alterados Quantidade de aventureiros efetivamente alterados
+ * @param falhas    Alterações rejeitadas, com o motivo de cada uma
+ */
+public record ResultadoAlteracoes(long recebidos, long alterados, List<FalhaLote> falhas) {
+}
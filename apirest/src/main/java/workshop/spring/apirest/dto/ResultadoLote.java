@@ -0,0 +1,22 @@
+package workshop.spring.apirest.dto;
+
+import java.util.List;
+
+/**
+ * Resumo de uma criação de aventureiros em lote.
+ *
+ * Exemplo de resposta:
+ * <pre>
+ * {
+ *     "recebidos": 3,
+ *     "criados": 2,
+ *     "falhas": [ { "indice": 1, "motivo": "O nome do aventureiro não pode ser vazio" } ]
+ * }
+ * </pre>
+ *
+ * @param recebidos Quantidade de itens lidos da requisição
+ * @param criados   Quantidade de aventureiros efetivamente salvos
+ * @param falhas    Itens rejeitados, com o motivo de cada um
+ */
+public record ResultadoLote(long recebidos, long criados, List<FalhaLote> falhas) {
+}
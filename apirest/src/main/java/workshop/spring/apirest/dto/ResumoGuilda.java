@@ -0,0 +1,13 @@
+package workshop.spring.apirest.dto;
+
+/**
+ * Totais da guilda calculados em uma única consulta de agregação.
+ * Com a tabela vazia, a média, o máximo e a soma vêm nulos.
+ *
+ * @param total      Quantidade de aventureiros
+ * @param mediaNivel Média dos níveis
+ * @param nivelMaximo Maior nível
+ * @param xpTotal    Soma do XP de todos os aventureiros
+ */
+public record ResumoGuilda(Long total, Double mediaNivel, Integer nivelMaximo, Long xpTotal) {
+}
@@ -0,0 +1,26 @@
+package workshop.spring.apirest.dto;
+
+/**
+ * Marca de mudança da guilda, calculada sem ler as linhas: a quantidade de aventureiros e o
+ * contador da tabela {@code guilda_versao}.
+ *
+ * Toda transação que grava aventureiros (criação, atualização, missão, remoção, lotes e a
+ * descarga do write-behind) incrementa o contador logo antes do commit, com a linha bloqueada
+ * até ele. Por isso o contador segue a ordem dos commits: uma escrita confirmada depois de a
+ * marca ter sido lida sempre a muda. Um horário de última alteração não serve para isso,
+ * porque é marcado antes do commit e duas transações podem confirmar fora de ordem.
+ *
+ * @param total Quantidade de aventureiros
+ * @param versao Contador de versão da guilda
+ */
+public record VersaoGuilda(long total, long versao) {
+
+    /**
+     * ETag forte da listagem completa, como {@code "g-12-57"}.
+     *
+     * @return O ETag, já entre aspas
+     */
+    public String etag() {
+        return "\"g-" + total + "-" + versao + "\"";
+    }
+}
@@ -1,26 +1,60 @@
 package workshop.spring.apirest.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
+import java.time.Instant;
+
 /**
  * Classe que representa um Aventureiro no sistema.
  * Esta é uma entidade JPA que será mapeada para a tabela 'aventureiro' no banco de dados.
  * Cada instância desta classe representa uma linha na tabela de aventureiros.
+ * 
+ * Índices da tabela (criados pela migração V2, em src/main/resources/db/migration):
+ * - {@value #INDICE_NOME}: nome único, usado pela busca por nome
+ * - {@value #INDICE_CLASSE_NIVEL_XP}: buscas por classe, com ou sem faixa de nível
+ * - {@value #INDICE_NIVEL_XP}: buscas por nível, faixa de nível e nível + XP mínimo
+ * - {@value #INDICE_ATUALIZADO_EM}: última alteração da tabela, usada no ETag da listagem
  */
 @Entity
-@Table(name = "aventureiro")
+@Table(name = "aventureiro", indexes = {
+        @Index(name = Aventureiro.INDICE_NOME, columnList = "nome", unique = true),
+        @Index(name = Aventureiro.INDICE_CLASSE_NIVEL_XP, columnList = "classe, nivel, xp"),
+        @Index(name = Aventureiro.INDICE_NIVEL_XP, columnList = "nivel, xp"),
+        @Index(name = Aventureiro.INDICE_ATUALIZADO_EM, columnList = "atualizado_em")
+})
 public class Aventureiro {
+
+    /**
+     * Quantidade de IDs reservados de uma vez na sequência.
+     */
+    public static final int BLOCO_IDS = 50;
+
+    /**
+     * Nomes dos índices da tabela 'aventureiro'.
+     */
+    public static final String INDICE_NOME = "uk_aventureiro_nome";
+    public static final String INDICE_CLASSE_NIVEL_XP = "idx_aventureiro_classe_nivel_xp";
+    public static final String INDICE_NIVEL_XP = "idx_aventureiro_nivel_xp";
+    public static final String INDICE_ATUALIZADO_EM = "idx_aventureiro_atualizado_em";
+
     /**
      * Identificador único do aventureiro no banco de dados.
-     * É gerado automaticamente pelo banco de dados usando auto-incremento.
+     * É gerado a partir da sequência 'aventureiro_seq' (no MySQL, uma tabela que a emula).
+     * 
+     * O otimizador "pooled" reserva blocos de {@value #BLOCO_IDS} IDs por ida ao banco,
+     * o que permite ao Hibernate agrupar vários INSERTs em um único lote JDBC
+     * (com IDENTITY cada INSERT precisaria ser executado sozinho para obter o ID).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "aventureiro_seq")
+    @SequenceGenerator(name = "aventureiro_seq", sequenceName = "aventureiro_seq", allocationSize = Aventureiro.BLOCO_IDS)
     private Long id;
 
     /**
      * Nome do aventureiro.
      * Campo obrigatório (não pode ser nulo) e será armazenado na coluna 'nome' da tabela.
+     * Não pode se repetir: dois aventureiros com o mesmo nome são recusados pelo banco.
      */
     @Column(name = "nome", nullable = false)
     private String nome;
@@ -50,6 +84,25 @@ public class Aventureiro {
     @Column(name = "xp", nullable = false)
     private Integer xp = 0;
 
+    /**
+     * Versão do registro, usada no controle de concorrência otimista.
+     * O Hibernate incrementa este valor a cada atualização e recusa a gravação
+     * se outro processo tiver alterado o aventureiro nesse meio tempo.
+     * É nula apenas antes de o aventureiro ser salvo pela primeira vez.
+     */
+    @Version
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
+    /**
+     * Momento da última gravação do aventureiro (criação, atualização ou missão).
+     * Preenchido automaticamente antes de cada INSERT e UPDATE feitos pelo Hibernate; os
+     * UPDATEs diretos (missões e descargas do write-behind) também atualizam a coluna.
+     * Pode ser nulo em registros antigos que ainda não foram alterados desde que a coluna existe.
+     */
+    @Column(name = "atualizado_em")
+    private Instant atualizadoEm;
+
     /**
      * Construtor padrão vazio necessário para o JPA.
      * Não deve ser usado diretamente, apenas pelo framework.
@@ -70,6 +123,31 @@ public class Aventureiro {
         // Nível e XP são inicializados com valores padrão
     }
 
+    /**
+     * Cria uma cópia independente deste aventureiro, com os mesmos valores.
+     * A cópia não é gerenciada pelo JPA: alterá-la não altera o banco de dados.
+     * 
+     * @return Uma nova instância com os mesmos dados
+     */
+    public Aventureiro copiar() {
+        Aventureiro copia = new Aventureiro(nome, classe);
+        copia.id = id;
+        copia.nivel = nivel;
+        copia.xp = xp;
+        copia.versao = versao;
+        copia.atualizadoEm = atualizadoEm;
+        return copia;
+    }
+
+    /**
+     * Marca o momento da gravação. Chamado pelo JPA antes de cada INSERT e UPDATE.
+     */
+    @PrePersist
+    @PreUpdate
+    void marcarAtualizacao() {
+        atualizadoEm = Instant.now();
+    }
+
     /**
      * Retorna o ID único do aventureiro.
      * 
@@ -105,10 +183,7 @@ public class Aventureiro {
      * @throws IllegalArgumentException se o nome for nulo ou vazio
      */
     public void setNome(String nome) {
-        if (nome == null || nome.trim().isEmpty()) {
-            throw new IllegalArgumentException("O nome do aventureiro não pode ser vazio");
-        }
-        this.nome = nome.trim();
+        this.nome = validarNome(nome);
     }
 
     /**
@@ -127,10 +202,7 @@ public class Aventureiro {
      * @throws IllegalArgumentException se a classe for nula
      */
     public void setClasse(ClasseRPG classe) {
-        if (classe == null) {
-            throw new IllegalArgumentException("A classe do aventureiro não pode ser nula");
-        }
-        this.classe = classe;
+        this.classe = validarClasse(classe);
     }
 
     /**
@@ -150,10 +222,7 @@ public class Aventureiro {
      * @throws IllegalArgumentException se o nível for menor que 1
      */
     public void setNivel(Integer nivel) {
-        if (nivel == null || nivel < 1) {
-            throw new IllegalArgumentException("O nível deve ser maior ou igual a 1");
-        }
-        this.nivel = nivel;
+        this.nivel = validarNivel(nivel);
     }
 
     /**
@@ -172,9 +241,88 @@ public class Aventureiro {
      * @throws IllegalArgumentException se o XP for negativo
      */
     public void setXp(Integer xp) {
+        this.xp = validarXp(xp);
+    }
+
+    /**
+     * Retorna a versão atual do registro.
+     * 
+     * @return A versão do aventureiro ou null se ainda não foi persistido
+     */
+    public Long getVersao() {
+        return versao;
+    }
+
+    /**
+     * Define a versão do registro.
+     * Normalmente não é chamado diretamente: o cliente apenas devolve a versão que
+     * recebeu, para que a atualização seja recusada caso o registro tenha mudado.
+     * 
+     * @param versao A versão conhecida pelo cliente
+     */
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
+    /**
+     * Retorna o momento da última gravação do aventureiro.
+     * 
+     * Fica fora do JSON: os clientes usam o ETag para saber se o aventureiro mudou.
+     * 
+     * @return O momento da última gravação, ou null se o aventureiro ainda não foi salvo
+     */
+    @JsonIgnore
+    public Instant getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    // 🛡️ Regras de validação dos campos, usadas pelos setters e pelas alterações parciais (PATCH)
+
+    /**
+     * @param nome Nome a validar
+     * @return O nome sem espaços nas pontas
+     * @throws IllegalArgumentException se o nome for nulo ou vazio
+     */
+    public static String validarNome(String nome) {
+        if (nome == null || nome.trim().isEmpty()) {
+            throw new IllegalArgumentException("O nome do aventureiro não pode ser vazio");
+        }
+        return nome.trim();
+    }
+
+    /**
+     * @param classe Classe a validar
+     * @return A própria classe
+     * @throws IllegalArgumentException se a classe for nula
+     */
+    public static ClasseRPG validarClasse(ClasseRPG classe) {
+        if (classe == null) {
+            throw new IllegalArgumentException("A classe do aventureiro não pode ser nula");
+        }
+        return classe;
+    }
+
+    /**
+     * @param nivel Nível a validar
+     * @return O próprio nível
+     * @throws IllegalArgumentException se o nível for nulo ou menor que 1
+     */
+    public static Integer validarNivel(Integer nivel) {
+        if (nivel == null || nivel < 1) {
+            throw new IllegalArgumentException("O nível deve ser maior ou igual a 1");
+        }
+        return nivel;
+    }
+
+    /**
+     * @param xp XP a validar
+     * @return O próprio XP
+     * @throws IllegalArgumentException se o XP for nulo ou negativo
+     */
+    public static Integer validarXp(Integer xp) {
         if (xp == null || xp < 0) {
             throw new IllegalArgumentException("O XP não pode ser negativo");
         }
-        this.xp = xp;
+        return xp;
     }
 }
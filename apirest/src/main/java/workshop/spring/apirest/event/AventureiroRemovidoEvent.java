@@ -0,0 +1,9 @@
+package workshop.spring.apirest.event;
+
+/**
+ * Publicado quando um aventureiro é removido.
+ *
+ * @param id ID do aventureiro removido
+ */
+public record AventureiroRemovidoEvent(Long id) {
+}
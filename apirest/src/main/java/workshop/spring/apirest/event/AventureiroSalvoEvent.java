@@ -0,0 +1,14 @@
+package workshop.spring.apirest.event;
+
+import workshop.spring.apirest.entity.Aventureiro;
+
+/**
+ * Publicado quando um aventureiro é criado ou alterado (atualização ou missão).
+ *
+ * Os ouvintes recebem o evento apenas após o commit, quando a entidade já tem a
+ * versão final, e devem copiar o que precisarem: o objeto pertence a quem publicou.
+ *
+ * @param aventureiro O aventureiro no estado em que foi gravado
+ */
+public record AventureiroSalvoEvent(Aventureiro aventureiro) {
+}
@@ -0,0 +1,16 @@
+package workshop.spring.apirest.event;
+
+import workshop.spring.apirest.entity.Aventureiro;
+
+import java.util.List;
+
+/**
+ * Publicado a cada bloco gravado pela criação em lote.
+ *
+ * Fica separado de {@link AventureiroSalvoEvent} para que cada ouvinte decida se
+ * importações grandes lhe interessam (o cache de buscas, por exemplo, as ignora).
+ *
+ * @param aventureiros Os aventureiros gravados no bloco
+ */
+public record AventureirosCriadosEmLoteEvent(List<Aventureiro> aventureiros) {
+}
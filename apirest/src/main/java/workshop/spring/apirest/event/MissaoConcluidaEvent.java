@@ -0,0 +1,25 @@
+package workshop.spring.apirest.event;
+
+import workshop.spring.apirest.entity.ClasseRPG;
+
+/**
+ * Publicado no {@code PipelineMissoes} a cada missão realizada.
+ *
+ * @param id ID do aventureiro
+ * @param nome Nome do aventureiro
+ * @param classe Classe do aventureiro
+ * @param xpGanho XP conquistado na missão
+ * @param nivel Nível depois da missão
+ * @param xp XP depois da missão
+ * @param niveisGanhos Quantidade de níveis que o aventureiro subiu (normalmente 0 ou 1)
+ */
+public record MissaoConcluidaEvent(Long id, String nome, ClasseRPG classe,
+                                   int xpGanho, int nivel, int xp, int niveisGanhos) {
+
+    /**
+     * @return true se o aventureiro subiu de nível na missão
+     */
+    public boolean subiuNivel() {
+        return niveisGanhos > 0;
+    }
+}
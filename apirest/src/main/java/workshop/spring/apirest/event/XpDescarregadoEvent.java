@@ -0,0 +1,25 @@
+package workshop.spring.apirest.event;
+
+import java.util.Map;
+
+/**
+ * Publicado quando o XP acumulado no modo write-behind é gravado no banco.
+ *
+ * Para cada aventureiro, as missões pendentes foram aplicadas em ordem, com a mesma regra
+ * do modo normal, e a versão foi incrementada em 1. O evento traz o estado gravado, não
+ * o XP somado: quem o recebe não precisa refazer a conta.
+ *
+ * @param progressoPorId Nível, XP e versão gravados, por ID de aventureiro
+ */
+public record XpDescarregadoEvent(Map<Long, Progresso> progressoPorId) {
+
+    /**
+     * Estado de um aventureiro depois da descarga.
+     *
+     * @param nivel  Nível gravado
+     * @param xp     XP gravado
+     * @param versao Versão gravada
+     */
+    public record Progresso(int nivel, int xp, long versao) {
+    }
+}
@@ -1,13 +1,24 @@
 package workshop.spring.apirest.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.jspecify.annotations.NonNull;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import workshop.spring.apirest.dto.ContagemClasse;
+import workshop.spring.apirest.dto.ContagemNivel;
+import workshop.spring.apirest.dto.FichaAventureiro;
+import workshop.spring.apirest.dto.ResumoGuilda;
 import workshop.spring.apirest.entity.Aventureiro;
 import workshop.spring.apirest.entity.ClasseRPG;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,9 +28,26 @@ import java.util.Optional;
  * 
  * As consultas personalizadas são definidas usando a anotação @Query com JPQL.
  * O Spring Data JPA implementa automaticamente os métodos definidos aqui.
+ * Consultas montadas dinamicamente (como a paginação por cursor) ficam em
+ * {@link AventureiroRepositoryCustom}.
+ * 
+ * As listagens usadas pelos endpoints de leitura devolvem {@link FichaAventureiro}
+ * (SELECT iniciado por {@link #SELECT_FICHA}): o Hibernate só lê as colunas e monta o record,
+ * sem criar entidades gerenciadas. Elas levam a dica {@code org.hibernate.flushMode=COMMIT}
+ * para que a consulta nunca dispare um flush do contexto de persistência antes de rodar.
+ * 
+ * As consultas declaradas aqui não herdam a transação somente leitura do {@code SimpleJpaRepository};
+ * cada uma declara a sua, o que permite mandá-las a uma réplica quando o roteamento de
+ * leitura está ligado (ver {@code ReplicasLeitura}).
  */
 @Repository
-public interface AventureiroRepository extends JpaRepository<Aventureiro, Long> {
+public interface AventureiroRepository extends JpaRepository<Aventureiro, Long>, AventureiroRepositoryCustom {
+
+    /**
+     * Início do JPQL das consultas que devolvem {@link FichaAventureiro}.
+     */
+    String SELECT_FICHA = "SELECT new workshop.spring.apirest.dto.FichaAventureiro"
+            + "(a.id, a.nome, a.classe, a.nivel, a.xp, a.versao) FROM Aventureiro a";
 
     /**
      * Retorna todos os aventureiros cadastrados no sistema.
@@ -27,6 +55,7 @@ public interface AventureiroRepository extends JpaRepository<Aventureiro, Long>
      * 
      * @return Lista de todos os aventureiros (pode ser vazia, mas nunca nula)
      */
+    @Transactional(readOnly = true)
     @NonNull
     @Query("SELECT a FROM Aventureiro a")
     List<Aventureiro> findAll();
@@ -38,6 +67,7 @@ public interface AventureiroRepository extends JpaRepository<Aventureiro, Long>
      * @param id ID do aventureiro a ser buscado
      * @return Um Optional contendo o aventureiro, se encontrado
      */
+    @Transactional(readOnly = true)
     @NonNull
     @Override
     @Query("SELECT a FROM Aventureiro a WHERE a.id = :id")
@@ -49,6 +79,7 @@ public interface AventureiroRepository extends JpaRepository<Aventureiro, Long>
      * @param nome Nome exato do aventureiro a ser buscado
      * @return O aventureiro encontrado ou null se não existir
      */
+    @Transactional(readOnly = true)
     @Query("SELECT a FROM Aventureiro a WHERE a.nome = :nome")
     Aventureiro findByNome(@Param("nome") String nome);
 
@@ -58,15 +89,27 @@ public interface AventureiroRepository extends JpaRepository<Aventureiro, Long>
      * @param classe A classe dos aventureiros a serem buscados
      * @return Lista de aventureiros da classe especificada (pode ser vazia)
      */
+    @Transactional(readOnly = true)
     @Query("SELECT a FROM Aventureiro a WHERE a.classe = :classe")
     List<Aventureiro> findByClasse(@Param("classe") ClasseRPG classe);
 
+    /**
+     * Conta os aventureiros de uma determinada classe.
+     * 
+     * @param classe A classe dos aventureiros a serem contados
+     * @return Quantidade de aventureiros da classe
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT COUNT(a) FROM Aventureiro a WHERE a.classe = :classe")
+    long countByClasse(@Param("classe") ClasseRPG classe);
+
     /**
      * Busca todos os aventureiros de um determinado nível.
      * 
      * @param nivel Nível dos aventureiros a serem buscados
      * @return Lista de aventureiros do nível especificado (pode ser vazia)
      */
+    @Transactional(readOnly = true)
     @Query("SELECT a FROM Aventureiro a WHERE a.nivel = :nivel")
     List<Aventureiro> findByNivel(@Param("nivel") Integer nivel);
 
@@ -76,6 +119,204 @@ public interface AventureiroRepository extends JpaRepository<Aventureiro, Long>
      * @param xp Quantidade exata de XP para busca
      * @return Lista de aventureiros com a quantidade de XP especificada (pode ser vazia)
      */
+    @Transactional(readOnly = true)
     @Query("SELECT a FROM Aventureiro a WHERE a.xp = :xp")
     List<Aventureiro> findByXp(@Param("xp") Integer xp);
+
+    /**
+     * Lista as fichas de todos os aventureiros, sem carregar entidades.
+     * 
+     * @return Fichas de todos os aventureiros (pode ser vazia)
+     */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query(SELECT_FICHA)
+    List<FichaAventureiro> listarFichas();
+
+    /**
+     * Lista as fichas dos aventureiros de uma classe, sem carregar entidades.
+     * 
+     * @param classe A classe dos aventureiros
+     * @return Fichas dos aventureiros da classe (pode ser vazia)
+     */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query(SELECT_FICHA + " WHERE a.classe = :classe")
+    List<FichaAventureiro> listarFichasPorClasse(@Param("classe") ClasseRPG classe);
+
+    /**
+     * Lista as fichas dos aventureiros de um nível, sem carregar entidades.
+     * 
+     * @param nivel Nível dos aventureiros
+     * @return Fichas dos aventureiros do nível (pode ser vazia)
+     */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query(SELECT_FICHA + " WHERE a.nivel = :nivel")
+    List<FichaAventureiro> listarFichasPorNivel(@Param("nivel") Integer nivel);
+
+    /**
+     * Lista as fichas dos aventureiros com uma quantidade exata de XP, sem carregar entidades.
+     * 
+     * @param xp Quantidade exata de XP
+     * @return Fichas dos aventureiros com esse XP (pode ser vazia)
+     */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query(SELECT_FICHA + " WHERE a.xp = :xp")
+    List<FichaAventureiro> listarFichasPorXp(@Param("xp") Integer xp);
+
+    /**
+     * Busca aventureiros com nível dentro de uma faixa (inclusive), do menor para o maior.
+     * Usa o índice (nivel, xp), que já entrega as linhas na ordem pedida.
+     * 
+     * @param minimo Menor nível aceito
+     * @param maximo Maior nível aceito
+     * @param limite Quantidade máxima de aventureiros retornados
+     * @return Fichas dos aventureiros na faixa (pode ser vazia)
+     */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query(SELECT_FICHA + " WHERE a.nivel BETWEEN :minimo AND :maximo "
+            + "ORDER BY a.nivel, a.xp, a.id")
+    List<FichaAventureiro> findByNivelEntre(@Param("minimo") Integer minimo, @Param("maximo") Integer maximo, Limit limite);
+
+    /**
+     * Busca aventureiros de um nível com XP acima de um valor, do menor XP para o maior.
+     * Usa o índice (nivel, xp): o nível fixa o trecho do índice e o XP delimita a faixa.
+     * 
+     * @param nivel Nível dos aventureiros
+     * @param xp XP mínimo (exclusivo)
+     * @param limite Quantidade máxima de aventureiros retornados
+     * @return Fichas dos aventureiros encontrados (pode ser vazia)
+     */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query(SELECT_FICHA + " WHERE a.nivel = :nivel AND a.xp > :xp "
+            + "ORDER BY a.xp, a.id")
+    List<FichaAventureiro> findByNivelEXpAcima(@Param("nivel") Integer nivel, @Param("xp") Integer xp, Limit limite);
+
+    /**
+     * Busca aventureiros de uma classe com nível dentro de uma faixa (inclusive).
+     * Usa o índice (classe, nivel, xp).
+     * 
+     * @param classe Classe dos aventureiros
+     * @param minimo Menor nível aceito
+     * @param maximo Maior nível aceito
+     * @param limite Quantidade máxima de aventureiros retornados
+     * @return Fichas dos aventureiros encontrados (pode ser vazia)
+     */
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query(SELECT_FICHA + " WHERE a.classe = :classe AND a.nivel BETWEEN :minimo AND :maximo "
+            + "ORDER BY a.nivel, a.xp, a.id")
+    List<FichaAventureiro> findByClasseENivelEntre(@Param("classe") ClasseRPG classe, @Param("minimo") Integer minimo,
+                                                   @Param("maximo") Integer maximo, Limit limite);
+
+    /**
+     * Busca os primeiros aventureiros do ranking: maior nível, depois maior XP
+     * (empates ficam com o menor ID).
+     * 
+     * @param limite Quantidade de aventureiros
+     * @return Os aventureiros em ordem de ranking
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT a FROM Aventureiro a ORDER BY a.nivel DESC, a.xp DESC, a.id")
+    List<Aventureiro> findRanking(Limit limite);
+
+    /**
+     * Busca os primeiros aventureiros de uma classe no ranking.
+     * 
+     * @param classe Classe dos aventureiros
+     * @param limite Quantidade de aventureiros
+     * @return Os aventureiros da classe em ordem de ranking
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT a FROM Aventureiro a WHERE a.classe = :classe ORDER BY a.nivel DESC, a.xp DESC, a.id")
+    List<Aventureiro> findRankingPorClasse(@Param("classe") ClasseRPG classe, Limit limite);
+
+    /**
+     * Conta quantos aventureiros estão à frente de uma pontuação no ranking geral.
+     * 
+     * @param nivel Nível do aventureiro
+     * @param xp XP do aventureiro
+     * @param id ID do aventureiro (desempate)
+     * @return Quantidade de aventureiros à frente
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT COUNT(a) FROM Aventureiro a WHERE a.nivel > :nivel "
+            + "OR (a.nivel = :nivel AND (a.xp > :xp OR (a.xp = :xp AND a.id < :id)))")
+    long contarAFrente(@Param("nivel") int nivel, @Param("xp") int xp, @Param("id") Long id);
+
+    /**
+     * Conta quantos aventureiros de uma classe estão à frente de uma pontuação.
+     * 
+     * @param classe Classe dos aventureiros
+     * @param nivel Nível do aventureiro
+     * @param xp XP do aventureiro
+     * @param id ID do aventureiro (desempate)
+     * @return Quantidade de aventureiros da classe à frente
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT COUNT(a) FROM Aventureiro a WHERE a.classe = :classe AND (a.nivel > :nivel "
+            + "OR (a.nivel = :nivel AND (a.xp > :xp OR (a.xp = :xp AND a.id < :id))))")
+    long contarAFrenteNaClasse(@Param("classe") ClasseRPG classe, @Param("nivel") int nivel,
+                               @Param("xp") int xp, @Param("id") Long id);
+
+    /**
+     * Conta os aventureiros de cada classe em uma única consulta (GROUP BY).
+     * Classes sem aventureiros não aparecem no resultado.
+     * 
+     * @return Uma linha por classe ocupada
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new workshop.spring.apirest.dto.ContagemClasse(a.classe, COUNT(a)) "
+            + "FROM Aventureiro a GROUP BY a.classe")
+    List<ContagemClasse> contarPorClasse();
+
+    /**
+     * Conta os aventureiros de cada nível, em ordem de nível (GROUP BY).
+     * Usa o índice (nivel, xp), que já entrega as linhas agrupadas.
+     * 
+     * @return Uma linha por nível ocupado
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new workshop.spring.apirest.dto.ContagemNivel(a.nivel, COUNT(a)) "
+            + "FROM Aventureiro a GROUP BY a.nivel ORDER BY a.nivel")
+    List<ContagemNivel> contarPorNivel();
+
+    /**
+     * Calcula quantidade, média e máximo de nível e soma de XP em uma única consulta.
+     * 
+     * @return Os totais da guilda (média, máximo e soma nulos se a tabela estiver vazia)
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT new workshop.spring.apirest.dto.ResumoGuilda(COUNT(a), AVG(a.nivel), MAX(a.nivel), SUM(a.xp)) "
+            + "FROM Aventureiro a")
+    ResumoGuilda resumir();
+
+    /**
+     * Aplica o resultado de uma missão em um único UPDATE atômico.
+     * 
+     * Soma o XP ganho e, se o total chegar a 100, sobe um nível e zera o XP,
+     * tudo dentro do banco. Como a leitura e a escrita acontecem no mesmo comando,
+     * missões simultâneas para o mesmo aventureiro nunca perdem XP.
+     * 
+     * A ordem das atribuições importa: o MySQL aplica o SET da esquerda para a direita
+     * usando os valores já alterados, então o nível é calculado antes de o XP mudar.
+     * 
+     * @param id ID do aventureiro
+     * @param xpGanho XP conquistado na missão
+     * @param agora Momento da missão, gravado como última alteração
+     * @return Quantidade de linhas alteradas (0 se o aventureiro não existir)
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Aventureiro a SET "
+            + "a.nivel = CASE WHEN a.xp + :xpGanho >= 100 THEN a.nivel + 1 ELSE a.nivel END, "
+            + "a.xp = CASE WHEN a.xp + :xpGanho >= 100 THEN 0 ELSE a.xp + :xpGanho END, "
+            + "a.versao = a.versao + 1, "
+            + "a.atualizadoEm = :agora "
+            + "WHERE a.id = :id")
+    int aplicarMissao(@Param("id") Long id, @Param("xpGanho") int xpGanho, @Param("agora") Instant agora);
 }
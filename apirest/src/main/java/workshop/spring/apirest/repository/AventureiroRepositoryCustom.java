@@ -0,0 +1,72 @@
+package workshop.spring.apirest.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+import workshop.spring.apirest.dto.AlteracaoAventureiro;
+import workshop.spring.apirest.dto.FichaAventureiro;
+import workshop.spring.apirest.dto.VersaoGuilda;
+import workshop.spring.apirest.entity.Aventureiro;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Consultas e alterações do repositório de aventureiros que não podem ser expressas
+ * com uma única anotação @Query, pois o comando é montado dinamicamente.
+ *
+ * O Spring Data JPA combina esta interface com a implementação
+ * {@link AventureiroRepositoryCustomImpl} automaticamente.
+ */
+public interface AventureiroRepositoryCustom {
+
+    /**
+     * Busca uma página de aventureiros a partir da posição indicada na consulta.
+     *
+     * @param consulta Filtros, ordenação e posição do cursor
+     * @return Fichas de no máximo {@code consulta.limite()} aventureiros, na ordem solicitada
+     */
+    List<FichaAventureiro> buscarPagina(ConsultaPagina consulta);
+
+    /**
+     * Percorre todos os aventureiros em ordem de ID sem carregá-los de uma vez.
+     *
+     * As linhas são lidas do banco em blocos de {@code tamanhoBloco} (fetch size do JDBC; no
+     * MySQL, uma a uma, em streaming) e as entidades são carregadas em modo somente leitura. O Stream deve ser consumido
+     * dentro de uma transação e fechado ao final (try-with-resources).
+     *
+     * @param tamanhoBloco Quantidade de linhas buscadas por ida ao banco
+     * @return Stream com todos os aventureiros
+     */
+    Stream<Aventureiro> percorrerTodos(int tamanhoBloco);
+
+    /**
+     * Grava alterações parciais com UPDATEs que só tocam as colunas informadas.
+     *
+     * Cada alteração vira um {@code UPDATE ... WHERE id = ?} (mais {@code AND versao = ?} quando
+     * a versão é informada) que também incrementa a versão e grava {@code atualizado_em}.
+     * Alterações com os mesmos campos compartilham o SQL e vão juntas em um lote JDBC.
+     * Deve ser chamado dentro de uma transação; o contexto de persistência é sincronizado
+     * antes e limpo depois, para que as próximas leituras vejam os valores gravados.
+     *
+     * @param alteracoes Alterações já validadas
+     * @param agora Momento gravado como última alteração
+     * @return Linhas alteradas por alteração, na ordem recebida (0 = ID inexistente ou versão desatualizada)
+     */
+    int[] alterarCampos(List<AlteracaoAventureiro> alteracoes, Instant agora);
+
+    /**
+     * Lê a marca de mudança da guilda, usada no ETag da listagem: a quantidade de aventureiros
+     * e o contador da tabela {@code guilda_versao}, em uma única consulta e sem ler as linhas.
+     *
+     * @return Quantidade de aventureiros e versão da guilda
+     */
+    @Transactional(readOnly = true)
+    VersaoGuilda versaoGuilda();
+
+    /**
+     * Incrementa o contador de versão da guilda. Chamado por {@link workshop.spring.apirest.service.MarcadorVersaoGuilda}
+     * no fim de toda transação que grava aventureiros; a linha fica bloqueada até o commit.
+     */
+    @Transactional
+    void incrementarVersaoGuilda();
+}
@@ -0,0 +1,249 @@
+package workshop.spring.apirest.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import workshop.spring.apirest.dto.AlteracaoAventureiro;
+import workshop.spring.apirest.dto.FichaAventureiro;
+import workshop.spring.apirest.dto.VersaoGuilda;
+import workshop.spring.apirest.entity.Aventureiro;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Implementação das consultas dinâmicas de {@link AventureiroRepositoryCustom}.
+ *
+ * A paginação usa a técnica de keyset: a condição WHERE continua a leitura
+ * a partir da última linha entregue, e o ID funciona como desempate para
+ * que a ordem seja sempre determinística.
+ *
+ * As alterações parciais vão direto pelo JDBC: o JPQL não agrupa UPDATEs em lote. A marca
+ * de mudança da guilda também, porque a tabela {@code guilda_versao} não é uma entidade.
+ */
+public class AventureiroRepositoryCustomImpl implements AventureiroRepositoryCustom {
+
+    /**
+     * EntityManager gerenciado pelo Spring, usado para executar o JPQL montado.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param jdbcTemplate Usado para enviar as alterações parciais em lote JDBC
+     */
+    @Autowired
+    public AventureiroRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Exemplo de JPQL gerado (ordenação por nível, crescente, após nível 3 / ID 42):
+     * <pre>
+     * SELECT new ...FichaAventureiro(a.id, a.nome, a.classe, a.nivel, a.xp, a.versao) FROM Aventureiro a
+     * WHERE (a.nivel &gt; :ultimoValor OR (a.nivel = :ultimoValor AND a.id &gt; :ultimoId))
+     * ORDER BY a.nivel ASC, a.id ASC
+     * </pre>
+     */
+    @Override
+    public List<FichaAventureiro> buscarPagina(ConsultaPagina consulta) {
+        List<String> condicoes = new ArrayList<>();
+        Map<String, Object> parametros = new HashMap<>();
+
+        // 1. Filtros opcionais
+        if (consulta.classe() != null) {
+            condicoes.add("a.classe = :classe");
+            parametros.put("classe", consulta.classe());
+        }
+        if (consulta.nivel() != null) {
+            condicoes.add("a.nivel = :nivel");
+            parametros.put("nivel", consulta.nivel());
+        }
+        if (consulta.xp() != null) {
+            condicoes.add("a.xp = :xp");
+            parametros.put("xp", consulta.xp());
+        }
+
+        // 2. Condição do cursor: continua logo após a última linha lida
+        String operador = consulta.decrescente() ? "<" : ">";
+        String direcao = consulta.decrescente() ? "DESC" : "ASC";
+        CampoOrdenacao ordenacao = consulta.ordenacao();
+
+        if (consulta.ultimoId() != null) {
+            if (ordenacao == CampoOrdenacao.ID) {
+                condicoes.add("a.id " + operador + " :ultimoId");
+            } else {
+                String campo = "a." + ordenacao.getAtributo();
+                condicoes.add("(" + campo + " " + operador + " :ultimoValor OR ("
+                        + campo + " = :ultimoValor AND a.id " + operador + " :ultimoId))");
+                parametros.put("ultimoValor", consulta.ultimoValor());
+            }
+            parametros.put("ultimoId", consulta.ultimoId());
+        }
+
+        // 3. Monta o JPQL final
+        StringBuilder jpql = new StringBuilder(AventureiroRepository.SELECT_FICHA);
+        if (!condicoes.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", condicoes));
+        }
+        jpql.append(" ORDER BY ");
+        if (ordenacao != CampoOrdenacao.ID) {
+            jpql.append("a.").append(ordenacao.getAtributo()).append(' ').append(direcao).append(", ");
+        }
+        jpql.append("a.id ").append(direcao);
+
+        TypedQuery<FichaAventureiro> query = entityManager.createQuery(jpql.toString(), FichaAventureiro.class)
+                .setHint(HibernateHints.HINT_FLUSH_MODE, "COMMIT");
+        parametros.forEach(query::setParameter);
+        return query.setMaxResults(consulta.limite()).getResultList();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * No MySQL, o Connector/J ignora o fetch size comum e traria o resultado inteiro para a
+     * memória antes da primeira linha. Só esta consulta usa o fetch size {@link Integer#MIN_VALUE},
+     * que faz o driver entregar as linhas uma a uma conforme chegam, sem mexer na URL de conexão
+     * ({@code useCursorFetch=true} ligaria os prepared statements no servidor para todas as
+     * consultas da aplicação). Enquanto o Stream estiver aberto, a conexão não executa outro comando.
+     */
+    @Override
+    public Stream<Aventureiro> percorrerTodos(int tamanhoBloco) {
+        int fetchSize = bancoMySql() ? Integer.MIN_VALUE : tamanhoBloco;
+        return entityManager.createQuery("SELECT a FROM Aventureiro a ORDER BY a.id", Aventureiro.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    /**
+     * @return true se o dialeto do Hibernate for o do MySQL (ou de um derivado, como o MariaDB)
+     */
+    private boolean bancoMySql() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof MySQLDialect;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Exemplo de SQL gerado (alteração de classe e nível com versão):
+     * <pre>
+     * UPDATE aventureiro SET classe = ?, nivel = ?, versao = versao + 1, atualizado_em = ?
+     * WHERE id = ? AND versao = ?
+     * </pre>
+     */
+    @Override
+    public int[] alterarCampos(List<AlteracaoAventureiro> alteracoes, Instant agora) {
+        // Alterações pendentes do Hibernate precisam chegar ao banco antes dos UPDATEs
+        entityManager.flush();
+
+        // 1. Agrupa por SQL, guardando a posição original de cada alteração
+        Map<String, List<Integer>> posicoesPorSql = new LinkedHashMap<>();
+        for (int i = 0; i < alteracoes.size(); i++) {
+            posicoesPorSql.computeIfAbsent(sqlAlteracao(alteracoes.get(i)), sql -> new ArrayList<>()).add(i);
+        }
+
+        // 2. Um lote JDBC por SQL
+        Timestamp momento = Timestamp.from(agora);
+        int[] linhas = new int[alteracoes.size()];
+        posicoesPorSql.forEach((sql, posicoes) -> {
+            List<Object[]> parametros = new ArrayList<>(posicoes.size());
+            for (int posicao : posicoes) {
+                parametros.add(parametrosAlteracao(alteracoes.get(posicao), momento));
+            }
+            int[] resultado = parametros.size() == 1
+                    ? new int[]{jdbcTemplate.update(sql, parametros.get(0))}
+                    : jdbcTemplate.batchUpdate(sql, parametros);
+            for (int i = 0; i < resultado.length; i++) {
+                linhas[posicoes.get(i)] = resultado[i];
+            }
+        });
+
+        // Entidades carregadas antes dos UPDATEs estariam desatualizadas
+        entityManager.clear();
+        return linhas;
+    }
+
+    private static String sqlAlteracao(AlteracaoAventureiro alteracao) {
+        StringBuilder sql = new StringBuilder("UPDATE aventureiro SET ");
+        if (alteracao.nome() != null) {
+            sql.append("nome = ?, ");
+        }
+        if (alteracao.classe() != null) {
+            sql.append("classe = ?, ");
+        }
+        if (alteracao.nivel() != null) {
+            sql.append("nivel = ?, ");
+        }
+        if (alteracao.xp() != null) {
+            sql.append("xp = ?, ");
+        }
+        sql.append("versao = versao + 1, atualizado_em = ? WHERE id = ?");
+        if (alteracao.versao() != null) {
+            sql.append(" AND versao = ?");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * O COUNT vai em uma subconsulta da mesma instrução, então os dois valores saem da mesma
+     * leitura consistente do banco.
+     */
+    @Override
+    public VersaoGuilda versaoGuilda() {
+        return jdbcTemplate.queryForObject(
+                "SELECT (SELECT COUNT(*) FROM aventureiro) AS total, versao FROM guilda_versao WHERE id = 1",
+                (linha, numero) -> new VersaoGuilda(linha.getLong("total"), linha.getLong("versao")));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void incrementarVersaoGuilda() {
+        jdbcTemplate.update("UPDATE guilda_versao SET versao = versao + 1 WHERE id = 1");
+    }
+
+    /**
+     * Parâmetros na mesma ordem dos {@code ?} de {@link #sqlAlteracao}.
+     */
+    private static Object[] parametrosAlteracao(AlteracaoAventureiro alteracao, Timestamp agora) {
+        List<Object> parametros = new ArrayList<>(7);
+        if (alteracao.nome() != null) {
+            parametros.add(alteracao.nome());
+        }
+        if (alteracao.classe() != null) {
+            parametros.add(alteracao.classe().name());
+        }
+        if (alteracao.nivel() != null) {
+            parametros.add(alteracao.nivel());
+        }
+        if (alteracao.xp() != null) {
+            parametros.add(alteracao.xp());
+        }
+        parametros.add(agora);
+        parametros.add(alteracao.id());
+        if (alteracao.versao() != null) {
+            parametros.add(alteracao.versao());
+        }
+        return parametros.toArray();
+    }
+}
@@ -0,0 +1,62 @@
+package workshop.spring.apirest.repository;
+
+/**
+ * Campos pelos quais uma listagem paginada de aventureiros pode ser ordenada.
+ *
+ * O ID é sempre usado como critério de desempate, garantindo que a ordem
+ * seja total e que o cursor aponte para uma posição única.
+ */
+public enum CampoOrdenacao {
+    /** Ordena apenas pelo ID (ordem de cadastro) */
+    ID("id"),
+
+    /** Ordena pelo nível e desempata pelo ID */
+    NIVEL("nivel"),
+
+    /** Ordena pelo XP e desempata pelo ID */
+    XP("xp");
+
+    /**
+     * Nome do atributo da entidade Aventureiro usado na consulta JPQL.
+     */
+    private final String atributo;
+
+    /**
+     * Construtor do enum.
+     *
+     * @param atributo Nome do atributo correspondente na entidade
+     */
+    CampoOrdenacao(String atributo) {
+        this.atributo = atributo;
+    }
+
+    /**
+     * Retorna o nome do atributo da entidade usado na ordenação.
+     *
+     * @return Nome do atributo (ex: "nivel")
+     */
+    public String getAtributo() {
+        return atributo;
+    }
+
+    /**
+     * Converte uma string para o campo de ordenação correspondente.
+     * A comparação é case-insensitive.
+     *
+     * @param nome Nome do campo (id, nivel ou xp)
+     * @return A constante do enum correspondente
+     * @throws IllegalArgumentException se o nome não corresponder a nenhum campo
+     */
+    public static CampoOrdenacao fromNome(String nome) {
+        if (nome == null) {
+            throw new IllegalArgumentException("O campo de ordenação não pode ser nulo");
+        }
+
+        for (CampoOrdenacao campo : values()) {
+            if (campo.atributo.equalsIgnoreCase(nome)) {
+                return campo;
+            }
+        }
+        throw new IllegalArgumentException("Campo de ordenação inválido: " + nome);
+    }
+}
@@ -0,0 +1,31 @@
+package workshop.spring.apirest.repository;
+
+import workshop.spring.apirest.entity.ClasseRPG;
+
+/**
+ * Parâmetros de uma consulta paginada por cursor (keyset pagination).
+ *
+ * Em vez de usar OFFSET, a próxima página começa logo após a última linha
+ * lida ({@code ultimoValor}, {@code ultimoId}). Assim o banco percorre apenas
+ * as linhas da página, independentemente de quantas páginas já foram lidas.
+ *
+ * @param classe      Filtro opcional por classe (null = todas)
+ * @param nivel       Filtro opcional por nível exato (null = todos)
+ * @param xp          Filtro opcional por XP exato (null = todos)
+ * @param ordenacao   Campo principal de ordenação
+ * @param decrescente Se true, ordena do maior para o menor
+ * @param ultimoValor Valor do campo de ordenação na última linha lida (null na primeira página
+ *                    ou quando a ordenação é por ID)
+ * @param ultimoId    ID da última linha lida (null na primeira página)
+ * @param limite      Quantidade máxima de linhas a retornar
+ */
+public record ConsultaPagina(
+        ClasseRPG classe,
+        Integer nivel,
+        Integer xp,
+        CampoOrdenacao ordenacao,
+        boolean decrescente,
+        Integer ultimoValor,
+        Long ultimoId,
+        int limite) {
+}
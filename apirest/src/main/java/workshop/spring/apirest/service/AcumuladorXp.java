@@ -0,0 +1,447 @@
+package workshop.spring.apirest.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import workshop.spring.apirest.dto.FichaAventureiro;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.event.XpDescarregadoEvent;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * ⏳ ACUMULADOR DE XP (WRITE-BEHIND)
+ *
+ * Modo opcional ({@code guilda.missao.write-behind.enabled=true}) em que as missões não vão
+ * ao banco uma a uma: o XP de cada missão é guardado em memória, em ordem, por aventureiro,
+ * e gravado de tempos em tempos em um único lote. Mil missões do mesmo herói entre duas
+ * descargas viram um único UPDATE.
+ *
+ * Funcionamento:
+ * 1. {@link #acumular} acrescenta o XP da missão à lista do herói em um ConcurrentHashMap
+ *    (o merge é atômico por entrada, então missões simultâneas não se perdem)
+ * 2. A cada {@code intervalo-ms}, ou quando há {@code max-pendentes} heróis pendentes,
+ *    {@link #descarregar()} retira as listas do mapa e as grava em lote
+ * 3. Até o commit do lote, as listas retiradas ficam em um segundo mapa (em gravação), que
+ *    {@link #mesclar} também aplica: a leitura não perde o XP enquanto ele está a caminho do banco
+ * 4. Na descarga, as linhas dos heróis são lidas com bloqueio ({@code FOR UPDATE}), as missões
+ *    são aplicadas em ordem e o UPDATE grava o nível e o XP resultantes
+ *
+ * A regra é a mesma do modo normal ({@link workshop.spring.apirest.repository.AventureiroRepository#aplicarMissao}):
+ * a missão que leva o XP a 100 sobe um nível e zera o XP. Por isso as missões são guardadas
+ * uma a uma, e não somadas: 95 + 15 + 15 dá nível +1 com XP 15, nos dois modos.
+ *
+ * Se a aplicação for encerrada normalmente, tudo o que estiver pendente é gravado antes.
+ */
+@Component
+public class AcumuladorXp {
+
+    private static final Logger log = LoggerFactory.getLogger(AcumuladorXp.class);
+
+    private static final int[] NENHUMA_MISSAO = new int[0];
+
+    /**
+     * Lê e bloqueia as linhas do lote (o "%s" recebe um "?" por ID). Em ordem de ID, para que
+     * duas descargas bloqueiem as linhas na mesma ordem.
+     */
+    private static final String SQL_LEITURA = "SELECT id, nivel, xp, versao FROM aventureiro "
+            + "WHERE id IN (%s) ORDER BY id FOR UPDATE";
+
+    /**
+     * UPDATE aplicado a cada herói na descarga, com o nível e o XP já calculados.
+     */
+    private static final String SQL_DESCARGA = "UPDATE aventureiro SET "
+            + "nivel = ?, "
+            + "xp = ?, "
+            + "versao = versao + 1, "
+            + "atualizado_em = ? "
+            + "WHERE id = ?";
+
+    /**
+     * XP de cada missão pendente, em ordem, por ID de aventureiro.
+     */
+    private final ConcurrentHashMap<Long, int[]> pendentes = new ConcurrentHashMap<>();
+
+    /**
+     * Missões já retiradas de {@link #pendentes} por uma descarga que ainda não fez commit, por ID.
+     */
+    private final ConcurrentHashMap<Long, int[]> emGravacao = new ConcurrentHashMap<>();
+
+    /**
+     * Trava a passagem das missões de um mapa para o outro (e a saída de {@link #emGravacao}), para
+     * que uma leitura não veja a mesma missão nos dois mapas, nem em nenhum deles.
+     * As leituras são otimistas e só esperam se cruzarem com uma passagem.
+     */
+    private final StampedLock passagem = new StampedLock();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventos;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean ativo;
+    private final int maxPendentes;
+    private final Timer tempoDescarga;
+
+    /**
+     * Evita enfileirar várias descargas antecipadas quando o limite é atingido.
+     */
+    private final AtomicBoolean descargaSolicitada = new AtomicBoolean();
+
+    /**
+     * Thread que executa as descargas periódicas (null quando o modo está desligado).
+     */
+    private final ScheduledExecutorService agendador;
+
+    /**
+     * @param jdbcTemplate Usado para ler as linhas e enviar os UPDATEs em lote JDBC
+     * @param eventos Publica {@link XpDescarregadoEvent} após cada descarga gravada
+     * @param transactionManager Cada descarga é gravada em uma única transação
+     * @param meterRegistry Registro de métricas
+     * @param ativo Propriedade {@code guilda.missao.write-behind.enabled} (padrão false)
+     * @param intervaloMs Propriedade {@code guilda.missao.write-behind.intervalo-ms} (padrão 100)
+     * @param maxPendentes Propriedade {@code guilda.missao.write-behind.max-pendentes} (padrão 1000)
+     */
+    @Autowired
+    public AcumuladorXp(JdbcTemplate jdbcTemplate,
+                        ApplicationEventPublisher eventos,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${guilda.missao.write-behind.enabled:false}") boolean ativo,
+                        @Value("${guilda.missao.write-behind.intervalo-ms:100}") long intervaloMs,
+                        @Value("${guilda.missao.write-behind.max-pendentes:1000}") int maxPendentes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventos = eventos;
+        // Participa da transação de quem chamou (e usa a conexão dela), ou abre uma
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ativo = ativo;
+        this.maxPendentes = maxPendentes;
+
+        meterRegistry.gaugeMapSize("guilda.missao.pendentes", List.of(), pendentes);
+        this.tempoDescarga = Timer.builder("guilda.missao.descarga")
+                .description("Tempo para gravar o XP acumulado no banco")
+                .register(meterRegistry);
+
+        if (ativo) {
+            agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+                Thread thread = new Thread(tarefa, "acumulador-xp");
+                thread.setDaemon(true);
+                return thread;
+            });
+            agendador.scheduleWithFixedDelay(this::descarregarComSeguranca, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+        } else {
+            agendador = null;
+        }
+    }
+
+    /**
+     * Indica se o modo write-behind está ligado.
+     *
+     * @return true se as missões devem ser acumuladas em memória
+     */
+    public boolean isAtivo() {
+        return ativo;
+    }
+
+    /**
+     * Registra o XP de uma missão, depois das já pendentes do aventureiro.
+     *
+     * @param id ID do aventureiro
+     * @param xp XP ganho na missão
+     */
+    public void acumular(Long id, int xp) {
+        pendentes.merge(id, new int[]{xp}, AcumuladorXp::juntar);
+
+        // Muitos heróis pendentes: antecipa a descarga em vez de esperar o intervalo
+        if (pendentes.size() >= maxPendentes && descargaSolicitada.compareAndSet(false, true)) {
+            agendador.execute(this::descarregarComSeguranca);
+        }
+    }
+
+    /**
+     * Retorna uma visão do aventureiro com as missões pendentes já aplicadas.
+     * Se não houver missões pendentes, retorna o próprio aventureiro.
+     *
+     * @param aventureiro Estado do aventureiro no banco
+     * @return O aventureiro com as missões pendentes aplicadas (uma cópia, quando há pendências)
+     */
+    public Aventureiro mesclar(Aventureiro aventureiro) {
+        int[] missoes = pendentes(aventureiro.getId());
+        if (missoes.length == 0) {
+            return aventureiro;
+        }
+
+        Progresso progresso = aplicar(aventureiro.getNivel(), aventureiro.getXp(), missoes);
+        Aventureiro visao = aventureiro.copiar();
+        visao.setNivel(progresso.nivel());
+        visao.setXp(progresso.xp());
+        return visao;
+    }
+
+    /**
+     * Mesma conta de {@link #mesclar(Aventureiro)}, para as fichas das listagens.
+     *
+     * @param ficha Ficha do aventureiro lida do banco ou do índice em memória
+     * @return A ficha com as missões pendentes aplicadas (uma nova ficha, quando há pendências)
+     */
+    public FichaAventureiro mesclar(FichaAventureiro ficha) {
+        int[] missoes = pendentes(ficha.id());
+        if (missoes.length == 0) {
+            return ficha;
+        }
+
+        Progresso progresso = aplicar(ficha.nivel(), ficha.xp(), missoes);
+        return ficha.comProgresso(progresso.nivel(), progresso.xp());
+    }
+
+    /**
+     * @return Missões ainda não confirmadas no banco, em ordem: as em gravação e depois as pendentes
+     */
+    private int[] pendentes(Long id) {
+        long carimbo = passagem.tryOptimisticRead();
+        int[] missoes = juntar(id);
+        if (!passagem.validate(carimbo)) {
+            carimbo = passagem.readLock();
+            try {
+                missoes = juntar(id);
+            } finally {
+                passagem.unlockRead(carimbo);
+            }
+        }
+        return missoes;
+    }
+
+    private int[] juntar(Long id) {
+        int[] gravando = emGravacao.get(id);
+        int[] pendente = pendentes.get(id);
+        return juntar(gravando == null ? NENHUMA_MISSAO : gravando, pendente == null ? NENHUMA_MISSAO : pendente);
+    }
+
+    /**
+     * Aplica as missões em ordem, com a regra do modo normal: a missão que leva o XP a 100
+     * sobe um nível e zera o XP.
+     */
+    private static Progresso aplicar(int nivel, int xp, int[] missoes) {
+        for (int ganho : missoes) {
+            if (xp + ganho >= 100) {
+                nivel++;
+                xp = 0;
+            } else {
+                xp += ganho;
+            }
+        }
+        return new Progresso(nivel, xp);
+    }
+
+    /**
+     * As missões de {@code antes} seguidas das de {@code depois}, em um novo array.
+     */
+    private static int[] juntar(int[] antes, int[] depois) {
+        if (depois.length == 0) {
+            return antes;
+        }
+        if (antes.length == 0) {
+            return depois;
+        }
+        int[] todas = Arrays.copyOf(antes, antes.length + depois.length);
+        System.arraycopy(depois, 0, todas, antes.length, depois.length);
+        return todas;
+    }
+
+    /**
+     * Descarta as missões pendentes de um aventureiro (usado quando ele é removido).
+     *
+     * @param id ID do aventureiro
+     */
+    public void descartar(Long id) {
+        pendentes.remove(id);
+    }
+
+    /**
+     * Grava imediatamente as missões pendentes de alguns aventureiros, em um único lote.
+     * Usado antes de uma atualização, para que ela parta do estado real.
+     *
+     * A descarga entra na transação de quem chamou, com a mesma conexão: se ela for desfeita,
+     * as missões voltam a ficar pendentes.
+     *
+     * @param ids IDs dos aventureiros
+     * @return Os IDs que tinham missões pendentes (e cuja versão no banco foi incrementada)
+     */
+    public synchronized Set<Long> descarregar(Collection<Long> ids) {
+        return gravar(retirar(ids)).keySet();
+    }
+
+    /**
+     * Grava todas as missões pendentes no banco em um único lote.
+     *
+     * Cada lista é retirada do mapa de forma atômica: missões que chegarem durante a
+     * descarga começam uma nova entrada e serão gravadas na próxima. Até o commit, as missões
+     * retiradas continuam visíveis para {@link #mesclar} no mapa de XP em gravação.
+     *
+     * @return Quantidade de aventureiros atualizados
+     */
+    public synchronized int descarregar() {
+        descargaSolicitada.set(false);
+        if (pendentes.isEmpty()) {
+            return 0;
+        }
+        return gravar(retirar(pendentes.keySet())).size();
+    }
+
+    /**
+     * Passa as missões pendentes dos aventureiros para o mapa de XP em gravação.
+     *
+     * @return Missões retiradas, por ID (só dos que tinham alguma)
+     */
+    private Map<Long, int[]> retirar(Collection<Long> ids) {
+        Map<Long, int[]> lote = new HashMap<>();
+        long carimbo = passagem.writeLock();
+        try {
+            for (Long id : ids) {
+                int[] missoes = pendentes.remove(id);
+                if (missoes != null) {
+                    emGravacao.merge(id, missoes, AcumuladorXp::juntar);
+                    lote.put(id, missoes);
+                }
+            }
+        } finally {
+            passagem.unlockWrite(carimbo);
+        }
+        return lote;
+    }
+
+    /**
+     * Tira o lote do mapa de XP em gravação, depois do commit ou do rollback da descarga.
+     * No rollback, as missões voltam para a frente das pendentes e são tentadas de novo.
+     */
+    private void concluir(Map<Long, int[]> lote, boolean falhou) {
+        long carimbo = passagem.writeLock();
+        try {
+            lote.forEach((id, missoes) -> {
+                if (falhou) {
+                    pendentes.merge(id, missoes, (atuais, devolvidas) -> juntar(devolvidas, atuais));
+                }
+                emGravacao.computeIfPresent(id, (chave, gravando) -> gravando.length == missoes.length
+                        ? null : Arrays.copyOfRange(gravando, missoes.length, gravando.length));
+            });
+        } finally {
+            passagem.unlockWrite(carimbo);
+        }
+    }
+
+    /**
+     * Lê as linhas do lote com bloqueio, aplica as missões e grava o resultado em lote JDBC.
+     *
+     * Roda com o monitor deste objeto: como as linhas são bloqueadas antes de ele ser liberado,
+     * duas descargas do mesmo herói chegam ao banco na ordem em que retiraram as missões.
+     *
+     * O evento é publicado dentro da transação, então os ouvintes o recebem no commit dela.
+     * O lote sai do mapa de XP em gravação no commit, antes desses ouvintes: quem reage ao
+     * evento já lê o banco sem aplicar as missões de novo. Se a transação for desfeita, as
+     * missões voltam a ficar pendentes.
+     *
+     * @param lote Missões pendentes por ID
+     * @return O estado gravado por ID (aventureiros removidos nesse meio-tempo não aparecem)
+     */
+    private Map<Long, XpDescarregadoEvent.Progresso> gravar(Map<Long, int[]> lote) {
+        if (lote.isEmpty()) {
+            return Map.of();
+        }
+        return tempoDescarga.record(() -> transactionTemplate.execute(status -> {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public int getOrder() {
+                    return Ordered.HIGHEST_PRECEDENCE;
+                }
+
+                @Override
+                public void afterCommit() {
+                    concluir(lote, false);
+                }
+
+                @Override
+                public void afterCompletion(int situacao) {
+                    if (situacao != STATUS_COMMITTED) {
+                        concluir(lote, true);
+                    }
+                }
+            });
+
+            Map<Long, XpDescarregadoEvent.Progresso> gravados = new HashMap<>();
+            String marcadores = String.join(", ", Collections.nCopies(lote.size(), "?"));
+            jdbcTemplate.query(SQL_LEITURA.formatted(marcadores), linha -> {
+                long id = linha.getLong("id");
+                Progresso progresso = aplicar(linha.getInt("nivel"), linha.getInt("xp"), lote.get(id));
+                gravados.put(id, new XpDescarregadoEvent.Progresso(progresso.nivel(), progresso.xp(),
+                        linha.getLong("versao") + 1));
+            }, lote.keySet().toArray());
+
+            Timestamp agora = Timestamp.from(Instant.now());
+            List<Object[]> parametros = new ArrayList<>(gravados.size());
+            gravados.forEach((id, progresso) -> parametros.add(new Object[]{progresso.nivel(), progresso.xp(), agora, id}));
+            jdbcTemplate.batchUpdate(SQL_DESCARGA, parametros);
+
+            eventos.publishEvent(new XpDescarregadoEvent(Map.copyOf(gravados)));
+            return gravados;
+        }));
+    }
+
+    /**
+     * Versão da descarga usada pela thread agendada: registra o erro em vez de
+     * propagá-lo, o que cancelaria as próximas execuções.
+     */
+    private void descarregarComSeguranca() {
+        try {
+            descarregar();
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar XP acumulado; nova tentativa na próxima descarga", e);
+        }
+    }
+
+    /**
+     * Ao encerrar a aplicação, para as descargas periódicas e grava o que restou.
+     *
+     * @throws InterruptedException se o encerramento for interrompido
+     */
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        if (agendador == null) {
+            return;
+        }
+        agendador.shutdown();
+        agendador.awaitTermination(10, TimeUnit.SECONDS);
+        int atualizados = descarregar();
+        log.info("XP pendente gravado no encerramento: {} aventureiro(s)", atualizados);
+    }
+
+    /**
+     * Nível e XP de um aventureiro depois de aplicar missões.
+     */
+    private record Progresso(int nivel, int xp) {
+    }
+}
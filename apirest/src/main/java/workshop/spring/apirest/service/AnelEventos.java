@@ -0,0 +1,115 @@
+package workshop.spring.apirest.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fila circular de tamanho fixo, sem locks, para vários produtores e um único consumidor.
+ *
+ * Cada posição guarda um número de sequência que diz de quem é a vez:
+ * - igual à posição do produtor: livre para escrita
+ * - posição + 1: preenchida, pronta para o consumidor
+ *
+ * Os produtores disputam a próxima posição com um compareAndSet; quem ganha escreve o
+ * elemento e só então publica a sequência, então o consumidor nunca lê uma posição pela metade.
+ *
+ * @param <E> Tipo dos elementos
+ */
+final class AnelEventos<E> {
+
+    private final Object[] elementos;
+    private final AtomicLongArray sequencias;
+    private final int mascara;
+
+    /**
+     * Próxima posição a ser escrita, disputada pelos produtores.
+     */
+    private final AtomicLong cauda = new AtomicLong();
+
+    /**
+     * Próxima posição a ser lida. Só o consumidor escreve; os produtores leem para o tamanho.
+     */
+    private final AtomicLong cabeca = new AtomicLong();
+
+    /**
+     * @param capacidade Quantidade máxima de elementos (arredondada para a próxima potência de 2)
+     * @throws IllegalArgumentException se a capacidade não for positiva
+     */
+    AnelEventos(int capacidade) {
+        if (capacidade <= 0 || capacidade > (1 << 30)) {
+            throw new IllegalArgumentException("Capacidade da fila deve estar entre 1 e 2^30: " + capacidade);
+        }
+        int tamanho = Integer.highestOneBit(capacidade);
+        if (tamanho < capacidade) {
+            tamanho <<= 1;
+        }
+        this.elementos = new Object[tamanho];
+        this.sequencias = new AtomicLongArray(tamanho);
+        this.mascara = tamanho - 1;
+        for (int i = 0; i < tamanho; i++) {
+            sequencias.set(i, i);
+        }
+    }
+
+    /**
+     * Tenta colocar um elemento na fila. Pode ser chamado por várias threads.
+     *
+     * @param elemento Elemento a ser colocado
+     * @return false se a fila estiver cheia
+     */
+    boolean oferecer(E elemento) {
+        long posicao = cauda.get();
+        while (true) {
+            int indice = (int) posicao & mascara;
+            long diferenca = sequencias.getAcquire(indice) - posicao;
+            if (diferenca == 0) {
+                if (cauda.compareAndSet(posicao, posicao + 1)) {
+                    elementos[indice] = elemento;
+                    sequencias.setRelease(indice, posicao + 1);
+                    return true;
+                }
+                posicao = cauda.get();
+            } else if (diferenca < 0) {
+                // A posição ainda não foi liberada pelo consumidor: fila cheia
+                return false;
+            } else {
+                // Outro produtor ocupou a posição: tenta a seguinte
+                posicao = cauda.get();
+            }
+        }
+    }
+
+    /**
+     * Retira o próximo elemento. Só pode ser chamado pela thread consumidora.
+     *
+     * @return O elemento, ou null se a fila estiver vazia
+     */
+    @SuppressWarnings("unchecked")
+    E retirar() {
+        long posicao = cabeca.get();
+        int indice = (int) posicao & mascara;
+        if (sequencias.getAcquire(indice) != posicao + 1) {
+            return null;
+        }
+        E elemento = (E) elementos[indice];
+        elementos[indice] = null;
+        // Libera a posição para a próxima volta dos produtores
+        sequencias.setRelease(indice, posicao + elementos.length);
+        cabeca.lazySet(posicao + 1);
+        return elemento;
+    }
+
+    /**
+     * @return Quantidade aproximada de elementos na fila
+     */
+    int tamanho() {
+        return (int) Math.max(0, cauda.get() - cabeca.get());
+    }
+
+    /**
+     * @return Capacidade real da fila (potência de 2)
+     */
+    int capacidade() {
+        return elementos.length;
+    }
+}
@@ -0,0 +1,19 @@
+package workshop.spring.apirest.service;
+
+import workshop.spring.apirest.event.MissaoConcluidaEvent;
+
+/**
+ * Recebe as missões concluídas do {@link PipelineMissoes}.
+ *
+ * Todo bean que implementa esta interface é chamado pela thread consumidora do pipeline,
+ * um evento por vez e na ordem em que foram publicados. Um assinante lento atrasa os demais
+ * e faz a fila encher, então o trabalho pesado deve ser entregue a outra thread.
+ */
+@FunctionalInterface
+public interface AssinanteMissoes {
+
+    /**
+     * @param evento Missão concluída
+     */
+    void receber(MissaoConcluidaEvent evento);
+}
@@ -1,13 +1,56 @@
 package workshop.spring.apirest.service;
 
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import workshop.spring.apirest.dto.AlteracaoAventureiro;
+import workshop.spring.apirest.dto.ColocacaoAventureiro;
+import workshop.spring.apirest.dto.ContagemClasse;
+import workshop.spring.apirest.dto.ContagemNivel;
+import workshop.spring.apirest.dto.EstatisticasGuilda;
+import workshop.spring.apirest.dto.FalhaLote;
+import workshop.spring.apirest.dto.FichaAventureiro;
+import workshop.spring.apirest.dto.ItemLote;
+import workshop.spring.apirest.dto.Pagina;
+import workshop.spring.apirest.dto.PosicaoRanking;
+import workshop.spring.apirest.dto.RelatorioIndiceClasses;
+import workshop.spring.apirest.dto.ResultadoAlteracoes;
+import workshop.spring.apirest.dto.ResultadoLote;
+import workshop.spring.apirest.dto.ResumoGuilda;
+import workshop.spring.apirest.dto.VersaoGuilda;
 import workshop.spring.apirest.entity.Aventureiro;
 import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.event.AventureiroRemovidoEvent;
+import workshop.spring.apirest.event.AventureiroSalvoEvent;
+import workshop.spring.apirest.event.AventureirosCriadosEmLoteEvent;
+import workshop.spring.apirest.event.MissaoConcluidaEvent;
 import workshop.spring.apirest.repository.AventureiroRepository;
+import workshop.spring.apirest.repository.CampoOrdenacao;
+import workshop.spring.apirest.repository.ConsultaPagina;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * 🏦 SERVIÇO: GERENCIADOR DE REGRAS DE NEGÓCIO
@@ -25,6 +68,24 @@ import java.util.Optional;
 @Service
 public class AventureiroService {
 
+    private static final Logger log = LoggerFactory.getLogger(AventureiroService.class);
+
+    /**
+     * Tamanho de página usado quando o cliente pede paginação sem informar o limite.
+     */
+    public static final int LIMITE_PADRAO = 50;
+
+    /**
+     * Tamanho máximo de página aceito. Valores maiores são reduzidos a este limite,
+     * para que nenhuma requisição carregue a tabela inteira em memória.
+     */
+    public static final int LIMITE_MAXIMO = 500;
+
+    /**
+     * Quantidade de aventureiros do ranking quando o cliente não informa o top.
+     */
+    public static final int TOP_PADRAO = 10;
+
     /**
      * 🔌 REPOSITÓRIO
      * 
@@ -33,10 +94,88 @@ public class AventureiroService {
      */
     private final AventureiroRepository aventureiroRepository;
 
+    /**
+     * EntityManager compartilhado, usado para liberar memória durante a exportação.
+     */
+    private final EntityManager entityManager;
+
+    /**
+     * Percorre a tabela inteira em blocos, usado pela exportação.
+     */
+    private final LeitorAventureiros leitorAventureiros;
+
+    /**
+     * Sorteia o XP ganho em cada missão.
+     */
+    private final GeradorXp geradorXp;
+
+    /**
+     * Acumula o XP das missões em memória quando o modo write-behind está ligado.
+     */
+    private final AcumuladorXp acumuladorXp;
+
+    /**
+     * Cache das buscas por ID e por nome.
+     */
+    private final CacheAventureiros cacheAventureiros;
+
+    /**
+     * Índice em memória das buscas e contagens por classe (quando ligado).
+     */
+    private final IndicePorClasse indicePorClasse;
+
+    /**
+     * Ranking de aventureiros mantido em memória.
+     */
+    private final RankingAventureiros rankingAventureiros;
+
+    /**
+     * Estatísticas mantidas em contadores (quando ligados).
+     */
+    private final ContadoresGuilda contadoresGuilda;
+
+    /**
+     * Listagem completa já serializada em JSON (modo opcional).
+     */
+    private final ListagemPreSerializada listagemPreSerializada;
+
+    /**
+     * Junta leituras iguais e simultâneas em uma única consulta (quando ligado).
+     */
+    private final CoalescedorLeituras coalescedorLeituras;
+
+    /**
+     * Publica os eventos de alteração, que mantêm o cache e o índice atualizados.
+     */
+    private final ApplicationEventPublisher eventos;
+
+    /**
+     * Executa cada bloco da criação em lote em sua própria transação.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Quantidade de aventureiros salvos por transação na criação em lote.
+     */
+    private final int tamanhoBlocoLote;
+
     /**
      * Construtor que recebe a dependência do repositório.
      * 
      * @param aventureiroRepository O repositório que será injetado automaticamente pelo Spring
+     * @param entityManager O EntityManager compartilhado
+     * @param transactionManager Gerenciador de transações, usado na criação em lote
+     * @param geradorXp Gerador do XP das missões
+     * @param acumuladorXp Acumulador de XP do modo write-behind
+     * @param cacheAventureiros Cache das buscas por ID e por nome
+     * @param indicePorClasse Índice em memória das buscas por classe
+     * @param rankingAventureiros Ranking mantido em memória
+     * @param contadoresGuilda Contadores das estatísticas
+     * @param listagemPreSerializada Listagem completa mantida em JSON
+     * @param coalescedorLeituras Coalescência das leituras iguais e simultâneas
+     * @param eventos Publicador dos eventos de alteração
+     * @param leitorAventureiros Leitor da tabela inteira, usado pela exportação
+     * @param tamanhoBlocoLote Propriedade {@code guilda.lote.tamanho-bloco} (padrão 1000)
      * 
      * Boas práticas:
      * 1. Injeção por construtor é preferível a @Autowired em campos
@@ -44,8 +183,34 @@ public class AventureiroService {
      * 3. Torna as dependências explícitas
      */
     @Autowired
-    public AventureiroService(AventureiroRepository aventureiroRepository) {
+    public AventureiroService(AventureiroRepository aventureiroRepository,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              GeradorXp geradorXp,
+                              AcumuladorXp acumuladorXp,
+                              CacheAventureiros cacheAventureiros,
+                              IndicePorClasse indicePorClasse,
+                              RankingAventureiros rankingAventureiros,
+                              ContadoresGuilda contadoresGuilda,
+                              ListagemPreSerializada listagemPreSerializada,
+                              CoalescedorLeituras coalescedorLeituras,
+                              ApplicationEventPublisher eventos,
+                              LeitorAventureiros leitorAventureiros,
+                              @Value("${guilda.lote.tamanho-bloco:1000}") int tamanhoBlocoLote) {
         this.aventureiroRepository = aventureiroRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.geradorXp = geradorXp;
+        this.acumuladorXp = acumuladorXp;
+        this.cacheAventureiros = cacheAventureiros;
+        this.indicePorClasse = indicePorClasse;
+        this.rankingAventureiros = rankingAventureiros;
+        this.contadoresGuilda = contadoresGuilda;
+        this.listagemPreSerializada = listagemPreSerializada;
+        this.coalescedorLeituras = coalescedorLeituras;
+        this.eventos = eventos;
+        this.leitorAventureiros = leitorAventureiros;
+        this.tamanhoBlocoLote = tamanhoBlocoLote;
     }
 
     /**
@@ -53,27 +218,182 @@ public class AventureiroService {
      * 
      * @param aventureiro O aventureiro a ser criado
      * @return O aventureiro salvo com o ID gerado
-     * @throws IllegalArgumentException se o aventureiro for nulo ou já possuir um ID
+     * @throws IllegalArgumentException se o aventureiro for nulo, já possuir um ID, não tiver nome e classe
+     *         ou se o nome já estiver em uso
      */
     public Aventureiro create(Aventureiro aventureiro) {
+        String motivo = validarNovo(aventureiro);
+        if (motivo != null) {
+            throw new IllegalArgumentException(motivo);
+        }
+        try {
+            // O evento sai na transação do INSERT, para que a versão da guilda mude junto com ele
+            return transactionTemplate.execute(status -> {
+                Aventureiro salvo = aventureiroRepository.saveAndFlush(aventureiro);
+                eventos.publishEvent(new AventureiroSalvoEvent(salvo));
+                return salvo;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // O índice único de nome recusou o INSERT
+            throw new IllegalArgumentException("Já existe um aventureiro com o nome: " + aventureiro.getNome());
+        }
+    }
+
+    /**
+     * 📦 CRIAÇÃO EM LOTE
+     * 
+     * Cria vários aventureiros de uma vez. Os itens são lidos sob demanda do iterador
+     * (a entrada inteira nunca precisa estar em memória) e salvos em blocos de
+     * {@code guilda.lote.tamanho-bloco} aventureiros, cada bloco em uma transação.
+     * Dentro do bloco, o Hibernate agrupa os INSERTs em lotes JDBC.
+     * 
+     * Itens inválidos são reportados e ignorados sem abortar o lote. Se o banco rejeitar
+     * um bloco (ex: violação de restrição), o bloco é refeito item a item para
+     * identificar exatamente quais itens falharam.
+     * 
+     * @param itens Itens a serem criados, na ordem da entrada
+     * @return Quantidade de itens recebidos, criados e a lista de falhas
+     */
+    public ResultadoLote criarEmLote(Iterator<ItemLote> itens) {
+        long recebidos = 0;
+        long criados = 0;
+        List<FalhaLote> falhas = new ArrayList<>();
+        List<ItemLote> bloco = new ArrayList<>(tamanhoBlocoLote);
+
+        while (itens.hasNext()) {
+            ItemLote item = itens.next();
+            recebidos++;
+
+            // 1. Rejeita itens que não puderam ser lidos ou são inválidos
+            String motivo = item.erro() != null ? item.erro() : validarNovo(item.aventureiro());
+            if (motivo != null) {
+                falhas.add(new FalhaLote(item.indice(), motivo));
+                continue;
+            }
+
+            // 2. Acumula o item e salva quando o bloco estiver cheio
+            bloco.add(item);
+            if (bloco.size() == tamanhoBlocoLote) {
+                criados += salvarBloco(bloco, falhas);
+                bloco.clear();
+            }
+        }
+        if (!bloco.isEmpty()) {
+            criados += salvarBloco(bloco, falhas);
+        }
+        return new ResultadoLote(recebidos, criados, falhas);
+    }
+
+    /**
+     * Salva um bloco da criação em lote em uma única transação.
+     * Se a transação falhar, tenta novamente item a item.
+     * 
+     * @param bloco Itens válidos a serem salvos
+     * @param falhas Lista onde as falhas encontradas são adicionadas
+     * @return Quantidade de aventureiros salvos
+     */
+    private int salvarBloco(List<ItemLote> bloco, List<FalhaLote> falhas) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Aventureiro> salvos = new ArrayList<>(bloco.size());
+                for (ItemLote item : bloco) {
+                    salvos.add(aventureiroRepository.save(item.aventureiro()));
+                }
+                aventureiroRepository.flush();
+                eventos.publishEvent(new AventureirosCriadosEmLoteEvent(salvos));
+                // Libera as entidades do bloco: elas não serão mais usadas
+                entityManager.clear();
+            });
+            return bloco.size();
+        } catch (RuntimeException erroBloco) {
+            int salvos = 0;
+            for (ItemLote item : bloco) {
+                // A tentativa anterior deixou ID e versão na entidade, desfeitos pelo rollback:
+                // salva uma cópia limpa, para que o save faça um INSERT e não um merge
+                Aventureiro aventureiro = item.aventureiro().copiar();
+                aventureiro.setId(null);
+                aventureiro.setVersao(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        Aventureiro salvo = aventureiroRepository.save(aventureiro);
+                        aventureiroRepository.flush();
+                        eventos.publishEvent(new AventureirosCriadosEmLoteEvent(List.of(salvo)));
+                        entityManager.clear();
+                    });
+                    salvos++;
+                } catch (DataIntegrityViolationException erro) {
+                    // O índice único de nome recusou o INSERT
+                    falhas.add(new FalhaLote(item.indice(), "Já existe um aventureiro com o nome: " + aventureiro.getNome()));
+                } catch (RuntimeException erro) {
+                    // A mensagem do banco (SQL, nomes de restrições) fica só no log
+                    log.warn("Falha ao salvar o item {} do lote", item.indice(), erro);
+                    falhas.add(new FalhaLote(item.indice(), "Não foi possível salvar o aventureiro"));
+                }
+            }
+            return salvos;
+        }
+    }
+
+    /**
+     * Verifica se um aventureiro pode ser criado.
+     * 
+     * @param aventureiro O aventureiro a ser validado
+     * @return O motivo da rejeição, ou null se o aventureiro for válido
+     */
+    private String validarNovo(Aventureiro aventureiro) {
         if (aventureiro == null) {
-            throw new IllegalArgumentException("O aventureiro não pode ser nulo");
+            return "O aventureiro não pode ser nulo";
         }
         if (aventureiro.getId() != null) {
-            throw new IllegalArgumentException("Um novo aventureiro não pode ter um ID definido");
+            return "Um novo aventureiro não pode ter um ID definido";
+        }
+        if (aventureiro.getNome() == null || aventureiro.getNome().trim().isEmpty()) {
+            return "O nome do aventureiro não pode ser vazio";
         }
-        return aventureiroRepository.save(aventureiro);
+        if (aventureiro.getClasse() == null) {
+            return "A classe do aventureiro não pode ser nula";
+        }
+        return null;
     }
 
     /**
      * Atualiza um aventureiro existente.
      * 
+     * O registro atual é carregado e recebe os novos valores; o Hibernate grava a
+     * alteração ao final da transação com {@code WHERE versao = ?}. Se o cliente
+     * enviar a versão que conhece e ela estiver desatualizada, a atualização é
+     * recusada em vez de sobrescrever silenciosamente a alteração de outra pessoa.
+     * 
      * @param aventureiro O aventureiro com as atualizações
      * @return O aventureiro atualizado
-     * @throws IllegalArgumentException se o aventureiro for nulo ou não tiver um ID
+     * @throws IllegalArgumentException se o aventureiro for nulo, não tiver um ID ou usar o nome de outro
+     * @throws ObjectOptimisticLockingFailureException se a versão enviada estiver desatualizada
      * @throws RuntimeException se o aventureiro não for encontrado
      */
+    @Transactional
     public Aventureiro update(Aventureiro aventureiro) {
+        return update(aventureiro, null);
+    }
+
+    /**
+     * Atualiza um aventureiro somente se o cliente ainda tiver a ficha atual ({@code If-Match}).
+     * 
+     * 🏷️ Os ETags aceitos são comparados com {@link FichaAventureiro#etag()} do estado atual,
+     * o mesmo devolvido por {@code GET /aventureiros/buscar/id/{id}}. {@code *} aceita qualquer
+     * estado; ETags fracos ({@code W/"..."}) nunca conferem, como manda a comparação forte.
+     * 
+     * No modo write-behind, a descarga do XP pendente incrementa a versão no banco; a
+     * comparação desconta esse incremento, porque o cliente viu a ficha já com o XP mesclado.
+     * 
+     * @param aventureiro O aventureiro com as atualizações
+     * @param etagsAceitas ETags do cabeçalho If-Match (null para não verificar)
+     * @return O aventureiro atualizado
+     * @throws IllegalArgumentException se o aventureiro for nulo, não tiver um ID ou usar o nome de outro
+     * @throws ObjectOptimisticLockingFailureException se a versão ou o ETag enviados estiverem desatualizados
+     * @throws RuntimeException se o aventureiro não for encontrado
+     */
+    @Transactional
+    public Aventureiro update(Aventureiro aventureiro, Collection<String> etagsAceitas) {
         if (aventureiro == null) {
             throw new IllegalArgumentException("O aventureiro não pode ser nulo");
         }
@@ -81,12 +401,171 @@ public class AventureiroService {
             throw new IllegalArgumentException("ID do aventureiro é obrigatório para atualização");
         }
         
-        // Verifica se o aventureiro existe antes de tentar atualizar
-        if (!aventureiroRepository.existsById(aventureiro.getId())) {
-            throw new RuntimeException("Aventureiro não encontrado com o ID: " + aventureiro.getId());
+        // No modo write-behind, grava antes o XP pendente (nesta mesma transação) para partir do estado real
+        boolean descarregado = acumuladorXp.isAtivo() && !acumuladorXp.descarregar(List.of(aventureiro.getId())).isEmpty();
+
+        // Carrega o registro atual (e verifica se o aventureiro existe)
+        Aventureiro atual = aventureiroRepository.findById(aventureiro.getId())
+                .orElseThrow(() -> new RuntimeException("Aventureiro não encontrado com o ID: " + aventureiro.getId()));
+
+        // Verifica se o cliente está atualizando a versão mais recente
+        if (aventureiro.getVersao() != null && !aventureiro.getVersao().equals(atual.getVersao())) {
+            throw new ObjectOptimisticLockingFailureException(Aventureiro.class, aventureiro.getId());
         }
-        
-        return aventureiroRepository.save(aventureiro);
+
+        // Verifica se o cliente conhece a ficha atual (If-Match)
+        if (etagsAceitas != null) {
+            FichaAventureiro vista = FichaAventureiro.de(atual);
+            if (descarregado) {
+                vista = new FichaAventureiro(vista.id(), vista.nome(), vista.classe(), vista.nivel(), vista.xp(),
+                        vista.versao() - 1);
+            }
+            String etagAtual = vista.etag();
+            if (etagsAceitas.stream().map(String::trim).noneMatch(etag -> etag.equals("*") || etag.equals(etagAtual))) {
+                throw new ObjectOptimisticLockingFailureException(Aventureiro.class, aventureiro.getId());
+            }
+        }
+
+        // O nome é único: recusa a troca para o nome de outro aventureiro
+        if (aventureiro.getNome() != null && !aventureiro.getNome().equals(atual.getNome())) {
+            Aventureiro mesmoNome = aventureiroRepository.findByNome(aventureiro.getNome());
+            if (mesmoNome != null && !mesmoNome.getId().equals(atual.getId())) {
+                throw new IllegalArgumentException("Já existe um aventureiro com o nome: " + aventureiro.getNome());
+            }
+        }
+
+        // Copia os novos valores; o UPDATE é feito pelo Hibernate ao final da transação
+        atual.setNome(aventureiro.getNome());
+        atual.setClasse(aventureiro.getClasse());
+        atual.setNivel(aventureiro.getNivel());
+        atual.setXp(aventureiro.getXp());
+        eventos.publishEvent(new AventureiroSalvoEvent(atual));
+        return atual;
+    }
+
+    /**
+     * ✏️ Altera só os campos informados de um aventureiro (PATCH).
+     * 
+     * Em vez de ler o registro, copiar os valores e deixar o Hibernate gravar todas as
+     * colunas, a alteração vira um único UPDATE com as colunas informadas. O número de
+     * linhas alteradas diz se o aventureiro existe (e, com {@code versao}, se ainda está
+     * na versão que o cliente conhece). A ficha é lida depois, uma vez, para a resposta
+     * e para os ouvintes de {@link AventureiroSalvoEvent}.
+     * 
+     * O nome continua único: a troca para o nome de outro aventureiro é recusada pelo
+     * índice do banco com {@link DataIntegrityViolationException}.
+     * 
+     * @param alteracao Campos a alterar, com o ID do aventureiro
+     * @return O aventureiro alterado
+     * @throws IllegalArgumentException se a alteração for nula, não tiver ID, campos ou tiver algum campo inválido
+     * @throws ObjectOptimisticLockingFailureException se a versão enviada estiver desatualizada
+     * @throws RuntimeException se o aventureiro não for encontrado
+     */
+    @Transactional
+    public Aventureiro alterar(AlteracaoAventureiro alteracao) {
+        if (alteracao == null) {
+            throw new IllegalArgumentException("A alteração não pode ser nula");
+        }
+        AlteracaoAventureiro validada = descarregarXpPendente(List.of(alteracao.validada())).get(0);
+        Long id = validada.id();
+
+        if (aventureiroRepository.alterarCampos(List.of(validada), Instant.now())[0] == 0) {
+            if (validada.versao() != null && aventureiroRepository.existsById(id)) {
+                throw new ObjectOptimisticLockingFailureException(Aventureiro.class, id);
+            }
+            throw new RuntimeException("Aventureiro não encontrado com o ID: " + id);
+        }
+
+        Aventureiro heroi = aventureiroRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Aventureiro não encontrado com o ID: " + id));
+        eventos.publishEvent(new AventureiroSalvoEvent(heroi));
+        return heroi;
+    }
+
+    /**
+     * ✏️ Altera vários aventureiros de uma vez (PATCH em lote).
+     * 
+     * As alterações com os mesmos campos compartilham o SQL e são enviadas juntas em um
+     * lote JDBC; as fichas alteradas são lidas depois com um único SELECT. Alterações
+     * inválidas, com ID repetido, de aventureiros inexistentes ou com versão desatualizada
+     * aparecem em {@code falhas} sem impedir as demais. Um nome que já pertence a outro
+     * aventureiro desfaz o lote inteiro ({@link DataIntegrityViolationException}).
+     * 
+     * @param alteracoes Alterações, cada uma com o ID do aventureiro
+     * @return Quantidades recebidas e alteradas, e as falhas com a posição de cada uma
+     * @throws IllegalArgumentException se a lista for nula
+     */
+    @Transactional
+    public ResultadoAlteracoes alterarEmLote(List<AlteracaoAventureiro> alteracoes) {
+        if (alteracoes == null) {
+            throw new IllegalArgumentException("A lista de alterações não pode ser nula");
+        }
+
+        // 1. Validação: os itens rejeitados viram falhas, com a posição na entrada
+        List<FalhaLote> falhas = new ArrayList<>();
+        List<AlteracaoAventureiro> validas = new ArrayList<>(alteracoes.size());
+        List<Integer> indices = new ArrayList<>(alteracoes.size());
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < alteracoes.size(); i++) {
+            try {
+                AlteracaoAventureiro alteracao = alteracoes.get(i);
+                if (alteracao == null) {
+                    throw new IllegalArgumentException("A alteração não pode ser nula");
+                }
+                AlteracaoAventureiro validada = alteracao.validada();
+                if (!ids.add(validada.id())) {
+                    throw new IllegalArgumentException("ID repetido no lote: " + validada.id());
+                }
+                validas.add(validada);
+                indices.add(i);
+            } catch (IllegalArgumentException e) {
+                falhas.add(new FalhaLote(i, e.getMessage()));
+            }
+        }
+        if (validas.isEmpty()) {
+            return new ResultadoAlteracoes(alteracoes.size(), 0, falhas);
+        }
+
+        // 2. Gravação: o XP pendente de todos os itens em uma descarga, depois um lote JDBC por combinação de campos
+        validas = descarregarXpPendente(validas);
+        int[] linhas = aventureiroRepository.alterarCampos(validas, Instant.now());
+        List<Long> alterados = new ArrayList<>(validas.size());
+        for (int i = 0; i < linhas.length; i++) {
+            Long id = validas.get(i).id();
+            if (linhas[i] == 0) {
+                falhas.add(new FalhaLote(indices.get(i), "Aventureiro não encontrado ou com versão desatualizada: " + id));
+            } else {
+                alterados.add(id);
+            }
+        }
+        falhas.sort(Comparator.comparingLong(FalhaLote::indice));
+
+        // 3. Uma leitura para todos os alterados, para os ouvintes de AventureiroSalvoEvent
+        aventureiroRepository.findAllById(alterados)
+                .forEach(heroi -> eventos.publishEvent(new AventureiroSalvoEvent(heroi)));
+        return new ResultadoAlteracoes(alteracoes.size(), alterados.size(), falhas);
+    }
+
+    /**
+     * No modo write-behind, grava antes o XP pendente dos aventureiros, em uma única descarga
+     * dentro da transação atual. A descarga incrementa a versão no banco, então a versão que
+     * o cliente viu (já com o XP mesclado) é ajustada.
+     */
+    private List<AlteracaoAventureiro> descarregarXpPendente(List<AlteracaoAventureiro> alteracoes) {
+        if (!acumuladorXp.isAtivo()) {
+            return alteracoes;
+        }
+        Set<Long> descarregados = acumuladorXp.descarregar(alteracoes.stream().map(AlteracaoAventureiro::id).toList());
+        if (descarregados.isEmpty()) {
+            return alteracoes;
+        }
+        List<AlteracaoAventureiro> ajustadas = new ArrayList<>(alteracoes.size());
+        for (AlteracaoAventureiro alteracao : alteracoes) {
+            ajustadas.add(alteracao.versao() == null || !descarregados.contains(alteracao.id()) ? alteracao
+                    : new AlteracaoAventureiro(alteracao.id(), alteracao.nome(), alteracao.classe(), alteracao.nivel(),
+                    alteracao.xp(), alteracao.versao() + 1));
+        }
+        return ajustadas;
     }
 
     /**
@@ -99,20 +578,169 @@ public class AventureiroService {
         if (id == null) {
             throw new IllegalArgumentException("ID não pode ser nulo");
         }
-        aventureiroRepository.deleteById(id);
+        acumuladorXp.descartar(id);
+        transactionTemplate.executeWithoutResult(status -> {
+            aventureiroRepository.deleteById(id);
+            eventos.publishEvent(new AventureiroRemovidoEvent(id));
+        });
     }
 
     /**
      * Retorna todos os aventureiros cadastrados no sistema.
      * 
-     * @return Lista de todos os aventureiros (pode ser vazia, mas nunca nula)
+     * 📋 As listagens devolvem {@link FichaAventureiro}, montada direto no SELECT: nenhuma
+     * entidade é criada nem acompanhada pelo Hibernate. A transação somente leitura deixa
+     * a sessão sem flush e avisa o driver de que nada será gravado.
+     * 
+     * Sem {@code @Transactional} aqui: a transação é a do repositório, aberta só por quem de fato
+     * consulta. Chamadas simultâneas esperam a mesma consulta sem ocupar uma conexão
+     * (veja {@link CoalescedorLeituras}).
+     * 
+     * @return Fichas de todos os aventureiros (pode ser vazia, mas nunca nula)
+     */
+    public List<FichaAventureiro> findAll() {
+        return coalescedorLeituras.ler("listar", null, aventureiroRepository::listarFichas);
+    }
+
+    /**
+     * 🏷️ Marca de mudança da guilda, usada como ETag da listagem completa.
+     * 
+     * Uma única consulta de agregação, sem ler as linhas: permite responder
+     * {@code 304 Not Modified} sem montar nem serializar a lista.
+     * 
+     * @return Quantidade, maior ID e última alteração dos aventureiros
+     */
+    @Transactional(readOnly = true)
+    public VersaoGuilda versaoGuilda() {
+        return aventureiroRepository.versaoGuilda();
+    }
+
+    /**
+     * 📸 Listagem completa já serializada em JSON, quando o modo está ligado.
+     * 
+     * Não abre transação: a lista é lida da memória (veja {@link ListagemPreSerializada}).
+     * 
+     * @return A lista em JSON e gzip, ou vazio para ler do banco (modo desligado, lista
+     *         ainda não montada ou fora do limite de defasagem)
+     */
+    public Optional<ListagemPreSerializada.Instantaneo> findAllPreSerializado() {
+        return listagemPreSerializada.atual();
+    }
+
+    /**
+     * 📤 EXPORTAÇÃO COMPLETA
+     * 
+     * Entrega todos os aventureiros, um a um, ao consumidor informado, em ordem de ID.
+     * Diferente de {@link #findAll()}, nunca mantém a tabela inteira em memória:
+     * as linhas chegam do banco em blocos e o contexto de persistência é limpo
+     * a cada bloco, então o consumo de memória não depende do tamanho da tabela.
+     * 
+     * @param consumidor Recebe cada aventureiro assim que ele é lido
+     * @return Quantidade de aventureiros exportados
      */
-    public List<Aventureiro> findAll() {
-        return aventureiroRepository.findAll();
+    public long exportarTodos(Consumer<Aventureiro> consumidor) {
+        return leitorAventureiros.percorrer(consumidor);
     }
 
     /**
-     * Busca um aventureiro pelo seu ID.
+     * 📄 LISTAGEM PAGINADA POR CURSOR
+     * 
+     * Retorna uma página de aventureiros, opcionalmente filtrada por classe, nível ou XP.
+     * A página seguinte é obtida enviando de volta o cursor {@code proximo} da resposta.
+     * 
+     * Quando um cursor é informado, a ordenação e a direção são lidas dele, então o
+     * cliente não precisa repeti-las.
+     * 
+     * @param classe Filtro opcional por classe
+     * @param nivel Filtro opcional por nível exato
+     * @param xp Filtro opcional por XP exato
+     * @param ordenarPor Campo de ordenação: id (padrão), nivel ou xp
+     * @param direcao Direção da ordenação: asc (padrão) ou desc
+     * @param cursor Cursor opaco retornado pela página anterior (null na primeira página)
+     * @param limite Tamanho da página (padrão {@value #LIMITE_PADRAO}, máximo {@value #LIMITE_MAXIMO})
+     * @return A página de aventureiros e o cursor da próxima página
+     * @throws IllegalArgumentException se algum parâmetro ou o cursor for inválido
+     */
+    @Transactional(readOnly = true)
+    public Pagina<FichaAventureiro> buscarPagina(ClasseRPG classe, Integer nivel, Integer xp,
+                                                 String ordenarPor, String direcao,
+                                                 String cursor, Integer limite) {
+        // 1. Define o tamanho da página, respeitando o limite máximo
+        int tamanho = resolverLimite(limite);
+
+        // 2. Resolve a ordenação (do cursor, se houver, ou dos parâmetros)
+        CursorPagina posicao = cursor == null ? null : CursorPagina.decodificar(cursor);
+        CampoOrdenacao ordenacao;
+        boolean decrescente;
+        if (posicao != null) {
+            ordenacao = posicao.ordenacao();
+            decrescente = posicao.decrescente();
+            if (ordenarPor != null && CampoOrdenacao.fromNome(ordenarPor) != ordenacao) {
+                throw new IllegalArgumentException("A ordenação não corresponde à do cursor");
+            }
+        } else {
+            ordenacao = ordenarPor == null ? CampoOrdenacao.ID : CampoOrdenacao.fromNome(ordenarPor);
+            decrescente = lerDirecao(direcao);
+        }
+
+        // 3. Busca uma linha a mais para saber se existe próxima página
+        ConsultaPagina consulta = new ConsultaPagina(classe, nivel, xp, ordenacao, decrescente,
+                posicao == null ? null : posicao.valor(),
+                posicao == null ? null : posicao.id(),
+                tamanho + 1);
+        List<FichaAventureiro> linhas = aventureiroRepository.buscarPagina(consulta);
+
+        if (linhas.size() <= tamanho) {
+            return new Pagina<>(linhas, null, tamanho);
+        }
+
+        // 4. Monta o cursor a partir da última linha entregue
+        List<FichaAventureiro> itens = linhas.subList(0, tamanho);
+        FichaAventureiro ultimo = itens.get(tamanho - 1);
+        Integer valor = switch (ordenacao) {
+            case ID -> null;
+            case NIVEL -> ultimo.nivel();
+            case XP -> ultimo.xp();
+        };
+        String proximo = new CursorPagina(ordenacao, decrescente, valor, ultimo.id()).codificar();
+        return new Pagina<>(List.copyOf(itens), proximo, tamanho);
+    }
+
+    /**
+     * Aplica o limite padrão e o limite máximo ao tamanho pedido pelo cliente.
+     * 
+     * @param limite Tamanho pedido (null usa {@value #LIMITE_PADRAO})
+     * @return O tamanho a ser usado, no máximo {@value #LIMITE_MAXIMO}
+     * @throws IllegalArgumentException se o limite for menor que 1
+     */
+    private int resolverLimite(Integer limite) {
+        int tamanho = limite == null ? LIMITE_PADRAO : limite;
+        if (tamanho < 1) {
+            throw new IllegalArgumentException("O limite deve ser maior ou igual a 1");
+        }
+        return Math.min(tamanho, LIMITE_MAXIMO);
+    }
+
+    /**
+     * Converte o parâmetro de direção da ordenação.
+     * 
+     * @param direcao "asc", "desc" ou null (equivale a "asc")
+     * @return true se a ordenação for decrescente
+     * @throws IllegalArgumentException se a direção for inválida
+     */
+    private boolean lerDirecao(String direcao) {
+        if (direcao == null || direcao.equalsIgnoreCase("asc")) {
+            return false;
+        }
+        if (direcao.equalsIgnoreCase("desc")) {
+            return true;
+        }
+        throw new IllegalArgumentException("Direção inválida: " + direcao);
+    }
+
+    /**
+     * Busca um aventureiro pelo seu ID, passando antes pelo cache.
+     * No modo write-behind, as missões ainda não gravadas já vêm aplicadas.
      * 
      * @param id ID do aventureiro a ser buscado
      * @return Um Optional contendo o aventureiro, se encontrado
@@ -122,11 +750,11 @@ public class AventureiroService {
         if (id == null) {
             throw new IllegalArgumentException("ID não pode ser nulo");
         }
-        return aventureiroRepository.findById(id);
+        return cacheAventureiros.buscarPorId(id, aventureiroRepository::findById).map(acumuladorXp::mesclar);
     }
 
     /**
-     * Busca um aventureiro pelo seu nome exato.
+     * Busca um aventureiro pelo seu nome exato, passando antes pelo cache.
      * 
      * @param nome Nome do aventureiro a ser buscado
      * @return O aventureiro encontrado ou null se não existir
@@ -136,49 +764,274 @@ public class AventureiroService {
         if (nome == null || nome.trim().isEmpty()) {
             throw new IllegalArgumentException("Nome não pode ser vazio");
         }
-        return aventureiroRepository.findByNome(nome);
+        Aventureiro aventureiro = cacheAventureiros.buscarPorNome(nome, aventureiroRepository::findByNome);
+        return aventureiro == null ? null : acumuladorXp.mesclar(aventureiro);
     }
 
     /**
      * Busca todos os aventureiros de uma determinada classe.
+     * Quando o índice em memória por classe está ligado e carregado, o banco não é consultado.
+     * 
+     * Sem {@code @Transactional} de propósito: abrir a transação já reservaria uma conexão,
+     * mesmo quando a resposta vem do índice ou de uma consulta igual já em andamento
+     * ({@link CoalescedorLeituras}). A consulta ao banco roda na transação somente
+     * leitura que o Spring Data abre para os métodos do repositório.
      * 
      * @param classe Classe dos aventureiros a serem buscados
-     * @return Lista de aventureiros da classe especificada (pode ser vazia)
+     * @return Fichas dos aventureiros da classe especificada (pode ser vazia)
      * @throws IllegalArgumentException se a classe for nula
      */
-    public List<Aventureiro> findByClasse(ClasseRPG classe) {
+    public List<FichaAventureiro> findByClasse(ClasseRPG classe) {
         if (classe == null) {
             throw new IllegalArgumentException("Classe não pode ser nula");
         }
-        return aventureiroRepository.findByClasse(classe);
+        if (indicePorClasse.isPronto()) {
+            // Respondida pelo índice em memória, sem ir ao banco
+            List<FichaAventureiro> fichas = indicePorClasse.listar(classe);
+            fichas.replaceAll(acumuladorXp::mesclar);
+            return fichas;
+        }
+        return coalescedorLeituras.ler("classe", classe, () -> aventureiroRepository.listarFichasPorClasse(classe));
+    }
+
+    /**
+     * Conta os aventureiros de uma classe.
+     * Usa o índice em memória quando ele estiver ligado e carregado.
+     * 
+     * @param classe Classe dos aventureiros
+     * @return Quantidade de aventureiros da classe
+     * @throws IllegalArgumentException se a classe for nula
+     */
+    public long contarPorClasse(ClasseRPG classe) {
+        if (classe == null) {
+            throw new IllegalArgumentException("Classe não pode ser nula");
+        }
+        return indicePorClasse.isPronto() ? indicePorClasse.contar(classe) : aventureiroRepository.countByClasse(classe);
+    }
+
+    /**
+     * Conta os aventureiros de cada classe.
+     * 
+     * @return Quantidade de aventureiros por classe, com todas as classes (mesmo as vazias)
+     */
+    public Map<ClasseRPG, Long> contarClasses() {
+        Map<ClasseRPG, Long> contagem = new EnumMap<>(ClasseRPG.class);
+        for (ClasseRPG classe : ClasseRPG.values()) {
+            contagem.put(classe, contarPorClasse(classe));
+        }
+        return contagem;
+    }
+
+    /**
+     * Compara o índice em memória por classe com o banco.
+     * 
+     * @return O relatório de diferenças
+     * @throws IllegalStateException se o índice estiver desligado ou ainda não tiver sido carregado
+     */
+    public RelatorioIndiceClasses verificarIndiceClasses() {
+        return indicePorClasse.verificar();
+    }
+
+    /**
+     * Recarrega o índice em memória por classe a partir do banco.
+     * 
+     * @return O relatório do índice recarregado
+     * @throws IllegalStateException se o índice estiver desligado
+     */
+    public RelatorioIndiceClasses reconstruirIndiceClasses() {
+        return indicePorClasse.reconstruir();
     }
 
     /**
      * Busca todos os aventureiros de um determinado nível.
+     * Chamadas simultâneas para o mesmo nível compartilham a consulta ({@link CoalescedorLeituras}).
      * 
      * @param nivel Nível dos aventureiros a serem buscados
-     * @return Lista de aventureiros do nível especificado (pode ser vazia)
+     * @return Fichas dos aventureiros do nível especificado (pode ser vazia)
      * @throws IllegalArgumentException se o nível for nulo ou menor que 1
      */
-    public List<Aventureiro> findByNivel(Integer nivel) {
+    public List<FichaAventureiro> findByNivel(Integer nivel) {
         if (nivel == null || nivel < 1) {
             throw new IllegalArgumentException("Nível deve ser maior ou igual a 1");
         }
-        return aventureiroRepository.findByNivel(nivel);
+        return coalescedorLeituras.ler("nivel", nivel, () -> aventureiroRepository.listarFichasPorNivel(nivel));
     }
 
     /**
      * Busca todos os aventureiros com uma determinada quantidade de XP.
      * 
      * @param xp Quantidade exata de XP para busca
-     * @return Lista de aventureiros com a quantidade de XP especificada (pode ser vazia)
+     * @return Fichas dos aventureiros com a quantidade de XP especificada (pode ser vazia)
      * @throws IllegalArgumentException se o XP for nulo ou negativo
      */
-    public List<Aventureiro> findByXp(Integer xp) {
+    @Transactional(readOnly = true)
+    public List<FichaAventureiro> findByXp(Integer xp) {
+        if (xp == null || xp < 0) {
+            throw new IllegalArgumentException("XP não pode ser negativo");
+        }
+        return aventureiroRepository.listarFichasPorXp(xp);
+    }
+
+    /**
+     * Busca aventureiros com nível dentro de uma faixa, ordenados por nível e XP.
+     * 
+     * @param minimo Menor nível aceito (inclusive)
+     * @param maximo Maior nível aceito (inclusive)
+     * @param limite Quantidade máxima de resultados (padrão {@value #LIMITE_PADRAO}, máximo {@value #LIMITE_MAXIMO})
+     * @return Fichas dos aventureiros na faixa (pode ser vazia)
+     * @throws IllegalArgumentException se a faixa ou o limite forem inválidos
+     */
+    @Transactional(readOnly = true)
+    public List<FichaAventureiro> findByNivelEntre(Integer minimo, Integer maximo, Integer limite) {
+        validarFaixaNivel(minimo, maximo);
+        return aventureiroRepository.findByNivelEntre(minimo, maximo, Limit.of(resolverLimite(limite)));
+    }
+
+    /**
+     * Busca aventureiros de um nível com XP acima de um valor, ordenados por XP.
+     * 
+     * @param nivel Nível dos aventureiros
+     * @param xp XP mínimo (exclusivo)
+     * @param limite Quantidade máxima de resultados (padrão {@value #LIMITE_PADRAO}, máximo {@value #LIMITE_MAXIMO})
+     * @return Fichas dos aventureiros encontrados (pode ser vazia)
+     * @throws IllegalArgumentException se o nível, o XP ou o limite forem inválidos
+     */
+    @Transactional(readOnly = true)
+    public List<FichaAventureiro> findByNivelEXpAcima(Integer nivel, Integer xp, Integer limite) {
+        if (nivel == null || nivel < 1) {
+            throw new IllegalArgumentException("Nível deve ser maior ou igual a 1");
+        }
         if (xp == null || xp < 0) {
             throw new IllegalArgumentException("XP não pode ser negativo");
         }
-        return aventureiroRepository.findByXp(xp);
+        return aventureiroRepository.findByNivelEXpAcima(nivel, xp, Limit.of(resolverLimite(limite)));
+    }
+
+    /**
+     * Busca aventureiros de uma classe com nível dentro de uma faixa, ordenados por nível e XP.
+     * 
+     * @param classe Classe dos aventureiros
+     * @param minimo Menor nível aceito (inclusive)
+     * @param maximo Maior nível aceito (inclusive)
+     * @param limite Quantidade máxima de resultados (padrão {@value #LIMITE_PADRAO}, máximo {@value #LIMITE_MAXIMO})
+     * @return Fichas dos aventureiros encontrados (pode ser vazia)
+     * @throws IllegalArgumentException se a classe, a faixa ou o limite forem inválidos
+     */
+    @Transactional(readOnly = true)
+    public List<FichaAventureiro> findByClasseENivelEntre(ClasseRPG classe, Integer minimo, Integer maximo, Integer limite) {
+        if (classe == null) {
+            throw new IllegalArgumentException("Classe não pode ser nula");
+        }
+        validarFaixaNivel(minimo, maximo);
+        return aventureiroRepository.findByClasseENivelEntre(classe, minimo, maximo, Limit.of(resolverLimite(limite)));
+    }
+
+    /**
+     * Verifica se uma faixa de níveis é válida.
+     * 
+     * @param minimo Menor nível da faixa
+     * @param maximo Maior nível da faixa
+     * @throws IllegalArgumentException se algum extremo for nulo, menor que 1 ou se o mínimo passar do máximo
+     */
+    private void validarFaixaNivel(Integer minimo, Integer maximo) {
+        if (minimo == null || maximo == null) {
+            throw new IllegalArgumentException("Informe o nível mínimo e o máximo");
+        }
+        if (minimo < 1) {
+            throw new IllegalArgumentException("Nível deve ser maior ou igual a 1");
+        }
+        if (minimo > maximo) {
+            throw new IllegalArgumentException("O nível mínimo não pode ser maior que o máximo");
+        }
+    }
+
+    /**
+     * 📊 ESTATÍSTICAS DA GUILDA
+     * 
+     * Calcula a distribuição por classe, o histograma de níveis, a média e o máximo de
+     * nível e o XP total. Com os contadores ligados, apenas copia os valores mantidos em
+     * memória; caso contrário, o banco agrega tudo em três consultas (GROUP BY por classe,
+     * GROUP BY por nível e um resumo), sem trazer nenhum aventureiro para a aplicação.
+     * 
+     * @return As estatísticas da guilda
+     */
+    @Transactional(readOnly = true)
+    public EstatisticasGuilda estatisticas() {
+        if (contadoresGuilda.isPronto()) {
+            return contadoresGuilda.instantaneo();
+        }
+
+        Map<ClasseRPG, Long> porClasse = new EnumMap<>(ClasseRPG.class);
+        for (ClasseRPG classe : ClasseRPG.values()) {
+            porClasse.put(classe, 0L);
+        }
+        for (ContagemClasse contagem : aventureiroRepository.contarPorClasse()) {
+            porClasse.put(contagem.classe(), contagem.quantidade());
+        }
+
+        Map<Integer, Long> histograma = new LinkedHashMap<>();
+        for (ContagemNivel contagem : aventureiroRepository.contarPorNivel()) {
+            histograma.put(contagem.nivel(), contagem.quantidade());
+        }
+
+        ResumoGuilda resumo = aventureiroRepository.resumir();
+        return new EstatisticasGuilda(resumo.total(), porClasse, histograma,
+                resumo.mediaNivel() == null ? 0 : resumo.mediaNivel(),
+                resumo.nivelMaximo() == null ? 0 : resumo.nivelMaximo(),
+                resumo.xpTotal() == null ? 0 : resumo.xpTotal());
+    }
+
+    /**
+     * 🏆 RANKING
+     * 
+     * Retorna os primeiros aventureiros do ranking (maior nível, depois maior XP),
+     * geral ou de uma classe. Usa o ranking em memória quando ele está carregado;
+     * caso contrário, ordena no banco.
+     * 
+     * @param top Quantidade de aventureiros (padrão 10, máximo {@value #LIMITE_MAXIMO})
+     * @param classe Classe para um ranking só da classe, ou null para o ranking geral
+     * @return Os aventureiros em ordem, com a posição de cada um
+     * @throws IllegalArgumentException se top for menor que 1
+     */
+    public List<PosicaoRanking> buscarRanking(Integer top, ClasseRPG classe) {
+        int quantidade = top == null ? TOP_PADRAO : top;
+        if (quantidade < 1) {
+            throw new IllegalArgumentException("O top deve ser maior ou igual a 1");
+        }
+        quantidade = Math.min(quantidade, LIMITE_MAXIMO);
+
+        if (rankingAventureiros.isPronto()) {
+            return rankingAventureiros.primeiros(quantidade, classe);
+        }
+        List<Aventureiro> aventureiros = classe == null
+                ? aventureiroRepository.findRanking(Limit.of(quantidade))
+                : aventureiroRepository.findRankingPorClasse(classe, Limit.of(quantidade));
+        List<PosicaoRanking> posicoes = new ArrayList<>(aventureiros.size());
+        for (Aventureiro aventureiro : aventureiros) {
+            posicoes.add(new PosicaoRanking(posicoes.size() + 1, aventureiro.getId(), aventureiro.getNome(),
+                    aventureiro.getClasse(), aventureiro.getNivel(), aventureiro.getXp()));
+        }
+        return posicoes;
+    }
+
+    /**
+     * Retorna a colocação de um aventureiro no ranking geral e no da sua classe.
+     * 
+     * @param id ID do aventureiro
+     * @return A colocação, ou vazio se o aventureiro não existir
+     * @throws IllegalArgumentException se o ID for nulo
+     */
+    public Optional<ColocacaoAventureiro> buscarColocacao(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("ID não pode ser nulo");
+        }
+        if (rankingAventureiros.isPronto()) {
+            return rankingAventureiros.colocacao(id);
+        }
+        return aventureiroRepository.findById(id).map(a -> new ColocacaoAventureiro(
+                a.getId(), a.getNome(), a.getClasse(), a.getNivel(), a.getXp(),
+                aventureiroRepository.contarAFrente(a.getNivel(), a.getXp(), a.getId()) + 1,
+                aventureiroRepository.contarAFrenteNaClasse(a.getClasse(), a.getNivel(), a.getXp(), a.getId()) + 1));
     }
 
     /**
@@ -188,10 +1041,19 @@ public class AventureiroService {
      * participe de uma missão, ganhe experiência e suba de nível.
      * 
      * Funcionamento:
-     * 1. Busca o aventureiro pelo ID
-     * 2. Gera XP aleatório (10-20 pontos)
-     * 3. Atualiza o XP do aventureiro
-     * 4. Se XP >= 100, sobe de nível e zera o XP
+     * 1. Gera XP aleatório (10-19 pontos)
+     * 2. Aplica o XP com um único UPDATE no banco (veja {@link AventureiroRepository#aplicarMissao})
+     * 3. Se XP >= 100, o próprio UPDATE sobe o nível e zera o XP
+     * 4. Lê o aventureiro atualizado para devolvê-lo
+     * 5. Publica o resultado ({@link MissaoConcluidaEvent}); depois do commit, ele conta nas
+     *    {@link MetricasMissao} e segue para o {@link PipelineMissoes}, que escreve o log em segundo plano
+     * 
+     * Como o cálculo acontece dentro do UPDATE, várias missões simultâneas para o mesmo
+     * aventureiro são aplicadas uma após a outra pelo banco, sem perder XP.
+     * 
+     * Sem {@code @Transactional} aqui: no modo write-behind a missão só soma o XP em memória e
+     * não deve reservar uma conexão; no modo normal, os passos 2 a 5 rodam em uma transação
+     * aberta pelo {@link TransactionTemplate} (ou na de quem chamou).
      * 
      * @param id ID do aventureiro que irá para a missão
      * @return O aventureiro atualizado com novo XP/nível
@@ -200,7 +1062,7 @@ public class AventureiroService {
      * 
      * Exemplo de fluxo:
      * - Aventureiro nível 1, XP 0 → Missão → +15 XP → Nível 1, XP 15
-     * - Aventureiro nível 1, XP 95 → Missão → +10 XP → Nível 2, XP 5
+     * - Aventureiro nível 1, XP 95 → Missão → +10 XP → Nível 2, XP 0
      */
     public Aventureiro realizarMissao(Long id) {
         // 1. Validação de entrada
@@ -208,27 +1070,63 @@ public class AventureiroService {
             throw new IllegalArgumentException("🚨 ID do aventureiro é obrigatório!");
         }
         
-        // 2. Busca o aventureiro no banco de dados
+        // 2. Gera XP aleatório (10-19)
+        int xpGanho = geradorXp.gerar();
+
+        // Modo write-behind: apenas acumula o XP; a gravação acontece em lote depois
+        if (acumuladorXp.isAtivo()) {
+            return acumularMissao(id, xpGanho);
+        }
+
+        return transactionTemplate.execute(status -> aplicarMissao(id, xpGanho));
+    }
+
+    /**
+     * Aplica a missão direto no banco, dentro da transação aberta por {@link #realizarMissao}.
+     * 
+     * @param id ID do aventureiro
+     * @param xpGanho XP conquistado na missão
+     * @return O aventureiro atualizado
+     * @throws RuntimeException Se o aventureiro não for encontrado
+     */
+    private Aventureiro aplicarMissao(Long id, int xpGanho) {
+        // 3. Aplica XP e subida de nível direto no banco
+        if (aventureiroRepository.aplicarMissao(id, xpGanho, Instant.now()) == 0) {
+            throw new RuntimeException("❌ Aventureiro não encontrado com ID: " + id);
+        }
+
+        // 4. Lê o estado atualizado (a linha continua bloqueada até o fim da transação)
         Aventureiro heroi = aventureiroRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("❌ Aventureiro não encontrado com ID: " + id));
-        
-        // 3. Gera XP aleatório (10-20)
-        int xpGanho = (int) (Math.random() * 10) + 10;
-        System.out.println("✨ " + heroi.getNome() + " ganhou " + xpGanho + " XP na missão!");
-        
-        // 4. Atualiza o XP do herói
-        int novoXp = heroi.getXp() + xpGanho;
-        heroi.setXp(novoXp);
 
-        // 5. Verifica subida de nível
-        if (novoXp >= 100) {
-            int nivelAnterior = heroi.getNivel();
-            heroi.setNivel(nivelAnterior + 1);
-            heroi.setXp(0); // Reseta o XP
-            System.out.println("🎉 " + heroi.getNome() + " subiu para o nível " + heroi.getNivel() + "!");
-        }
+        // 5. XP zerado após ganhar pelo menos 10 pontos significa que o herói subiu de nível
+        int niveisGanhos = heroi.getXp() == 0 ? 1 : 0;
 
-        // 6. Salva e retorna o herói atualizado
-        return aventureiroRepository.save(heroi);
+        // 6. Métricas e log só contam a missão depois do commit; um rollback não a registra
+        eventos.publishEvent(new MissaoConcluidaEvent(heroi.getId(), heroi.getNome(), heroi.getClasse(),
+                xpGanho, heroi.getNivel(), heroi.getXp(), niveisGanhos));
+        eventos.publishEvent(new AventureiroSalvoEvent(heroi));
+        return heroi;
+    }
+
+    /**
+     * Registra uma missão no modo write-behind, sem escrever no banco.
+     * 
+     * @param id ID do aventureiro
+     * @param xpGanho XP conquistado na missão
+     * @return Visão do aventureiro com todo o XP pendente aplicado
+     * @throws RuntimeException Se o aventureiro não for encontrado
+     */
+    private Aventureiro acumularMissao(Long id, int xpGanho) {
+        // Heróis populares costumam estar no cache: a missão não toca o banco
+        Aventureiro heroi = cacheAventureiros.buscarPorId(id, aventureiroRepository::findById)
+                .orElseThrow(() -> new RuntimeException("❌ Aventureiro não encontrado com ID: " + id));
+        int nivelAnterior = acumuladorXp.mesclar(heroi).getNivel();
+        acumuladorXp.acumular(id, xpGanho);
+        Aventureiro visao = acumuladorXp.mesclar(heroi);
+        int niveisGanhos = visao.getNivel() - nivelAnterior;
+        eventos.publishEvent(new MissaoConcluidaEvent(visao.getId(), visao.getNome(), visao.getClasse(),
+                xpGanho, visao.getNivel(), visao.getXp(), niveisGanhos));
+        return visao;
     }
 }
@@ -0,0 +1,183 @@
+package workshop.spring.apirest.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.event.AventureiroRemovidoEvent;
+import workshop.spring.apirest.event.AventureiroSalvoEvent;
+import workshop.spring.apirest.event.XpDescarregadoEvent;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * 🗃️ CACHE DE AVENTUREIROS
+ *
+ * Cache em memória (Caffeine) para as buscas por ID e por nome, que o frontend repete
+ * após cada ação. Evita uma ida ao MySQL para cada leitura do mesmo herói.
+ *
+ * Características:
+ * - Limite de tamanho ({@code guilda.cache.tamanho-maximo}) e de tempo
+ *   ({@code guilda.cache.expiracao-segundos}) para os itens guardados
+ * - O nome é normalizado (sem espaços nas pontas, em minúsculas) e aponta para o ID
+ * - Guarda cópias das entidades, para que ninguém altere o conteúdo do cache por engano
+ * - Estatísticas de acertos, falhas e remoções publicadas como métricas
+ *   ({@code cache.gets}, {@code cache.evictions}, ...) com {@code cache=aventureiros.id}
+ *   e {@code cache=aventureiros.nome}
+ * - Pode ser desligado com {@code guilda.cache.enabled=false}
+ *
+ * O cache é mantido pelos eventos de alteração ({@link AventureiroSalvoEvent},
+ * {@link AventureiroRemovidoEvent} e {@link XpDescarregadoEvent}), recebidos só depois
+ * do commit. Uma versão mais antiga nunca substitui uma mais nova.
+ */
+@Component
+public class CacheAventureiros {
+
+    private final boolean ativo;
+    private final Cache<Long, Aventureiro> porId;
+    private final Cache<String, Long> idPorNome;
+
+    /**
+     * @param meterRegistry Registro onde as estatísticas do cache são publicadas
+     * @param ativo Propriedade {@code guilda.cache.enabled} (padrão true)
+     * @param tamanhoMaximo Propriedade {@code guilda.cache.tamanho-maximo} (padrão 10000)
+     * @param expiracaoSegundos Propriedade {@code guilda.cache.expiracao-segundos} (padrão 60)
+     */
+    @Autowired
+    public CacheAventureiros(MeterRegistry meterRegistry,
+                             @Value("${guilda.cache.enabled:true}") boolean ativo,
+                             @Value("${guilda.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+                             @Value("${guilda.cache.expiracao-segundos:60}") long expiracaoSegundos) {
+        this.ativo = ativo;
+        Duration expiracao = Duration.ofSeconds(expiracaoSegundos);
+        this.porId = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build();
+        this.idPorNome = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, porId, "aventureiros.id");
+        CaffeineCacheMetrics.monitor(meterRegistry, idPorNome, "aventureiros.nome");
+    }
+
+    /**
+     * Busca um aventureiro pelo ID, consultando o carregador apenas se ele não estiver no cache.
+     *
+     * @param id ID do aventureiro
+     * @param carregador Busca o aventureiro no banco
+     * @return O aventureiro (uma cópia), se encontrado
+     */
+    public Optional<Aventureiro> buscarPorId(Long id, Function<Long, Optional<Aventureiro>> carregador) {
+        if (!ativo) {
+            return carregador.apply(id);
+        }
+        Aventureiro guardado = porId.get(id, chave -> carregador.apply(chave).map(Aventureiro::copiar).orElse(null));
+        return Optional.ofNullable(guardado).map(Aventureiro::copiar);
+    }
+
+    /**
+     * Busca um aventureiro pelo nome, consultando o carregador apenas se ele não estiver no cache.
+     *
+     * @param nome Nome do aventureiro
+     * @param carregador Busca o aventureiro no banco (retorna null se não existir)
+     * @return O aventureiro (uma cópia) ou null se não existir
+     */
+    public Aventureiro buscarPorNome(String nome, Function<String, Aventureiro> carregador) {
+        if (!ativo) {
+            return carregador.apply(nome);
+        }
+
+        Long id = idPorNome.getIfPresent(normalizar(nome));
+        if (id != null) {
+            Aventureiro guardado = porId.getIfPresent(id);
+            if (guardado != null && normalizar(guardado.getNome()).equals(normalizar(nome))) {
+                return guardado.copiar();
+            }
+        }
+
+        Aventureiro carregado = carregador.apply(nome);
+        if (carregado != null) {
+            guardar(carregado);
+        }
+        return carregado;
+    }
+
+    /**
+     * Grava o estado mais recente de um aventureiro no cache (write-through).
+     * A cópia é feita só após o commit, quando a entidade já tem a versão final.
+     *
+     * @param evento Evento com o aventureiro recém-salvo
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoSalvar(AventureiroSalvoEvent evento) {
+        if (ativo && evento.aventureiro().getId() != null) {
+            guardar(evento.aventureiro());
+        }
+    }
+
+    /**
+     * Remove do cache um aventureiro excluído.
+     *
+     * @param evento Evento com o ID do aventureiro
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoRemover(AventureiroRemovidoEvent evento) {
+        remover(evento.id());
+    }
+
+    /**
+     * Remove do cache os aventureiros cujo XP acumulado acabou de ser gravado:
+     * o estado guardado deixou de ser o do banco.
+     *
+     * @param evento Evento com os IDs gravados
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoDescarregarXp(XpDescarregadoEvent evento) {
+        evento.progressoPorId().keySet().forEach(this::remover);
+    }
+
+    /**
+     * Remove um aventureiro do cache.
+     */
+    private void remover(Long id) {
+        if (!ativo) {
+            return;
+        }
+        Aventureiro antigo = porId.asMap().remove(id);
+        if (antigo != null) {
+            idPorNome.asMap().remove(normalizar(antigo.getNome()), id);
+        }
+    }
+
+    /**
+     * Guarda uma cópia do aventureiro, sem nunca trocar uma versão mais nova por uma mais antiga.
+     */
+    private void guardar(Aventureiro aventureiro) {
+        Aventureiro copia = aventureiro.copiar();
+        Aventureiro resultado = porId.asMap().merge(copia.getId(), copia, (atual, novo) ->
+                atual.getVersao() != null && novo.getVersao() != null && atual.getVersao() > novo.getVersao()
+                        ? atual : novo);
+        if (resultado == copia) {
+            idPorNome.put(normalizar(copia.getNome()), copia.getId());
+        }
+    }
+
+    /**
+     * Normaliza o nome usado como chave: sem espaços nas pontas e em minúsculas.
+     */
+    private String normalizar(String nome) {
+        return nome.trim().toLowerCase(Locale.ROOT);
+    }
+}
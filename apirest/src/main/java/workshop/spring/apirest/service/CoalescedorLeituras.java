@@ -0,0 +1,237 @@
+package workshop.spring.apirest.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import workshop.spring.apirest.config.LeituraDasPropriasEscritas;
+import workshop.spring.apirest.event.AventureiroRemovidoEvent;
+import workshop.spring.apirest.event.AventureiroSalvoEvent;
+import workshop.spring.apirest.event.AventureirosCriadosEmLoteEvent;
+import workshop.spring.apirest.event.XpDescarregadoEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 🤝 COALESCÊNCIA DE LEITURAS (SINGLE-FLIGHT)
+ *
+ * Quando várias requisições pedem a mesma listagem ao mesmo tempo (por exemplo, todo o
+ * frontend abrindo {@code /buscar/classe/MAGO} no mesmo segundo), só a primeira vai ao banco;
+ * as outras esperam essa consulta terminar e recebem o mesmo resultado.
+ *
+ * Características:
+ * - Desligada por padrão; ligada com {@code guilda.coalescencia.enabled=true}
+ * - Chamadas iguais são as que têm a mesma consulta e os mesmos argumentos
+ * - Micro-TTL opcional ({@code guilda.coalescencia.ttl-ms}, padrão 0): por alguns milissegundos
+ *   depois de terminar, o resultado ainda é entregue a quem chegar, sem nova consulta
+ * - Cada chamador recebe a sua própria cópia da lista, então pode alterá-la sem afetar os outros
+ * - Se a consulta falhar, todos os que esperavam recebem a mesma exceção e a próxima chamada
+ *   tenta de novo
+ * - Métrica {@code guilda.coalescencia.leituras}, com a tag {@code resultado}: {@code consulta}
+ *   (foi ao banco) ou {@code compartilhada} (aproveitou a consulta de outra chamada)
+ *
+ * As escritas não passam por aqui. Depois do commit de qualquer alteração (os mesmos eventos que
+ * mantêm o cache), as consultas em andamento e os resultados guardados deixam de ser
+ * compartilhados: quem chegar depois faz uma nova consulta. Como o evento roda antes de a
+ * escrita responder, um cliente que já recebeu a resposta da escrita nunca lê um resultado
+ * anterior a ela.
+ *
+ * Chamadas dentro de uma transação já aberta também vão direto ao banco: elas precisam ver
+ * o que a própria transação gravou. E, com réplicas de leitura, quem precisa ler do primário
+ * ({@link LeituraDasPropriasEscritas}) só compartilha consultas com quem também precisa.
+ */
+@Component
+public class CoalescedorLeituras implements MeterBinder {
+
+    private final boolean ativo;
+    private final LeituraDasPropriasEscritas leituraPropria;
+    private final ConcurrentHashMap<Chave, Voo> emAndamento = new ConcurrentHashMap<>();
+    private final Cache<Chave, Voo> recentes;
+    private final AtomicLong geracao = new AtomicLong();
+    private final LongAdder consultas = new LongAdder();
+    private final LongAdder compartilhadas = new LongAdder();
+
+    /**
+     * @param leituraPropria Indica se a requisição atual precisa ler do banco primário
+     * @param ativo Propriedade {@code guilda.coalescencia.enabled} (padrão false)
+     * @param ttlMs Propriedade {@code guilda.coalescencia.ttl-ms} (padrão 0, só consultas em andamento)
+     * @param maxResultados Propriedade {@code guilda.coalescencia.max-resultados} (padrão 1000),
+     *                      quantidade de resultados guardados pelo micro-TTL
+     */
+    @Autowired
+    public CoalescedorLeituras(LeituraDasPropriasEscritas leituraPropria,
+                               @Value("${guilda.coalescencia.enabled:false}") boolean ativo,
+                               @Value("${guilda.coalescencia.ttl-ms:0}") long ttlMs,
+                               @Value("${guilda.coalescencia.max-resultados:1000}") long maxResultados) {
+        if (ttlMs < 0) {
+            throw new IllegalArgumentException("guilda.coalescencia.ttl-ms não pode ser negativo");
+        }
+        this.ativo = ativo;
+        this.leituraPropria = leituraPropria;
+        this.recentes = ttlMs == 0 ? null : Caffeine.newBuilder()
+                .maximumSize(maxResultados)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+    }
+
+    /**
+     * Executa a consulta, ou aproveita uma consulta igual já em andamento (ou recém-terminada).
+     *
+     * @param consulta Nome da consulta (por exemplo, {@code "classe"})
+     * @param argumento Argumento da consulta (null se não houver)
+     * @param leitura Faz a consulta no banco
+     * @return Uma cópia da lista lida
+     */
+    public <T> List<T> ler(String consulta, Object argumento, Supplier<List<T>> leitura) {
+        if (!ativo || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return leitura.get();
+        }
+        Chave chave = new Chave(consulta, argumento, leituraPropria.exigePrimario());
+        while (true) {
+            long atual = geracao.get();
+            Voo existente = compartilhavel(chave, atual);
+            if (existente != null) {
+                compartilhadas.increment();
+                return existente.aguardar();
+            }
+            Voo novo = new Voo(atual);
+            if (emAndamento.compute(chave, (k, anterior) -> anterior == null || anterior.geracao != atual
+                    ? novo : anterior) == novo) {
+                consultas.increment();
+                return decolar(chave, novo, leitura);
+            }
+            // Outra chamada começou a mesma consulta entre a busca e o registro: tenta de novo
+        }
+    }
+
+    /**
+     * @return Consulta igual, da geração atual, em andamento ou guardada pelo micro-TTL
+     */
+    private Voo compartilhavel(Chave chave, long atual) {
+        Voo voo = emAndamento.get(chave);
+        if (voo != null && voo.geracao == atual) {
+            return voo;
+        }
+        voo = recentes == null ? null : recentes.getIfPresent(chave);
+        return voo != null && voo.geracao == atual ? voo : null;
+    }
+
+    private <T> List<T> decolar(Chave chave, Voo voo, Supplier<List<T>> leitura) {
+        try {
+            List<T> resultado = leitura.get();
+            voo.resultado.complete(List.copyOf(resultado));
+            if (recentes != null && voo.geracao == geracao.get()) {
+                recentes.put(chave, voo);
+            }
+            return resultado;
+        } catch (RuntimeException | Error e) {
+            voo.resultado.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(chave, voo);
+        }
+    }
+
+    /**
+     * Descarta as consultas em andamento e os resultados guardados.
+     * Chamado depois do commit de qualquer alteração.
+     */
+    public void invalidar() {
+        geracao.incrementAndGet();
+        if (recentes != null) {
+            recentes.invalidateAll();
+        }
+    }
+
+    /**
+     * Aventureiro criado ou atualizado: as listagens mudaram.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoSalvar(AventureiroSalvoEvent evento) {
+        invalidar();
+    }
+
+    /**
+     * Bloco da criação em lote gravado: as listagens mudaram.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoCriarEmLote(AventureirosCriadosEmLoteEvent evento) {
+        invalidar();
+    }
+
+    /**
+     * Aventureiro removido: as listagens mudaram.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoRemover(AventureiroRemovidoEvent evento) {
+        invalidar();
+    }
+
+    /**
+     * XP do modo write-behind gravado: nível e XP mudaram.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoDescarregarXp(XpDescarregadoEvent evento) {
+        invalidar();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("guilda.coalescencia.leituras", consultas, LongAdder::sum)
+                .description("Leituras coalescidas que foram ao banco")
+                .tag("resultado", "consulta")
+                .register(registry);
+        FunctionCounter.builder("guilda.coalescencia.leituras", compartilhadas, LongAdder::sum)
+                .description("Leituras coalescidas que aproveitaram a consulta de outra chamada")
+                .tag("resultado", "compartilhada")
+                .register(registry);
+    }
+
+    /**
+     * Consulta, argumento e destino (primário ou não) de uma chamada.
+     */
+    private record Chave(String consulta, Object argumento, boolean primario) {
+    }
+
+    /**
+     * Uma consulta ao banco e o seu resultado, compartilhado com quem chegar enquanto ela valer.
+     */
+    private static final class Voo {
+
+        private final long geracao;
+        private final CompletableFuture<List<?>> resultado = new CompletableFuture<>();
+
+        private Voo(long geracao) {
+            this.geracao = geracao;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> List<T> aguardar() {
+            try {
+                return new ArrayList<>((List<T>) resultado.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException falha) {
+                    throw falha;
+                }
+                if (e.getCause() instanceof Error erro) {
+                    throw erro;
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package workshop.spring.apirest.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import workshop.spring.apirest.dto.EstatisticasGuilda;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.event.AventureiroRemovidoEvent;
+import workshop.spring.apirest.event.AventureiroSalvoEvent;
+import workshop.spring.apirest.event.AventureirosCriadosEmLoteEvent;
+import workshop.spring.apirest.event.XpDescarregadoEvent;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 🧮 CONTADORES DA GUILDA
+ *
+ * Modo opcional ({@code guilda.estatisticas.contadores.enabled=true}) em que as estatísticas
+ * da guilda são mantidas em contadores atualizados a cada escrita, em vez de calculadas
+ * com GROUP BY a cada consulta. A leitura só copia os contadores.
+ *
+ * Para descontar o estado anterior de um aventureiro que mudou (nível, XP ou classe),
+ * os contadores guardam o último estado conhecido de cada um, com a versão, e ignoram
+ * eventos mais antigos do que ele.
+ *
+ * Os contadores são carregados do banco ao iniciar a aplicação; até lá, e com o modo
+ * desligado, as estatísticas vêm das consultas de agregação. As exclusões feitas durante a
+ * carga são lembradas, para que a leitura da tabela não volte a contar quem já saiu.
+ */
+@Component
+public class ContadoresGuilda {
+
+    private static final Logger log = LoggerFactory.getLogger(ContadoresGuilda.class);
+
+    private final boolean ativo;
+    private final LeitorAventureiros leitorAventureiros;
+
+    // Todos os campos abaixo são protegidos pelo monitor deste objeto
+    private final Map<Long, Estado> estados = new HashMap<>();
+    private final long[] porClasse = new long[ClasseRPG.values().length];
+    private final TreeMap<Integer, Long> porNivel = new TreeMap<>();
+    private long total;
+    private long somaNiveis;
+    private long xpTotal;
+
+    /**
+     * IDs excluídos enquanto os contadores carregam, que a leitura da tabela não deve contar.
+     */
+    private final Set<Long> removidosNaCarga = new HashSet<>();
+
+    private volatile boolean pronto;
+
+    /**
+     * @param leitorAventureiros Lê a tabela em blocos para carregar os contadores
+     * @param ativo Propriedade {@code guilda.estatisticas.contadores.enabled} (padrão false)
+     */
+    @Autowired
+    public ContadoresGuilda(LeitorAventureiros leitorAventureiros,
+                            @Value("${guilda.estatisticas.contadores.enabled:false}") boolean ativo) {
+        this.leitorAventureiros = leitorAventureiros;
+        this.ativo = ativo;
+    }
+
+    /**
+     * Indica se os contadores estão ligados e já carregados.
+     *
+     * @return true se as estatísticas podem ser lidas dos contadores
+     */
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    /**
+     * Copia os contadores para uma resposta de estatísticas.
+     *
+     * @return As estatísticas atuais
+     */
+    public synchronized EstatisticasGuilda instantaneo() {
+        Map<ClasseRPG, Long> classes = new EnumMap<>(ClasseRPG.class);
+        for (ClasseRPG classe : ClasseRPG.values()) {
+            classes.put(classe, porClasse[classe.ordinal()]);
+        }
+        return new EstatisticasGuilda(total, classes, new LinkedHashMap<>(porNivel),
+                total == 0 ? 0 : (double) somaNiveis / total,
+                porNivel.isEmpty() ? 0 : porNivel.lastKey(),
+                xpTotal);
+    }
+
+    /**
+     * Carrega os contadores assim que a aplicação termina de subir.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarNaInicializacao() {
+        if (!ativo) {
+            return;
+        }
+        long lidos = leitorAventureiros.percorrerNoPrimario(this::carregar);
+        synchronized (this) {
+            pronto = true;
+            removidosNaCarga.clear();
+        }
+        log.info("Contadores da guilda carregados: {} aventureiro(s)", lidos);
+    }
+
+    /**
+     * Conta um aventureiro criado ou alterado.
+     *
+     * @param evento Evento com o aventureiro salvo
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoSalvar(AventureiroSalvoEvent evento) {
+        if (ativo) {
+            gravar(evento.aventureiro());
+        }
+    }
+
+    /**
+     * Conta um bloco da criação em lote.
+     *
+     * @param evento Evento com os aventureiros criados
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoCriarEmLote(AventureirosCriadosEmLoteEvent evento) {
+        if (ativo) {
+            evento.aventureiros().forEach(this::gravar);
+        }
+    }
+
+    /**
+     * Desconta um aventureiro excluído.
+     *
+     * @param evento Evento com o ID do aventureiro
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void aoRemover(AventureiroRemovidoEvent evento) {
+        if (!ativo) {
+            return;
+        }
+        if (!pronto) {
+            removidosNaCarga.add(evento.id());
+        }
+        Estado antigo = estados.remove(evento.id());
+        if (antigo != null) {
+            somar(antigo, -1);
+        }
+    }
+
+    /**
+     * Aplica o nível e o XP gravados pelo modo write-behind.
+     *
+     * @param evento Evento com o estado gravado por ID
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void aoDescarregarXp(XpDescarregadoEvent evento) {
+        if (!ativo) {
+            return;
+        }
+        evento.progressoPorId().forEach((id, progresso) -> {
+            Estado antigo = estados.get(id);
+            if (antigo != null && antigo.versao() < progresso.versao()) {
+                trocar(id, antigo, new Estado(antigo.classe(), progresso.nivel(), progresso.xp(), progresso.versao()));
+            }
+        });
+    }
+
+    /**
+     * Conta um aventureiro lido do banco durante a carga, a menos que ele já tenha sido excluído.
+     */
+    private synchronized void carregar(Aventureiro aventureiro) {
+        if (!removidosNaCarga.contains(aventureiro.getId())) {
+            gravar(aventureiro);
+        }
+    }
+
+    /**
+     * Troca o estado conhecido de um aventureiro, a menos que o guardado seja mais novo.
+     */
+    private synchronized void gravar(Aventureiro aventureiro) {
+        long versao = aventureiro.getVersao() == null ? 0 : aventureiro.getVersao();
+        Estado antigo = estados.get(aventureiro.getId());
+        if (antigo != null && antigo.versao() > versao) {
+            return;
+        }
+        trocar(aventureiro.getId(), antigo,
+                new Estado(aventureiro.getClasse(), aventureiro.getNivel(), aventureiro.getXp(), versao));
+    }
+
+    private void trocar(Long id, Estado antigo, Estado novo) {
+        if (antigo != null) {
+            somar(antigo, -1);
+        }
+        estados.put(id, novo);
+        somar(novo, 1);
+    }
+
+    /**
+     * Soma (sinal 1) ou desconta (sinal -1) um aventureiro de todos os contadores.
+     */
+    private void somar(Estado estado, int sinal) {
+        total += sinal;
+        porClasse[estado.classe().ordinal()] += sinal;
+        porNivel.merge(estado.nivel(), (long) sinal, (atual, delta) -> atual + delta == 0 ? null : atual + delta);
+        somaNiveis += (long) sinal * estado.nivel();
+        xpTotal += (long) sinal * estado.xp();
+    }
+
+    /**
+     * Último estado conhecido de um aventureiro.
+     */
+    private record Estado(ClasseRPG classe, int nivel, int xp, long versao) {
+    }
+}
@@ -0,0 +1,70 @@
+package workshop.spring.apirest.service;
+
+import workshop.spring.apirest.repository.CampoOrdenacao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor opaco de paginação.
+ *
+ * Guarda a ordenação usada e a posição da última linha entregue. É enviado ao
+ * cliente codificado em Base64 (URL-safe), para que ele apenas o devolva na
+ * próxima requisição, sem precisar conhecer o formato interno.
+ *
+ * Formato antes da codificação: {@code ORDENACAO|DIRECAO|valor|id}
+ * (ex: {@code NIVEL|ASC|3|42}).
+ *
+ * @param ordenacao   Campo de ordenação da listagem
+ * @param decrescente Se a listagem é decrescente
+ * @param valor       Valor do campo de ordenação na última linha (null para ordenação por ID)
+ * @param id          ID da última linha entregue
+ */
+public record CursorPagina(CampoOrdenacao ordenacao, boolean decrescente, Integer valor, Long id) {
+
+    private static final String SEPARADOR = "|";
+
+    /**
+     * Codifica o cursor para envio ao cliente.
+     *
+     * @return Cursor em Base64 URL-safe, sem padding
+     */
+    public String codificar() {
+        String bruto = ordenacao.name() + SEPARADOR
+                + (decrescente ? "DESC" : "ASC") + SEPARADOR
+                + (valor == null ? "" : valor) + SEPARADOR
+                + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(bruto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica um cursor recebido do cliente.
+     *
+     * @param codificado Cursor em Base64 URL-safe
+     * @return O cursor decodificado
+     * @throws IllegalArgumentException se o cursor estiver malformado
+     */
+    public static CursorPagina decodificar(String codificado) {
+        try {
+            String bruto = new String(Base64.getUrlDecoder().decode(codificado), StandardCharsets.UTF_8);
+            String[] partes = bruto.split("\\|", -1);
+            if (partes.length != 4) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+
+            CampoOrdenacao ordenacao = CampoOrdenacao.valueOf(partes[0]);
+            boolean decrescente = "DESC".equals(partes[1]);
+            Integer valor = partes[2].isEmpty() ? null : Integer.valueOf(partes[2]);
+            Long id = Long.valueOf(partes[3]);
+
+            if (ordenacao != CampoOrdenacao.ID && valor == null) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            return new CursorPagina(ordenacao, decrescente, valor, id);
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException e erros de Base64 também são IllegalArgumentException
+            throw new IllegalArgumentException("Cursor inválido: " + codificado);
+        }
+    }
+}
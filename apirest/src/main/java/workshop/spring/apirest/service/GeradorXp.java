@@ -0,0 +1,33 @@
+package workshop.spring.apirest.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 🎲 GERADOR DE XP
+ * 
+ * Sorteia a experiência ganha em cada missão.
+ * 
+ * Fica em um componente separado para que os testes possam substituí-lo por um
+ * valor fixo. Usa ThreadLocalRandom em vez de Math.random(), que compartilha um
+ * único gerador entre todas as threads e vira ponto de disputa sob carga.
+ */
+@Component
+public class GeradorXp {
+
+    /** Menor XP possível em uma missão */
+    public static final int XP_MINIMO = 10;
+
+    /** Maior XP possível em uma missão */
+    public static final int XP_MAXIMO = 19;
+
+    /**
+     * Sorteia o XP de uma missão.
+     * 
+     * @return Um valor entre {@value #XP_MINIMO} e {@value #XP_MAXIMO}
+     */
+    public int gerar() {
+        return ThreadLocalRandom.current().nextInt(XP_MINIMO, XP_MAXIMO + 1);
+    }
+}
@@ -0,0 +1,504 @@
+package workshop.spring.apirest.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import workshop.spring.apirest.dto.FichaAventureiro;
+import workshop.spring.apirest.dto.RelatorioIndiceClasses;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.event.AventureiroRemovidoEvent;
+import workshop.spring.apirest.event.AventureiroSalvoEvent;
+import workshop.spring.apirest.event.AventureirosCriadosEmLoteEvent;
+import workshop.spring.apirest.event.XpDescarregadoEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * 🗂️ ÍNDICE EM MEMÓRIA POR CLASSE
+ *
+ * Modelo de leitura opcional ({@code guilda.indice-classes.enabled=true}) que guarda todos
+ * os aventureiros em memória, separados por classe. Com ele, a busca por classe e a
+ * contagem por classe são respondidas sem ir ao banco.
+ *
+ * Como são só sete classes, cada uma tem o seu grupo em um {@link EnumMap}. Cada grupo
+ * guarda os dados em arrays paralelos de tipos primitivos, ordenados por ID, em vez de
+ * uma lista de entidades: ocupa uma fração da memória e é percorrido sequencialmente.
+ *
+ * Funcionamento:
+ * 1. Ao iniciar a aplicação, o índice é carregado lendo a tabela inteira em blocos
+ * 2. Enquanto não termina, as buscas continuam indo ao banco
+ * 3. Os eventos de alteração (recebidos após cada commit) mantêm o índice atualizado;
+ *    uma versão mais antiga nunca substitui uma mais nova
+ * 4. {@link #verificar()} compara o índice com o banco e {@link #reconstruir()} o refaz
+ *
+ * Alterações que aconteçam durante uma reconstrução também são aplicadas ao índice novo,
+ * mas uma gravação feita exatamente entre a leitura de uma linha e o seu evento pode
+ * deixar uma diferença; é para isso que existe a verificação.
+ */
+@Component
+public class IndicePorClasse {
+
+    private static final Logger log = LoggerFactory.getLogger(IndicePorClasse.class);
+
+    private final boolean ativo;
+    private final LeitorAventureiros leitorAventureiros;
+
+    /**
+     * Protege os grupos: buscas usam a trava de leitura e alterações, a de escrita.
+     */
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+
+    /**
+     * Garante uma reconstrução por vez. É um {@link ReentrantLock} e não {@code synchronized}
+     * porque a reconstrução lê o banco: com threads virtuais, esperar I/O dentro de um bloco
+     * synchronized prenderia a thread de plataforma que carrega a thread virtual (pinning).
+     */
+    private final ReentrantLock reconstrucao = new ReentrantLock();
+
+    /**
+     * Grupos em uso pelas buscas (null até a primeira carga terminar).
+     */
+    private EnumMap<ClasseRPG, Grupo> grupos;
+
+    /**
+     * Grupos sendo carregados por uma reconstrução (null fora dela).
+     */
+    private EnumMap<ClasseRPG, Grupo> emConstrucao;
+
+    /**
+     * IDs removidos durante a reconstrução, que não devem ser carregados do banco.
+     */
+    private final Set<Long> removidosNaConstrucao = new HashSet<>();
+
+    /**
+     * @param leitorAventureiros Lê a tabela em blocos para carregar e verificar o índice
+     * @param ativo Propriedade {@code guilda.indice-classes.enabled} (padrão false)
+     */
+    @Autowired
+    public IndicePorClasse(LeitorAventureiros leitorAventureiros,
+                           @Value("${guilda.indice-classes.enabled:false}") boolean ativo) {
+        this.leitorAventureiros = leitorAventureiros;
+        this.ativo = ativo;
+    }
+
+    /**
+     * Indica se o índice está ligado e já pode responder às buscas.
+     *
+     * @return true se as buscas por classe podem ser feitas em memória
+     */
+    public boolean isPronto() {
+        trava.readLock().lock();
+        try {
+            return grupos != null;
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lista os aventureiros de uma classe, em ordem de ID.
+     *
+     * @param classe Classe dos aventureiros
+     * @return As fichas dos aventureiros da classe
+     * @throws IllegalStateException se o índice não estiver pronto
+     */
+    public List<FichaAventureiro> listar(ClasseRPG classe) {
+        trava.readLock().lock();
+        try {
+            return exigirGrupos().get(classe).paraFichas(classe);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Conta os aventureiros de uma classe.
+     *
+     * @param classe Classe dos aventureiros
+     * @return Quantidade de aventureiros da classe
+     * @throws IllegalStateException se o índice não estiver pronto
+     */
+    public long contar(ClasseRPG classe) {
+        trava.readLock().lock();
+        try {
+            return exigirGrupos().get(classe).tamanho;
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    /**
+     * Carrega o índice assim que a aplicação termina de subir.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarNaInicializacao() {
+        if (ativo) {
+            RelatorioIndiceClasses relatorio = reconstruir();
+            log.info("Índice por classe carregado: {} aventureiro(s)", relatorio.naMemoria());
+        }
+    }
+
+    /**
+     * Refaz o índice a partir do banco. As buscas continuam usando o índice anterior
+     * até a troca, feita ao final.
+     *
+     * @return O relatório do índice recém-carregado
+     * @throws IllegalStateException se o índice estiver desligado
+     */
+    public RelatorioIndiceClasses reconstruir() {
+        exigirAtivo();
+        reconstrucao.lock();
+        try {
+            return carregar();
+        } finally {
+            reconstrucao.unlock();
+        }
+    }
+
+    /**
+     * Lê a tabela para os grupos em construção e os coloca em uso ao final.
+     */
+    private RelatorioIndiceClasses carregar() {
+        trava.writeLock().lock();
+        try {
+            emConstrucao = novosGrupos();
+            removidosNaConstrucao.clear();
+        } finally {
+            trava.writeLock().unlock();
+        }
+
+        long lidos;
+        try {
+            lidos = leitorAventureiros.percorrerNoPrimario(aventureiro -> {
+                trava.writeLock().lock();
+                try {
+                    if (!removidosNaConstrucao.contains(aventureiro.getId())) {
+                        gravar(emConstrucao, aventureiro);
+                    }
+                } finally {
+                    trava.writeLock().unlock();
+                }
+            });
+        } catch (RuntimeException e) {
+            trava.writeLock().lock();
+            try {
+                emConstrucao = null;
+            } finally {
+                trava.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        trava.writeLock().lock();
+        try {
+            grupos = emConstrucao;
+            emConstrucao = null;
+            removidosNaConstrucao.clear();
+            long naMemoria = grupos.values().stream().mapToLong(grupo -> grupo.tamanho).sum();
+            return RelatorioIndiceClasses.de(lidos, naMemoria, 0, 0);
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Compara o índice com o banco, linha a linha.
+     *
+     * Alterações feitas durante a verificação podem aparecer como divergências
+     * passageiras; se persistirem, use {@link #reconstruir()}.
+     *
+     * @return Quantidades no banco e na memória, e as diferenças encontradas
+     * @throws IllegalStateException se o índice estiver desligado ou não estiver pronto
+     */
+    public RelatorioIndiceClasses verificar() {
+        exigirAtivo();
+        long[] ausentes = {0};
+        long[] divergentes = {0};
+
+        long noBanco = leitorAventureiros.percorrerNoPrimario(aventureiro -> {
+            trava.readLock().lock();
+            try {
+                Grupo grupo = exigirGrupos().get(aventureiro.getClasse());
+                int posicao = grupo.posicao(aventureiro.getId());
+                if (posicao < 0) {
+                    ausentes[0]++;
+                } else if (!grupo.igual(posicao, aventureiro)) {
+                    divergentes[0]++;
+                }
+            } finally {
+                trava.readLock().unlock();
+            }
+        });
+
+        long naMemoria;
+        trava.readLock().lock();
+        try {
+            naMemoria = exigirGrupos().values().stream().mapToLong(grupo -> grupo.tamanho).sum();
+        } finally {
+            trava.readLock().unlock();
+        }
+        return RelatorioIndiceClasses.de(noBanco, naMemoria, ausentes[0], divergentes[0]);
+    }
+
+    /**
+     * Aplica um aventureiro criado ou alterado.
+     *
+     * @param evento Evento com o aventureiro salvo
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoSalvar(AventureiroSalvoEvent evento) {
+        aplicar(alvos -> gravar(alvos, evento.aventureiro()));
+    }
+
+    /**
+     * Aplica um bloco da criação em lote.
+     *
+     * @param evento Evento com os aventureiros criados
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoCriarEmLote(AventureirosCriadosEmLoteEvent evento) {
+        aplicar(alvos -> evento.aventureiros().forEach(aventureiro -> gravar(alvos, aventureiro)));
+    }
+
+    /**
+     * Remove um aventureiro excluído.
+     *
+     * @param evento Evento com o ID do aventureiro
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoRemover(AventureiroRemovidoEvent evento) {
+        if (!ativo) {
+            return;
+        }
+        trava.writeLock().lock();
+        try {
+            if (grupos != null) {
+                remover(grupos, evento.id());
+            }
+            if (emConstrucao != null) {
+                remover(emConstrucao, evento.id());
+                removidosNaConstrucao.add(evento.id());
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica o nível e o XP gravados pelo modo write-behind.
+     *
+     * @param evento Evento com o estado gravado por ID
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoDescarregarXp(XpDescarregadoEvent evento) {
+        aplicar(alvos -> evento.progressoPorId().forEach((id, progresso) -> {
+            for (Grupo grupo : alvos.values()) {
+                int posicao = grupo.posicao(id);
+                if (posicao >= 0) {
+                    grupo.aplicarProgresso(posicao, progresso);
+                    return;
+                }
+            }
+        }));
+    }
+
+    /**
+     * Executa uma alteração nos grupos em uso e nos que estão sendo reconstruídos.
+     */
+    private void aplicar(Consumer<EnumMap<ClasseRPG, Grupo>> alteracao) {
+        if (!ativo) {
+            return;
+        }
+        trava.writeLock().lock();
+        try {
+            if (grupos != null) {
+                alteracao.accept(grupos);
+            }
+            if (emConstrucao != null) {
+                alteracao.accept(emConstrucao);
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Grava um aventureiro no grupo da sua classe, tirando-o de outro grupo se ele
+     * tiver trocado de classe. Estados mais antigos do que o guardado são ignorados.
+     */
+    private static void gravar(EnumMap<ClasseRPG, Grupo> alvos, Aventureiro aventureiro) {
+        long id = aventureiro.getId();
+        long versao = aventureiro.getVersao() == null ? 0 : aventureiro.getVersao();
+
+        for (Map.Entry<ClasseRPG, Grupo> entrada : alvos.entrySet()) {
+            Grupo grupo = entrada.getValue();
+            int posicao = grupo.posicao(id);
+            if (posicao < 0) {
+                continue;
+            }
+            if (grupo.versoes[posicao] > versao) {
+                return;
+            }
+            if (entrada.getKey() != aventureiro.getClasse()) {
+                grupo.remover(posicao);
+            }
+            break;
+        }
+        alvos.get(aventureiro.getClasse()).gravar(id, aventureiro.getNome(), aventureiro.getNivel(),
+                aventureiro.getXp(), versao);
+    }
+
+    /**
+     * Remove um aventureiro de qualquer grupo em que ele esteja.
+     */
+    private static void remover(EnumMap<ClasseRPG, Grupo> alvos, Long id) {
+        for (Grupo grupo : alvos.values()) {
+            int posicao = grupo.posicao(id);
+            if (posicao >= 0) {
+                grupo.remover(posicao);
+                return;
+            }
+        }
+    }
+
+    private EnumMap<ClasseRPG, Grupo> exigirGrupos() {
+        exigirAtivo();
+        if (grupos == null) {
+            throw new IllegalStateException("O índice por classe ainda está sendo carregado");
+        }
+        return grupos;
+    }
+
+    private void exigirAtivo() {
+        if (!ativo) {
+            throw new IllegalStateException("O índice por classe está desligado (guilda.indice-classes.enabled)");
+        }
+    }
+
+    private static EnumMap<ClasseRPG, Grupo> novosGrupos() {
+        EnumMap<ClasseRPG, Grupo> novos = new EnumMap<>(ClasseRPG.class);
+        for (ClasseRPG classe : ClasseRPG.values()) {
+            novos.put(classe, new Grupo());
+        }
+        return novos;
+    }
+
+    /**
+     * Aventureiros de uma classe, em arrays paralelos ordenados por ID.
+     * A posição i de cada array descreve o mesmo aventureiro.
+     */
+    private static final class Grupo {
+
+        private static final int CAPACIDADE_INICIAL = 16;
+
+        private long[] ids = new long[CAPACIDADE_INICIAL];
+        private String[] nomes = new String[CAPACIDADE_INICIAL];
+        private int[] niveis = new int[CAPACIDADE_INICIAL];
+        private int[] xps = new int[CAPACIDADE_INICIAL];
+        private long[] versoes = new long[CAPACIDADE_INICIAL];
+        private int tamanho;
+
+        /**
+         * Busca binária pelo ID.
+         *
+         * @return A posição do ID, ou um valor negativo (como em {@link Arrays#binarySearch}) se não existir
+         */
+        int posicao(long id) {
+            return Arrays.binarySearch(ids, 0, tamanho, id);
+        }
+
+        /**
+         * Atualiza o aventureiro se ele já existir, ou o insere na posição do seu ID.
+         * Como os IDs são gerados em ordem crescente, quase sempre a inserção é no final.
+         */
+        void gravar(long id, String nome, int nivel, int xp, long versao) {
+            int posicao = posicao(id);
+            if (posicao < 0) {
+                posicao = -posicao - 1;
+                garantirCapacidade();
+                int seguintes = tamanho - posicao;
+                if (seguintes > 0) {
+                    System.arraycopy(ids, posicao, ids, posicao + 1, seguintes);
+                    System.arraycopy(nomes, posicao, nomes, posicao + 1, seguintes);
+                    System.arraycopy(niveis, posicao, niveis, posicao + 1, seguintes);
+                    System.arraycopy(xps, posicao, xps, posicao + 1, seguintes);
+                    System.arraycopy(versoes, posicao, versoes, posicao + 1, seguintes);
+                }
+                tamanho++;
+            }
+            ids[posicao] = id;
+            nomes[posicao] = nome;
+            niveis[posicao] = nivel;
+            xps[posicao] = xp;
+            versoes[posicao] = versao;
+        }
+
+        void remover(int posicao) {
+            int seguintes = tamanho - posicao - 1;
+            if (seguintes > 0) {
+                System.arraycopy(ids, posicao + 1, ids, posicao, seguintes);
+                System.arraycopy(nomes, posicao + 1, nomes, posicao, seguintes);
+                System.arraycopy(niveis, posicao + 1, niveis, posicao, seguintes);
+                System.arraycopy(xps, posicao + 1, xps, posicao, seguintes);
+                System.arraycopy(versoes, posicao + 1, versoes, posicao, seguintes);
+            }
+            tamanho--;
+            nomes[tamanho] = null;
+        }
+
+        /**
+         * Troca nível, XP e versão pelos gravados na descarga do write-behind (se forem mais novos).
+         */
+        void aplicarProgresso(int posicao, XpDescarregadoEvent.Progresso progresso) {
+            if (versoes[posicao] >= progresso.versao()) {
+                return;
+            }
+            niveis[posicao] = progresso.nivel();
+            xps[posicao] = progresso.xp();
+            versoes[posicao] = progresso.versao();
+        }
+
+        boolean igual(int posicao, Aventureiro aventureiro) {
+            return Objects.equals(nomes[posicao], aventureiro.getNome())
+                    && niveis[posicao] == aventureiro.getNivel()
+                    && xps[posicao] == aventureiro.getXp()
+                    && versoes[posicao] == (aventureiro.getVersao() == null ? 0 : aventureiro.getVersao());
+        }
+
+        List<FichaAventureiro> paraFichas(ClasseRPG classe) {
+            List<FichaAventureiro> fichas = new ArrayList<>(tamanho);
+            for (int i = 0; i < tamanho; i++) {
+                fichas.add(new FichaAventureiro(ids[i], nomes[i], classe, niveis[i], xps[i], versoes[i]));
+            }
+            return fichas;
+        }
+
+        private void garantirCapacidade() {
+            if (tamanho < ids.length) {
+                return;
+            }
+            int capacidade = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, capacidade);
+            nomes = Arrays.copyOf(nomes, capacidade);
+            niveis = Arrays.copyOf(niveis, capacidade);
+            xps = Arrays.copyOf(xps, capacidade);
+            versoes = Arrays.copyOf(versoes, capacidade);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package workshop.spring.apirest.service;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import workshop.spring.apirest.config.LeituraDasPropriasEscritas;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.repository.AventureiroRepository;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 📖 LEITOR DA TABELA DE AVENTUREIROS
+ *
+ * Percorre a tabela inteira, em ordem de ID, sem mantê-la em memória: as linhas chegam
+ * do banco em blocos ({@code guilda.exportacao.tamanho-bloco}) e o contexto de persistência
+ * é limpo a cada bloco. Usado pela exportação NDJSON e para carregar as estruturas em
+ * memória (índice por classe, ranking, contadores) ao iniciar a aplicação.
+ *
+ * A exportação pode ler de uma réplica; as cargas usam {@link #percorrerNoPrimario(Consumer)},
+ * pois uma réplica atrasada deixaria a estrutura sem as escritas mais recentes, e nenhum
+ * evento posterior as traria de volta.
+ */
+@Component
+public class LeitorAventureiros {
+
+    private final AventureiroRepository aventureiroRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transacaoLeitura;
+    private final LeituraDasPropriasEscritas leituraPropria;
+    private final int tamanhoBloco;
+
+    /**
+     * @param aventureiroRepository Repositório com a consulta em stream
+     * @param entityManager EntityManager compartilhado, limpo a cada bloco lido
+     * @param transactionManager A leitura acontece em uma transação somente leitura
+     * @param leituraPropria Leva as cargas das estruturas em memória para o banco primário
+     * @param tamanhoBloco Propriedade {@code guilda.exportacao.tamanho-bloco} (padrão 1000)
+     */
+    @Autowired
+    public LeitorAventureiros(AventureiroRepository aventureiroRepository,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              LeituraDasPropriasEscritas leituraPropria,
+                              @Value("${guilda.exportacao.tamanho-bloco:1000}") int tamanhoBloco) {
+        this.aventureiroRepository = aventureiroRepository;
+        this.entityManager = entityManager;
+        this.transacaoLeitura = new TransactionTemplate(transactionManager);
+        this.transacaoLeitura.setReadOnly(true);
+        this.leituraPropria = leituraPropria;
+        this.tamanhoBloco = tamanhoBloco;
+    }
+
+    /**
+     * Entrega todos os aventureiros, um a um, ao consumidor informado.
+     * Se já houver uma transação em andamento, a leitura acontece dentro dela.
+     *
+     * @param consumidor Recebe cada aventureiro assim que ele é lido (a entidade deixa de ser
+     *                   gerenciada no fim do bloco, então não deve ser guardada para alteração)
+     * @return Quantidade de aventureiros lidos
+     */
+    public long percorrer(Consumer<Aventureiro> consumidor) {
+        Long total = transacaoLeitura.execute(status -> {
+            long lidos = 0;
+            try (Stream<Aventureiro> todos = aventureiroRepository.percorrerTodos(tamanhoBloco)) {
+                Iterator<Aventureiro> iterador = todos.iterator();
+                while (iterador.hasNext()) {
+                    consumidor.accept(iterador.next());
+                    if (++lidos % tamanhoBloco == 0) {
+                        // Descarta as entidades já entregues para não acumular memória
+                        entityManager.clear();
+                    }
+                }
+            }
+            return lidos;
+        });
+        return total == null ? 0 : total;
+    }
+
+    /**
+     * Como {@link #percorrer(Consumer)}, mas sempre lendo do banco primário, mesmo com réplicas.
+     * Usado para carregar e conferir as estruturas em memória.
+     *
+     * @param consumidor Recebe cada aventureiro assim que ele é lido
+     * @return Quantidade de aventureiros lidos
+     */
+    public long percorrerNoPrimario(Consumer<Aventureiro> consumidor) {
+        return leituraPropria.noPrimario(() -> percorrer(consumidor));
+    }
+}
@@ -0,0 +1,312 @@
+package workshop.spring.apirest.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tools.jackson.databind.ObjectMapper;
+import workshop.spring.apirest.config.LeituraDasPropriasEscritas;
+import workshop.spring.apirest.dto.FichaAventureiro;
+import workshop.spring.apirest.dto.VersaoGuilda;
+import workshop.spring.apirest.event.AventureiroRemovidoEvent;
+import workshop.spring.apirest.event.AventureiroSalvoEvent;
+import workshop.spring.apirest.event.AventureirosCriadosEmLoteEvent;
+import workshop.spring.apirest.event.XpDescarregadoEvent;
+import workshop.spring.apirest.repository.AventureiroRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 📸 LISTAGEM PRÉ-SERIALIZADA
+ *
+ * Modo opcional ({@code guilda.listagem.snapshot.enabled=true}) em que a lista completa de
+ * {@code GET /aventureiros/listar} fica pronta em memória, já convertida em JSON: um array de
+ * bytes puro e outro comprimido com gzip. Cada requisição só copia os bytes para a resposta,
+ * sem consultar o banco nem passar pelo Jackson.
+ *
+ * Funcionamento:
+ * 1. A lista é montada assim que a aplicação termina de subir
+ * 2. Cada escrita confirmada (eventos recebidos após o commit) marca a lista como suja
+ * 3. Uma thread própria reconstrói a lista {@code atraso-ms} depois da última escrita; uma
+ *    rajada de escritas vira uma única reconstrução
+ * 4. Com escritas sem pausa, a reconstrução acontece no máximo {@code idade-maxima-ms} depois
+ *    da primeira escrita pendente, então a defasagem tem limite
+ *
+ * Se a lista estiver suja há mais tempo que o limite (reconstrução lenta ou falhando),
+ * {@link #atual()} fica vazio e a listagem volta a ser lida do banco.
+ */
+@Component
+public class ListagemPreSerializada {
+
+    private static final Logger log = LoggerFactory.getLogger(ListagemPreSerializada.class);
+
+    private final AventureiroRepository aventureiroRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final LeituraDasPropriasEscritas leituraPropria;
+    private final boolean ativo;
+    private final long atrasoNanos;
+    private final long idadeMaximaNanos;
+    private final Timer tempoReconstrucao;
+
+    /**
+     * Thread que reconstrói a lista (null quando o modo está desligado).
+     */
+    private final ScheduledExecutorService agendador;
+
+    private volatile Instantaneo atual;
+
+    // Campos abaixo protegidos pelo monitor deste objeto (System.nanoTime(); 0 significa "nenhuma")
+    /** Escrita mais antiga que a lista publicada ainda não mostra. */
+    private long sujaDesde;
+    /** Escrita mais antiga ainda não coberta por uma reconstrução em andamento. */
+    private long primeiraEscritaPendente;
+    private long ultimaEscrita;
+    private boolean agendada;
+
+    /**
+     * @param aventureiroRepository Lê as fichas e a marca de mudança da guilda
+     * @param objectMapper O conversor JSON configurado pelo Spring Boot (o mesmo das respostas)
+     * @param transactionManager Lista e marca são lidas na mesma transação somente leitura
+     * @param leituraPropria Leva a leitura para o banco primário: uma réplica atrasada publicaria
+     *                       uma lista antiga como se estivesse em dia
+     * @param meterRegistry Registro de métricas
+     * @param ativo Propriedade {@code guilda.listagem.snapshot.enabled} (padrão false)
+     * @param atrasoMs Propriedade {@code guilda.listagem.snapshot.atraso-ms} (padrão 100)
+     * @param idadeMaximaMs Propriedade {@code guilda.listagem.snapshot.idade-maxima-ms} (padrão 1000)
+     */
+    @Autowired
+    public ListagemPreSerializada(AventureiroRepository aventureiroRepository,
+                                  ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager,
+                                  LeituraDasPropriasEscritas leituraPropria,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${guilda.listagem.snapshot.enabled:false}") boolean ativo,
+                                  @Value("${guilda.listagem.snapshot.atraso-ms:100}") long atrasoMs,
+                                  @Value("${guilda.listagem.snapshot.idade-maxima-ms:1000}") long idadeMaximaMs) {
+        if (atrasoMs < 0 || idadeMaximaMs < atrasoMs) {
+            throw new IllegalArgumentException("A idade máxima da listagem deve ser maior ou igual ao atraso");
+        }
+        this.aventureiroRepository = aventureiroRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.leituraPropria = leituraPropria;
+        this.ativo = ativo;
+        this.atrasoNanos = TimeUnit.MILLISECONDS.toNanos(atrasoMs);
+        this.idadeMaximaNanos = TimeUnit.MILLISECONDS.toNanos(idadeMaximaMs);
+
+        this.tempoReconstrucao = Timer.builder("guilda.listagem.reconstrucao")
+                .description("Tempo para ler e serializar a listagem completa")
+                .register(meterRegistry);
+        Gauge.builder("guilda.listagem.idade", this, ListagemPreSerializada::idadeSegundos)
+                .description("Idade da listagem pré-serializada")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+
+        if (ativo) {
+            agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+                Thread thread = new Thread(tarefa, "listagem-pre-serializada");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            agendador = null;
+        }
+    }
+
+    /**
+     * Retorna a lista pronta, se ela estiver dentro do limite de defasagem.
+     *
+     * @return A lista serializada, ou vazio se o modo estiver desligado, a lista ainda não tiver
+     *         sido montada ou estiver suja há mais de {@code idade-maxima-ms}
+     */
+    public Optional<Instantaneo> atual() {
+        Instantaneo instantaneo = atual;
+        if (instantaneo == null) {
+            return Optional.empty();
+        }
+        synchronized (this) {
+            if (sujaDesde != 0 && System.nanoTime() - sujaDesde > idadeMaximaNanos) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(instantaneo);
+    }
+
+    /**
+     * Monta a lista assim que a aplicação termina de subir.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarNaInicializacao() {
+        if (!ativo) {
+            return;
+        }
+        agendador.execute(this::reconstruirComSeguranca);
+    }
+
+    /**
+     * Escritas confirmadas: todas apenas marcam a lista como suja (criação, alteração ou missão).
+     *
+     * @param evento Evento com o aventureiro salvo
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoSalvar(AventureiroSalvoEvent evento) {
+        marcarSuja();
+    }
+
+    /**
+     * @param evento Evento com os aventureiros criados
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoCriarEmLote(AventureirosCriadosEmLoteEvent evento) {
+        marcarSuja();
+    }
+
+    /**
+     * @param evento Evento com o ID do aventureiro
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoRemover(AventureiroRemovidoEvent evento) {
+        marcarSuja();
+    }
+
+    /**
+     * @param evento Evento com o XP gravado por ID
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoDescarregarXp(XpDescarregadoEvent evento) {
+        marcarSuja();
+    }
+
+    /**
+     * Registra uma escrita e, se ainda não houver, agenda a reconstrução.
+     */
+    private synchronized void marcarSuja() {
+        if (!ativo) {
+            return;
+        }
+        long agora = System.nanoTime();
+        ultimaEscrita = agora;
+        if (primeiraEscritaPendente == 0) {
+            primeiraEscritaPendente = agora;
+        }
+        if (sujaDesde == 0) {
+            sujaDesde = agora;
+        }
+        if (!agendada) {
+            agendada = true;
+            agendador.schedule(this::talvezReconstruir, atrasoNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Reconstrói a lista se as escritas pararam há {@code atraso-ms} ou se a primeira escrita
+     * pendente já atingiu {@code idade-maxima-ms}; senão, volta a agendar para o menor dos dois prazos.
+     */
+    private void talvezReconstruir() {
+        synchronized (this) {
+            long prazo = Math.min(ultimaEscrita + atrasoNanos, primeiraEscritaPendente + idadeMaximaNanos);
+            long espera = prazo - System.nanoTime();
+            if (espera > 0) {
+                agendador.schedule(this::talvezReconstruir, espera, TimeUnit.NANOSECONDS);
+                return;
+            }
+            agendada = false;
+        }
+        reconstruirComSeguranca();
+    }
+
+    /**
+     * Lê e serializa a lista. As escritas que chegarem durante a leitura marcam a lista
+     * como suja de novo e rendem outra reconstrução.
+     */
+    private void reconstruirComSeguranca() {
+        synchronized (this) {
+            primeiraEscritaPendente = 0;
+        }
+        try {
+            Instantaneo novo = tempoReconstrucao.record(this::montar);
+            synchronized (this) {
+                atual = novo;
+                // Só as escritas chegadas durante a leitura continuam fora da lista
+                sujaDesde = primeiraEscritaPendente;
+            }
+        } catch (RuntimeException e) {
+            // A lista antiga segue suja; passado o limite, a listagem volta a ser lida do banco
+            log.warn("Falha ao montar a listagem pré-serializada; nova tentativa na próxima escrita", e);
+        }
+    }
+
+    private Instantaneo montar() {
+        record Leitura(List<FichaAventureiro> fichas, VersaoGuilda versao) {
+        }
+        // No primário: a lista publicada limpa a marca de suja, então precisa conter as escritas já confirmadas
+        Leitura leitura = leituraPropria.noPrimario(() -> transactionTemplate.execute(status ->
+                new Leitura(aventureiroRepository.listarFichas(), aventureiroRepository.versaoGuilda())));
+
+        byte[] json = objectMapper.writeValueAsBytes(leitura.fichas());
+        ByteArrayOutputStream comprimido = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(comprimido)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Instantaneo(json, comprimido.toByteArray(), leitura.versao().etag(),
+                leitura.fichas().size(), System.nanoTime());
+    }
+
+    private double idadeSegundos() {
+        Instantaneo instantaneo = atual;
+        return instantaneo == null ? Double.NaN : instantaneo.idade().toNanos() / 1e9;
+    }
+
+    /**
+     * Para a thread de reconstrução ao encerrar a aplicação.
+     */
+    @PreDestroy
+    public void encerrar() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+        }
+    }
+
+    /**
+     * A lista serializada em um instante. Os arrays são compartilhados entre as
+     * requisições e nunca devem ser alterados.
+     *
+     * @param json Lista de {@link FichaAventureiro} em JSON (UTF-8)
+     * @param gzip O mesmo JSON comprimido com gzip
+     * @param etag ETag da lista, no mesmo formato de {@link VersaoGuilda#etag()}
+     * @param total Quantidade de aventureiros na lista
+     * @param geradoEmNanos Momento da montagem ({@link System#nanoTime()})
+     */
+    public record Instantaneo(byte[] json, byte[] gzip, String etag, int total, long geradoEmNanos) {
+
+        /**
+         * @return Tempo desde a montagem da lista
+         */
+        public Duration idade() {
+            return Duration.ofNanos(System.nanoTime() - geradoEmNanos);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package workshop.spring.apirest.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import workshop.spring.apirest.event.MissaoConcluidaEvent;
+
+/**
+ * 📜 DIÁRIO DE MISSÕES
+ *
+ * Escreve cada missão concluída no log (logger {@code guilda.missoes}), fora da thread
+ * da requisição. Além da mensagem, os dados vão como pares chave-valor do SLF4J, que
+ * viram campos próprios com o log estruturado do Spring Boot
+ * ({@code logging.structured.format.console=logstash}, por exemplo).
+ */
+@Component
+public class LogMissoes implements AssinanteMissoes {
+
+    private static final Logger log = LoggerFactory.getLogger("guilda.missoes");
+
+    @Override
+    public void receber(MissaoConcluidaEvent evento) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        log.atInfo()
+                .setMessage(evento.subiuNivel()
+                        ? "✨ {} ganhou {} XP na missão! 🎉 Subiu para o nível {}!"
+                        : "✨ {} ganhou {} XP na missão! (nível {})")
+                .addArgument(evento.nome())
+                .addArgument(evento.xpGanho())
+                .addArgument(evento.nivel())
+                .addKeyValue("aventureiro.id", evento.id())
+                .addKeyValue("aventureiro.classe", evento.classe())
+                .addKeyValue("missao.xp", evento.xpGanho())
+                .addKeyValue("aventureiro.nivel", evento.nivel())
+                .addKeyValue("aventureiro.xp", evento.xp())
+                .addKeyValue("missao.niveis", evento.niveisGanhos())
+                .log();
+    }
+}
@@ -0,0 +1,101 @@
+package workshop.spring.apirest.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import workshop.spring.apirest.dto.VersaoGuilda;
+import workshop.spring.apirest.event.AventureiroRemovidoEvent;
+import workshop.spring.apirest.event.AventureiroSalvoEvent;
+import workshop.spring.apirest.event.AventureirosCriadosEmLoteEvent;
+import workshop.spring.apirest.event.XpDescarregadoEvent;
+import workshop.spring.apirest.repository.AventureiroRepository;
+
+/**
+ * 🏷️ MARCADOR DE VERSÃO DA GUILDA
+ *
+ * Incrementa o contador da tabela {@code guilda_versao}, usado no ETag da listagem completa
+ * ({@link VersaoGuilda}), em toda transação que grava aventureiros.
+ *
+ * Toda escrita publica o seu evento dentro da própria transação. Diferente dos outros ouvintes,
+ * que esperam o commit, este recebe o evento na hora e agenda um único incremento por
+ * transação, feito logo antes do commit. Assim:
+ * - o incremento é confirmado ou desfeito junto com a escrita
+ * - a linha do contador fica bloqueada só entre o incremento e o commit, e os valores seguem
+ *   a ordem dos commits
+ * - um lote com muitos eventos incrementa uma vez só
+ *
+ * Um evento publicado fora de uma transação incrementa na hora, em uma transação própria.
+ */
+@Component
+public class MarcadorVersaoGuilda {
+
+    private final AventureiroRepository aventureiroRepository;
+
+    /**
+     * @param aventureiroRepository Grava o incremento do contador
+     */
+    @Autowired
+    public MarcadorVersaoGuilda(AventureiroRepository aventureiroRepository) {
+        this.aventureiroRepository = aventureiroRepository;
+    }
+
+    /**
+     * @param evento Evento com o aventureiro criado ou atualizado
+     */
+    @EventListener
+    public void aoSalvar(AventureiroSalvoEvent evento) {
+        marcarEscrita();
+    }
+
+    /**
+     * @param evento Evento com os aventureiros criados no bloco
+     */
+    @EventListener
+    public void aoCriarEmLote(AventureirosCriadosEmLoteEvent evento) {
+        marcarEscrita();
+    }
+
+    /**
+     * @param evento Evento com o ID do aventureiro
+     */
+    @EventListener
+    public void aoRemover(AventureiroRemovidoEvent evento) {
+        marcarEscrita();
+    }
+
+    /**
+     * @param evento Evento com o estado gravado por ID
+     */
+    @EventListener
+    public void aoDescarregarXp(XpDescarregadoEvent evento) {
+        marcarEscrita();
+    }
+
+    /**
+     * Agenda o incremento para antes do commit da transação atual, se ainda não houver um.
+     */
+    private void marcarEscrita() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            aventureiroRepository.incrementarVersaoGuilda();
+            return;
+        }
+        // As sincronizações são as da transação atual (uma REQUIRES_NEW tem as suas próprias)
+        if (TransactionSynchronizationManager.getSynchronizations().stream().anyMatch(Incremento.class::isInstance)) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new Incremento());
+    }
+
+    /**
+     * Incremento de uma transação, feito logo antes do commit.
+     */
+    private final class Incremento implements TransactionSynchronization {
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            aventureiroRepository.incrementarVersaoGuilda();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package workshop.spring.apirest.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.event.MissaoConcluidaEvent;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 📈 MÉTRICAS DAS MISSÕES
+ *
+ * Contadores de negócio das missões, separados pela classe do aventureiro (tag {@code classe}):
+ * - {@code guilda.missoes}: missões realizadas
+ * - {@code guilda.missoes.xp}: XP concedido
+ * - {@code guilda.missoes.niveis}: subidas de nível
+ *
+ * Os contadores de cada classe são criados uma única vez, no início; a missão só
+ * incrementa, sem procurar o medidor no registro a cada chamada. A missão conta depois do
+ * commit: uma transação desfeita não infla as métricas.
+ */
+@Component
+public class MetricasMissao {
+
+    private final Map<ClasseRPG, Counter> missoes = new EnumMap<>(ClasseRPG.class);
+    private final Map<ClasseRPG, Counter> xp = new EnumMap<>(ClasseRPG.class);
+    private final Map<ClasseRPG, Counter> niveis = new EnumMap<>(ClasseRPG.class);
+
+    /**
+     * @param meterRegistry Registro de métricas
+     */
+    @Autowired
+    public MetricasMissao(MeterRegistry meterRegistry) {
+        for (ClasseRPG classe : ClasseRPG.values()) {
+            String tag = classe.name();
+            missoes.put(classe, Counter.builder("guilda.missoes")
+                    .description("Missões realizadas")
+                    .tag("classe", tag)
+                    .register(meterRegistry));
+            xp.put(classe, Counter.builder("guilda.missoes.xp")
+                    .description("XP concedido nas missões")
+                    .tag("classe", tag)
+                    .register(meterRegistry));
+            niveis.put(classe, Counter.builder("guilda.missoes.niveis")
+                    .description("Subidas de nível nas missões")
+                    .tag("classe", tag)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Registra uma missão concluída.
+     *
+     * @param classe Classe do aventureiro
+     * @param xpGanho XP conquistado na missão
+     * @param niveisGanhos Quantidade de níveis que o aventureiro subiu (normalmente 0 ou 1)
+     */
+    public void registrar(ClasseRPG classe, int xpGanho, int niveisGanhos) {
+        missoes.get(classe).increment();
+        xp.get(classe).increment(xpGanho);
+        if (niveisGanhos > 0) {
+            niveis.get(classe).increment(niveisGanhos);
+        }
+    }
+
+    /**
+     * Missão confirmada no banco (ou acumulada, no modo write-behind).
+     *
+     * @param evento Missão concluída
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoConcluirMissao(MissaoConcluidaEvent evento) {
+        registrar(evento.classe(), evento.xpGanho(), evento.niveisGanhos());
+    }
+}
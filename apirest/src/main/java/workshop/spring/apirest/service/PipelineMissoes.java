@@ -0,0 +1,231 @@
+package workshop.spring.apirest.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import workshop.spring.apirest.event.MissaoConcluidaEvent;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 📯 PIPELINE DE MISSÕES
+ *
+ * Leva as missões concluídas da thread da requisição até os {@link AssinanteMissoes}
+ * (o log, por exemplo), sem que a missão espere por eles.
+ *
+ * Como funciona:
+ * - As missões chegam depois do commit ({@link #aoConcluirMissao}): uma transação desfeita
+ *   não vai para o log
+ * - {@link #publicar} só coloca o evento em uma fila circular de tamanho fixo e sem locks
+ *   ({@link AnelEventos}); várias requisições podem publicar ao mesmo tempo
+ * - Uma única thread ({@code pipeline-missoes}) retira os eventos e chama os assinantes; com
+ *   a fila vazia ela fica estacionada, e quem publica a acorda
+ * - Com a fila cheia, vale a {@link PoliticaTransbordo} configurada
+ *
+ * Propriedades:
+ * - {@code guilda.eventos.capacidade}: tamanho da fila (padrão 8192)
+ * - {@code guilda.eventos.politica}: DESCARTAR (padrão), BLOQUEAR ou AMOSTRAR
+ * - {@code guilda.eventos.amostragem}: no modo AMOSTRAR, aceita um a cada N eventos (padrão 10)
+ *
+ * Métricas:
+ * - {@code guilda.eventos.publicados}: eventos aceitos na fila
+ * - {@code guilda.eventos.descartados}: eventos perdidos, com a tag {@code motivo}
+ *   (fila-cheia, amostragem ou encerrado)
+ * - {@code guilda.eventos.pendentes}: eventos na fila
+ * - {@code guilda.eventos.falhas}: exceções lançadas pelos assinantes
+ */
+@Component
+public class PipelineMissoes {
+
+    private static final Logger log = LoggerFactory.getLogger(PipelineMissoes.class);
+
+    /**
+     * Pausa de quem publica no modo BLOQUEAR, enquanto a fila está cheia.
+     */
+    private static final long ESPERA_FILA_CHEIA_NS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AnelEventos<MissaoConcluidaEvent> fila;
+    private final List<AssinanteMissoes> assinantes;
+    private final PoliticaTransbordo politica;
+    private final int amostragem;
+    private final int limiarAmostragem;
+
+    /**
+     * Conta os eventos que chegam com a fila acima do limiar, para escolher a amostra.
+     */
+    private final AtomicLong candidatosAmostra = new AtomicLong();
+
+    private final Counter publicados;
+    private final Counter descartadosFilaCheia;
+    private final Counter descartadosAmostragem;
+    private final Counter descartadosEncerrado;
+    private final Counter falhas;
+
+    private final Thread consumidor;
+    private volatile boolean rodando = true;
+
+    /**
+     * Ligado enquanto o consumidor está (ou vai ficar) estacionado com a fila vazia.
+     */
+    private volatile boolean consumidorParado;
+
+    /**
+     * @param assinantes Beans que recebem os eventos, chamados na ordem da lista
+     * @param meterRegistry Registro de métricas
+     * @param capacidade Propriedade {@code guilda.eventos.capacidade} (padrão 8192)
+     * @param politica Propriedade {@code guilda.eventos.politica} (padrão DESCARTAR)
+     * @param amostragem Propriedade {@code guilda.eventos.amostragem} (padrão 10)
+     * @throws IllegalArgumentException se a capacidade ou a amostragem forem inválidas
+     */
+    @Autowired
+    public PipelineMissoes(List<AssinanteMissoes> assinantes,
+                           MeterRegistry meterRegistry,
+                           @Value("${guilda.eventos.capacidade:8192}") int capacidade,
+                           @Value("${guilda.eventos.politica:DESCARTAR}") PoliticaTransbordo politica,
+                           @Value("${guilda.eventos.amostragem:10}") int amostragem) {
+        if (amostragem < 1) {
+            throw new IllegalArgumentException("Amostragem deve ser pelo menos 1: " + amostragem);
+        }
+        this.fila = new AnelEventos<>(capacidade);
+        this.assinantes = List.copyOf(assinantes);
+        this.politica = politica;
+        this.amostragem = amostragem;
+        this.limiarAmostragem = fila.capacidade() / 2;
+
+        this.publicados = Counter.builder("guilda.eventos.publicados")
+                .description("Eventos de missão aceitos na fila")
+                .register(meterRegistry);
+        this.descartadosFilaCheia = descartados(meterRegistry, "fila-cheia");
+        this.descartadosAmostragem = descartados(meterRegistry, "amostragem");
+        this.descartadosEncerrado = descartados(meterRegistry, "encerrado");
+        this.falhas = Counter.builder("guilda.eventos.falhas")
+                .description("Exceções lançadas pelos assinantes do pipeline de missões")
+                .register(meterRegistry);
+        Gauge.builder("guilda.eventos.pendentes", fila, AnelEventos::tamanho)
+                .description("Eventos de missão aguardando o consumidor")
+                .register(meterRegistry);
+
+        this.consumidor = new Thread(this::consumir, "pipeline-missoes");
+        this.consumidor.setDaemon(true);
+        this.consumidor.start();
+    }
+
+    private static Counter descartados(MeterRegistry meterRegistry, String motivo) {
+        return Counter.builder("guilda.eventos.descartados")
+                .description("Eventos de missão perdidos")
+                .tag("motivo", motivo)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publica uma missão concluída. Não espera pelos assinantes; no modo BLOQUEAR,
+     * espera apenas se a fila estiver cheia.
+     *
+     * @param evento Missão concluída
+     * @return true se o evento entrou na fila
+     */
+    public boolean publicar(MissaoConcluidaEvent evento) {
+        if (!rodando) {
+            descartadosEncerrado.increment();
+            return false;
+        }
+        if (politica == PoliticaTransbordo.AMOSTRAR && fila.tamanho() >= limiarAmostragem
+                && candidatosAmostra.incrementAndGet() % amostragem != 0) {
+            descartadosAmostragem.increment();
+            return false;
+        }
+        while (!fila.oferecer(evento)) {
+            if (politica != PoliticaTransbordo.BLOQUEAR) {
+                descartadosFilaCheia.increment();
+                return false;
+            }
+            if (!rodando) {
+                descartadosEncerrado.increment();
+                return false;
+            }
+            LockSupport.parkNanos(ESPERA_FILA_CHEIA_NS);
+        }
+        publicados.increment();
+        if (consumidorParado) {
+            LockSupport.unpark(consumidor);
+        }
+        return true;
+    }
+
+    /**
+     * Missão confirmada: entra no pipeline.
+     *
+     * @param evento Missão concluída
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoConcluirMissao(MissaoConcluidaEvent evento) {
+        publicar(evento);
+    }
+
+    /**
+     * @return Quantidade aproximada de eventos aguardando o consumidor
+     */
+    public int getPendentes() {
+        return fila.tamanho();
+    }
+
+    /**
+     * Laço da thread consumidora. Ao encerrar, entrega o que ainda estiver na fila.
+     */
+    private void consumir() {
+        while (true) {
+            MissaoConcluidaEvent evento = fila.retirar();
+            if (evento != null) {
+                entregar(evento);
+            } else if (rodando) {
+                // Marca antes de conferir a fila de novo: ou o consumidor vê o evento recém-publicado,
+                // ou quem publicou vê a marca e o acorda
+                consumidorParado = true;
+                if (fila.tamanho() == 0 && rodando) {
+                    LockSupport.park(this);
+                }
+                consumidorParado = false;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void entregar(MissaoConcluidaEvent evento) {
+        for (AssinanteMissoes assinante : assinantes) {
+            try {
+                assinante.receber(evento);
+            } catch (RuntimeException e) {
+                // Um assinante com defeito não pode parar o pipeline
+                falhas.increment();
+                log.warn("Assinante {} falhou ao receber a missão do aventureiro {}",
+                        assinante.getClass().getSimpleName(), evento.id(), e);
+            }
+        }
+    }
+
+    /**
+     * Ao encerrar a aplicação, para de aceitar eventos e espera o consumidor esvaziar a fila.
+     *
+     * @throws InterruptedException se o encerramento for interrompido
+     */
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        rodando = false;
+        LockSupport.unpark(consumidor);
+        consumidor.join(TimeUnit.SECONDS.toMillis(5));
+        if (consumidor.isAlive()) {
+            log.warn("Pipeline de missões encerrado com {} evento(s) ainda na fila", fila.tamanho());
+        }
+    }
+}
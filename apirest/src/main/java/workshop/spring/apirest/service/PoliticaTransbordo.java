@@ -0,0 +1,24 @@
+package workshop.spring.apirest.service;
+
+/**
+ * O que o {@link PipelineMissoes} faz com um evento quando a fila não tem espaço.
+ */
+public enum PoliticaTransbordo {
+
+    /**
+     * Descarta o evento e conta o descarte. A missão nunca espera.
+     */
+    DESCARTAR,
+
+    /**
+     * Espera até o consumidor abrir espaço. Nenhum evento se perde, mas a missão fica
+     * tão lenta quanto o consumidor.
+     */
+    BLOQUEAR,
+
+    /**
+     * A partir de meia fila, aceita só um a cada N eventos
+     * ({@code guilda.eventos.amostragem}); com a fila cheia, descarta.
+     */
+    AMOSTRAR
+}
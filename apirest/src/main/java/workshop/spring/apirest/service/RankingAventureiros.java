@@ -0,0 +1,278 @@
+package workshop.spring.apirest.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import workshop.spring.apirest.dto.ColocacaoAventureiro;
+import workshop.spring.apirest.dto.PosicaoRanking;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.event.AventureiroRemovidoEvent;
+import workshop.spring.apirest.event.AventureiroSalvoEvent;
+import workshop.spring.apirest.event.AventureirosCriadosEmLoteEvent;
+import workshop.spring.apirest.event.XpDescarregadoEvent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * 🏆 RANKING DE AVENTUREIROS
+ *
+ * Mantém o ranking (maior nível, depois maior XP; empates ficam com o menor ID) sempre
+ * pronto em memória, em vez de ordenar a tabela inteira a cada consulta.
+ *
+ * Estruturas:
+ * - Um {@link ConcurrentSkipListSet} com todos os aventureiros, já na ordem do ranking
+ * - Um conjunto igual para cada classe, em um {@link EnumMap}
+ * - Um mapa ID → entrada atual, para achar a posição antiga de quem mudou
+ *
+ * Custos:
+ * - Primeiros K do ranking: O(K), basta percorrer o início do conjunto
+ * - Alteração de um aventureiro: O(log n), uma remoção e uma inserção
+ * - Posição de um aventureiro: proporcional à posição (conta quem está à frente)
+ *
+ * O ranking é carregado do banco ao iniciar a aplicação e mantido pelos eventos de
+ * alteração (recebidos após o commit). Enquanto não termina de carregar, ou se estiver
+ * desligado, as consultas vão ao banco. As exclusões feitas durante a carga são lembradas,
+ * para que a leitura da tabela, que pode chegar depois delas, não traga o herói de volta.
+ *
+ * Desligado por padrão ({@code guilda.ranking.enabled=true} para ligar): todos os aventureiros
+ * ficam em memória, o que só compensa enquanto a tabela cabe folgada no heap.
+ */
+@Component
+public class RankingAventureiros {
+
+    private static final Logger log = LoggerFactory.getLogger(RankingAventureiros.class);
+
+    /**
+     * Ordem do ranking: nível decrescente, XP decrescente e ID crescente.
+     */
+    private static final Comparator<Entrada> ORDEM = Comparator
+            .comparingInt(Entrada::nivel).reversed()
+            .thenComparing(Comparator.comparingInt(Entrada::xp).reversed())
+            .thenComparingLong(Entrada::id);
+
+    private final boolean ativo;
+    private final LeitorAventureiros leitorAventureiros;
+
+    private final ConcurrentSkipListSet<Entrada> geral = new ConcurrentSkipListSet<>(ORDEM);
+    private final EnumMap<ClasseRPG, ConcurrentSkipListSet<Entrada>> porClasse = new EnumMap<>(ClasseRPG.class);
+
+    /**
+     * Entrada atual de cada aventureiro. As alterações de um mesmo aventureiro passam
+     * por {@code compute} neste mapa, então nunca se misturam.
+     */
+    private final ConcurrentHashMap<Long, Entrada> atuais = new ConcurrentHashMap<>();
+
+    /**
+     * IDs excluídos enquanto o ranking carrega, que a leitura da tabela não deve trazer de volta.
+     */
+    private final Set<Long> removidosNaCarga = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean pronto;
+
+    /**
+     * @param leitorAventureiros Lê a tabela em blocos para carregar o ranking
+     * @param ativo Propriedade {@code guilda.ranking.enabled} (padrão false)
+     */
+    @Autowired
+    public RankingAventureiros(LeitorAventureiros leitorAventureiros,
+                               @Value("${guilda.ranking.enabled:false}") boolean ativo) {
+        this.leitorAventureiros = leitorAventureiros;
+        this.ativo = ativo;
+        for (ClasseRPG classe : ClasseRPG.values()) {
+            porClasse.put(classe, new ConcurrentSkipListSet<>(ORDEM));
+        }
+    }
+
+    /**
+     * Indica se o ranking está ligado e já carregado.
+     *
+     * @return true se as consultas podem ser respondidas em memória
+     */
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    /**
+     * Retorna os primeiros aventureiros do ranking.
+     *
+     * @param top Quantidade de aventureiros
+     * @param classe Classe para um ranking só da classe, ou null para o ranking geral
+     * @return Os aventureiros em ordem, com a posição de cada um
+     */
+    public List<PosicaoRanking> primeiros(int top, ClasseRPG classe) {
+        ConcurrentSkipListSet<Entrada> conjunto = classe == null ? geral : porClasse.get(classe);
+        List<PosicaoRanking> posicoes = new ArrayList<>(top);
+        Iterator<Entrada> iterador = conjunto.iterator();
+        while (iterador.hasNext() && posicoes.size() < top) {
+            Entrada entrada = iterador.next();
+            posicoes.add(new PosicaoRanking(posicoes.size() + 1, entrada.id(), entrada.nome(),
+                    entrada.classe(), entrada.nivel(), entrada.xp()));
+        }
+        return posicoes;
+    }
+
+    /**
+     * Retorna a colocação de um aventureiro no ranking geral e no da sua classe.
+     *
+     * @param id ID do aventureiro
+     * @return A colocação, ou vazio se o aventureiro não existir
+     */
+    public Optional<ColocacaoAventureiro> colocacao(Long id) {
+        Entrada entrada = atuais.get(id);
+        if (entrada == null) {
+            return Optional.empty();
+        }
+        // headSet(...).size() percorre quem está à frente: custo proporcional à posição
+        long posicaoGeral = geral.headSet(entrada).size() + 1;
+        long posicaoNaClasse = porClasse.get(entrada.classe()).headSet(entrada).size() + 1;
+        return Optional.of(new ColocacaoAventureiro(entrada.id(), entrada.nome(), entrada.classe(),
+                entrada.nivel(), entrada.xp(), posicaoGeral, posicaoNaClasse));
+    }
+
+    /**
+     * Carrega o ranking assim que a aplicação termina de subir.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarNaInicializacao() {
+        if (!ativo) {
+            return;
+        }
+        long lidos = leitorAventureiros.percorrerNoPrimario(this::carregar);
+        pronto = true;
+        removidosNaCarga.clear();
+        log.info("Ranking carregado: {} aventureiro(s)", lidos);
+    }
+
+    /**
+     * Aplica um aventureiro criado ou alterado.
+     *
+     * @param evento Evento com o aventureiro salvo
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoSalvar(AventureiroSalvoEvent evento) {
+        if (ativo) {
+            gravar(evento.aventureiro());
+        }
+    }
+
+    /**
+     * Aplica um bloco da criação em lote.
+     *
+     * @param evento Evento com os aventureiros criados
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoCriarEmLote(AventureirosCriadosEmLoteEvent evento) {
+        if (ativo) {
+            evento.aventureiros().forEach(this::gravar);
+        }
+    }
+
+    /**
+     * Tira do ranking um aventureiro excluído.
+     *
+     * @param evento Evento com o ID do aventureiro
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoRemover(AventureiroRemovidoEvent evento) {
+        if (!ativo) {
+            return;
+        }
+        // Sob o compute da mesma chave que a carga usa: ou a carga já gravou e a entrada sai
+        // aqui, ou ela ainda vai chegar e encontra o ID nos removidos
+        atuais.compute(evento.id(), (id, antiga) -> {
+            if (!pronto) {
+                removidosNaCarga.add(id);
+            }
+            if (antiga != null) {
+                retirar(antiga);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Aplica o nível e o XP gravados pelo modo write-behind.
+     *
+     * @param evento Evento com o estado gravado por ID
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoDescarregarXp(XpDescarregadoEvent evento) {
+        if (!ativo) {
+            return;
+        }
+        evento.progressoPorId().forEach((id, progresso) -> atuais.computeIfPresent(id, (chave, antiga) -> {
+            if (antiga.versao() >= progresso.versao()) {
+                return antiga;
+            }
+            Entrada nova = new Entrada(antiga.id(), antiga.nome(), antiga.classe(),
+                    progresso.nivel(), progresso.xp(), progresso.versao());
+            retirar(antiga);
+            inserir(nova);
+            return nova;
+        }));
+    }
+
+    /**
+     * Grava um aventureiro lido do banco durante a carga, a menos que ele já tenha sido excluído.
+     */
+    private void carregar(Aventureiro aventureiro) {
+        gravar(aventureiro, true);
+    }
+
+    private void gravar(Aventureiro aventureiro) {
+        gravar(aventureiro, false);
+    }
+
+    /**
+     * Grava o estado de um aventureiro, trocando a entrada antiga pela nova.
+     * Estados mais antigos do que o guardado são ignorados.
+     */
+    private void gravar(Aventureiro aventureiro, boolean daCarga) {
+        long versao = aventureiro.getVersao() == null ? 0 : aventureiro.getVersao();
+        Entrada nova = new Entrada(aventureiro.getId(), aventureiro.getNome(), aventureiro.getClasse(),
+                aventureiro.getNivel(), aventureiro.getXp(), versao);
+        atuais.compute(nova.id(), (id, antiga) -> {
+            if (daCarga && removidosNaCarga.contains(id)) {
+                return antiga;
+            }
+            if (antiga != null) {
+                if (antiga.versao() > versao) {
+                    return antiga;
+                }
+                retirar(antiga);
+            }
+            inserir(nova);
+            return nova;
+        });
+    }
+
+    private void inserir(Entrada entrada) {
+        geral.add(entrada);
+        porClasse.get(entrada.classe()).add(entrada);
+    }
+
+    private void retirar(Entrada entrada) {
+        geral.remove(entrada);
+        porClasse.get(entrada.classe()).remove(entrada);
+    }
+
+    /**
+     * Posição de um aventureiro no ranking. Só nível, XP e ID participam da ordem.
+     */
+    private record Entrada(long id, String nome, ClasseRPG classe, int nivel, int xp, long versao) {
+    }
+}
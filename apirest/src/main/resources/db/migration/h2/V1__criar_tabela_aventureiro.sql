@@ -0,0 +1,10 @@
+-- Tabela 'aventureiro' no H2 (testes e perfil "perf") como o Hibernate a criava com
+-- ddl-auto=update, antes das migrações. Mesmo caminho da pasta do MySQL: V1, V2 e V3.
+CREATE TABLE IF NOT EXISTS aventureiro (
+    id     BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    classe ENUM ('ARQUEIRO','BARDO','BRUXO','CLERIGO','GUERREIRO','LADINO','MAGO') NOT NULL,
+    nivel  INTEGER      NOT NULL,
+    nome   VARCHAR(255) NOT NULL,
+    xp     INTEGER      NOT NULL,
+    PRIMARY KEY (id)
+);
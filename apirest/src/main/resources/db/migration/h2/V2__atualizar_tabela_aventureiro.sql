@@ -0,0 +1,19 @@
+-- Leva a tabela da V1 ao esquema atual da entidade Aventureiro (mesmas mudanças da pasta
+-- do MySQL; aqui a sequência é nativa).
+ALTER TABLE aventureiro ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE aventureiro ADD COLUMN versao BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE aventureiro ADD COLUMN atualizado_em TIMESTAMP(6) WITH TIME ZONE;
+
+-- Nomes repetidos de antes do índice único: o mais antigo (menor ID) fica com o nome e os
+-- outros ganham o ID no fim ("Gandalf #42"), como na pasta do MySQL
+UPDATE aventureiro a
+SET nome = CONCAT(LEFT(nome, 255 - LENGTH(CONCAT(' #', id))), ' #', id)
+WHERE id > (SELECT MIN(b.id) FROM aventureiro b WHERE b.nome = a.nome);
+
+ALTER TABLE aventureiro ADD CONSTRAINT uk_aventureiro_nome UNIQUE (nome);
+
+CREATE INDEX idx_aventureiro_classe_nivel_xp ON aventureiro (classe, nivel, xp);
+CREATE INDEX idx_aventureiro_nivel_xp ON aventureiro (nivel, xp);
+CREATE INDEX idx_aventureiro_atualizado_em ON aventureiro (atualizado_em);
+
+CREATE SEQUENCE aventureiro_seq START WITH 1 INCREMENT BY 50;
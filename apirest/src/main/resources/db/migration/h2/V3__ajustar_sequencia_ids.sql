@@ -0,0 +1,3 @@
+-- Mesmo ajuste da pasta do MySQL: com registros vindos do auto-incremento, a sequência
+-- passa a começar pelo menos 50 acima do maior ID existente, para não gerar IDs repetidos.
+ALTER SEQUENCE aventureiro_seq RESTART WITH (SELECT COALESCE(MAX(id) + 50, 1) FROM aventureiro);
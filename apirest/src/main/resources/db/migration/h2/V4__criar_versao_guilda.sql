@@ -0,0 +1,8 @@
+-- Mesmo contador da pasta do MySQL: uma linha incrementada por toda transação que grava aventureiros.
+CREATE TABLE guilda_versao (
+    id     TINYINT NOT NULL,
+    versao BIGINT  NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO guilda_versao VALUES (1, 0);
@@ -0,0 +1,11 @@
+-- Tabela 'aventureiro' como o Hibernate a criava com ddl-auto=update, antes das migrações.
+-- Bancos dessa época já têm a tabela: o IF NOT EXISTS a mantém e a V2 a atualiza.
+-- Bancos novos passam pelo mesmo caminho, então todos terminam com o mesmo esquema.
+CREATE TABLE IF NOT EXISTS aventureiro (
+    id     BIGINT       NOT NULL AUTO_INCREMENT,
+    classe ENUM ('ARQUEIRO','BARDO','BRUXO','CLERIGO','GUERREIRO','LADINO','MAGO') NOT NULL,
+    nivel  INT          NOT NULL,
+    nome   VARCHAR(255) NOT NULL,
+    xp     INT          NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,30 @@
+-- Leva a tabela da V1 ao esquema atual da entidade Aventureiro.
+-- Os nomes dos índices são as constantes de Aventureiro (INDICE_*).
+-- IDs passam a vir da sequência (sem auto-incremento); registros antigos começam na versão 0.
+
+-- O nome passa a ser único, mas antes nada impedia nomes repetidos: o aventureiro mais antigo
+-- (menor ID) fica com o nome e os outros ganham o ID no fim ("Gandalf #42"), cortando o nome
+-- se preciso para caber nos 255 caracteres. A comparação usa a collation da coluna, a mesma
+-- do índice único.
+UPDATE aventureiro a
+    JOIN (SELECT nome, MIN(id) AS primeiro FROM aventureiro GROUP BY nome HAVING COUNT(*) > 1) repetido
+      ON a.nome = repetido.nome AND a.id <> repetido.primeiro
+SET a.nome = CONCAT(LEFT(a.nome, 255 - LENGTH(CONCAT(' #', a.id))), ' #', a.id);
+
+ALTER TABLE aventureiro
+    MODIFY id BIGINT NOT NULL,
+    ADD COLUMN versao BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN atualizado_em DATETIME(6),
+    ADD CONSTRAINT uk_aventureiro_nome UNIQUE (nome);
+
+CREATE INDEX idx_aventureiro_classe_nivel_xp ON aventureiro (classe, nivel, xp);
+CREATE INDEX idx_aventureiro_nivel_xp ON aventureiro (nivel, xp);
+CREATE INDEX idx_aventureiro_atualizado_em ON aventureiro (atualizado_em);
+
+-- O MySQL não tem sequências: a 'aventureiro_seq' é emulada por uma tabela de uma linha
+-- (ajustada ao maior ID existente pela V3)
+CREATE TABLE aventureiro_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO aventureiro_seq VALUES (1);
@@ -0,0 +1,7 @@
+-- No MySQL a sequência 'aventureiro_seq' é emulada por uma tabela de uma linha.
+-- O Hibernate usa o valor lido como o fim de um bloco de 50 IDs, então o valor
+-- precisa ficar pelo menos 50 acima do maior ID existente para não gerar IDs repetidos
+-- (importante para bancos criados quando o ID ainda era auto-incremento).
+-- Antes das migrações este ajuste rodava a cada partida; agora roda uma única vez,
+-- inclusive nos bancos antigos, que recebem a V1 e a V2 depois do baseline (versão 0).
+UPDATE aventureiro_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 50 FROM aventureiro));
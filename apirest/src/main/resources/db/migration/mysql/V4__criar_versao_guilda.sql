@@ -0,0 +1,11 @@
+-- Contador de versão da guilda, usado no ETag da listagem completa (ver MarcadorVersaoGuilda).
+-- Toda transação que grava aventureiros incrementa a única linha antes do commit: como a linha
+-- fica bloqueada até lá, os valores seguem a ordem dos commits, ao contrário do horário de
+-- atualizado_em, que é marcado antes do commit.
+CREATE TABLE guilda_versao (
+    id     TINYINT NOT NULL,
+    versao BIGINT  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+INSERT INTO guilda_versao VALUES (1, 0);
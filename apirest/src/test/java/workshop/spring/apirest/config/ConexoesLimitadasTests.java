@@ -0,0 +1,41 @@
+package workshop.spring.apirest.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConexoesLimitadasTests {
+
+	private final ConexoesLimitadas conexoes = new ConexoesLimitadas(
+			new DriverManagerDataSource("jdbc:h2:mem:conexoes-limitadas"), 1, 50);
+
+	@Test
+	void esperaUmaVagaEDesisteAposOTempoMaximo() throws Exception {
+		try (Connection primeira = conexoes.getConnection()) {
+			assertThat(primeira.isValid(1)).isTrue();
+
+			assertThatThrownBy(conexoes::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+		}
+
+		try (Connection segunda = conexoes.getConnection()) {
+			assertThat(segunda.isValid(1)).isTrue();
+		}
+	}
+
+	@Test
+	void fecharDuasVezesDevolveSoUmaVaga() throws Exception {
+		Connection conexao = conexoes.getConnection();
+		conexao.close();
+		conexao.close();
+
+		try (Connection outra = conexoes.getConnection()) {
+			assertThatThrownBy(conexoes::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+		}
+	}
+
+}
@@ -0,0 +1,178 @@
+package workshop.spring.apirest.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.repository.AventureiroRepository;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Banco lento só nas escritas: cada INSERT/UPDATE/DELETE espera 300 ms antes de executar.
+// A latência alvo das leituras é folgada para que a primeira requisição (JIT frio) não a reduza
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"guilda.limite-adaptativo.enabled=true",
+		"guilda.limite-adaptativo.leitura.latencia-alvo-ms=5000",
+		"guilda.limite-adaptativo.escrita.inicial=4",
+		"guilda.limite-adaptativo.escrita.maximo=8",
+		"guilda.limite-adaptativo.escrita.latencia-alvo-ms=100",
+		"guilda.limite-adaptativo.retry-after-segundos=1"
+})
+class LimiteAdaptativoTests {
+
+	private static final long ATRASO_ESCRITA_MS = 300;
+
+	@LocalServerPort
+	private int porta;
+
+	@Autowired
+	private LimiteAdaptativo limiteAdaptativo;
+
+	@Autowired
+	private AventureiroRepository aventureiroRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+	@Test
+	void recusaEscritasExcedentesEContinuaServindoLeituras() throws Exception {
+		Long id = aventureiroRepository.save(new Aventureiro("Legolas", ClasseRPG.ARQUEIRO)).getId();
+
+		List<CompletableFuture<HttpResponse<String>>> escritas = new ArrayList<>();
+		for (int i = 0; i < 12; i++) {
+			escritas.add(httpClient.sendAsync(HttpRequest.newBuilder(uri("/aventureiros/criar"))
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString("{\"nome\": \"Recruta " + i + "\", \"classe\": \"GUERREIRO\"}"))
+					.build(), HttpResponse.BodyHandlers.ofString()));
+		}
+		// Enquanto as escritas esperam o banco, as leituras seguem respondendo
+		for (int i = 0; i < 10; i++) {
+			HttpResponse<String> leitura = httpClient.send(HttpRequest.newBuilder(uri("/aventureiros/buscar/id/" + id)).build(),
+					HttpResponse.BodyHandlers.ofString());
+			assertThat(leitura.statusCode()).isEqualTo(200);
+		}
+
+		int criadas = 0;
+		int recusadas = 0;
+		for (CompletableFuture<HttpResponse<String>> escrita : escritas) {
+			HttpResponse<String> resposta = escrita.join();
+			if (resposta.statusCode() == 201) {
+				criadas++;
+			} else {
+				assertThat(resposta.statusCode()).isEqualTo(503);
+				assertThat(resposta.headers().firstValue("Retry-After")).hasValue("1");
+				recusadas++;
+			}
+		}
+		assertThat(criadas).isBetween(1, 4);
+		assertThat(recusadas).isGreaterThanOrEqualTo(6);
+
+		// As escritas aceitas passaram da latência alvo: o limite das escritas caiu, o das leituras não
+		assertThat(limiteAdaptativo.getLimiteEscrita()).isLessThan(4);
+		assertThat(limiteAdaptativo.getLimiteLeitura()).isEqualTo(50);
+		assertThat(meterRegistry.get("guilda.limite.rejeicoes").tag("tipo", "escrita").functionCounter().count())
+				.isEqualTo(recusadas);
+		assertThat(meterRegistry.get("guilda.limite.rejeicoes").tag("tipo", "leitura").functionCounter().count())
+				.isZero();
+		assertThat(meterRegistry.get("guilda.limite.concorrencia").tag("tipo", "escrita").gauge().value())
+				.isEqualTo(limiteAdaptativo.getLimiteEscrita());
+	}
+
+	@Test
+	void loteLentoNaoReduzOLimite() throws Exception {
+		int limiteAntes = limiteAdaptativo.getLimiteEscrita();
+
+		// O INSERT do lote passa da latência alvo das escritas, mas o tempo de um lote cresce com o tamanho dele
+		HttpResponse<String> resposta = httpClient.send(HttpRequest.newBuilder(uri("/aventureiros/criar/lote"))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString("""
+						[{"nome": "Gimli", "classe": "GUERREIRO"}, {"nome": "Boromir", "classe": "GUERREIRO"}]"""))
+				.build(), HttpResponse.BodyHandlers.ofString());
+
+		assertThat(resposta.statusCode()).isEqualTo(200);
+		assertThat(limiteAdaptativo.getLimiteEscrita()).isEqualTo(limiteAntes);
+		assertThat(meterRegistry.get("guilda.limite.ocupacao").tag("tipo", "escrita").gauge().value()).isZero();
+	}
+
+	private URI uri(String caminho) {
+		return URI.create("http://localhost:" + porta + caminho);
+	}
+
+	@TestConfiguration
+	static class BancoLento {
+
+		@Bean
+		static BeanPostProcessor atrasarEscritas() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					if (!(bean instanceof DataSource dataSource)) {
+						return bean;
+					}
+					return new DelegatingDataSource(dataSource) {
+						@Override
+						public Connection getConnection() throws SQLException {
+							return atrasar(super.getConnection());
+						}
+					};
+				}
+			};
+		}
+
+		private static Connection atrasar(Connection conexao) {
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+					(proxy, metodo, argumentos) -> {
+						Object resultado = invocar(conexao, metodo, argumentos);
+						if (metodo.getName().equals("prepareStatement") && escrita((String) argumentos[0])) {
+							PreparedStatement comando = (PreparedStatement) resultado;
+							return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+									new Class<?>[]{PreparedStatement.class}, (p, m, a) -> {
+										if (m.getName().startsWith("execute")) {
+											Thread.sleep(ATRASO_ESCRITA_MS);
+										}
+										return invocar(comando, m, a);
+									});
+						}
+						return resultado;
+					});
+		}
+
+		private static boolean escrita(String sql) {
+			String comando = sql.trim().toLowerCase(Locale.ROOT);
+			return comando.startsWith("insert") || comando.startsWith("update") || comando.startsWith("delete");
+		}
+
+		private static Object invocar(Object alvo, Method metodo, Object[] argumentos) throws Throwable {
+			try {
+				return metodo.invoke(alvo, argumentos);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+}
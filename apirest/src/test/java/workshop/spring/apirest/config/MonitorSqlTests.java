@@ -0,0 +1,73 @@
+package workshop.spring.apirest.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.repository.AventureiroRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// lenta-ms=0: todo comando conta como lento e vai para o log com os parâmetros
+@SpringBootTest(properties = {
+		"guilda.sql.monitor.enabled=true",
+		"guilda.sql.monitor.lenta-ms=0",
+		"guilda.cache.enabled=false",
+		"management.endpoints.web.exposure.include=consultas"
+})
+@AutoConfigureMockMvc
+@ExtendWith(OutputCaptureExtension.class)
+class MonitorSqlTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private AventureiroRepository aventureiroRepository;
+
+	@Autowired
+	private MonitorSql monitorSql;
+
+	@Test
+	void normalizaLiteraisEListas() {
+		assertThat(MonitorSql.normalizar("select a1_0.id  from aventureiro a1_0\n where a1_0.id in (1, 2,3) and nome = 'O''Neil' limit 10"))
+				.isEqualTo("select a1_0.id from aventureiro a1_0 where a1_0.id in (?...) and nome = ? limit ?");
+		assertThat(MonitorSql.normalizar("update aventureiro set xp = ? where id in (?, ?)"))
+				.isEqualTo("update aventureiro set xp = ? where id in (?...)");
+	}
+
+	@Test
+	void registraComandosComOrigemEParametros(CapturedOutput saida) throws Exception {
+		monitorSql.limpar();
+		aventureiroRepository.save(new Aventureiro("Gandalf", ClasseRPG.MAGO));
+		assertThat(aventureiroRepository.findByNome("Gandalf")).isNotNull();
+
+		assertThat(saida.getOut())
+				.contains("SQL lento:")
+				.contains("origem AventureiroRepository.findByNome")
+				.contains("'Gandalf'");
+		assertThat(monitorSql.maisLentas(50, "total"))
+				.anySatisfy(estatistica -> {
+					assertThat(estatistica.origem()).isEqualTo("AventureiroRepository.findByNome");
+					assertThat(estatistica.sql()).startsWith("select").contains("where");
+					assertThat(estatistica.execucoes()).isEqualTo(1);
+					assertThat(estatistica.lentas()).isEqualTo(1);
+				});
+
+		mockMvc.perform(get("/actuator/consultas").param("limite", "50").param("ordem", "max"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[*].origem").value(hasItem("AventureiroRepository.findByNome")));
+		mockMvc.perform(get("/actuator/consultas").param("ordem", "alfabetica"))
+				.andExpect(status().isBadRequest());
+	}
+}
@@ -0,0 +1,200 @@
+package workshop.spring.apirest.config;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import workshop.spring.apirest.repository.AventureiroRepository;
+import workshop.spring.apirest.service.LeitorAventureiros;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Dois bancos H2 em memória fazem o papel de primário e réplica. Não há replicação
+ * automática: {@link #replicar()} copia o primário para a réplica quando o teste pede,
+ * o que deixa visível de qual banco cada leitura saiu.
+ */
+@SpringBootTest(properties = {
+		"guilda.banco.replicas.enabled=true",
+		"guilda.banco.replicas.urls=" + ReplicasLeituraTests.URL_REPLICA + ";IFEXISTS=TRUE",
+		"guilda.banco.replicas.verificacao-ms=100",
+		"guilda.banco.replicas.leitura-propria.janela-ms=60000",
+		"guilda.cache.enabled=false",
+		"guilda.ranking.enabled=false",
+		"guilda.sql.monitor.enabled=true"
+})
+@AutoConfigureMockMvc
+class ReplicasLeituraTests {
+
+	static final String URL_REPLICA = "jdbc:h2:mem:guilda-replica-teste;MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+
+	// Mantém a réplica viva; IFEXISTS impede que o pool a recrie vazia depois de um SHUTDOWN
+	private static Connection replica = abrirReplica();
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ReplicasLeitura replicas;
+
+	@Autowired
+	private AventureiroRepository aventureiroRepository;
+
+	@Autowired
+	private LeitorAventureiros leitorAventureiros;
+
+	@Autowired
+	private MonitorSql monitorSql;
+
+	@BeforeEach
+	void limparGuilda() throws SQLException {
+		aventureiroRepository.deleteAll();
+		replicar();
+		await().atMost(Duration.ofSeconds(5)).until(() -> replicas.saudaveis() == 1);
+	}
+
+	@AfterAll
+	static void fecharReplica() throws SQLException {
+		replica.close();
+	}
+
+	@Test
+	void leiturasVaoParaAReplicaEEscritasParaOPrimario() throws Exception {
+		criar("Geralt", null);
+
+		// Ainda não replicado: a réplica não conhece o herói
+		mockMvc.perform(get("/aventureiros/buscar/nome/Geralt"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(""));
+
+		// A missão é uma escrita e acontece no primário, mesmo sem o herói na réplica
+		Long id = jdbcTemplate.queryForObject("SELECT id FROM aventureiro WHERE nome = 'Geralt'", Long.class);
+		mockMvc.perform(put("/aventureiros/missao/" + id))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.nome").value("Geralt"));
+
+		replicar();
+		mockMvc.perform(get("/aventureiros/buscar/nome/Geralt"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.nome").value("Geralt"));
+	}
+
+	@Test
+	void monitorMedeAsLeiturasDaReplica() throws Exception {
+		criar("Geralt", null);
+		monitorSql.limpar();
+
+		// Só a réplica responde a esta leitura (o herói ainda não foi replicado)
+		mockMvc.perform(get("/aventureiros/buscar/nome/Geralt"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(""));
+
+		assertThat(monitorSql.maisLentas(50, "total"))
+				.anySatisfy(estatistica -> assertThat(estatistica.origem()).startsWith("AventureiroRepository."));
+	}
+
+	@Test
+	void mesmaSessaoLeAsPropriasEscritas() throws Exception {
+		criar("Geralt", "sessao-1");
+
+		mockMvc.perform(get("/aventureiros/buscar/nome/Geralt").header("X-Guilda-Sessao", "sessao-1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.nome").value("Geralt"));
+		mockMvc.perform(get("/aventureiros/buscar/nome/Geralt").header("X-Guilda-Sessao", "sessao-2"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(""));
+	}
+
+	@Test
+	void cargasDasEstruturasEmMemoriaLeemDoPrimario() throws Exception {
+		criar("Geralt", null);
+
+		// Fora de uma requisição: a exportação lê da réplica, as cargas leem do primário
+		List<String> exportados = new ArrayList<>();
+		List<String> carregados = new ArrayList<>();
+		leitorAventureiros.percorrer(aventureiro -> exportados.add(aventureiro.getNome()));
+		leitorAventureiros.percorrerNoPrimario(aventureiro -> carregados.add(aventureiro.getNome()));
+
+		assertThat(exportados).isEmpty();
+		assertThat(carregados).containsExactly("Geralt");
+	}
+
+	@Test
+	void replicaForaDoArSaiDoRodizioEVolta() throws Exception {
+		criar("Geralt", null);
+		try (Statement comando = replica.createStatement()) {
+			comando.execute("SHUTDOWN");
+		}
+		await().atMost(Duration.ofSeconds(5)).until(() -> replicas.saudaveis() == 0);
+
+		// Sem réplicas, a leitura cai no primário
+		mockMvc.perform(get("/aventureiros/buscar/nome/Geralt"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.nome").value("Geralt"));
+
+		replica = abrirReplica();
+		replicar();
+		await().atMost(Duration.ofSeconds(5)).until(() -> replicas.saudaveis() == 1);
+
+		criar("Yennefer", null);
+		mockMvc.perform(get("/aventureiros/buscar/nome/Yennefer"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(""));
+	}
+
+	private void criar(String nome, String sessao) throws Exception {
+		MockHttpServletRequestBuilder requisicao = post("/aventureiros/criar")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"nome\": \"" + nome + "\", \"classe\": \"GUERREIRO\"}");
+		if (sessao != null) {
+			requisicao.header("X-Guilda-Sessao", sessao);
+		}
+		mockMvc.perform(requisicao).andExpect(status().isCreated());
+	}
+
+	/**
+	 * Copia esquema e dados do primário para a réplica.
+	 */
+	private void replicar() throws SQLException {
+		// Fora de uma transação, a conexão vem do primário
+		List<String> script = jdbcTemplate.queryForList("SCRIPT", String.class);
+		try (Statement comando = replica.createStatement()) {
+			comando.execute("DROP ALL OBJECTS");
+			for (String instrucao : script) {
+				comando.execute(instrucao);
+			}
+		}
+	}
+
+	private static Connection abrirReplica() {
+		try {
+			return DriverManager.getConnection(URL_REPLICA + ";DB_CLOSE_DELAY=-1", "sa", "");
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
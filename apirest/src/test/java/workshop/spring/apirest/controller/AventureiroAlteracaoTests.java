@@ -0,0 +1,109 @@
+package workshop.spring.apirest.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.repository.AventureiroRepository;
+import workshop.spring.apirest.service.AventureiroService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AventureiroAlteracaoTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private AventureiroService aventureiroService;
+
+	@Autowired
+	private AventureiroRepository aventureiroRepository;
+
+	@BeforeEach
+	void limparGuilda() {
+		aventureiroRepository.deleteAll();
+	}
+
+	@Test
+	void patchGravaSoOsCamposEnviados() throws Exception {
+		Long id = aventureiroService.create(new Aventureiro("Geralt", ClasseRPG.GUERREIRO)).getId();
+		aventureiroService.create(new Aventureiro("Yennefer", ClasseRPG.MAGO));
+		mockMvc.perform(put("/aventureiros/missao/" + id)).andExpect(status().isOk());
+		Aventureiro antes = aventureiroService.findById(id).orElseThrow();
+
+		alterar(id, "{\"classe\": \"BRUXO\", \"versao\": 1}")
+				.andExpect(status().isOk())
+				.andExpect(header().exists("ETag"))
+				.andExpect(jsonPath("$.classe").value("BRUXO"))
+				.andExpect(jsonPath("$.xp").value(antes.getXp()))
+				.andExpect(jsonPath("$.versao").value(2));
+		assertThat(aventureiroService.findById(id).orElseThrow().getClasse()).isEqualTo(ClasseRPG.BRUXO);
+
+		alterar(id, "{\"nivel\": 3, \"versao\": 1}").andExpect(status().isConflict());
+		alterar(id, "{\"nome\": \"Yennefer\"}").andExpect(status().isConflict());
+		alterar(id, "{\"nivel\": 0}").andExpect(status().isBadRequest());
+		alterar(id, "{\"nome\": \"   \"}").andExpect(status().isBadRequest());
+		alterar(id, "{}").andExpect(status().isBadRequest());
+		alterar(999_999L, "{\"nivel\": 3}").andExpect(status().isNotFound());
+
+		alterar(id, "{\"nome\": \"  Geralt de Rivia \", \"nivel\": 4, \"xp\": 0}")
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.nome").value("Geralt de Rivia"))
+				.andExpect(jsonPath("$.nivel").value(4))
+				.andExpect(jsonPath("$.classe").value("BRUXO"));
+	}
+
+	@Test
+	void loteAlteraVariosEReportaFalhas() throws Exception {
+		Long geralt = aventureiroService.create(new Aventureiro("Geralt", ClasseRPG.GUERREIRO)).getId();
+		Long jaskier = aventureiroService.create(new Aventureiro("Jaskier", ClasseRPG.BARDO)).getId();
+		Long ciri = aventureiroService.create(new Aventureiro("Ciri", ClasseRPG.LADINO)).getId();
+		Long triss = aventureiroService.create(new Aventureiro("Triss", ClasseRPG.MAGO)).getId();
+		String corpo = """
+				[
+				  {"id": %d, "nivel": 5},
+				  {"id": %d, "nivel": 7, "xp": 30},
+				  {"id": %d, "xp": -1},
+				  {"id": 999999, "nivel": 2},
+				  {"id": %d, "classe": "MAGO"},
+				  {"id": %d, "nivel": 2, "versao": 8},
+				  {"id": %d, "nivel": 9}
+				]
+				""".formatted(geralt, jaskier, ciri, jaskier, triss, ciri);
+
+		mockMvc.perform(patch("/aventureiros/lote").contentType(MediaType.APPLICATION_JSON).content(corpo))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.recebidos").value(7))
+				.andExpect(jsonPath("$.alterados").value(3))
+				.andExpect(jsonPath("$.falhas[*].indice").value(contains(2, 3, 4, 5)));
+
+		assertThat(aventureiroService.findById(geralt).orElseThrow().getNivel()).isEqualTo(5);
+		Aventureiro bardo = aventureiroService.findById(jaskier).orElseThrow();
+		assertThat(bardo.getNivel()).isEqualTo(7);
+		assertThat(bardo.getXp()).isEqualTo(30);
+		assertThat(bardo.getClasse()).isEqualTo(ClasseRPG.BARDO);
+		Aventureiro ladina = aventureiroService.findById(ciri).orElseThrow();
+		assertThat(ladina.getNivel()).isEqualTo(9);
+		assertThat(ladina.getVersao()).isEqualTo(1);
+		assertThat(aventureiroService.findById(triss).orElseThrow().getNivel()).isEqualTo(1);
+	}
+
+	private ResultActions alterar(Long id, String corpo) throws Exception {
+		return mockMvc.perform(patch("/aventureiros/" + id).contentType(MediaType.APPLICATION_JSON).content(corpo));
+	}
+}
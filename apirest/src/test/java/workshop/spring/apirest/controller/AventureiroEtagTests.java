@@ -0,0 +1,131 @@
+package workshop.spring.apirest.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import workshop.spring.apirest.dto.VersaoGuilda;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.repository.AventureiroRepository;
+import workshop.spring.apirest.service.AventureiroService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AventureiroEtagTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private AventureiroService aventureiroService;
+
+	@Autowired
+	private AventureiroRepository aventureiroRepository;
+
+	@BeforeEach
+	void limparGuilda() {
+		aventureiroRepository.deleteAll();
+	}
+
+	@Test
+	void buscaPorIdRespondeNaoModificadoAteAProximaMissao() throws Exception {
+		Long id = aventureiroService.create(new Aventureiro("Geralt", ClasseRPG.GUERREIRO)).getId();
+
+		String etag = etag("/aventureiros/buscar/id/" + id);
+		mockMvc.perform(get("/aventureiros/buscar/id/" + id).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""));
+
+		mockMvc.perform(put("/aventureiros/missao/" + id)).andExpect(status().isOk());
+
+		mockMvc.perform(get("/aventureiros/buscar/id/" + id).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.nome").value("Geralt"));
+	}
+
+	@Test
+	void listaMudaDeEtagACadaEscrita() throws Exception {
+		Long id = aventureiroService.create(new Aventureiro("Geralt", ClasseRPG.GUERREIRO)).getId();
+
+		String inicial = etag("/aventureiros/listar");
+		mockMvc.perform(get("/aventureiros/listar").header(HttpHeaders.IF_NONE_MATCH, inicial))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""));
+
+		mockMvc.perform(put("/aventureiros/missao/" + id)).andExpect(status().isOk());
+		String aposMissao = etag("/aventureiros/listar");
+		assertThat(aposMissao).isNotEqualTo(inicial);
+
+		Long outro = aventureiroService.create(new Aventureiro("Jaskier", ClasseRPG.BARDO)).getId();
+		String aposCriar = etag("/aventureiros/listar");
+		assertThat(aposCriar).isNotIn(inicial, aposMissao);
+
+		// Remover o recém-criado volta ao mesmo total, mas o contador da guilda já andou: o ETag é outro
+		mockMvc.perform(delete("/aventureiros/deletar/" + outro)).andExpect(status().isNoContent());
+		assertThat(etag("/aventureiros/listar")).isNotIn(inicial, aposMissao, aposCriar);
+	}
+
+	@Test
+	void loteIncrementaAVersaoUmaVezEFalhaNaoIncrementa() throws Exception {
+		long antes = aventureiroRepository.versaoGuilda().versao();
+
+		mockMvc.perform(post("/aventureiros/criar/lote").contentType(MediaType.APPLICATION_JSON).content("""
+						[{"nome": "Geralt", "classe": "GUERREIRO"}, {"nome": "Jaskier", "classe": "BARDO"}]"""))
+				.andExpect(status().isOk());
+		assertThat(aventureiroRepository.versaoGuilda().versao()).isEqualTo(antes + 1);
+
+		// Nome repetido: o INSERT é desfeito e o incremento junto com ele
+		assertThatThrownBy(() -> aventureiroService.create(new Aventureiro("Geralt", ClasseRPG.MAGO)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThat(aventureiroRepository.versaoGuilda()).extracting(VersaoGuilda::total, VersaoGuilda::versao)
+				.containsExactly(2L, antes + 1);
+	}
+
+	@Test
+	void atualizarComIfMatchDesatualizadoFalhaPreCondicao() throws Exception {
+		Long id = aventureiroService.create(new Aventureiro("Geralt", ClasseRPG.GUERREIRO)).getId();
+		String antigo = etag("/aventureiros/buscar/id/" + id);
+		mockMvc.perform(put("/aventureiros/missao/" + id)).andExpect(status().isOk());
+
+		String corpo = """
+				{"id": %d, "nome": "Geralt de Rivia", "classe": "GUERREIRO", "nivel": 1, "xp": 0}
+				""".formatted(id);
+
+		mockMvc.perform(put("/aventureiros/atualizar").header(HttpHeaders.IF_MATCH, antigo)
+						.contentType(MediaType.APPLICATION_JSON).content(corpo))
+				.andExpect(status().isPreconditionFailed());
+		assertThat(aventureiroRepository.findById(id)).get().extracting(Aventureiro::getNome).isEqualTo("Geralt");
+
+		String atual = etag("/aventureiros/buscar/id/" + id);
+		String novo = mockMvc.perform(put("/aventureiros/atualizar").header(HttpHeaders.IF_MATCH, atual)
+						.contentType(MediaType.APPLICATION_JSON).content(corpo))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.nome").value("Geralt de Rivia"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		assertThat(novo).isNotEqualTo(atual).isEqualTo(etag("/aventureiros/buscar/id/" + id));
+	}
+
+	private String etag(String caminho) throws Exception {
+		return mockMvc.perform(get(caminho))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+	}
+}
@@ -0,0 +1,80 @@
+package workshop.spring.apirest.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.repository.AventureiroRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Blocos de 3 linhas: os 10 heróis atravessam várias limpezas do contexto de persistência
+@SpringBootTest(properties = "guilda.exportacao.tamanho-bloco=3")
+@AutoConfigureMockMvc
+class AventureiroExportacaoTests {
+
+	private static final int HEROIS = 10;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private AventureiroRepository aventureiroRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@BeforeEach
+	void limparGuilda() {
+		aventureiroRepository.deleteAll();
+	}
+
+	@Test
+	void exportaUmObjetoJsonPorLinhaEmOrdemDeId() throws Exception {
+		List<Aventureiro> salvos = new ArrayList<>();
+		ClasseRPG[] classes = ClasseRPG.values();
+		for (int i = 1; i <= HEROIS; i++) {
+			salvos.add(aventureiroRepository.save(new Aventureiro("Exportado " + i, classes[i % classes.length])));
+		}
+
+		String corpo = mockMvc.perform(get("/aventureiros/exportar"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+				.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+		assertThat(corpo).endsWith("\n");
+		List<JsonNode> linhas = new ArrayList<>();
+		for (String linha : corpo.split("\n")) {
+			JsonNode objeto = objectMapper.readTree(linha);
+			assertThat(objeto.isObject()).isTrue();
+			linhas.add(objeto);
+		}
+
+		assertThat(linhas).hasSize(HEROIS);
+		assertThat(linhas).extracting(linha -> linha.get("id").asLong())
+				.containsExactlyElementsOf(salvos.stream().map(Aventureiro::getId).toList());
+		assertThat(linhas).extracting(linha -> linha.get("nome").asString())
+				.containsExactlyElementsOf(salvos.stream().map(Aventureiro::getNome).toList());
+	}
+
+	@Test
+	void guildaVaziaExportaCorpoVazio() throws Exception {
+		mockMvc.perform(get("/aventureiros/exportar"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+				.andExpect(content().string(""));
+	}
+}
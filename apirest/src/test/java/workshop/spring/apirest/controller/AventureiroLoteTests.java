@@ -0,0 +1,100 @@
+package workshop.spring.apirest.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import workshop.spring.apirest.repository.AventureiroRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"guilda.lote.tamanho-bloco=2", "guilda.ranking.enabled=true"})
+@AutoConfigureMockMvc
+class AventureiroLoteTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private AventureiroRepository aventureiroRepository;
+
+	@BeforeEach
+	void limparGuilda() {
+		aventureiroRepository.deleteAll();
+	}
+
+	@Test
+	void criaArrayJsonReportandoItensInvalidos() throws Exception {
+		String corpo = """
+				[
+				  {"nome": "Geralt", "classe": "GUERREIRO"},
+				  {"nome": "   ", "classe": "MAGO"},
+				  {"nome": "Ciri", "classe": "DRAGAO"},
+				  {"nome": "Jaskier", "classe": "BARDO"},
+				  {"nome": "Yennefer", "classe": "MAGO", "nivel": 0},
+				  {"nome": "Triss", "classe": "MAGO"}
+				]
+				""";
+
+		mockMvc.perform(post("/aventureiros/criar/lote").contentType(MediaType.APPLICATION_JSON).content(corpo))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.recebidos").value(6))
+				.andExpect(jsonPath("$.criados").value(3))
+				.andExpect(jsonPath("$.falhas[*].indice").value(contains(1, 2, 4)));
+
+		assertThat(aventureiroRepository.findAll()).extracting("nome")
+				.containsExactlyInAnyOrder("Geralt", "Jaskier", "Triss");
+	}
+
+	@Test
+	void criaNdjson() throws Exception {
+		String corpo = """
+				{"nome": "Geralt", "classe": "GUERREIRO"}
+				{"nome": "Jaskier", "classe": "BARDO"}
+				{"nome": "Triss", "classe": "MAGO"}
+				""";
+
+		mockMvc.perform(post("/aventureiros/criar/lote").contentType("application/x-ndjson").content(corpo))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.criados").value(3))
+				.andExpect(jsonPath("$.falhas").isEmpty());
+
+		assertThat(aventureiroRepository.count()).isEqualTo(3);
+	}
+
+	@Test
+	void blocoRecusadoERefeitoItemAItem() throws Exception {
+		// O primeiro bloco (Geralt, Geralt) viola o índice único e é refeito item a item
+		String corpo = """
+				[
+				  {"nome": "Geralt", "classe": "BRUXO"},
+				  {"nome": "Geralt", "classe": "BRUXO"},
+				  {"nome": "Eskel", "classe": "BRUXO"}
+				]
+				""";
+
+		mockMvc.perform(post("/aventureiros/criar/lote").contentType(MediaType.APPLICATION_JSON).content(corpo))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.criados").value(2))
+				.andExpect(jsonPath("$.falhas[*].indice").value(contains(1)))
+				.andExpect(jsonPath("$.falhas[0].motivo").value("Já existe um aventureiro com o nome: Geralt"));
+
+		// Os eventos do item refeito levam o aventureiro salvo, com ID: o ranking o recebe
+		mockMvc.perform(get("/aventureiros/ranking").param("classe", "BRUXO"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[*].nome").value(contains("Geralt", "Eskel")))
+				.andExpect(jsonPath("$[*].id").value(everyItem(notNullValue())));
+		assertThat(aventureiroRepository.findAll()).extracting("nome").containsExactlyInAnyOrder("Geralt", "Eskel");
+	}
+
+}
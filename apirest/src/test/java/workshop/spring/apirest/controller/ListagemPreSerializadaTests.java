@@ -0,0 +1,127 @@
+package workshop.spring.apirest.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.service.AventureiroService;
+import workshop.spring.apirest.service.ListagemPreSerializada;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+		"guilda.listagem.snapshot.enabled=true",
+		"guilda.listagem.snapshot.atraso-ms=50",
+		"guilda.listagem.snapshot.idade-maxima-ms=200"
+})
+@AutoConfigureMockMvc
+class ListagemPreSerializadaTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private AventureiroService aventureiroService;
+
+	@Autowired
+	private ListagemPreSerializada listagemPreSerializada;
+
+	@BeforeEach
+	void aguardarPrimeiraMontagem() {
+		await().atMost(5, TimeUnit.SECONDS).until(() -> listagemPreSerializada.atual().isPresent());
+	}
+
+	@Test
+	void escreveOsBytesProntosComIdadeEGzip() throws Exception {
+		aventureiroService.create(new Aventureiro("Geralt", ClasseRPG.GUERREIRO));
+		await().atMost(5, TimeUnit.SECONDS).until(() -> listagemPreSerializada.atual()
+				.map(instantaneo -> new String(instantaneo.json(), StandardCharsets.UTF_8).contains("Geralt"))
+				.orElse(false));
+
+		MvcResult simples = mockMvc.perform(get("/aventureiros/listar"))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.AGE))
+				.andExpect(header().exists("X-Snapshot-Age-Ms"))
+				.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+				.andReturn();
+		String json = simples.getResponse().getContentAsString(StandardCharsets.UTF_8);
+		assertThat(json).contains("\"nome\":\"Geralt\"");
+
+		MvcResult comprimido = mockMvc.perform(get("/aventureiros/listar").header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+				.andReturn();
+		assertThat(descomprimir(comprimido.getResponse().getContentAsByteArray())).isEqualTo(json);
+
+		mockMvc.perform(get("/aventureiros/listar")
+						.header(HttpHeaders.IF_NONE_MATCH, simples.getResponse().getHeader(HttpHeaders.ETAG)))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void corpoGzipTemEtagPropriaERespeitaOsPesos() throws Exception {
+		String etag = mockMvc.perform(get("/aventureiros/listar"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		String etagGzip = mockMvc.perform(get("/aventureiros/listar").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(etagGzip).isEqualTo(etag.substring(0, etag.length() - 1) + "-gz\"");
+
+		// Peso zero recusa o gzip, inclusive pelo curinga
+		mockMvc.perform(get("/aventureiros/listar").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, br"))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+				.andExpect(header().string(HttpHeaders.ETAG, etag));
+		mockMvc.perform(get("/aventureiros/listar").header(HttpHeaders.ACCEPT_ENCODING, "*;q=0"))
+				.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+		mockMvc.perform(get("/aventureiros/listar").header(HttpHeaders.ACCEPT_ENCODING, "br, *;q=0.5"))
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+
+		// Qualquer uma das duas formas vale no If-None-Match
+		mockMvc.perform(get("/aventureiros/listar").header(HttpHeaders.IF_NONE_MATCH, etagGzip))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, etag));
+		mockMvc.perform(get("/aventureiros/listar")
+						.header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+						.header(HttpHeaders.IF_NONE_MATCH, "\"outra\", " + etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, etagGzip));
+	}
+
+	@Test
+	void rajadaDeEscritasApareceNaListagem() {
+		ListagemPreSerializada.Instantaneo antes = listagemPreSerializada.atual().orElseThrow();
+
+		for (int i = 0; i < 20; i++) {
+			aventureiroService.create(new Aventureiro("Rajada " + i, ClasseRPG.MAGO));
+		}
+
+		await().atMost(5, TimeUnit.SECONDS).until(() -> listagemPreSerializada.atual()
+				.map(instantaneo -> instantaneo.total() == antes.total() + 20)
+				.orElse(false));
+	}
+
+	private static String descomprimir(byte[] gzip) throws IOException {
+		try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+			return new String(entrada.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package workshop.spring.apirest.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.service.AventureiroService;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// As propriedades de métricas do application.properties principal não valem nos testes
+// (o arquivo de src/test/resources o substitui), por isso são repetidas aqui
+@SpringBootTest(properties = {
+		"management.defaults.metrics.export.enabled=true",
+		"management.endpoints.web.exposure.include=prometheus",
+		"management.metrics.distribution.percentiles-histogram.http.server.requests=true",
+		"management.metrics.distribution.percentiles-histogram.spring.data.repository.invocations=true",
+		"spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+class MetricasPrometheusTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private AventureiroService aventureiroService;
+
+	@Test
+	void expoeMetricasDeEndpointsRepositoriosHibernateEMissoes() throws Exception {
+		Aventureiro heroi = aventureiroService.create(new Aventureiro("Radagast", ClasseRPG.CLERIGO));
+		for (int i = 0; i < 10; i++) {
+			mockMvc.perform(put("/aventureiros/missao/{id}", heroi.getId())).andExpect(status().isOk());
+		}
+		mockMvc.perform(get("/aventureiros/listar")).andExpect(status().isOk());
+
+		mockMvc.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString(
+						"guilda_missoes_total{classe=\"CLERIGO\"} 10.0")))
+				// 10 missões de 10 a 19 XP: pelo menos uma subida de nível
+				.andExpect(content().string(containsString("guilda_missoes_niveis_total{classe=\"CLERIGO\"}")))
+				.andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+				.andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket{")))
+				.andExpect(content().string(containsString("method=\"listarFichas\"")))
+				.andExpect(content().string(containsString("guilda_repositorio_linhas_rows_count{")))
+				.andExpect(content().string(containsString("hibernate_query_executions_total")))
+				.andExpect(content().string(containsString("hikaricp_connections_active")));
+	}
+}
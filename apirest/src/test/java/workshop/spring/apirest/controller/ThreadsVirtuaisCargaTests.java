@@ -0,0 +1,231 @@
+package workshop.spring.apirest.controller;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Teste de carga comparando o Tomcat com threads de plataforma e com threads virtuais,
+ * com um banco artificialmente lento ({@value #LATENCIA_BANCO_MS} ms por comando).
+ *
+ * 4 de cada 5 requisições vão ao banco ({@code /buscar/nivel/1}); a quinta é respondida
+ * em memória ({@code /ranking}, ligado aqui porque vem desligado por padrão). Com threads de
+ * plataforma, as requisições em memória esperam na fila atrás das que estão presas no banco;
+ * com threads virtuais, não.
+ *
+ * O modo virtual só roda em Java 21 ou superior e, nele, o teste também grava os eventos
+ * {@code jdk.VirtualThreadPinned} do JFR para conferir que nenhuma thread virtual prende
+ * a thread de plataforma durante a carga.
+ * Fica fora do build normal; rode com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"server.tomcat.threads.max=50",
+		"guilda.ranking.enabled=true"
+})
+@Import(ThreadsVirtuaisCargaTests.BancoLento.class)
+class ThreadsVirtuaisCargaTests {
+
+	private static final int CLIENTES = 300;
+	private static final long LATENCIA_BANCO_MS = 10;
+	private static final Duration AQUECIMENTO = Duration.ofSeconds(3);
+	private static final Duration MEDICAO = Duration.ofSeconds(10);
+
+	private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+	@Nested
+	class ThreadsDePlataforma {
+
+		@LocalServerPort
+		private int porta;
+
+		@BeforeEach
+		void recrutar() throws Exception {
+			recrutarAventureiros(porta);
+		}
+
+		@Test
+		void carga() throws Exception {
+			executarCarga("Threads de plataforma", porta);
+		}
+	}
+
+	@Nested
+	@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+	class ThreadsVirtuais {
+
+		@LocalServerPort
+		private int porta;
+
+		@BeforeEach
+		void recrutar() throws Exception {
+			assumeTrue(Runtime.version().feature() >= 21, "Threads virtuais exigem Java 21 ou superior");
+			recrutarAventureiros(porta);
+		}
+
+		@Test
+		void cargaSemPinning() throws Exception {
+			Path arquivo = Files.createTempFile("pinning", ".jfr");
+			try (Recording gravacao = new Recording()) {
+				gravacao.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(LATENCIA_BANCO_MS / 2)).withStackTrace();
+				gravacao.start();
+				executarCarga("Threads virtuais", porta);
+				gravacao.stop();
+				gravacao.dump(arquivo);
+			}
+
+			List<RecordedEvent> presas = RecordingFile.readAllEvents(arquivo).stream()
+					.filter(evento -> evento.getEventType().getName().equals("jdk.VirtualThreadPinned"))
+					.toList();
+			presas.stream().limit(3).forEach(evento -> System.out.println("Pinning: " + evento.getStackTrace()));
+			assertThat(presas).as("eventos jdk.VirtualThreadPinned").isEmpty();
+		}
+	}
+
+	private void recrutarAventureiros(int porta) throws Exception {
+		for (int i = 0; i < 20; i++) {
+			// Um nome repetido devolve 400: os aventureiros já foram criados por outro teste
+			http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/aventureiros/criar"))
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString("{\"nome\": \"Carga " + i + "\", \"classe\": \"BARDO\"}"))
+					.build(), HttpResponse.BodyHandlers.discarding());
+		}
+	}
+
+	/**
+	 * Cada cliente manda uma requisição atrás da outra até o fim da medição.
+	 * Só as respostas recebidas depois do aquecimento entram nas contas.
+	 */
+	private void executarCarga(String modo, int porta) throws Exception {
+		URI banco = URI.create("http://localhost:" + porta + "/aventureiros/buscar/nivel/1");
+		URI memoria = URI.create("http://localhost:" + porta + "/aventureiros/ranking?top=5");
+		List<Long> latenciasBanco = Collections.synchronizedList(new ArrayList<>());
+		List<Long> latenciasMemoria = Collections.synchronizedList(new ArrayList<>());
+		AtomicLong erros = new AtomicLong();
+
+		long inicioMedicao = System.nanoTime() + AQUECIMENTO.toNanos();
+		long fim = inicioMedicao + MEDICAO.toNanos();
+		ExecutorService clientes = Executors.newFixedThreadPool(CLIENTES);
+		for (int c = 0; c < CLIENTES; c++) {
+			clientes.execute(() -> {
+				List<Long> doClienteBanco = new ArrayList<>();
+				List<Long> doClienteMemoria = new ArrayList<>();
+				for (int i = 0; System.nanoTime() < fim; i++) {
+					boolean emMemoria = i % 5 == 4;
+					long inicio = System.nanoTime();
+					try {
+						int status = http.send(HttpRequest.newBuilder(emMemoria ? memoria : banco).build(),
+								HttpResponse.BodyHandlers.discarding()).statusCode();
+						if (status != 200) {
+							erros.incrementAndGet();
+						}
+					} catch (Exception e) {
+						erros.incrementAndGet();
+					}
+					if (inicio >= inicioMedicao) {
+						(emMemoria ? doClienteMemoria : doClienteBanco).add(System.nanoTime() - inicio);
+					}
+				}
+				latenciasBanco.addAll(doClienteBanco);
+				latenciasMemoria.addAll(doClienteMemoria);
+			});
+		}
+		clientes.shutdown();
+		assertThat(clientes.awaitTermination(MEDICAO.plus(AQUECIMENTO).plusSeconds(60).toSeconds(), TimeUnit.SECONDS)).isTrue();
+
+		System.out.printf("%s, %d clientes, banco com %d ms por comando:%n", modo, CLIENTES, LATENCIA_BANCO_MS);
+		imprimir("  banco  ", latenciasBanco);
+		imprimir("  memória", latenciasMemoria);
+		assertThat(erros.get()).isZero();
+	}
+
+	private void imprimir(String nome, List<Long> latencias) {
+		List<Long> ordenadas = new ArrayList<>(latencias);
+		Collections.sort(ordenadas);
+		System.out.printf("%s: %.0f req/s, p50 %.1f ms, p99 %.1f ms, p99.9 %.1f ms, máx %.1f ms%n", nome,
+				ordenadas.size() / (double) MEDICAO.toSeconds(),
+				percentil(ordenadas, 0.50), percentil(ordenadas, 0.99), percentil(ordenadas, 0.999),
+				ordenadas.isEmpty() ? 0 : ordenadas.get(ordenadas.size() - 1) / 1_000_000.0);
+	}
+
+	private static double percentil(List<Long> ordenadas, double fracao) {
+		if (ordenadas.isEmpty()) {
+			return 0;
+		}
+		int posicao = (int) Math.ceil(fracao * ordenadas.size()) - 1;
+		return ordenadas.get(Math.max(posicao, 0)) / 1_000_000.0;
+	}
+
+	/**
+	 * Simula um MySQL lento: cada comando preparado demora {@value #LATENCIA_BANCO_MS} ms,
+	 * com a conexão emprestada durante a espera.
+	 */
+	@TestConfiguration
+	static class BancoLento {
+
+		@Bean
+		static BeanPostProcessor bancoLento() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					return bean instanceof DataSource dataSource ? new DelegatingDataSource(dataSource) {
+						@Override
+						public Connection getConnection() throws SQLException {
+							return atrasar(super.getConnection());
+						}
+					} : bean;
+				}
+			};
+		}
+
+		private static Connection atrasar(Connection conexao) {
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+					(proxy, metodo, argumentos) -> {
+						if (metodo.getName().equals("prepareStatement")) {
+							Thread.sleep(LATENCIA_BANCO_MS);
+						}
+						try {
+							return metodo.invoke(conexao, argumentos);
+						} catch (InvocationTargetException e) {
+							throw e.getCause();
+						}
+					});
+		}
+	}
+
+}
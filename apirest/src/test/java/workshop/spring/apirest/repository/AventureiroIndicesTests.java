@@ -0,0 +1,130 @@
+package workshop.spring.apirest.repository;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import workshop.spring.apirest.dto.FichaAventureiro;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.service.AventureiroService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class AventureiroIndicesTests {
+
+	/**
+	 * Guarda os comandos SQL gerados pelo Hibernate, para que o plano do último SELECT seja conferido.
+	 */
+	static final List<String> consultas = new ArrayList<>();
+
+	@TestConfiguration
+	static class CapturaSql {
+
+		@Bean
+		HibernatePropertiesCustomizer capturarConsultas() {
+			StatementInspector inspetor = sql -> {
+				synchronized (consultas) {
+					consultas.add(sql);
+				}
+				return sql;
+			};
+			return propriedades -> propriedades.put(AvailableSettings.STATEMENT_INSPECTOR, inspetor);
+		}
+	}
+
+	@Autowired
+	private AventureiroRepository aventureiroRepository;
+
+	@Autowired
+	private AventureiroService aventureiroService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void popularGuilda() {
+		aventureiroRepository.deleteAll();
+		ClasseRPG[] classes = ClasseRPG.values();
+		List<Aventureiro> aventureiros = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			Aventureiro aventureiro = new Aventureiro("Recruta " + i, classes[i % classes.length]);
+			aventureiro.setNivel(1 + i % 10);
+			aventureiro.setXp(i % 100);
+			aventureiros.add(aventureiro);
+		}
+		aventureiroRepository.saveAll(aventureiros);
+		synchronized (consultas) {
+			consultas.clear();
+		}
+	}
+
+	@Test
+	void faixaDeNivelUsaIndiceNivelXp() {
+		List<FichaAventureiro> encontrados = aventureiroRepository.findByNivelEntre(3, 4, Limit.of(500));
+
+		assertThat(encontrados).hasSize(40)
+				.allSatisfy(a -> assertThat(a.nivel()).isBetween(3, 4));
+		assertThat(planoDaUltimaConsulta(3, 4, 500)).contains(Aventureiro.INDICE_NIVEL_XP);
+	}
+
+	@Test
+	void nivelComXpAcimaUsaIndiceNivelXp() {
+		List<FichaAventureiro> encontrados = aventureiroRepository.findByNivelEXpAcima(5, 50, Limit.of(500));
+
+		assertThat(encontrados).isNotEmpty()
+				.allSatisfy(a -> {
+					assertThat(a.nivel()).isEqualTo(5);
+					assertThat(a.xp()).isGreaterThan(50);
+				});
+		assertThat(planoDaUltimaConsulta(5, 50, 500)).contains(Aventureiro.INDICE_NIVEL_XP);
+	}
+
+	@Test
+	void classeComFaixaDeNivelUsaIndiceComposto() {
+		List<FichaAventureiro> encontrados = aventureiroRepository.findByClasseENivelEntre(
+				ClasseRPG.MAGO, 1, 5, Limit.of(500));
+
+		assertThat(encontrados).isNotEmpty()
+				.allSatisfy(a -> assertThat(a.classe()).isEqualTo(ClasseRPG.MAGO));
+		assertThat(planoDaUltimaConsulta(ClasseRPG.MAGO.name(), 1, 5, 500))
+				.contains(Aventureiro.INDICE_CLASSE_NIVEL_XP);
+	}
+
+	@Test
+	void buscaPorNomeUsaIndiceUnico() {
+		assertThat(aventureiroRepository.findByNome("Recruta 42")).isNotNull();
+
+		assertThat(planoDaUltimaConsulta("Recruta 42")).contains(Aventureiro.INDICE_NOME);
+	}
+
+	@Test
+	void nomeRepetidoEhRecusado() {
+		assertThatThrownBy(() -> aventureiroService.create(new Aventureiro("Recruta 7", ClasseRPG.BARDO)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	/**
+	 * Executa EXPLAIN sobre o último SELECT gerado, com os parâmetros na ordem em que aparecem.
+	 */
+	private String planoDaUltimaConsulta(Object... parametros) {
+		String sql;
+		synchronized (consultas) {
+			sql = consultas.stream().filter(c -> c.startsWith("select")).reduce((a, b) -> b).orElseThrow();
+		}
+		return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parametros).toLowerCase();
+	}
+
+}
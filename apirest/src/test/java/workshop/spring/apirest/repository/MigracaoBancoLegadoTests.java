@@ -0,0 +1,83 @@
+package workshop.spring.apirest.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.service.AventureiroService;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// O banco já existe com a tabela da época do ddl-auto=update (ID auto-incremento, sem versão,
+// sem índices nem sequência, com um nome repetido) e sem o histórico do Flyway: a partida precisa atualizá-lo
+@SpringBootTest
+class MigracaoBancoLegadoTests {
+
+	private static final String URL = "jdbc:h2:mem:legado-" + UUID.randomUUID()
+			+ ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+	@DynamicPropertySource
+	static void bancoLegado(DynamicPropertyRegistry registro) throws SQLException {
+		try (Connection conexao = DriverManager.getConnection(URL, "sa", "");
+			 Statement comando = conexao.createStatement()) {
+			comando.execute("""
+					CREATE TABLE aventureiro (
+					    id     BIGINT GENERATED BY DEFAULT AS IDENTITY,
+					    classe ENUM ('ARQUEIRO','BARDO','BRUXO','CLERIGO','GUERREIRO','LADINO','MAGO') NOT NULL,
+					    nivel  INTEGER      NOT NULL,
+					    nome   VARCHAR(255) NOT NULL,
+					    xp     INTEGER      NOT NULL,
+					    PRIMARY KEY (id)
+					)""");
+			comando.execute("""
+					INSERT INTO aventureiro (classe, nivel, nome, xp) VALUES
+					    ('GUERREIRO', 3, 'Aragorn', 40),
+					    ('MAGO', 7, 'Gandalf', 90),
+					    ('ARQUEIRO', 2, 'Legolas', 10),
+					    ('GUERREIRO', 1, 'Aragorn', 0)""");
+		}
+		registro.add("spring.datasource.url", () -> URL);
+	}
+
+	@Autowired
+	private AventureiroService aventureiroService;
+
+	@Autowired
+	private AventureiroRepository aventureiroRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void atualizaOEsquemaSemPerderOsRegistros() {
+		// Baseline na versão 0 e todas as migrações aplicadas (e o ddl-auto=validate aceitou o esquema)
+		assertThat(jdbcTemplate.queryForList(
+				"SELECT \"version\" FROM \"flyway_schema_history\" WHERE \"success\" AND \"version\" IS NOT NULL ORDER BY \"installed_rank\"", String.class))
+				.containsExactly("0", "1", "2", "3", "4");
+
+		// O nome repetido mais novo ganhou o ID no fim, para caber no índice único
+		assertThat(aventureiroRepository.findByNome("Aragorn").getId()).isEqualTo(1);
+		assertThat(aventureiroRepository.findByNome("Aragorn #4").getNivel()).isEqualTo(1);
+
+		Aventureiro gandalf = aventureiroRepository.findByNome("Gandalf");
+		assertThat(gandalf.getNivel()).isEqualTo(7);
+		assertThat(gandalf.getVersao()).isZero();
+
+		// A sequência começa depois dos IDs antigos, e o controle de versão funciona nos registros antigos
+		Aventureiro novo = aventureiroService.create(new Aventureiro("Frodo", ClasseRPG.LADINO));
+		assertThat(novo.getId()).isGreaterThan(4);
+		Aventureiro depois = aventureiroService.realizarMissao(gandalf.getId());
+		assertThat(depois.getVersao()).isEqualTo(1);
+		assertThat(aventureiroRepository.count()).isEqualTo(5);
+	}
+}
@@ -0,0 +1,186 @@
+package workshop.spring.apirest.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import workshop.spring.apirest.dto.AlteracaoAventureiro;
+import workshop.spring.apirest.dto.ResultadoAlteracoes;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.repository.AventureiroRepository;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+		"guilda.missao.write-behind.enabled=true",
+		"guilda.missao.write-behind.intervalo-ms=3600000"
+})
+class AcumuladorXpTests {
+
+	@Autowired
+	private AventureiroService aventureiroService;
+
+	@Autowired
+	private AventureiroRepository aventureiroRepository;
+
+	@Autowired
+	private AcumuladorXp acumuladorXp;
+
+	@MockitoBean
+	private GeradorXp geradorXp;
+
+	@MockitoSpyBean
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	// O contexto é compartilhado: cada teste começa sem XP pendente de outro
+	@BeforeEach
+	void descarregarPendentes() {
+		acumuladorXp.descarregar();
+	}
+
+	@Test
+	void acumulaMissoesEGravaEmUmaDescarga() {
+		when(geradorXp.gerar()).thenReturn(15);
+		Long id = aventureiroRepository.save(new Aventureiro("Jaskier", ClasseRPG.BARDO)).getId();
+
+		for (int i = 0; i < 8; i++) {
+			aventureiroService.realizarMissao(id);
+		}
+
+		// Nada foi gravado ainda, mas a leitura já enxerga as 8 missões, com a regra do modo normal:
+		// a 7ª (90 + 15) sobe o nível e zera o XP, e a 8ª deixa 15
+		assertThat(aventureiroRepository.findById(id).orElseThrow().getXp()).isZero();
+		Aventureiro visao = aventureiroService.findById(id).orElseThrow();
+		assertThat(visao.getNivel()).isEqualTo(2);
+		assertThat(visao.getXp()).isEqualTo(15);
+
+		assertThat(acumuladorXp.descarregar()).isEqualTo(1);
+
+		Aventureiro gravado = aventureiroRepository.findById(id).orElseThrow();
+		assertThat(gravado.getNivel()).isEqualTo(2);
+		assertThat(gravado.getXp()).isEqualTo(15);
+		assertThat(gravado.getVersao()).isEqualTo(1);
+	}
+
+	@Test
+	void descargaEntraNaTransacaoDeQuemChamaEVoltaAoPendenteNoRollback() {
+		when(geradorXp.gerar()).thenReturn(15);
+		Long id = aventureiroRepository.save(new Aventureiro("Lambert", ClasseRPG.BRUXO)).getId();
+		for (int i = 0; i < 8; i++) {
+			aventureiroService.realizarMissao(id);
+		}
+
+		List<String> transacoes = new CopyOnWriteArrayList<>();
+		doAnswer(invocacao -> {
+			transacoes.add(TransactionSynchronizationManager.getCurrentTransactionName());
+			return invocacao.callRealMethod();
+		}).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+		TransactionTemplate externa = new TransactionTemplate(transactionManager);
+		externa.setName("externa");
+		externa.executeWithoutResult(status -> {
+			assertThat(acumuladorXp.descarregar(List.of(id))).containsExactly(id);
+			status.setRollbackOnly();
+		});
+
+		// O UPDATE usou a transação (e a conexão) de quem chamou, e foi desfeito com ela
+		assertThat(transacoes).containsExactly("externa");
+		Aventureiro gravado = aventureiroRepository.findById(id).orElseThrow();
+		assertThat(gravado.getNivel()).isEqualTo(1);
+		assertThat(gravado.getVersao()).isZero();
+
+		// As missões voltaram a ficar pendentes, em ordem
+		Aventureiro visao = aventureiroService.findById(id).orElseThrow();
+		assertThat(visao.getNivel()).isEqualTo(2);
+		assertThat(visao.getXp()).isEqualTo(15);
+		assertThat(acumuladorXp.descarregar()).isEqualTo(1);
+		assertThat(aventureiroRepository.findById(id).orElseThrow().getXp()).isEqualTo(15);
+	}
+
+	@Test
+	void alteracaoEmLoteDescarregaTodosOsItensDeUmaVez() {
+		when(geradorXp.gerar()).thenReturn(15);
+		Long yen = aventureiroRepository.save(new Aventureiro("Yennefer", ClasseRPG.MAGO)).getId();
+		Long triss = aventureiroRepository.save(new Aventureiro("Triss", ClasseRPG.MAGO)).getId();
+		aventureiroService.realizarMissao(yen);
+		aventureiroService.realizarMissao(triss);
+
+		ResultadoAlteracoes resultado = aventureiroService.alterarEmLote(List.of(
+				new AlteracaoAventureiro(yen, null, null, 5, null, 0L),
+				new AlteracaoAventureiro(triss, null, null, 6, null, 0L)));
+
+		// Uma descarga para os dois, e a versão que o cliente viu (0, com o XP mesclado) ainda confere
+		assertThat(resultado.alterados()).isEqualTo(2);
+		verify(jdbcTemplate, times(1)).batchUpdate(startsWith("UPDATE aventureiro SET nivel = ?, xp = ?"), anyList());
+		assertThat(aventureiroRepository.findById(yen).orElseThrow().getXp()).isEqualTo(15);
+		assertThat(aventureiroRepository.findById(triss).orElseThrow().getNivel()).isEqualTo(6);
+	}
+
+	@Test
+	void xpEmGravacaoContinuaVisivelAteOCommit() throws Exception {
+		when(geradorXp.gerar()).thenReturn(15);
+		Long id = aventureiroRepository.save(new Aventureiro("Ciri", ClasseRPG.BRUXO)).getId();
+		for (int i = 0; i < 8; i++) {
+			aventureiroService.realizarMissao(id);
+		}
+
+		// A descarga fica parada antes do UPDATE em lote
+		CountDownLatch comecou = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		doAnswer(invocacao -> {
+			comecou.countDown();
+			liberar.await(10, TimeUnit.SECONDS);
+			return invocacao.callRealMethod();
+		}).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+		CompletableFuture<Integer> descarga = CompletableFuture.supplyAsync(acumuladorXp::descarregar);
+		assertThat(comecou.await(10, TimeUnit.SECONDS)).isTrue();
+
+		// As missões já saíram do mapa de pendentes, mas ainda não estão no banco: a leitura continua vendo as 8
+		Aventureiro durante = aventureiroService.findById(id).orElseThrow();
+		assertThat(durante.getNivel()).isEqualTo(2);
+		assertThat(durante.getXp()).isEqualTo(15);
+
+		liberar.countDown();
+		assertThat(descarga.get(10, TimeUnit.SECONDS)).isEqualTo(1);
+		Aventureiro depois = aventureiroService.findById(id).orElseThrow();
+		assertThat(depois.getNivel()).isEqualTo(2);
+		assertThat(depois.getXp()).isEqualTo(15);
+	}
+
+	@Test
+	void missaoAcumuladaNaoAbreTransacao() {
+		List<Boolean> comTransacao = new CopyOnWriteArrayList<>();
+		when(geradorXp.gerar()).thenAnswer(invocacao -> {
+			comTransacao.add(TransactionSynchronizationManager.isActualTransactionActive());
+			return 15;
+		});
+		Long id = aventureiroRepository.save(new Aventureiro("Vesemir", ClasseRPG.BRUXO)).getId();
+
+		aventureiroService.realizarMissao(id);
+
+		assertThat(comTransacao).containsExactly(false);
+	}
+}
@@ -0,0 +1,107 @@
+package workshop.spring.apirest.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.repository.AventureiroRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class AventureiroMissaoConcorrenteTests {
+
+	private static final int MISSOES = 45;
+
+	@Autowired
+	private AventureiroService aventureiroService;
+
+	@Autowired
+	private AventureiroRepository aventureiroRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@MockitoBean
+	private GeradorXp geradorXp;
+
+	@Test
+	void missoesSimultaneasNaoPerdemXp() throws Exception {
+		when(geradorXp.gerar()).thenReturn(10);
+		Long id = aventureiroRepository.save(new Aventureiro("Geralt", ClasseRPG.GUERREIRO)).getId();
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Callable<Aventureiro>> missoes = new ArrayList<>();
+			for (int i = 0; i < MISSOES; i++) {
+				missoes.add(() -> aventureiroService.realizarMissao(id));
+			}
+			for (Future<Aventureiro> resultado : executor.invokeAll(missoes)) {
+				resultado.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		// 45 missões de 10 XP: 4 subidas de nível (a cada 10 missões) e 50 XP restantes
+		Aventureiro heroi = aventureiroRepository.findById(id).orElseThrow();
+		assertThat(heroi.getNivel()).isEqualTo(5);
+		assertThat(heroi.getXp()).isEqualTo(50);
+		assertThat(heroi.getVersao()).isEqualTo(MISSOES);
+	}
+
+	@Test
+	void atualizacaoComVersaoDesatualizadaERecusada() {
+		Aventureiro salvo = aventureiroRepository.save(new Aventureiro("Yennefer", ClasseRPG.MAGO));
+		when(geradorXp.gerar()).thenReturn(10);
+		aventureiroService.realizarMissao(salvo.getId());
+
+		Aventureiro desatualizado = new Aventureiro("Yen", ClasseRPG.MAGO);
+		desatualizado.setId(salvo.getId());
+		desatualizado.setVersao(salvo.getVersao());
+
+		assertThatThrownBy(() -> aventureiroService.update(desatualizado))
+				.isInstanceOf(ObjectOptimisticLockingFailureException.class);
+		assertThat(aventureiroRepository.findById(salvo.getId()).orElseThrow().getNome()).isEqualTo("Yennefer");
+	}
+
+	@Test
+	void missaoDesfeitaNaoContaNasMetricas() {
+		when(geradorXp.gerar()).thenReturn(10);
+		Long id = aventureiroRepository.save(new Aventureiro("Dandelion", ClasseRPG.LADINO)).getId();
+		double antes = missoes(ClasseRPG.LADINO);
+
+		// A missão roda dentro de uma transação que acaba desfeita
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			aventureiroService.realizarMissao(id);
+			status.setRollbackOnly();
+		});
+		assertThat(missoes(ClasseRPG.LADINO)).isEqualTo(antes);
+		assertThat(aventureiroRepository.findById(id).orElseThrow().getXp()).isZero();
+
+		aventureiroService.realizarMissao(id);
+		assertThat(missoes(ClasseRPG.LADINO)).isEqualTo(antes + 1);
+	}
+
+	private double missoes(ClasseRPG classe) {
+		return meterRegistry.get("guilda.missoes").tag("classe", classe.name()).counter().count();
+	}
+}
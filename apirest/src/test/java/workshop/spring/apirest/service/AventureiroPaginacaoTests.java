@@ -0,0 +1,74 @@
+package workshop.spring.apirest.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import workshop.spring.apirest.dto.FichaAventureiro;
+import workshop.spring.apirest.dto.Pagina;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.repository.AventureiroRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class AventureiroPaginacaoTests {
+
+	@Autowired
+	private AventureiroService aventureiroService;
+
+	@Autowired
+	private AventureiroRepository aventureiroRepository;
+
+	@BeforeEach
+	void popularGuilda() {
+		// Remove pelo serviço, para que o ranking e os demais modelos em memória saibam
+		aventureiroRepository.findAll().forEach(a -> aventureiroService.delete(a.getId()));
+		int[] niveis = {3, 1, 3, 2, 5, 3, 1};
+		for (int i = 0; i < niveis.length; i++) {
+			Aventureiro aventureiro = new Aventureiro("Heroi " + i, i % 2 == 0 ? ClasseRPG.MAGO : ClasseRPG.BARDO);
+			aventureiro.setNivel(niveis[i]);
+			aventureiroRepository.save(aventureiro);
+		}
+	}
+
+	@Test
+	void percorreTodasAsPaginasSemRepetirNemPular() {
+		List<FichaAventureiro> lidos = new ArrayList<>();
+		String cursor = null;
+		do {
+			Pagina<FichaAventureiro> pagina = aventureiroService.buscarPagina(
+					null, null, null, cursor == null ? "nivel" : null, cursor == null ? "desc" : null, cursor, 3);
+			lidos.addAll(pagina.itens());
+			cursor = pagina.proximo();
+		} while (cursor != null);
+
+		List<Aventureiro> esperado = new ArrayList<>(aventureiroRepository.findAll());
+		esperado.sort(Comparator.comparing(Aventureiro::getNivel).thenComparing(Aventureiro::getId).reversed());
+		assertThat(lidos).extracting(FichaAventureiro::id)
+				.containsExactlyElementsOf(esperado.stream().map(Aventureiro::getId).toList());
+	}
+
+	@Test
+	void aplicaFiltroDeClasseELimiteMaximo() {
+		Pagina<FichaAventureiro> pagina = aventureiroService.buscarPagina(
+				ClasseRPG.MAGO, null, null, null, null, null, 10_000);
+
+		assertThat(pagina.limite()).isEqualTo(AventureiroService.LIMITE_MAXIMO);
+		assertThat(pagina.proximo()).isNull();
+		assertThat(pagina.itens()).hasSize(4).allMatch(a -> a.classe() == ClasseRPG.MAGO);
+	}
+
+	@Test
+	void rejeitaCursorInvalido() {
+		assertThatThrownBy(() -> aventureiroService.buscarPagina(null, null, null, null, null, "nao-e-cursor", 10))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
@@ -0,0 +1,57 @@
+package workshop.spring.apirest.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.repository.AventureiroRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+class CacheAventureirosTests {
+
+	@Autowired
+	private AventureiroService aventureiroService;
+
+	@MockitoSpyBean
+	private AventureiroRepository aventureiroRepository;
+
+	@Test
+	void leiturasRepetidasNaoVaoAoBanco() {
+		Aventureiro criado = aventureiroService.create(new Aventureiro("Ciri", ClasseRPG.ARQUEIRO));
+		clearInvocations(aventureiroRepository);
+
+		aventureiroService.findById(criado.getId());
+		aventureiroService.findByNome("  CIRI ");
+
+		verify(aventureiroRepository, never()).findById(criado.getId());
+		verify(aventureiroRepository, never()).findByNome("  CIRI ");
+	}
+
+	@Test
+	void missaoAtualizaOCache() {
+		Aventureiro criado = aventureiroService.create(new Aventureiro("Vesemir", ClasseRPG.GUERREIRO));
+
+		Aventureiro depois = aventureiroService.realizarMissao(criado.getId());
+
+		Aventureiro lido = aventureiroService.findById(criado.getId()).orElseThrow();
+		assertThat(lido.getXp()).isEqualTo(depois.getXp()).isPositive();
+		assertThat(lido.getVersao()).isEqualTo(1);
+	}
+
+	@Test
+	void exclusaoRemoveDoCache() {
+		Aventureiro criado = aventureiroService.create(new Aventureiro("Lambert", ClasseRPG.GUERREIRO));
+
+		aventureiroService.delete(criado.getId());
+
+		assertThat(aventureiroService.findById(criado.getId())).isEmpty();
+	}
+
+}
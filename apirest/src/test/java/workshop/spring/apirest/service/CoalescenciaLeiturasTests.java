@@ -0,0 +1,137 @@
+package workshop.spring.apirest.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import workshop.spring.apirest.dto.FichaAventureiro;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.repository.AventureiroRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = "guilda.coalescencia.enabled=true")
+class CoalescenciaLeiturasTests {
+
+	private static final int CHAMADAS = 8;
+
+	@Autowired
+	private AventureiroService aventureiroService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@MockitoSpyBean
+	private AventureiroRepository aventureiroRepository;
+
+	private volatile boolean consultaComecou;
+
+	// Uma thread por chamada: o pool comum pode ter uma só thread em máquinas pequenas
+	private final ExecutorService threads = Executors.newCachedThreadPool();
+
+	@AfterEach
+	void encerrarThreads() {
+		threads.shutdownNow();
+	}
+
+	@Test
+	void chamadasSimultaneasIguaisFazemUmaSoConsulta() throws Exception {
+		aventureiroService.create(new Aventureiro("Gandalf", ClasseRPG.MAGO));
+		aventureiroService.create(new Aventureiro("Radagast", ClasseRPG.MAGO));
+		CountDownLatch liberar = segurarConsultaPorClasse(ClasseRPG.MAGO);
+		double compartilhadasAntes = leituras("compartilhada");
+
+		// A primeira chamada fica presa no banco; as outras chegam enquanto ela não termina
+		List<CompletableFuture<List<FichaAventureiro>>> chamadas = new ArrayList<>();
+		for (int i = 0; i < CHAMADAS; i++) {
+			chamadas.add(emParalelo(() -> aventureiroService.findByClasse(ClasseRPG.MAGO)));
+		}
+		await().atMost(10, TimeUnit.SECONDS)
+				.until(() -> leituras("compartilhada") - compartilhadasAntes == CHAMADAS - 1);
+		liberar.countDown();
+
+		List<List<FichaAventureiro>> resultados = chamadas.stream().map(CompletableFuture::join).toList();
+		verify(aventureiroRepository, times(1)).listarFichasPorClasse(ClasseRPG.MAGO);
+		assertThat(resultados).allSatisfy(fichas ->
+				assertThat(fichas).extracting(FichaAventureiro::nome).containsExactlyInAnyOrder("Gandalf", "Radagast"));
+		// Cada chamador recebe a sua própria lista
+		assertThat(resultados.get(0)).isNotSameAs(resultados.get(1));
+		resultados.get(0).clear();
+		assertThat(resultados.get(1)).hasSize(2);
+	}
+
+	@Test
+	void escritaDuranteAConsultaNaoECompartilhadaComQuemChegaDepois() throws Exception {
+		aventureiroService.create(new Aventureiro("Gimli", ClasseRPG.GUERREIRO));
+		CountDownLatch liberar = segurarConsultaPorClasse(ClasseRPG.GUERREIRO);
+
+		CompletableFuture<List<FichaAventureiro>> antes = emParalelo(() -> aventureiroService.findByClasse(ClasseRPG.GUERREIRO));
+		await().atMost(10, TimeUnit.SECONDS).until(() -> consultaComecou);
+		clearInvocations(aventureiroRepository);
+		aventureiroService.create(new Aventureiro("Eomer", ClasseRPG.GUERREIRO));
+
+		// Quem chega depois do commit não aproveita a consulta presa: vai ao banco e vê o Eomer
+		List<FichaAventureiro> depois = aventureiroService.findByClasse(ClasseRPG.GUERREIRO);
+		liberar.countDown();
+		antes.join();
+
+		assertThat(depois).extracting(FichaAventureiro::nome).contains("Gimli", "Eomer");
+		verify(aventureiroRepository, times(1)).listarFichasPorClasse(ClasseRPG.GUERREIRO);
+	}
+
+	@Test
+	void niveisDiferentesNaoSeMisturam() {
+		aventureiroService.create(new Aventureiro("Legolas", ClasseRPG.ARQUEIRO));
+		clearInvocations(aventureiroRepository);
+
+		assertThat(aventureiroService.findByNivel(1)).extracting(FichaAventureiro::nome).contains("Legolas");
+		assertThat(aventureiroService.findByNivel(2)).isEmpty();
+
+		verify(aventureiroRepository, times(1)).listarFichasPorNivel(1);
+		verify(aventureiroRepository, times(1)).listarFichasPorNivel(2);
+	}
+
+	/**
+	 * Faz a próxima consulta por classe esperar até o latch ser liberado; as seguintes seguem direto.
+	 */
+	private CountDownLatch segurarConsultaPorClasse(ClasseRPG classe) {
+		consultaComecou = false;
+		CountDownLatch liberar = new CountDownLatch(1);
+		clearInvocations(aventureiroRepository);
+		// O spy do repositório (um proxy de interface) repassa as chamadas pela resposta padrão
+		Answer<?> repassar = mockingDetails(aventureiroRepository).getMockCreationSettings().getDefaultAnswer();
+		doAnswer(invocacao -> {
+			consultaComecou = true;
+			liberar.await(10, TimeUnit.SECONDS);
+			return repassar.answer(invocacao);
+		}).doAnswer(repassar).when(aventureiroRepository).listarFichasPorClasse(classe);
+		return liberar;
+	}
+
+	private double leituras(String resultado) {
+		return meterRegistry.get("guilda.coalescencia.leituras").tag("resultado", resultado).functionCounter().count();
+	}
+
+	private <T> CompletableFuture<T> emParalelo(Supplier<T> tarefa) {
+		return CompletableFuture.supplyAsync(tarefa, threads);
+	}
+}
@@ -0,0 +1,142 @@
+package workshop.spring.apirest.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import workshop.spring.apirest.dto.EstatisticasGuilda;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.event.AventureiroRemovidoEvent;
+import workshop.spring.apirest.repository.AventureiroRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class EstatisticasGuildaTests {
+
+	@Autowired
+	private AventureiroService aventureiroService;
+
+	@Autowired
+	private AventureiroRepository aventureiroRepository;
+
+	@BeforeEach
+	void limparGuilda() {
+		aventureiroRepository.findAll().forEach(a -> aventureiroService.delete(a.getId()));
+	}
+
+	@Nested
+	class ComGroupBy {
+
+		@Test
+		void guildaVazia() {
+			EstatisticasGuilda estatisticas = aventureiroService.estatisticas();
+
+			assertThat(estatisticas.total()).isZero();
+			assertThat(estatisticas.porClasse()).hasSize(ClasseRPG.values().length).containsValues(0L);
+			assertThat(estatisticas.histogramaNiveis()).isEmpty();
+			assertThat(estatisticas.nivelMaximo()).isZero();
+		}
+
+		@Test
+		void calculaComAgregacaoNoBanco() {
+			movimentarGuilda("Agregado");
+
+			confereComOBanco(aventureiroService.estatisticas());
+		}
+	}
+
+	@Nested
+	@TestPropertySource(properties = "guilda.estatisticas.contadores.enabled=true")
+	class ComContadores {
+
+		@Autowired
+		private ContadoresGuilda contadoresGuilda;
+
+		@Test
+		void contadoresAcompanhamAsEscritas() {
+			assertThat(contadoresGuilda.isPronto()).isTrue();
+			movimentarGuilda("Contado");
+
+			confereComOBanco(aventureiroService.estatisticas());
+		}
+
+		@Test
+		void exclusaoDuranteACargaNaoVoltaAContar() {
+			// A exclusão é confirmada antes de a leitura da tabela chegar à linha do herói
+			LeitorAventureiros leitor = mock(LeitorAventureiros.class);
+			ContadoresGuilda contadores = new ContadoresGuilda(leitor, true);
+			Aventureiro excluido = comId(new Aventureiro("Vilgefortz", ClasseRPG.MAGO), 7L);
+			Aventureiro mantido = comId(new Aventureiro("Regis", ClasseRPG.CLERIGO), 8L);
+			when(leitor.percorrerNoPrimario(any())).thenAnswer(invocacao -> {
+				Consumer<Aventureiro> consumidor = invocacao.getArgument(0);
+				contadores.aoRemover(new AventureiroRemovidoEvent(excluido.getId()));
+				consumidor.accept(excluido);
+				consumidor.accept(mantido);
+				return 2L;
+			});
+
+			contadores.carregarNaInicializacao();
+
+			EstatisticasGuilda estatisticas = contadores.instantaneo();
+			assertThat(estatisticas.total()).isEqualTo(1);
+			assertThat(estatisticas.porClasse().get(ClasseRPG.MAGO)).isZero();
+		}
+
+		private static Aventureiro comId(Aventureiro aventureiro, long id) {
+			aventureiro.setId(id);
+			aventureiro.setVersao(0L);
+			return aventureiro;
+		}
+	}
+
+	/**
+	 * Cria, altera, manda em missão e remove aventureiros, passando por todos os eventos.
+	 */
+	private void movimentarGuilda(String prefixo) {
+		ClasseRPG[] classes = ClasseRPG.values();
+		for (int i = 0; i < 20; i++) {
+			Aventureiro aventureiro = new Aventureiro(prefixo + " " + i, classes[i % 3]);
+			aventureiro.setNivel(1 + i % 4);
+			aventureiro.setXp((i * 13) % 100);
+			aventureiroService.create(aventureiro);
+		}
+		List<Aventureiro> criados = aventureiroRepository.findAll();
+
+		Aventureiro trocado = criados.get(0);
+		trocado.setClasse(ClasseRPG.BARDO);
+		trocado.setNivel(9);
+		aventureiroService.update(trocado);
+		aventureiroService.realizarMissao(criados.get(1).getId());
+		aventureiroService.delete(criados.get(2).getId());
+	}
+
+	private void confereComOBanco(EstatisticasGuilda estatisticas) {
+		List<Aventureiro> todos = aventureiroRepository.findAll();
+		Map<Integer, Long> histograma = todos.stream()
+				.collect(Collectors.groupingBy(Aventureiro::getNivel, TreeMap::new, Collectors.counting()));
+
+		assertThat(estatisticas.total()).isEqualTo(todos.size());
+		assertThat(estatisticas.porClasse().get(ClasseRPG.BARDO)).isEqualTo(1);
+		assertThat(estatisticas.porClasse().values().stream().mapToLong(Long::longValue).sum()).isEqualTo(todos.size());
+		assertThat(estatisticas.histogramaNiveis()).containsExactlyEntriesOf(histograma);
+		assertThat(estatisticas.nivelMaximo()).isEqualTo(9);
+		assertThat(estatisticas.mediaNivel())
+				.isCloseTo(todos.stream().mapToInt(Aventureiro::getNivel).average().orElse(0), within(1e-9));
+		assertThat(estatisticas.xpTotal()).isEqualTo(todos.stream().mapToLong(Aventureiro::getXp).sum());
+	}
+
+}
@@ -0,0 +1,76 @@
+package workshop.spring.apirest.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import workshop.spring.apirest.dto.ItemLote;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.repository.AventureiroRepository;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara a listagem com entidades (caminho antigo) com a listagem de fichas montadas no SELECT,
+ * em tempo e em memória alocada por chamada.
+ * Fica fora do build normal; rode com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class FichaAventureiroBenchmarkTests {
+
+	private static final int AVENTUREIROS = 20_000;
+	private static final int AQUECIMENTO = 20;
+	private static final int MEDICOES = 50;
+
+	@Autowired
+	private AventureiroService aventureiroService;
+
+	@Autowired
+	private AventureiroRepository aventureiroRepository;
+
+	@Test
+	void listagemComEntidadesVersusFichas() {
+		ClasseRPG[] classes = ClasseRPG.values();
+		aventureiroService.criarEmLote(LongStream.range(0, AVENTUREIROS)
+				.mapToObj(i -> ItemLote.valido(i, new Aventureiro("Ficha " + i, classes[(int) (i % classes.length)])))
+				.iterator());
+
+		Medicao entidades = medir("Entidades", () -> aventureiroRepository.findAll());
+		Medicao fichas = medir("Fichas", () -> aventureiroService.findAll());
+
+		System.out.printf("findAll com %d aventureiros: %.1fx mais rápido, %.1fx menos memória alocada%n",
+				AVENTUREIROS, entidades.ms() / fichas.ms(), (double) entidades.bytes() / fichas.bytes());
+		assertThat(aventureiroService.findAll()).hasSameSizeAs(aventureiroRepository.findAll());
+	}
+
+	/**
+	 * Executa a busca algumas vezes para aquecer a JVM e devolve o tempo médio e a memória
+	 * alocada pela thread em cada chamada.
+	 */
+	private Medicao medir(String nome, Supplier<List<?>> busca) {
+		for (int i = 0; i < AQUECIMENTO; i++) {
+			busca.get();
+		}
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long alocadoAntes = threads.getCurrentThreadAllocatedBytes();
+		long inicio = System.nanoTime();
+		for (int i = 0; i < MEDICOES; i++) {
+			busca.get();
+		}
+		double ms = (System.nanoTime() - inicio) / 1_000_000.0 / MEDICOES;
+		long bytes = (threads.getCurrentThreadAllocatedBytes() - alocadoAntes) / MEDICOES;
+		System.out.printf("%s: %.3f ms/op, %,d KB alocados/op%n", nome, ms, bytes / 1024);
+		return new Medicao(ms, bytes);
+	}
+
+	private record Medicao(double ms, long bytes) {
+	}
+
+}
@@ -0,0 +1,72 @@
+package workshop.spring.apirest.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import workshop.spring.apirest.dto.ItemLote;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.repository.AventureiroRepository;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara a busca por classe feita pelo JPQL com a feita pelo índice em memória.
+ * Fica fora do build normal; rode com {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "guilda.indice-classes.enabled=true")
+class IndicePorClasseBenchmarkTests {
+
+	private static final int AVENTUREIROS = 20_000;
+	private static final int AQUECIMENTO = 20;
+	private static final int MEDICOES = 50;
+
+	@Autowired
+	private AventureiroService aventureiroService;
+
+	@Autowired
+	private AventureiroRepository aventureiroRepository;
+
+	@Autowired
+	private IndicePorClasse indicePorClasse;
+
+	@Test
+	void buscaPorClasseJpqlVersusIndiceEmMemoria() {
+		ClasseRPG[] classes = ClasseRPG.values();
+		aventureiroService.criarEmLote(LongStream.range(0, AVENTUREIROS)
+				.mapToObj(i -> ItemLote.valido(i, new Aventureiro("Bench " + i, classes[(int) (i % classes.length)])))
+				.iterator());
+		assertThat(indicePorClasse.verificar().consistente()).isTrue();
+
+		double jpql = medir("JPQL", () -> aventureiroRepository.findByClasse(ClasseRPG.MAGO));
+		double indice = medir("Índice em memória", () -> indicePorClasse.listar(ClasseRPG.MAGO));
+
+		System.out.printf("findByClasse com %d aventureiros: JPQL %.3f ms/op, índice %.3f ms/op (%.1fx)%n",
+				AVENTUREIROS, jpql, indice, jpql / indice);
+		assertThat(indicePorClasse.listar(ClasseRPG.MAGO))
+				.hasSameSizeAs(aventureiroRepository.findByClasse(ClasseRPG.MAGO));
+	}
+
+	/**
+	 * Executa a busca algumas vezes para aquecer a JVM e devolve o tempo médio, em milissegundos.
+	 */
+	private double medir(String nome, Supplier<List<?>> busca) {
+		for (int i = 0; i < AQUECIMENTO; i++) {
+			busca.get();
+		}
+		long inicio = System.nanoTime();
+		for (int i = 0; i < MEDICOES; i++) {
+			busca.get();
+		}
+		double media = (System.nanoTime() - inicio) / 1_000_000.0 / MEDICOES;
+		System.out.printf("%s: %.3f ms/op%n", nome, media);
+		return media;
+	}
+
+}
@@ -0,0 +1,79 @@
+package workshop.spring.apirest.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import workshop.spring.apirest.dto.FichaAventureiro;
+import workshop.spring.apirest.dto.RelatorioIndiceClasses;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.repository.AventureiroRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = "guilda.indice-classes.enabled=true")
+class IndicePorClasseTests {
+
+	@Autowired
+	private AventureiroService aventureiroService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@MockitoSpyBean
+	private AventureiroRepository aventureiroRepository;
+
+	@Test
+	void buscaEContagemPorClasseNaoVaoAoBanco() {
+		Aventureiro criado = aventureiroService.create(new Aventureiro("Eskel", ClasseRPG.BRUXO));
+		aventureiroService.realizarMissao(criado.getId());
+
+		FichaAventureiro lido = aventureiroService.findByClasse(ClasseRPG.BRUXO).stream()
+				.filter(a -> a.id().equals(criado.getId())).findFirst().orElseThrow();
+		assertThat(lido.xp()).isPositive();
+		assertThat(lido.versao()).isEqualTo(1);
+		assertThat(aventureiroService.contarPorClasse(ClasseRPG.BRUXO)).isEqualTo(aventureiroRepository.countByClasse(ClasseRPG.BRUXO));
+
+		verify(aventureiroRepository, never()).listarFichasPorClasse(any());
+	}
+
+	@Test
+	void acompanhaTrocaDeClasseEExclusao() {
+		Aventureiro criado = aventureiroService.create(new Aventureiro("Keira", ClasseRPG.MAGO));
+
+		Aventureiro alterado = aventureiroService.findById(criado.getId()).orElseThrow();
+		alterado.setClasse(ClasseRPG.CLERIGO);
+		aventureiroService.update(alterado);
+
+		assertThat(aventureiroService.findByClasse(ClasseRPG.MAGO)).extracting(FichaAventureiro::id).doesNotContain(criado.getId());
+		assertThat(aventureiroService.findByClasse(ClasseRPG.CLERIGO)).extracting(FichaAventureiro::id).contains(criado.getId());
+
+		aventureiroService.delete(criado.getId());
+
+		assertThat(aventureiroService.findByClasse(ClasseRPG.CLERIGO)).extracting(FichaAventureiro::id).doesNotContain(criado.getId());
+		assertThat(aventureiroService.verificarIndiceClasses().consistente()).isTrue();
+	}
+
+	@Test
+	void verificacaoApontaAlteracaoFeitaForaDaAplicacaoEReconstrucaoCorrige() {
+		Aventureiro criado = aventureiroService.create(new Aventureiro("Zoltan", ClasseRPG.GUERREIRO));
+		jdbcTemplate.update("UPDATE aventureiro SET nivel = 7, versao = versao + 1 WHERE id = ?", criado.getId());
+
+		RelatorioIndiceClasses antes = aventureiroService.verificarIndiceClasses();
+		assertThat(antes.divergentes()).isEqualTo(1);
+		assertThat(antes.consistente()).isFalse();
+
+		aventureiroService.reconstruirIndiceClasses();
+
+		assertThat(aventureiroService.verificarIndiceClasses().consistente()).isTrue();
+		assertThat(aventureiroService.findByClasse(ClasseRPG.GUERREIRO))
+				.filteredOn(a -> a.id().equals(criado.getId()))
+				.extracting(FichaAventureiro::nivel).containsExactly(7);
+	}
+
+}
@@ -0,0 +1,121 @@
+package workshop.spring.apirest.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.event.MissaoConcluidaEvent;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class PipelineMissoesTests {
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final List<Long> recebidos = new CopyOnWriteArrayList<>();
+	private final CountDownLatch liberado = new CountDownLatch(1);
+
+	private PipelineMissoes pipeline;
+
+	/**
+	 * Assinante que segura o consumidor até o teste liberar, para encher a fila.
+	 */
+	private final AssinanteMissoes assinanteLento = evento -> {
+		try {
+			liberado.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		recebidos.add(evento.id());
+	};
+
+	@AfterEach
+	void encerrar() throws InterruptedException {
+		liberado.countDown();
+		pipeline.encerrar();
+	}
+
+	@Test
+	void entregaEmOrdemParaTodosOsAssinantes() {
+		List<Long> outro = new CopyOnWriteArrayList<>();
+		pipeline = new PipelineMissoes(List.of(evento -> recebidos.add(evento.id()), evento -> {
+			throw new IllegalStateException("assinante com defeito");
+		}, evento -> outro.add(evento.id())), meterRegistry, 16, PoliticaTransbordo.DESCARTAR, 10);
+
+		for (long id = 1; id <= 100; id++) {
+			pipeline.publicar(missao(id));
+		}
+
+		await().atMost(5, TimeUnit.SECONDS).until(() -> outro.size() + descartados("fila-cheia") == 100);
+		assertThat(recebidos).isSorted().isEqualTo(outro);
+		assertThat(meterRegistry.get("guilda.eventos.falhas").counter().count()).isEqualTo(outro.size());
+	}
+
+	@Test
+	void descartaQuandoAFilaEnche() {
+		pipeline = new PipelineMissoes(List.of(assinanteLento), meterRegistry, 4, PoliticaTransbordo.DESCARTAR, 10);
+
+		int aceitos = 0;
+		for (long id = 1; id <= 20; id++) {
+			aceitos += pipeline.publicar(missao(id)) ? 1 : 0;
+		}
+
+		// 4 na fila e, no máximo, 1 já retirado pelo consumidor (parado no assinante)
+		assertThat(aceitos).isBetween(4, 5);
+		assertThat(descartados("fila-cheia")).isEqualTo(20 - aceitos);
+		liberado.countDown();
+		int entregues = aceitos;
+		await().atMost(5, TimeUnit.SECONDS).until(() -> recebidos.size() == entregues);
+	}
+
+	@Test
+	void amostraAPartirDeMeiaFila() {
+		pipeline = new PipelineMissoes(List.of(assinanteLento), meterRegistry, 64, PoliticaTransbordo.AMOSTRAR, 10);
+
+		int aceitos = 0;
+		for (long id = 1; id <= 100; id++) {
+			aceitos += pipeline.publicar(missao(id)) ? 1 : 0;
+		}
+
+		// Até meia fila (32) tudo entra; dos 68 restantes, só 1 em cada 10
+		assertThat(aceitos).isBetween(38, 40);
+		assertThat(descartados("amostragem")).isEqualTo(100 - aceitos);
+		assertThat(descartados("fila-cheia")).isZero();
+	}
+
+	@Test
+	void bloqueiaSemPerderEventos() throws Exception {
+		pipeline = new PipelineMissoes(List.of(assinanteLento), meterRegistry, 4, PoliticaTransbordo.BLOQUEAR, 10);
+
+		CompletableFuture<Void> publicacao = CompletableFuture.runAsync(() -> {
+			for (long id = 1; id <= 50; id++) {
+				pipeline.publicar(missao(id));
+			}
+		});
+		// Com o consumidor parado, quem publica fica esperando espaço na fila
+		Thread.sleep(200);
+		assertThat(publicacao).isNotDone();
+
+		liberado.countDown();
+		publicacao.get(5, TimeUnit.SECONDS);
+		await().atMost(5, TimeUnit.SECONDS).until(() -> recebidos.size() == 50);
+		assertThat(recebidos).isSorted();
+		assertThat(meterRegistry.find("guilda.eventos.descartados").counters())
+				.allSatisfy(contador -> assertThat(contador.count()).isZero());
+	}
+
+	private double descartados(String motivo) {
+		return meterRegistry.get("guilda.eventos.descartados").tag("motivo", motivo).counter().count();
+	}
+
+	private static MissaoConcluidaEvent missao(long id) {
+		return new MissaoConcluidaEvent(id, "Heroi " + id, ClasseRPG.MAGO, 15, 1, 15, 0);
+	}
+}
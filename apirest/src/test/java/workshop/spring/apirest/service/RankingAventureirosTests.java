@@ -0,0 +1,117 @@
+package workshop.spring.apirest.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import workshop.spring.apirest.dto.ColocacaoAventureiro;
+import workshop.spring.apirest.dto.PosicaoRanking;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.event.AventureiroRemovidoEvent;
+import workshop.spring.apirest.repository.AventureiroRepository;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = "guilda.ranking.enabled=true")
+class RankingAventureirosTests {
+
+	@Autowired
+	private AventureiroService aventureiroService;
+
+	@Autowired
+	private AventureiroRepository aventureiroRepository;
+
+	@BeforeEach
+	void limparGuilda() {
+		aventureiroRepository.findAll().forEach(a -> aventureiroService.delete(a.getId()));
+	}
+
+	@Test
+	void ordenaPorNivelEXpEAcompanhaAsAlteracoes() {
+		Aventureiro dandelion = criar("Dandelion", ClasseRPG.BARDO, 2, 50);
+		Aventureiro triss = criar("Triss", ClasseRPG.MAGO, 3, 10);
+		Aventureiro philippa = criar("Philippa", ClasseRPG.MAGO, 2, 90);
+
+		assertThat(aventureiroService.buscarRanking(null, null)).extracting(PosicaoRanking::nome)
+				.containsExactly("Triss", "Philippa", "Dandelion");
+		assertThat(aventureiroService.buscarRanking(1, ClasseRPG.MAGO)).extracting(PosicaoRanking::nome)
+				.containsExactly("Triss");
+
+		Aventureiro promovido = aventureiroService.findById(dandelion.getId()).orElseThrow();
+		promovido.setNivel(5);
+		aventureiroService.update(promovido);
+		aventureiroService.delete(triss.getId());
+
+		assertThat(aventureiroService.buscarRanking(10, null)).extracting(PosicaoRanking::nome)
+				.containsExactly("Dandelion", "Philippa");
+		assertThat(aventureiroService.buscarRanking(10, null)).extracting(PosicaoRanking::posicao)
+				.containsExactly(1L, 2L);
+		assertThat(aventureiroService.buscarColocacao(philippa.getId())).get()
+				.extracting(ColocacaoAventureiro::posicaoGeral, ColocacaoAventureiro::posicaoNaClasse)
+				.containsExactly(2L, 1L);
+	}
+
+	@Test
+	void rankingEmMemoriaIgualAoDoBanco() {
+		ClasseRPG[] classes = ClasseRPG.values();
+		for (int i = 0; i < 60; i++) {
+			criar("Ranqueado " + i, classes[i % classes.length], 1 + i % 4, (i * 37) % 100);
+		}
+		Aventureiro heroi = aventureiroRepository.findByNome("Ranqueado 17");
+		aventureiroService.realizarMissao(heroi.getId());
+
+		List<Long> doBanco = aventureiroRepository.findRanking(Limit.of(25)).stream().map(Aventureiro::getId).toList();
+		assertThat(aventureiroService.buscarRanking(25, null)).extracting(PosicaoRanking::id)
+				.containsExactlyElementsOf(doBanco);
+
+		Aventureiro atual = aventureiroRepository.findById(heroi.getId()).orElseThrow();
+		ColocacaoAventureiro colocacao = aventureiroService.buscarColocacao(heroi.getId()).orElseThrow();
+		assertThat(colocacao.posicaoGeral())
+				.isEqualTo(aventureiroRepository.contarAFrente(atual.getNivel(), atual.getXp(), atual.getId()) + 1);
+		assertThat(colocacao.posicaoNaClasse()).isEqualTo(aventureiroRepository.contarAFrenteNaClasse(
+				atual.getClasse(), atual.getNivel(), atual.getXp(), atual.getId()) + 1);
+	}
+
+	@Test
+	void exclusaoDuranteACargaNaoVoltaPeloBanco() {
+		// A exclusão é confirmada antes de a leitura da tabela chegar à linha do herói
+		LeitorAventureiros leitor = mock(LeitorAventureiros.class);
+		RankingAventureiros ranking = new RankingAventureiros(leitor, true);
+		Aventureiro excluido = comId(new Aventureiro("Vilgefortz", ClasseRPG.MAGO), 7L);
+		Aventureiro mantido = comId(new Aventureiro("Regis", ClasseRPG.CLERIGO), 8L);
+		when(leitor.percorrerNoPrimario(any())).thenAnswer(invocacao -> {
+			Consumer<Aventureiro> consumidor = invocacao.getArgument(0);
+			ranking.aoRemover(new AventureiroRemovidoEvent(excluido.getId()));
+			consumidor.accept(excluido);
+			consumidor.accept(mantido);
+			return 2L;
+		});
+
+		ranking.carregarNaInicializacao();
+
+		assertThat(ranking.primeiros(10, null)).extracting(PosicaoRanking::nome).containsExactly("Regis");
+		assertThat(ranking.colocacao(excluido.getId())).isEmpty();
+	}
+
+	private static Aventureiro comId(Aventureiro aventureiro, long id) {
+		aventureiro.setId(id);
+		aventureiro.setVersao(0L);
+		return aventureiro;
+	}
+
+	private Aventureiro criar(String nome, ClasseRPG classe, int nivel, int xp) {
+		Aventureiro aventureiro = new Aventureiro(nome, classe);
+		aventureiro.setNivel(nivel);
+		aventureiro.setXp(xp);
+		return aventureiroService.create(aventureiro);
+	}
+
+}
@@ -0,0 +1,157 @@
+package workshop.spring.apirest.benchmark;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lê, durante a medição do {@link GeradorCarga}, quantas conexões com o banco o servidor
+ * está usando, pela métrica do Actuator ({@code /actuator/metrics/<nome>}).
+ *
+ * Métricas conhecidas, uma para cada módulo:
+ * - {@code hikaricp.connections.active}: conexões JDBC em uso no módulo {@code apirest}
+ * - {@code r2dbc.pool.acquired}: conexões R2DBC em uso no módulo {@code apirest-reactive}
+ *
+ * Com a mesma carga nos dois servidores, a vazão dividida pela média de conexões mostra
+ * quanto trabalho cada conexão rende em cada modelo.
+ */
+final class AmostradorConexoes implements AutoCloseable {
+
+    /**
+     * Métricas tentadas, em ordem, quando a configuração pede detecção automática.
+     */
+    static final List<String> METRICAS_CONHECIDAS = List.of("hikaricp.connections.active", "r2dbc.pool.acquired");
+
+    private static final long INTERVALO_MS = 200;
+
+    private final HttpClient httpClient;
+    private final JsonMapper jsonMapper;
+    private final URI uri;
+    private final String metrica;
+    private final ScheduledExecutorService agendador;
+
+    // Campos abaixo protegidos pelo monitor deste objeto
+    private long amostras;
+    private double soma;
+    private double pico;
+
+    private AmostradorConexoes(HttpClient httpClient, JsonMapper jsonMapper, String base, String metrica) {
+        this.httpClient = httpClient;
+        this.jsonMapper = jsonMapper;
+        this.uri = URI.create(base + "/actuator/metrics/" + metrica);
+        this.metrica = metrica;
+        this.agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "amostrador-conexoes");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Prepara o amostrador, conferindo se o servidor publica a métrica.
+     *
+     * @param httpClient Cliente HTTP do gerador
+     * @param jsonMapper Conversor JSON do gerador
+     * @param base URL base do servidor
+     * @param configuracao Nome da métrica, {@code auto} para tentar as {@link #METRICAS_CONHECIDAS}
+     *                     ou {@code nenhuma} para não amostrar
+     * @return O amostrador, ou vazio se a amostragem estiver desligada ou a métrica não existir
+     */
+    static Optional<AmostradorConexoes> criar(HttpClient httpClient, JsonMapper jsonMapper, String base,
+                                              String configuracao) throws InterruptedException {
+        if (configuracao.isEmpty() || configuracao.equals("nenhuma")) {
+            return Optional.empty();
+        }
+        List<String> candidatas = configuracao.equals("auto") ? METRICAS_CONHECIDAS : List.of(configuracao);
+        for (String metrica : candidatas) {
+            AmostradorConexoes amostrador = new AmostradorConexoes(httpClient, jsonMapper, base, metrica);
+            if (amostrador.ler().isPresent()) {
+                return Optional.of(amostrador);
+            }
+            amostrador.close();
+        }
+        System.out.println("Métrica de conexões não encontrada em " + base + "/actuator/metrics " + candidatas
+                + "; o relatório sai sem conexões");
+        return Optional.empty();
+    }
+
+    /**
+     * Começa a ler a métrica a cada {@value #INTERVALO_MS} ms.
+     */
+    void iniciar() {
+        agendador.scheduleAtFixedRate(() -> {
+            try {
+                ler().ifPresent(this::registrar);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 0, INTERVALO_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Para a leitura e resume as amostras.
+     *
+     * @param vazao Requisições por segundo da medição
+     * @return Média e pico de conexões, e a vazão por conexão média
+     */
+    Conexoes encerrar(double vazao) {
+        close();
+        synchronized (this) {
+            double media = amostras == 0 ? 0 : soma / amostras;
+            return new Conexoes(metrica, amostras, media, pico, media == 0 ? 0 : vazao / media);
+        }
+    }
+
+    private synchronized void registrar(double valor) {
+        amostras++;
+        soma += valor;
+        pico = Math.max(pico, valor);
+    }
+
+    /**
+     * @return O valor atual da métrica, ou vazio se o servidor não a publicar
+     */
+    private Optional<Double> ler() throws InterruptedException {
+        try {
+            HttpResponse<String> resposta = httpClient.send(
+                    HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(2)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (resposta.statusCode() != 200) {
+                return Optional.empty();
+            }
+            // {"name": "...", "measurements": [{"statistic": "VALUE", "value": 3.0}], ...}
+            JsonNode medidas = jsonMapper.readTree(resposta.body()).path("measurements");
+            return medidas.isEmpty() ? Optional.empty() : Optional.of(medidas.get(0).path("value").asDouble());
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void close() {
+        agendador.shutdownNow();
+    }
+
+    /**
+     * Uso de conexões durante a medição.
+     *
+     * @param metrica Métrica lida no Actuator
+     * @param amostras Quantidade de leituras
+     * @param media Média de conexões em uso
+     * @param pico Maior quantidade de conexões em uso em uma leitura
+     * @param vazaoPorConexao Requisições por segundo divididas pela média de conexões
+     */
+    record Conexoes(String metrica, long amostras, double media, double pico, double vazaoPorConexao) {
+    }
+}
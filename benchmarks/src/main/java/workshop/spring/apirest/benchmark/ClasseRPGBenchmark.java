@@ -0,0 +1,61 @@
+package workshop.spring.apirest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import workshop.spring.apirest.entity.ClasseRPG;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão de texto em {@link ClasseRPG}:
+ * - {@link ClasseRPG#fromNome}, que percorre as constantes com {@code equalsIgnoreCase}
+ *   (a primeira constante, a última e um nome em minúsculas)
+ * - a conversão feita pelo Spring MVC nos {@code @PathVariable ClasseRPG}
+ *   ({@code StringToEnumConverterFactory}, o mesmo serviço de conversão do MVC)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClasseRPGBenchmark {
+
+    @Param({"MAGO", "ARQUEIRO"})
+    private String nome;
+
+    private final DefaultFormattingConversionService conversao = new DefaultFormattingConversionService();
+
+    private String minusculo;
+
+    @Setup
+    public void preparar() {
+        minusculo = nome.toLowerCase(Locale.ROOT);
+    }
+
+    @Benchmark
+    public ClasseRPG fromNome() {
+        return ClasseRPG.fromNome(nome);
+    }
+
+    @Benchmark
+    public ClasseRPG fromNomeMinusculo() {
+        return ClasseRPG.fromNome(minusculo);
+    }
+
+    @Benchmark
+    public ClasseRPG pathVariable() {
+        return conversao.convert(nome, ClasseRPG.class);
+    }
+}
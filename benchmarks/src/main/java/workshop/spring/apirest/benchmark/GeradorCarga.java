@@ -0,0 +1,374 @@
+package workshop.spring.apirest.benchmark;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import workshop.spring.apirest.ApiRestApplication;
+import workshop.spring.apirest.entity.ClasseRPG;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga HTTP para a API da Guilda.
+ *
+ * Sem {@code --url}, sobe a própria aplicação neste processo com o perfil Spring {@code perf}
+ * (H2 em memória, sem log de SQL), então não precisa de MySQL nem de outro serviço.
+ *
+ * Etapas:
+ * 1. Semeia {@code --aventureiros} aventureiros com {@code POST /aventureiros/criar/lote}
+ * 2. Aquece por {@code --aquecimento} segundos (medições descartadas)
+ * 3. Envia {@code --taxa} requisições por segundo durante {@code --duracao} segundos,
+ *    sorteando a operação conforme o {@code --mix} (listar, buscar, criar e missao)
+ * 4. Grava vazão, percentis de latência e taxa de erros em {@code --saida} (JSON)
+ *
+ * Durante a medição, as conexões com o banco em uso no servidor são lidas do Actuator
+ * ({@code --conexoes}, ver {@link AmostradorConexoes}). O relatório traz a média, o pico e a
+ * vazão por conexão, para comparar o módulo {@code apirest} (JDBC) com o {@code apirest-reactive}
+ * (R2DBC) sob a mesma carga.
+ *
+ * A carga é de malha aberta: cada requisição tem um horário marcado e a latência é contada
+ * a partir dele, não do envio. Se o servidor atrasa, as requisições seguintes não esperam
+ * e o atraso aparece nos percentis (sem a "omissão coordenada" de quem espera a resposta
+ * para enviar a próxima).
+ *
+ * Execução: {@code mvn -pl benchmarks exec:exec@carga -Dcarga.taxa=500 -Dcarga.duracao=60}
+ */
+public final class GeradorCarga {
+
+    /**
+     * Maior latência registrada nos histogramas (acima disso, o valor é limitado).
+     */
+    private static final long LATENCIA_MAXIMA_US = TimeUnit.MINUTES.toMicros(1);
+
+    private final Configuracao configuracao;
+    private final HttpClient httpClient;
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private final Map<OperacaoCarga, Recorder> latencias = new EnumMap<>(OperacaoCarga.class);
+    private final Map<OperacaoCarga, LongAdder> erros = new EnumMap<>(OperacaoCarga.class);
+    private final AtomicInteger emVoo = new AtomicInteger();
+
+    private GeradorCarga(Configuracao configuracao) {
+        this.configuracao = configuracao;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(configuracao.tempoLimite())
+                .build();
+        for (OperacaoCarga operacao : OperacaoCarga.values()) {
+            latencias.put(operacao, new Recorder(LATENCIA_MAXIMA_US, 3));
+            erros.put(operacao, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Configuracao configuracao = Configuracao.ler(args);
+        ConfigurableApplicationContext contexto = null;
+        String base = configuracao.url();
+        if (base.isEmpty()) {
+            contexto = new SpringApplicationBuilder(ApiRestApplication.class)
+                    .profiles("perf")
+                    .properties("server.port=0")
+                    .run();
+            base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            new GeradorCarga(configuracao).executar(base);
+        } finally {
+            if (contexto != null) {
+                contexto.close();
+            }
+        }
+    }
+
+    private void executar(String base) throws IOException, InterruptedException {
+        System.out.printf("Alvo: %s | %d aventureiros | %d req/s por %d s (+%d s de aquecimento) | mix %s%n",
+                base, configuracao.aventureiros(), configuracao.taxa(), configuracao.duracao(),
+                configuracao.aquecimento(), configuracao.mix());
+        OperacaoCarga.Alvo alvo = semear(base);
+
+        gerar(alvo, configuracao.aquecimento());
+        aguardarEmVoo();
+        latencias.values().forEach(Recorder::reset);
+        erros.values().forEach(LongAdder::reset);
+
+        Optional<AmostradorConexoes> amostrador = AmostradorConexoes.criar(httpClient, jsonMapper, base,
+                configuracao.conexoes());
+        amostrador.ifPresent(AmostradorConexoes::iniciar);
+        long inicio = System.nanoTime();
+        long enviadas = gerar(alvo, configuracao.duracao());
+        aguardarEmVoo();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        Relatorio relatorio = relatorio(enviadas, segundos);
+        if (amostrador.isPresent()) {
+            relatorio = relatorio.comConexoes(amostrador.get().encerrar(relatorio.total().vazao()));
+        }
+        Path saida = Path.of(configuracao.saida());
+        if (saida.getParent() != null) {
+            Files.createDirectories(saida.getParent());
+        }
+        jsonMapper.writerWithDefaultPrettyPrinter().writeValue(saida.toFile(), relatorio);
+        imprimir(relatorio);
+        System.out.println("Relatório gravado em " + saida.toAbsolutePath());
+    }
+
+    /**
+     * Cria os aventureiros da carga em lotes de 1000 e lê de volta os IDs gerados.
+     */
+    private OperacaoCarga.Alvo semear(String base) throws IOException, InterruptedException {
+        String prefixo = "Carga " + Long.toString(System.currentTimeMillis(), 36);
+        ClasseRPG[] classes = ClasseRPG.values();
+        for (int inicio = 0; inicio < configuracao.aventureiros(); inicio += 1000) {
+            int fim = Math.min(inicio + 1000, configuracao.aventureiros());
+            List<Map<String, String>> lote = new ArrayList<>(fim - inicio);
+            for (int i = inicio; i < fim; i++) {
+                lote.add(Map.of("nome", prefixo + " " + i, "classe", classes[i % classes.length].name()));
+            }
+            HttpRequest requisicao = HttpRequest.newBuilder(URI.create(base + "/aventureiros/criar/lote"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(jsonMapper.writeValueAsString(lote)))
+                    .build();
+            HttpResponse<String> resposta = httpClient.send(requisicao, HttpResponse.BodyHandlers.ofString());
+            if (resposta.statusCode() != 200) {
+                throw new IllegalStateException("Falha ao semear aventureiros: HTTP " + resposta.statusCode());
+            }
+        }
+
+        HttpResponse<String> guilda = httpClient.send(
+                HttpRequest.newBuilder(URI.create(base + "/aventureiros/listar")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        List<Long> ids = new ArrayList<>();
+        List<String> nomes = new ArrayList<>();
+        for (JsonNode ficha : jsonMapper.readTree(guilda.body())) {
+            String nome = ficha.get("nome").asString();
+            if (nome.startsWith(prefixo)) {
+                ids.add(ficha.get("id").asLong());
+                nomes.add(nome);
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("Nenhum aventureiro semeado foi encontrado em /aventureiros/listar");
+        }
+        return new OperacaoCarga.Alvo(base, ids.stream().mapToLong(Long::longValue).toArray(),
+                nomes.toArray(String[]::new), prefixo + " novo", configuracao.tempoLimite());
+    }
+
+    /**
+     * Envia requisições no ritmo configurado, sem esperar as respostas.
+     *
+     * @return Quantidade de requisições agendadas
+     */
+    private long gerar(OperacaoCarga.Alvo alvo, int segundos) {
+        long intervaloNs = TimeUnit.SECONDS.toNanos(1) / configuracao.taxa();
+        long total = (long) configuracao.taxa() * segundos;
+        OperacaoCarga[] sorteio = configuracao.sorteio();
+        long inicio = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long marcado = inicio + i * intervaloNs;
+            long espera;
+            while ((espera = marcado - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            OperacaoCarga operacao = sorteio[ThreadLocalRandom.current().nextInt(sorteio.length)];
+            if (emVoo.get() >= configuracao.maxEmVoo()) {
+                // Servidor muito atrasado: conta como erro em vez de acumular requisições sem limite
+                erros.get(operacao).increment();
+                latencias.get(operacao).recordValue(Math.min((System.nanoTime() - marcado) / 1000, LATENCIA_MAXIMA_US));
+                continue;
+            }
+            emVoo.incrementAndGet();
+            httpClient.sendAsync(operacao.requisicao(alvo), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((resposta, falha) -> {
+                        long latenciaUs = (System.nanoTime() - marcado) / 1000;
+                        latencias.get(operacao).recordValue(Math.min(latenciaUs, LATENCIA_MAXIMA_US));
+                        if (falha != null || resposta.statusCode() >= 400) {
+                            erros.get(operacao).increment();
+                        }
+                        emVoo.decrementAndGet();
+                    });
+        }
+        return total;
+    }
+
+    private void aguardarEmVoo() {
+        long limite = System.nanoTime() + configuracao.tempoLimite().toNanos() * 2;
+        while (emVoo.get() > 0 && System.nanoTime() < limite) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    private Relatorio relatorio(long enviadas, double segundos) {
+        Histogram total = new Histogram(LATENCIA_MAXIMA_US, 3);
+        long errosTotal = 0;
+        Map<String, Estatisticas> porOperacao = new LinkedHashMap<>();
+        for (OperacaoCarga operacao : OperacaoCarga.values()) {
+            Histogram histograma = latencias.get(operacao).getIntervalHistogram();
+            long errosOperacao = erros.get(operacao).sum();
+            if (histograma.getTotalCount() > 0) {
+                porOperacao.put(operacao.chave(), Estatisticas.de(histograma, errosOperacao, segundos));
+            }
+            total.add(histograma);
+            errosTotal += errosOperacao;
+        }
+        return new Relatorio(configuracao, enviadas, segundos,
+                Estatisticas.de(total, errosTotal, segundos), porOperacao, null);
+    }
+
+    private static void imprimir(Relatorio relatorio) {
+        System.out.printf("%n%-8s %9s %9s %8s %9s %9s %9s %9s %9s%n",
+                "operacao", "req", "req/s", "erros%", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        relatorio.operacoes().forEach((nome, estatisticas) -> imprimir(nome, estatisticas));
+        imprimir("total", relatorio.total());
+        AmostradorConexoes.Conexoes conexoes = relatorio.conexoes();
+        if (conexoes != null) {
+            System.out.printf("%nConexões (%s, %d leituras): média %.2f | pico %.0f | %.1f req/s por conexão%n",
+                    conexoes.metrica(), conexoes.amostras(), conexoes.media(), conexoes.pico(),
+                    conexoes.vazaoPorConexao());
+        }
+    }
+
+    private static void imprimir(String nome, Estatisticas e) {
+        System.out.printf("%-8s %9d %9.1f %8.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                nome, e.requisicoes(), e.vazao(), e.taxaErros() * 100,
+                e.p50Ms(), e.p90Ms(), e.p99Ms(), e.p999Ms(), e.maxMs());
+    }
+
+    /**
+     * Parâmetros da carga, lidos dos argumentos {@code --nome=valor}.
+     *
+     * @param url Servidor a testar (vazio: sobe a aplicação com o perfil perf)
+     * @param aventureiros Quantidade de aventureiros semeados
+     * @param taxa Requisições por segundo
+     * @param duracao Segundos de medição
+     * @param aquecimento Segundos de aquecimento, fora da medição
+     * @param mix Peso de cada operação, como {@code listar:10,buscar:50,criar:10,missao:30}
+     * @param maxEmVoo Máximo de requisições sem resposta; acima disso, novas contam como erro
+     * @param timeoutMs Tempo máximo de cada requisição, em milissegundos
+     * @param saida Arquivo JSON do relatório
+     * @param conexoes Métrica do Actuator com as conexões em uso ({@code auto}: a primeira de
+     *                 {@link AmostradorConexoes#METRICAS_CONHECIDAS} publicada; {@code nenhuma}: não lê)
+     */
+    record Configuracao(String url, int aventureiros, int taxa, int duracao, int aquecimento,
+                        String mix, int maxEmVoo, long timeoutMs, String saida, String conexoes) {
+
+        static Configuracao ler(String[] args) {
+            Map<String, String> valores = new LinkedHashMap<>();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Argumento inválido (use --nome=valor): " + arg);
+                }
+                int separador = arg.indexOf('=');
+                valores.put(arg.substring(2, separador), arg.substring(separador + 1));
+            }
+            Configuracao configuracao = new Configuracao(
+                    valores.getOrDefault("url", "").replaceAll("/+$", ""),
+                    Integer.parseInt(valores.getOrDefault("aventureiros", "1000")),
+                    Integer.parseInt(valores.getOrDefault("taxa", "200")),
+                    Integer.parseInt(valores.getOrDefault("duracao", "30")),
+                    Integer.parseInt(valores.getOrDefault("aquecimento", "5")),
+                    valores.getOrDefault("mix", "listar:10,buscar:50,criar:10,missao:30"),
+                    Integer.parseInt(valores.getOrDefault("max-em-voo", "1000")),
+                    Long.parseLong(valores.getOrDefault("timeout-ms", "5000")),
+                    valores.getOrDefault("saida", "target/carga-resultado.json"),
+                    valores.getOrDefault("conexoes", "auto").trim());
+            if (configuracao.aventureiros() < 1 || configuracao.taxa() < 1 || configuracao.duracao() < 1
+                    || configuracao.aquecimento() < 0 || configuracao.maxEmVoo() < 1) {
+                throw new IllegalArgumentException("aventureiros, taxa, duracao e max-em-voo devem ser positivos");
+            }
+            configuracao.sorteio();
+            return configuracao;
+        }
+
+        Duration tempoLimite() {
+            return Duration.ofMillis(timeoutMs);
+        }
+
+        /**
+         * Expande o mix em uma tabela em que cada operação aparece tantas vezes quanto o seu peso.
+         *
+         * @throws IllegalArgumentException se o mix for inválido
+         */
+        OperacaoCarga[] sorteio() {
+            List<OperacaoCarga> tabela = new ArrayList<>();
+            for (String item : mix.split(",")) {
+                String[] partes = item.split(":");
+                if (partes.length != 2) {
+                    throw new IllegalArgumentException("Item do mix deve ser operacao:peso: " + item);
+                }
+                OperacaoCarga operacao = OperacaoCarga.daChave(partes[0]);
+                int peso = Integer.parseInt(partes[1].trim());
+                for (int i = 0; i < peso; i++) {
+                    tabela.add(operacao);
+                }
+            }
+            if (tabela.isEmpty()) {
+                throw new IllegalArgumentException("O mix precisa de pelo menos uma operação com peso positivo");
+            }
+            return tabela.toArray(OperacaoCarga[]::new);
+        }
+    }
+
+    /**
+     * Resultado gravado no arquivo de saída.
+     *
+     * @param configuracao Parâmetros usados
+     * @param enviadas Requisições agendadas durante a medição
+     * @param segundos Duração real da medição, incluindo a espera pelas últimas respostas
+     * @param total Números de todas as operações juntas
+     * @param operacoes Números de cada operação
+     * @param conexoes Conexões com o banco em uso durante a medição (null se não foram lidas)
+     */
+    record Relatorio(Configuracao configuracao, long enviadas, double segundos,
+                     Estatisticas total, Map<String, Estatisticas> operacoes, AmostradorConexoes.Conexoes conexoes) {
+
+        Relatorio comConexoes(AmostradorConexoes.Conexoes conexoes) {
+            return new Relatorio(configuracao, enviadas, segundos, total, operacoes, conexoes);
+        }
+    }
+
+    /**
+     * Números de uma operação (latências em milissegundos).
+     *
+     * @param requisicoes Requisições concluídas
+     * @param erros Respostas 4xx/5xx, falhas de conexão, timeouts e requisições não enviadas
+     * @param taxaErros Erros divididos pelas requisições (0 a 1)
+     * @param vazao Requisições por segundo
+     */
+    record Estatisticas(long requisicoes, long erros, double taxaErros, double vazao,
+                        double mediaMs, double p50Ms, double p90Ms, double p99Ms, double p999Ms, double maxMs) {
+
+        static Estatisticas de(Histogram histograma, long erros, double segundos) {
+            long requisicoes = histograma.getTotalCount();
+            return new Estatisticas(requisicoes, erros,
+                    requisicoes == 0 ? 0 : (double) erros / requisicoes,
+                    requisicoes / segundos,
+                    histograma.getMean() / 1000,
+                    histograma.getValueAtPercentile(50) / 1000.0,
+                    histograma.getValueAtPercentile(90) / 1000.0,
+                    histograma.getValueAtPercentile(99) / 1000.0,
+                    histograma.getValueAtPercentile(99.9) / 1000.0,
+                    histograma.getMaxValue() / 1000.0);
+        }
+    }
+}
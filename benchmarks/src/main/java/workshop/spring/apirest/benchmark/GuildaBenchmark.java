@@ -0,0 +1,88 @@
+package workshop.spring.apirest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import workshop.spring.apirest.dto.FichaAventureiro;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.repository.AventureiroRepository;
+import workshop.spring.apirest.service.AventureiroService;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminhos do {@link AventureiroService} que vão ao banco (H2 em memória no modo MySQL):
+ * - {@code realizarMissao}, com um aventureiro sorteado a cada chamada
+ * - {@code findAll} e {@code findByClasse}, que devolvem fichas montadas no SELECT
+ * - as mesmas buscas carregando entidades pelo repositório, para comparação
+ *
+ * O índice por classe fica desligado (padrão), então {@code findByClasse} também vai ao banco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GuildaBenchmark {
+
+    @Param({"1000"})
+    private int aventureiros;
+
+    private ConfigurableApplicationContext contexto;
+    private AventureiroService aventureiroService;
+    private AventureiroRepository aventureiroRepository;
+    private long[] ids;
+
+    @Setup
+    public void iniciar() {
+        contexto = GuildaEmMemoria.iniciar();
+        GuildaEmMemoria.recrutar(contexto, aventureiros);
+        aventureiroService = contexto.getBean(AventureiroService.class);
+        aventureiroRepository = contexto.getBean(AventureiroRepository.class);
+        ids = aventureiroRepository.findAll().stream().mapToLong(Aventureiro::getId).toArray();
+    }
+
+    @TearDown
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Aventureiro realizarMissao() {
+        return aventureiroService.realizarMissao(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    public List<FichaAventureiro> findAll() {
+        return aventureiroService.findAll();
+    }
+
+    @Benchmark
+    public List<FichaAventureiro> findByClasse() {
+        return aventureiroService.findByClasse(ClasseRPG.MAGO);
+    }
+
+    @Benchmark
+    public List<Aventureiro> findAllEntidades() {
+        return aventureiroRepository.findAll();
+    }
+
+    @Benchmark
+    public List<Aventureiro> findByClasseEntidades() {
+        return aventureiroRepository.findByClasse(ClasseRPG.MAGO);
+    }
+}
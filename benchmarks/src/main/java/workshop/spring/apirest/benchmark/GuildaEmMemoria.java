@@ -0,0 +1,53 @@
+package workshop.spring.apirest.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import workshop.spring.apirest.ApiRestApplication;
+import workshop.spring.apirest.dto.ItemLote;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+import workshop.spring.apirest.service.AventureiroService;
+
+import java.util.stream.LongStream;
+
+/**
+ * Sobe a aplicação sem servidor web, com o perfil Spring {@code perf} (H2 em memória no
+ * modo MySQL, sem log de SQL), para os benchmarks que passam pelo banco.
+ */
+final class GuildaEmMemoria {
+
+    private GuildaEmMemoria() {
+    }
+
+    /**
+     * Inicia a aplicação em um banco novo.
+     * Os argumentos de linha de comando vencem os arquivos de propriedades do módulo apirest.
+     *
+     * @param propriedades Propriedades extras, no formato {@code nome=valor}
+     * @return O contexto iniciado (feche ao final do benchmark)
+     */
+    static ConfigurableApplicationContext iniciar(String... propriedades) {
+        String[] argumentos = new String[propriedades.length];
+        for (int i = 0; i < propriedades.length; i++) {
+            argumentos[i] = "--" + propriedades[i];
+        }
+        return new SpringApplicationBuilder(ApiRestApplication.class)
+                .profiles("perf")
+                .web(WebApplicationType.NONE)
+                .run(argumentos);
+    }
+
+    /**
+     * Cria aventureiros com as classes distribuídas por igual.
+     *
+     * @param contexto Contexto da aplicação
+     * @param quantidade Quantidade de aventureiros
+     */
+    static void recrutar(ConfigurableApplicationContext contexto, int quantidade) {
+        ClasseRPG[] classes = ClasseRPG.values();
+        contexto.getBean(AventureiroService.class).criarEmLote(LongStream.range(0, quantidade)
+                .mapToObj(i -> ItemLote.valido(i, new Aventureiro("Heroi " + i, classes[(int) (i % classes.length)])))
+                .iterator());
+    }
+}
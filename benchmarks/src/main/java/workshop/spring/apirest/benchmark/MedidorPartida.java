@@ -0,0 +1,303 @@
+package workshop.spring.apirest.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede quanto tempo a aplicação leva, em cada modo de partida, do início do processo até
+ * a primeira resposta 200 de {@code --caminho} (padrão {@code /aventureiros/listar}).
+ *
+ * Modos ({@code --modos}):
+ * - {@code jar}: o jar executável, como sai do {@code mvn package}
+ * - {@code extraido}: o mesmo jar extraído em {@code --diretorio} (bibliotecas como jars comuns)
+ * - {@code aot}: o jar extraído com {@code -Dspring.aot.enabled=true}
+ * - {@code cds}: o jar extraído com o arquivo CDS {@code application.jsa}
+ * - {@code aot-cds}: AOT e o arquivo CDS treinado com AOT ({@code application-aot.jsa})
+ *
+ * Cada repetição sobe um processo novo, com o perfil Spring {@code --perfil} (padrão {@code perf},
+ * H2 em memória) em uma porta livre, e o encerra assim que a resposta chega. Os modos são
+ * alternados a cada rodada, para que uma máquina mais ocupada em um momento não pese só
+ * sobre um deles. Modos cujos arquivos não existem são pulados com um aviso.
+ *
+ * Pré-requisito (na raiz do repositório):
+ * <pre>
+ * mvn install -DskipTests
+ * (cd apirest && mvn package -DskipTests -Pperf,cds)
+ * mvn -pl benchmarks exec:exec@partida
+ * </pre>
+ */
+public final class MedidorPartida {
+
+    private static final long INTERVALO_CONSULTA_MS = 10;
+
+    private final Configuracao configuracao;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(500))
+            .build();
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private MedidorPartida(Configuracao configuracao) {
+        this.configuracao = configuracao;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new MedidorPartida(Configuracao.ler(args)).executar();
+    }
+
+    private void executar() throws IOException, InterruptedException {
+        List<Modo> modos = new ArrayList<>();
+        for (Modo modo : configuracao.modos()) {
+            List<Path> faltando = modo.arquivos(configuracao).stream().filter(arquivo -> !Files.exists(arquivo)).toList();
+            if (faltando.isEmpty()) {
+                modos.add(modo);
+            } else {
+                System.out.printf("Modo %s pulado: não encontrado %s (rode mvn package -Pperf,cds em apirest)%n",
+                        modo.chave(), faltando);
+            }
+        }
+        if (modos.isEmpty()) {
+            throw new IllegalStateException("Nenhum modo de partida tem os arquivos necessários");
+        }
+        Path logs = Path.of(configuracao.saida()).toAbsolutePath().getParent().resolve("partida-logs");
+        Files.createDirectories(logs);
+
+        Map<Modo, List<Double>> tempos = new EnumMap<>(Modo.class);
+        for (int rodada = 1; rodada <= configuracao.repeticoes(); rodada++) {
+            for (Modo modo : modos) {
+                double ms = medir(modo, logs.resolve(modo.chave() + "-" + rodada + ".log"));
+                tempos.computeIfAbsent(modo, chave -> new ArrayList<>()).add(ms);
+                System.out.printf("Rodada %d/%d | %-8s %9.0f ms%n", rodada, configuracao.repeticoes(), modo.chave(), ms);
+            }
+        }
+
+        Double referencia = tempos.containsKey(Modo.JAR) ? Estatisticas.de(tempos.get(Modo.JAR), null).medianaMs() : null;
+        Map<String, Estatisticas> resultado = new LinkedHashMap<>();
+        tempos.forEach((modo, amostras) -> resultado.put(modo.chave(), Estatisticas.de(amostras, referencia)));
+        Relatorio relatorio = new Relatorio(configuracao, Runtime.version().toString(), resultado);
+
+        Path saida = Path.of(configuracao.saida());
+        if (saida.getParent() != null) {
+            Files.createDirectories(saida.getParent());
+        }
+        jsonMapper.writerWithDefaultPrettyPrinter().writeValue(saida.toFile(), relatorio);
+        imprimir(relatorio);
+        System.out.println("Relatório gravado em " + saida.toAbsolutePath());
+    }
+
+    /**
+     * Sobe a aplicação no modo indicado e espera a primeira resposta 200.
+     *
+     * @return Milissegundos entre a criação do processo e a resposta
+     */
+    private double medir(Modo modo, Path log) throws IOException, InterruptedException {
+        int porta = portaLivre();
+        List<String> comando = new ArrayList<>();
+        comando.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        comando.addAll(modo.opcoes(configuracao));
+        comando.add("-Dspring.profiles.active=" + configuracao.perfil());
+        comando.add("-Dserver.port=" + porta);
+        comando.add("-jar");
+        comando.add(modo.jar(configuracao).toString());
+        ProcessBuilder construtor = new ProcessBuilder(comando)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile());
+        HttpRequest requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + configuracao.caminho()))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        long inicio = System.nanoTime();
+        Process processo = construtor.start();
+        try {
+            long limite = inicio + TimeUnit.MILLISECONDS.toNanos(configuracao.timeoutMs());
+            while (System.nanoTime() < limite) {
+                if (!processo.isAlive()) {
+                    throw new IllegalStateException("A aplicação (modo " + modo.chave() + ") terminou com código "
+                            + processo.exitValue() + " antes de responder; veja " + log);
+                }
+                try {
+                    HttpResponse<Void> resposta = httpClient.send(requisicao, HttpResponse.BodyHandlers.discarding());
+                    if (resposta.statusCode() == 200) {
+                        return (System.nanoTime() - inicio) / 1e6;
+                    }
+                } catch (ConnectException | HttpTimeoutException e) {
+                    // Servidor ainda não abriu a porta (ou não respondeu a tempo): tenta de novo
+                }
+                TimeUnit.MILLISECONDS.sleep(INTERVALO_CONSULTA_MS);
+            }
+            throw new IllegalStateException("A aplicação (modo " + modo.chave() + ") não respondeu em "
+                    + configuracao.timeoutMs() + " ms; veja " + log);
+        } finally {
+            processo.destroy();
+            if (!processo.waitFor(10, TimeUnit.SECONDS)) {
+                processo.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static int portaLivre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void imprimir(Relatorio relatorio) {
+        System.out.printf("%n%-8s %6s %11s %9s %9s %9s%n", "modo", "n", "mediana ms", "min ms", "max ms", "x jar");
+        relatorio.modos().forEach((modo, e) -> System.out.printf("%-8s %6d %11.0f %9.0f %9.0f %9s%n",
+                modo, e.amostrasMs().size(), e.medianaMs(), e.minMs(), e.maxMs(),
+                e.razaoJar() == null ? "-" : String.format("%.2f", e.razaoJar())));
+    }
+
+    /**
+     * Modos de partida comparados.
+     */
+    enum Modo {
+        JAR("jar", false, null),
+        EXTRAIDO("extraido", false, null),
+        AOT("aot", true, null),
+        CDS("cds", false, "application.jsa"),
+        AOT_CDS("aot-cds", true, "application-aot.jsa");
+
+        private final String chave;
+        private final boolean aot;
+        private final String arquivoCds;
+
+        Modo(String chave, boolean aot, String arquivoCds) {
+            this.chave = chave;
+            this.aot = aot;
+            this.arquivoCds = arquivoCds;
+        }
+
+        @JsonValue
+        String chave() {
+            return chave;
+        }
+
+        static Modo daChave(String chave) {
+            for (Modo modo : values()) {
+                if (modo.chave.equalsIgnoreCase(chave.trim())) {
+                    return modo;
+                }
+            }
+            throw new IllegalArgumentException("Modo de partida desconhecido: " + chave
+                    + " (use " + Arrays.stream(values()).map(Modo::chave).toList() + ")");
+        }
+
+        Path jar(Configuracao configuracao) {
+            return this == JAR ? Path.of(configuracao.jar())
+                    : Path.of(configuracao.diretorio()).resolve(Path.of(configuracao.jar()).getFileName());
+        }
+
+        List<String> opcoes(Configuracao configuracao) {
+            List<String> opcoes = new ArrayList<>();
+            if (aot) {
+                opcoes.add("-Dspring.aot.enabled=true");
+            }
+            if (arquivoCds != null) {
+                opcoes.add("-XX:SharedArchiveFile=" + Path.of(configuracao.diretorio(), arquivoCds));
+            }
+            return opcoes;
+        }
+
+        List<Path> arquivos(Configuracao configuracao) {
+            List<Path> arquivos = new ArrayList<>(List.of(jar(configuracao)));
+            if (arquivoCds != null) {
+                arquivos.add(Path.of(configuracao.diretorio(), arquivoCds));
+            }
+            return arquivos;
+        }
+    }
+
+    /**
+     * Parâmetros da medição, lidos dos argumentos {@code --nome=valor}.
+     *
+     * @param jar Jar executável da aplicação ({@code apirest-*-exec.jar})
+     * @param diretorio Onde está o jar extraído e os arquivos CDS (perfil Maven {@code cds})
+     * @param modos Modos a comparar, como {@code jar,extraido,aot,cds,aot-cds}
+     * @param repeticoes Partidas medidas por modo
+     * @param perfil Perfil Spring da aplicação medida
+     * @param caminho Endpoint consultado até responder 200
+     * @param timeoutMs Tempo máximo de cada partida, em milissegundos
+     * @param saida Arquivo JSON do relatório
+     */
+    record Configuracao(String jar, String diretorio, List<Modo> modos, int repeticoes, String perfil,
+                        String caminho, long timeoutMs, String saida) {
+
+        static Configuracao ler(String[] args) {
+            Map<String, String> valores = new LinkedHashMap<>();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Argumento inválido (use --nome=valor): " + arg);
+                }
+                int separador = arg.indexOf('=');
+                valores.put(arg.substring(2, separador), arg.substring(separador + 1));
+            }
+            Configuracao configuracao = new Configuracao(
+                    valores.getOrDefault("jar", "../apirest/target/apirest-0.0.1-SNAPSHOT-exec.jar"),
+                    valores.getOrDefault("diretorio", "../apirest/target/cds"),
+                    Arrays.stream(valores.getOrDefault("modos", "jar,extraido,aot,cds,aot-cds").split(","))
+                            .map(Modo::daChave).distinct().toList(),
+                    Integer.parseInt(valores.getOrDefault("repeticoes", "5")),
+                    valores.getOrDefault("perfil", "perf"),
+                    valores.getOrDefault("caminho", "/aventureiros/listar"),
+                    Long.parseLong(valores.getOrDefault("timeout-ms", "120000")),
+                    valores.getOrDefault("saida", "target/partida-resultado.json"));
+            if (configuracao.repeticoes() < 1 || configuracao.timeoutMs() < 1) {
+                throw new IllegalArgumentException("repeticoes e timeout-ms devem ser positivos");
+            }
+            if (!configuracao.caminho().startsWith("/")) {
+                throw new IllegalArgumentException("O caminho deve começar com /: " + configuracao.caminho());
+            }
+            return configuracao;
+        }
+    }
+
+    /**
+     * Resultado gravado no arquivo de saída.
+     *
+     * @param configuracao Parâmetros usados
+     * @param java Versão da JVM que rodou as partidas (o arquivo CDS só vale para ela)
+     * @param modos Tempos de cada modo
+     */
+    record Relatorio(Configuracao configuracao, String java, Map<String, Estatisticas> modos) {
+    }
+
+    /**
+     * Tempos até a primeira resposta de um modo, em milissegundos.
+     *
+     * @param amostrasMs Tempo de cada partida, na ordem medida
+     * @param razaoJar Mediana do modo dividida pela do modo {@code jar} (null se ele não foi medido)
+     */
+    record Estatisticas(List<Double> amostrasMs, double medianaMs, double mediaMs, double minMs, double maxMs,
+                        Double razaoJar) {
+
+        static Estatisticas de(List<Double> amostras, Double referenciaMs) {
+            double[] ordenadas = amostras.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+            int meio = ordenadas.length / 2;
+            double mediana = ordenadas.length % 2 == 1 ? ordenadas[meio] : (ordenadas[meio - 1] + ordenadas[meio]) / 2;
+            return new Estatisticas(List.copyOf(amostras), mediana,
+                    Arrays.stream(ordenadas).average().orElse(0),
+                    ordenadas[0], ordenadas[ordenadas.length - 1],
+                    referenciaMs == null ? null : mediana / referenciaMs);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package workshop.spring.apirest.benchmark;
+
+import workshop.spring.apirest.entity.ClasseRPG;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tipos de requisição do {@link GeradorCarga}, sorteados conforme o mix configurado.
+ */
+enum OperacaoCarga {
+
+    /**
+     * {@code GET /aventureiros/listar}: a guilda inteira.
+     */
+    LISTAR("listar") {
+        @Override
+        HttpRequest requisicao(Alvo alvo) {
+            return get(alvo, "/aventureiros/listar");
+        }
+    },
+
+    /**
+     * Uma das buscas, sorteada: por ID, nome, classe ou nível (as duas últimas paginadas, 50 por página).
+     */
+    BUSCAR("buscar") {
+        @Override
+        HttpRequest requisicao(Alvo alvo) {
+            ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+            int indice = aleatorio.nextInt(alvo.ids().length);
+            return switch (aleatorio.nextInt(4)) {
+                case 0 -> get(alvo, "/aventureiros/buscar/id/" + alvo.ids()[indice]);
+                case 1 -> get(alvo, "/aventureiros/buscar/nome/"
+                        + URLEncoder.encode(alvo.nomes()[indice], StandardCharsets.UTF_8).replace("+", "%20"));
+                case 2 -> get(alvo, "/aventureiros/buscar/classe/" + CLASSES[aleatorio.nextInt(CLASSES.length)]
+                        + "?limite=50");
+                default -> get(alvo, "/aventureiros/buscar/nivel/1?limite=50");
+            };
+        }
+    },
+
+    /**
+     * {@code POST /aventureiros/criar} com um nome novo a cada chamada.
+     */
+    CRIAR("criar") {
+        @Override
+        HttpRequest requisicao(Alvo alvo) {
+            String corpo = "{\"nome\": \"" + alvo.prefixoNovos() + " " + NOVOS.incrementAndGet()
+                    + "\", \"classe\": \"" + CLASSES[ThreadLocalRandom.current().nextInt(CLASSES.length)] + "\"}";
+            return HttpRequest.newBuilder(alvo.uri("/aventureiros/criar"))
+                    .timeout(alvo.timeout())
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                    .build();
+        }
+    },
+
+    /**
+     * {@code PUT /aventureiros/missao/{id}} com um aventureiro sorteado.
+     */
+    MISSAO("missao") {
+        @Override
+        HttpRequest requisicao(Alvo alvo) {
+            long id = alvo.ids()[ThreadLocalRandom.current().nextInt(alvo.ids().length)];
+            return HttpRequest.newBuilder(alvo.uri("/aventureiros/missao/" + id))
+                    .timeout(alvo.timeout())
+                    .PUT(HttpRequest.BodyPublishers.noBody())
+                    .build();
+        }
+    };
+
+    private static final ClasseRPG[] CLASSES = ClasseRPG.values();
+    private static final AtomicLong NOVOS = new AtomicLong();
+
+    private final String chave;
+
+    OperacaoCarga(String chave) {
+        this.chave = chave;
+    }
+
+    /**
+     * @return Nome da operação no mix e no relatório
+     */
+    String chave() {
+        return chave;
+    }
+
+    /**
+     * Monta a próxima requisição desta operação.
+     *
+     * @param alvo Servidor e aventureiros semeados
+     * @return A requisição pronta para envio
+     */
+    abstract HttpRequest requisicao(Alvo alvo);
+
+    /**
+     * @param chave Nome usado no mix (listar, buscar, criar ou missao)
+     * @return A operação correspondente
+     * @throws IllegalArgumentException se a chave não existir
+     */
+    static OperacaoCarga daChave(String chave) {
+        for (OperacaoCarga operacao : values()) {
+            if (operacao.chave.equalsIgnoreCase(chave.trim())) {
+                return operacao;
+            }
+        }
+        throw new IllegalArgumentException("Operação desconhecida no mix: " + chave);
+    }
+
+    private static HttpRequest get(Alvo alvo, String caminho) {
+        return HttpRequest.newBuilder(alvo.uri(caminho)).timeout(alvo.timeout()).GET().build();
+    }
+
+    /**
+     * Servidor testado e os aventureiros semeados nele.
+     *
+     * @param base URL base, sem a barra final
+     * @param ids IDs dos aventureiros semeados
+     * @param nomes Nomes dos aventureiros semeados, na mesma ordem dos IDs
+     * @param prefixoNovos Prefixo dos nomes criados durante a carga (único por execução)
+     * @param timeout Tempo máximo de cada requisição
+     */
+    record Alvo(String base, long[] ids, String[] nomes, String prefixoNovos, Duration timeout) {
+
+        URI uri(String caminho) {
+            return URI.create(base + caminho);
+        }
+    }
+}
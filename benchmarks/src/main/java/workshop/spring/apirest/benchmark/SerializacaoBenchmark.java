@@ -0,0 +1,67 @@
+package workshop.spring.apirest.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+import workshop.spring.apirest.dto.FichaAventureiro;
+import workshop.spring.apirest.entity.Aventureiro;
+import workshop.spring.apirest.entity.ClasseRPG;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização JSON (Jackson) de listas de aventureiros de vários tamanhos,
+ * com a entidade e com a ficha usada pelos endpoints de leitura.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacaoBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int tamanho;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private List<Aventureiro> entidades;
+    private List<FichaAventureiro> fichas;
+
+    @Setup
+    public void preparar() {
+        ClasseRPG[] classes = ClasseRPG.values();
+        entidades = new ArrayList<>(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            Aventureiro aventureiro = new Aventureiro("Heroi " + i, classes[i % classes.length]);
+            aventureiro.setId((long) i + 1);
+            aventureiro.setNivel(1 + i % 20);
+            aventureiro.setXp(i % 100);
+            aventureiro.setVersao((long) i % 5);
+            entidades.add(aventureiro);
+        }
+        fichas = entidades.stream().map(FichaAventureiro::de).toList();
+    }
+
+    @Benchmark
+    public byte[] entidades() {
+        return jsonMapper.writeValueAsBytes(entidades);
+    }
+
+    @Benchmark
+    public byte[] fichas() {
+        return jsonMapper.writeValueAsBytes(fichas);
+    }
+}